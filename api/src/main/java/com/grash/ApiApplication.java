@@ -32,7 +32,6 @@ public class ApiApplication implements SmartInitializingSingleton {
     private final RoleService roleService;
     private final CompanyService companyService;
     private final SubscriptionPlanService subscriptionPlanService;
-    private final SubscriptionService subscriptionService;
     private final ScheduleService scheduleService;
 
     public static void main(String[] args) {
@@ -50,7 +49,7 @@ public class ApiApplication implements SmartInitializingSingleton {
             log.info("Initializing subscription plans...");
             initializeSubscriptionPlans();
 
-            log.info("Scheduling existing work orders and subscriptions...");
+            log.info("Scheduling existing work orders...");
             scheduleExistingItems();
 
             log.info("Updating default roles...");
@@ -146,25 +145,8 @@ public class ApiApplication implements SmartInitializingSingleton {
     }
 
     private void scheduleExistingItems() {
-        Collection<Schedule> schedules = scheduleService.getAll();
-        log.info("Scheduling {} work orders...", schedules.size());
-        schedules.forEach(schedule -> {
-            try {
-                scheduleService.scheduleWorkOrder(schedule);
-            } catch (Exception e) {
-                log.error("Failed to schedule work order for schedule ID: {}", schedule.getId(), e);
-            }
-        });
-
-        Collection<Subscription> subscriptions = subscriptionService.getAll();
-        log.info("Scheduling {} subscription ends...", subscriptions.size());
-        subscriptions.forEach(subscription -> {
-            try {
-                subscriptionService.scheduleEnd(subscription);
-            } catch (Exception e) {
-                log.error("Failed to schedule subscription end for subscription ID: {}", subscription.getId(), e);
-            }
-        });
+        //the context, hence the readiness, waits for it
+        scheduleService.scheduleAllWorkOrders();
     }
 
     @NotNull
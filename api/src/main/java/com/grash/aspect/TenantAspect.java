@@ -12,6 +12,7 @@ import org.aspectj.lang.annotation.AfterReturning;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
@@ -21,11 +22,13 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.bind.annotation.RequestBody;
 
 import javax.persistence.EntityManager;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.Parameter;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 
 import static org.apache.commons.lang3.reflect.FieldUtils.getAllFields;
 
@@ -34,6 +37,15 @@ import static org.apache.commons.lang3.reflect.FieldUtils.getAllFields;
 @RequiredArgsConstructor
 public class TenantAspect {
 
+    //keeps the IN clause far below the JDBC bind parameter limit
+    private static final int CHUNK_SIZE = 5000;
+    private static final ClassValue<List<MethodHandle>> ACCESSOR_PLANS = new ClassValue<List<MethodHandle>>() {
+        @Override
+        protected List<MethodHandle> computeValue(Class<?> type) {
+            return buildAccessorPlan(type);
+        }
+    };
+
     private final EntityManager entityManager;
     private static final ThreadLocal<Boolean> ignoreCompanyCheck = ThreadLocal.withInitial(() -> false);
 
@@ -51,43 +63,105 @@ public class TenantAspect {
         MethodSignature methodSignature = (MethodSignature) joinPoint.getSignature();
         Method method = methodSignature.getMethod();
         Parameter[] parameters = method.getParameters();
+        // referenced ids by entity class, checked with one query per class
+        Map<Class<?>, Set<Long>> references = new HashMap<>();
         for (int i = 0; i < parameters.length; i++) {
             Parameter parameter = parameters[i];
             if (parameter.isAnnotationPresent(RequestBody.class)) {
                 Object arg = joinPoint.getArgs()[i]; // Get the requestBody
                 if (arg instanceof List) {
                     List<?> list = (List<?>) arg;
-                    list.forEach(this::validateObject);
+                    list.forEach(element -> collectReferences(element, references));
                 } else {
-                    validateObject(arg);
+                    collectReferences(arg, references);
                 }
             }
         }
+        if (!references.isEmpty()) validateReferences(references);
     }
 
-    private void validateObject(Object obj) {
-        Field[] fields = getAllFields(obj.getClass());
-        for (Field field : fields) {
-            field.setAccessible(true);
-            Object fieldValue = null;
+    private void collectReferences(Object obj, Map<Class<?>, Set<Long>> references) {
+        if (obj == null) return;
+        for (MethodHandle getter : ACCESSOR_PLANS.get(obj.getClass())) {
+            Object fieldValue;
             try {
-                fieldValue = field.get(obj); // Get the value of the field inside request body
-            } catch (IllegalAccessException e) {
+                fieldValue = getter.invoke(obj); // Get the value of the field inside request body
+            } catch (Throwable e) {
                 throw new RuntimeException(e);
             }
-            if (fieldValue instanceof List) {
-                List<?> list = (List<?>) fieldValue;
-                list.forEach(this::validateFieldElement);
+            if (fieldValue instanceof Collection) {
+                ((Collection<?>) fieldValue).forEach(element -> collectReference(element, references));
             } else {
-                validateFieldElement(fieldValue);
+                collectReference(fieldValue, references);
+            }
+        }
+    }
+
+    private void collectReference(Object object, Map<Class<?>, Set<Long>> references) {
+        if (object instanceof CompanyAudit && ((CompanyAudit) object).getId() != null) {
+            references.computeIfAbsent(object.getClass(), key -> new HashSet<>()).add(((CompanyAudit) object).getId());
+        }
+    }
+
+    private void validateReferences(Map<Class<?>, Set<Long>> references) {
+        OwnUser user = TenantFilterAspect.getTenantUser();
+        if (user == null) return;
+        // the rows of other companies are what this check looks for, so the tenant filter must not hide them
+        Session session = entityManager.unwrap(Session.class);
+        boolean filterEnabled = session.getEnabledFilter(CompanyAudit.TENANT_FILTER) != null;
+        if (filterEnabled) session.disableFilter(CompanyAudit.TENANT_FILTER);
+        try {
+            references.forEach((entityClass, ids) -> validateReferences(user, entityClass, ids));
+        } finally {
+            if (filterEnabled) TenantFilterAspect.enableFilter(session, user);
+        }
+    }
+
+    private void validateReferences(OwnUser user, Class<?> entityClass, Set<Long> ids) {
+        List<Long> companyIds = getAllowedCompanyIds(user, entityClass);
+        String entityName = entityManager.getMetamodel().entity(entityClass).getName();
+        List<Long> idList = new ArrayList<>(ids);
+        for (int i = 0; i < idList.size(); i += CHUNK_SIZE) {
+            List<Long> forbiddenIds = entityManager.createQuery("SELECT e.id FROM " + entityName + " e WHERE e.id " +
+                            "IN :ids AND e.company.id NOT IN :companyIds", Long.class)
+                    .setParameter("ids", idList.subList(i, Math.min(i + CHUNK_SIZE, idList.size())))
+                    .setParameter("companyIds", companyIds)
+                    .setMaxResults(1)
+                    .getResultList();
+            if (!forbiddenIds.isEmpty()) {
+                throw new CustomException("validateTenant:  the user (id=" + user.getId() + ")  is not authorized " +
+                        "to reference this object (" + entityClass + ") with id " + forbiddenIds.get(0),
+                        HttpStatus.FORBIDDEN);
             }
         }
     }
 
-    private void validateFieldElement(Object object) {
-        if (object instanceof CompanyAudit) {
-            CompanyAudit companyAudit = (CompanyAudit) object;
-            entityManager.find(object.getClass(), companyAudit.getId()); // should fail here if from other company because of @PostLoad
+    //same exception as TenantFilterAspect.checkTenant: super accounts can reference the files of their child accounts
+    private List<Long> getAllowedCompanyIds(OwnUser user, Class<?> entityClass) {
+        List<Long> companyIds = new ArrayList<>();
+        companyIds.add(user.getCompany().getId());
+        if (File.class.isAssignableFrom(entityClass)) {
+            user.getSuperAccountRelations().forEach(relation ->
+                    companyIds.add(relation.getChildUser().getCompany().getId()));
+        }
+        return companyIds;
+    }
+
+    //getters of the fields of a request body class that can hold a CompanyAudit, directly or in a collection
+    private static List<MethodHandle> buildAccessorPlan(Class<?> type) {
+        List<MethodHandle> getters = new ArrayList<>();
+        for (Field field : getAllFields(type)) {
+            Class<?> fieldType = field.getType();
+            if (Modifier.isStatic(field.getModifiers())) continue;
+            if (!CompanyAudit.class.isAssignableFrom(fieldType) && !fieldType.isAssignableFrom(CompanyAudit.class)
+                    && !Collection.class.isAssignableFrom(fieldType)) continue;
+            try {
+                field.setAccessible(true);
+                getters.add(MethodHandles.lookup().unreflectGetter(field));
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException(e);
+            }
         }
+        return getters;
     }
 }
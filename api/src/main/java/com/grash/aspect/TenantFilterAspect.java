@@ -0,0 +1,74 @@
+package com.grash.aspect;
+
+import com.grash.exception.CustomException;
+import com.grash.model.File;
+import com.grash.model.OwnUser;
+import com.grash.model.abstracts.CompanyAudit;
+import com.grash.model.enums.RoleType;
+import com.grash.security.CustomUserDetail;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.hibernate.Session;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.Optional;
+
+/**
+ * Enforces the tenant isolation at query level: the tenant filter of CompanyAudit is enabled on the session of the
+ * repository calls of an authenticated user, so that the queries only return the rows of their company and entity
+ * loads run no security callback. Loads by id do not go through filters, so their single result is checked instead.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class TenantFilterAspect {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object filterByTenant(ProceedingJoinPoint joinPoint) throws Throwable {
+        OwnUser user = getTenantUser();
+        if (user == null) return joinPoint.proceed();
+        EntityManager entityManager = EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+        if (entityManager != null) enableFilter(entityManager.unwrap(Session.class), user);
+        Object result = joinPoint.proceed();
+        checkTenant(user, result instanceof Optional ? ((Optional<?>) result).orElse(null) : result);
+        return result;
+    }
+
+    public static void enableFilter(Session session, OwnUser user) {
+        if (session.getEnabledFilter(CompanyAudit.TENANT_FILTER) == null)
+            session.enableFilter(CompanyAudit.TENANT_FILTER).setParameter("companyId", user.getCompany().getId());
+    }
+
+    /**
+     * @return the authenticated user whose queries must be filtered, null for super admins and unauthenticated calls
+     */
+    public static OwnUser getTenantUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof CustomUserDetail)) return null;
+        OwnUser user = ((CustomUserDetail) authentication.getPrincipal()).getUser();
+        if (user.getCompany() == null || user.getRole().getRoleType().equals(RoleType.ROLE_SUPER_ADMIN)) return null;
+        return user;
+    }
+
+    static void checkTenant(OwnUser user, Object result) {
+        if (!(result instanceof CompanyAudit)) return;
+        CompanyAudit companyAudit = (CompanyAudit) result;
+        if (companyAudit.getCompany() == null || user.getCompany().getId().equals(companyAudit.getCompany().getId()))
+            return;
+        // super accounts can load the files of their child accounts
+        if (companyAudit instanceof File && user.getSuperAccountRelations().stream().anyMatch(relation ->
+                relation.getChildUser().getCompany().getId().equals(companyAudit.getCompany().getId()))) return;
+        throw new CustomException("checkTenant:  the user (id=" + user.getId() + ")  is not authorized to load  " +
+                "this object (" + companyAudit.getClass() + ") with id " + companyAudit.getId(), HttpStatus.FORBIDDEN);
+    }
+}
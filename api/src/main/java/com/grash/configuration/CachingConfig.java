@@ -0,0 +1,35 @@
+package com.grash.configuration;
+
+import com.grash.service.AnalyticsCacheService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.util.StringUtils;
+
+@Configuration
+public class CachingConfig {
+
+    //same as the auto-configured one, which backs off as soon as a CacheManager bean is declared
+    @Bean
+    @Primary
+    public CacheManager cacheManager(@Value("${spring.cache.caffeine.spec:}") String spec) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        if (StringUtils.hasText(spec)) cacheManager.setCacheSpecification(spec);
+        return cacheManager;
+    }
+
+    /**
+     * Analytics caches are keyed by company and evicted by {@link AnalyticsCacheService} when the data changes. The
+     * evictions only reach the local node, so the expiration bounds how stale the other nodes can be. Their names are
+     * fixed so that Actuator binds their metrics at startup.
+     */
+    @Bean
+    public CacheManager analyticsCacheManager(@Value("${analytics.cache.spec}") String spec) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(AnalyticsCacheService.getCacheNames());
+        cacheManager.setCacheSpecification(spec);
+        return cacheManager;
+    }
+}
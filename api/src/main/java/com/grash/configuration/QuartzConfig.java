@@ -1,6 +1,11 @@
 package com.grash.configuration;
 
 import com.grash.job.DeleteDemoCompaniesJob;
+import com.grash.job.PreventiveMaintenanceGenerationJob;
+import com.grash.job.PreventiveMaintenanceOccurrenceJob;
+import com.grash.job.SubscriptionExpiryJob;
+import com.grash.job.WorkOrderRollupBackfillJob;
+import com.grash.job.WorkOrderStatusIntervalBackfillJob;
 import org.quartz.*;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -25,4 +30,103 @@ public class QuartzConfig {
                         .repeatForever())
                 .build();
     }
+
+    @Bean
+    public JobDetail workOrderRollupBackfillJobDetail() {
+        return JobBuilder.newJob(WorkOrderRollupBackfillJob.class)
+                .withIdentity("workOrderRollupBackfillJob")
+                .storeDurably()
+                .build();
+    }
+
+    @Bean
+    public Trigger workOrderRollupBackfillTrigger() {
+        return TriggerBuilder.newTrigger()
+                .forJob(workOrderRollupBackfillJobDetail())
+                .withIdentity("workOrderRollupBackfillTrigger")
+                .withSchedule(CronScheduleBuilder.dailyAtHourAndMinute(3, 0))
+                .build();
+    }
+
+    @Bean
+    public JobDetail workOrderStatusIntervalBackfillJobDetail() {
+        return JobBuilder.newJob(WorkOrderStatusIntervalBackfillJob.class)
+                .withIdentity("workOrderStatusIntervalBackfillJob")
+                .storeDurably()
+                .build();
+    }
+
+    @Bean
+    public Trigger workOrderStatusIntervalBackfillTrigger() {
+        return TriggerBuilder.newTrigger()
+                .forJob(workOrderStatusIntervalBackfillJobDetail())
+                .withIdentity("workOrderStatusIntervalBackfillTrigger")
+                .withSchedule(CronScheduleBuilder.dailyAtHourAndMinute(3, 30))
+                .build();
+    }
+
+    @Bean
+    public JobDetail preventiveMaintenanceOccurrenceJobDetail() {
+        return JobBuilder.newJob(PreventiveMaintenanceOccurrenceJob.class)
+                .withIdentity("preventiveMaintenanceOccurrenceJob")
+                .storeDurably()
+                .build();
+    }
+
+    @Bean
+    public Trigger preventiveMaintenanceOccurrenceTrigger() {
+        return TriggerBuilder.newTrigger()
+                .forJob(preventiveMaintenanceOccurrenceJobDetail())
+                .withIdentity("preventiveMaintenanceOccurrenceTrigger")
+                .withSchedule(CronScheduleBuilder.dailyAtHourAndMinute(0, 15))
+                .build();
+    }
+
+    //fills the occurrences of the schedules created before the table existed
+    @Bean
+    public Trigger preventiveMaintenanceOccurrenceStartupTrigger() {
+        return TriggerBuilder.newTrigger()
+                .forJob(preventiveMaintenanceOccurrenceJobDetail())
+                .withIdentity("preventiveMaintenanceOccurrenceStartupTrigger")
+                .startNow()
+                .build();
+    }
+
+    @Bean
+    public JobDetail preventiveMaintenanceGenerationJobDetail() {
+        return JobBuilder.newJob(PreventiveMaintenanceGenerationJob.class)
+                .withIdentity("preventiveMaintenanceGenerationJob")
+                .storeDurably()
+                .build();
+    }
+
+    @Bean
+    public Trigger preventiveMaintenanceGenerationTrigger() {
+        return TriggerBuilder.newTrigger()
+                .forJob(preventiveMaintenanceGenerationJobDetail())
+                .withIdentity("preventiveMaintenanceGenerationTrigger")
+                .withSchedule(SimpleScheduleBuilder.simpleSchedule()
+                        .withIntervalInMinutes(1)
+                        .repeatForever())
+                .build();
+    }
+
+    @Bean
+    public JobDetail subscriptionExpiryJobDetail() {
+        return JobBuilder.newJob(SubscriptionExpiryJob.class)
+                .withIdentity("subscriptionExpiryJob")
+                .storeDurably()
+                .build();
+    }
+
+    @Bean
+    public Trigger subscriptionExpiryTrigger() {
+        return TriggerBuilder.newTrigger()
+                .forJob(subscriptionExpiryJobDetail())
+                .withIdentity("subscriptionExpiryTrigger")
+                .withSchedule(SimpleScheduleBuilder.simpleSchedule()
+                        .withIntervalInMinutes(1)
+                        .repeatForever())
+                .build();
+    }
 }
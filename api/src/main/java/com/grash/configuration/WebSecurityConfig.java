@@ -60,12 +60,14 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
                 .antMatchers("/mail/send").permitAll()
                 .antMatchers("/subscription-plans").permitAll()
                 .antMatchers("/files/download/tos", "/files/download/privacy-policy").permitAll()
+                .antMatchers(HttpMethod.GET, "/storage/local").permitAll()
                 .antMatchers("/ws/**").permitAll()
                 .antMatchers(HttpMethod.POST, "/newsLetters").permitAll()
                 .antMatchers("/auth/activate-account**").permitAll()//
                 .antMatchers("/demo/generate-account").permitAll()//
                 .antMatchers("/auth/reset-pwd-confirm**").permitAll()//
                 .antMatchers("/h2-console/**/**").permitAll()
+                .antMatchers("/actuator/metrics/**").hasRole("SUPER_ADMIN")
                 // Disallow everything else..
                 .anyRequest().authenticated();
 
@@ -4,6 +4,7 @@ import com.grash.dto.DocumentDTO;
 import com.grash.dto.DocumentPatchDTO;
 import com.grash.dto.SuccessResponse;
 import com.grash.exception.CustomException;
+import com.grash.model.Document;
 import com.grash.model.OwnUser;
 import com.grash.model.enums.PermissionEntity;
 import com.grash.model.enums.RoleType;
@@ -15,7 +16,9 @@ import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -24,7 +27,10 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -67,21 +73,41 @@ public class DocumentController {
     public ResponseEntity<List<DocumentDTO>> getDocumentTree(
             @ApiParam("entityType") @PathVariable String entityType,
             @ApiParam("entityId") @PathVariable Long entityId,
+            @ApiParam("depth") @RequestParam(value = "depth", required = false) Integer depth,
             HttpServletRequest req
     ) {
-        log.info("[DEBUG] DocumentController.getDocumentTree called: entityType={}, entityId={}", entityType, entityId);
         OwnUser user = userService.whoami(req);
-        log.info("[DEBUG] User authenticated: userId={}, companyId={}", user.getId(), user.getCompany().getId());
         if (user.getRole().getRoleType().equals(RoleType.ROLE_CLIENT)) {
             if (!user.getRole().getViewPermissions().contains(PermissionEntity.DOCUMENTS)) {
                 throw new CustomException("Access Denied", HttpStatus.FORBIDDEN);
             }
         }
-        List<DocumentDTO> tree = documentService.getDocumentTree(entityType, entityId, user.getCompany().getId());
-        log.info("[DEBUG] Returning {} documents to client", tree.size());
+        List<DocumentDTO> tree = documentService.getDocumentTree(entityType, entityId, user.getCompany().getId(),
+                getMaxDepth(depth));
         return ResponseEntity.ok(tree);
     }
     
+    @GetMapping("/{id}/children")
+    @PreAuthorize("permitAll()")
+    @ApiResponses(value = {
+            @ApiResponse(code = 500, message = "Something went wrong"),
+            @ApiResponse(code = 403, message = "Access denied"),
+            @ApiResponse(code = 200, message = "Document children retrieved successfully")})
+    public ResponseEntity<List<DocumentDTO>> getDocumentChildren(
+            @ApiParam("id") @PathVariable Long id,
+            @ApiParam("depth") @RequestParam(value = "depth", required = false) Integer depth,
+            HttpServletRequest req
+    ) {
+        OwnUser user = userService.whoami(req);
+        if (user.getRole().getRoleType().equals(RoleType.ROLE_CLIENT)) {
+            if (!user.getRole().getViewPermissions().contains(PermissionEntity.DOCUMENTS)) {
+                throw new CustomException("Access Denied", HttpStatus.FORBIDDEN);
+            }
+        }
+        return ResponseEntity.ok(documentService.getDocumentChildren(id, user.getCompany().getId(),
+                getMaxDepth(depth)));
+    }
+    
     @GetMapping("/{id}")
     @PreAuthorize("permitAll()")
     @ApiResponses(value = {
@@ -129,23 +155,60 @@ public class DocumentController {
             @ApiResponse(code = 500, message = "Something went wrong"),
             @ApiResponse(code = 403, message = "Access denied"),
             @ApiResponse(code = 404, message = "Document not found")})
-    public ResponseEntity<byte[]> downloadDocument(
+    public void downloadDocument(
             @ApiParam("id") @PathVariable Long id,
-            HttpServletRequest req
-    ) {
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            HttpServletRequest req,
+            HttpServletResponse response
+    ) throws IOException {
         OwnUser user = userService.whoami(req);
         if (user.getRole().getRoleType().equals(RoleType.ROLE_CLIENT)) {
             if (!user.getRole().getViewPermissions().contains(PermissionEntity.DOCUMENTS)) {
                 throw new CustomException("Access Denied", HttpStatus.FORBIDDEN);
             }
         }
-        byte[] fileData = documentService.downloadDocument(id, user.getCompany().getId());
+        Document document = documentService.getDocumentWithFile(id, user.getCompany().getId());
+        long size = documentService.getFileSize(document);
         
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
-        headers.setContentDispositionFormData("attachment", "document");
+        long start = 0;
+        long end = size - 1;
+        //a single range is served, several ranges get the whole file
+        List<HttpRange> ranges = parseRanges(range, size);
+        if (ranges.size() == 1) {
+            try {
+                start = ranges.get(0).getRangeStart(size);
+                end = ranges.get(0).getRangeEnd(size);
+            } catch (IllegalArgumentException e) {
+                throw rangeNotSatisfiable(size);
+            }
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+        }
+        long length = end - start + 1;
+        response.setContentType(document.getMimeType() == null ? MediaType.APPLICATION_OCTET_STREAM_VALUE
+                : document.getMimeType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(document.getName() == null ? "document" : document.getName(), StandardCharsets.UTF_8)
+                .build().toString());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentLengthLong(length);
         
-        return new ResponseEntity<>(fileData, headers, HttpStatus.OK);
+        //streamed on the request thread, straight from the storage to the client
+        if (length > 0) documentService.downloadDocument(document, start, length, response.getOutputStream());
+        response.flushBuffer();
+    }
+    
+    private static List<HttpRange> parseRanges(String range, long size) {
+        try {
+            return HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException e) {
+            throw rangeNotSatisfiable(size);
+        }
+    }
+    
+    private static CustomException rangeNotSatisfiable(long size) {
+        return new CustomException("Range not satisfiable, the file has " + size + " bytes",
+                HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
     }
     
     @DeleteMapping("/{id}")
@@ -167,4 +230,11 @@ public class DocumentController {
         documentService.deleteDocument(id, user.getCompany().getId());
         return ResponseEntity.ok(new SuccessResponse(true, "Document deleted successfully"));
     }
+    
+    //the whole subtree when no depth is requested
+    private int getMaxDepth(Integer depth) {
+        if (depth == null) return Integer.MAX_VALUE;
+        if (depth < 1) throw new CustomException("The depth should be positive", HttpStatus.BAD_REQUEST);
+        return depth;
+    }
 }
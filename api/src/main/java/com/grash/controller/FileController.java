@@ -22,6 +22,7 @@ import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -31,7 +32,6 @@ import org.springframework.web.multipart.MultipartFile;
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 import java.util.*;
-import java.util.stream.Collectors;
 
 
 @RestController
@@ -67,7 +67,7 @@ public class FileController {
                 result.add(fileService.create(new File(fileReq.getOriginalFilename(), filePath, fileType, task,
                         hidden.equals("true"))));
             });
-            return result.stream().map(fileMapper::toShowDto).collect(Collectors.toList());
+            return fileMapper.toShowDtos(result);
         } else throw new CustomException("Access Denied", HttpStatus.FORBIDDEN);
     }
 
@@ -91,7 +91,9 @@ public class FileController {
                         .alternatives(new ArrayList<>()).build());
             } else throw new CustomException("Access Denied", HttpStatus.FORBIDDEN);
         }
-        return ResponseEntity.ok(fileService.findBySearchCriteria(searchCriteria).map(fileMapper::toShowDto));
+        Page<File> files = fileService.findBySearchCriteria(searchCriteria);
+        return ResponseEntity.ok(new PageImpl<>(fileMapper.toShowDtos(files.getContent()), files.getPageable(),
+                files.getTotalElements()));
     }
 
     @GetMapping("/{id}")
@@ -15,7 +15,6 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.*;
 
@@ -28,7 +27,6 @@ import java.util.List;
 @RequestMapping("/import")
 @Api(tags = "import")
 @RequiredArgsConstructor
-@Transactional
 public class ImportController {
 
     private final UserService userService;
@@ -0,0 +1,61 @@
+package com.grash.controller;
+
+import com.grash.service.LocalFileStorageService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.*;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Serves the signed URLs of {@link LocalFileStorageService}. The file is written from its channel by the resource
+ * converter, which also answers HTTP range requests.
+ */
+@RestController
+@RequestMapping("/storage/local")
+@Api(tags = "storage")
+@RequiredArgsConstructor
+public class LocalStorageController {
+
+    private static final Set<MediaType> INLINE_TYPES = Set.of(MediaType.IMAGE_PNG, MediaType.IMAGE_JPEG,
+            MediaType.IMAGE_GIF, MediaType.valueOf("image/webp"), MediaType.APPLICATION_PDF);
+
+    private final LocalFileStorageService localFileStorageService;
+
+    @GetMapping("")
+    @ApiResponses(value = {//
+            @ApiResponse(code = 403, message = "Invalid or expired signature"), //
+            @ApiResponse(code = 404, message = "File not found")})
+    public ResponseEntity<Resource> download(@RequestParam String path, @RequestParam long expires,
+                                             @RequestParam String signature) {
+        Path file = localFileStorageService.getSignedFile(path, expires, signature);
+        String fileName = LocalFileStorageService.getFileName(path);
+        //the content of a path never changes, it can be cached as long as the URL is valid
+        long maxAge = Math.max(0, expires - Instant.now().getEpochSecond());
+        //served from the API origin: only the types that can't run scripts are displayed, the others are downloaded
+        MediaType mediaType = MediaTypeFactory.getMediaType(fileName).orElse(MediaType.APPLICATION_OCTET_STREAM);
+        boolean inline = INLINE_TYPES.contains(mediaType);
+        ContentDisposition.Builder contentDisposition = inline ? ContentDisposition.inline()
+                : ContentDisposition.attachment();
+        return ResponseEntity.ok()
+                .contentType(inline ? mediaType : MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition.filename(fileName, StandardCharsets.UTF_8)
+                        .build().toString())
+                .header("X-Content-Type-Options", "nosniff")
+                .header("Content-Security-Policy", "sandbox")
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(maxAge)).cachePrivate())
+                .body(new FileSystemResource(file));
+    }
+}
@@ -174,11 +174,8 @@ public class PurchaseOrderController {
                     if (approved) {
                         Collection<PartQuantity> partQuantities =
                                 partQuantityService.findByPurchaseOrder(savedPurchaseOrder.getId());
-                        partQuantities.forEach(partQuantity -> {
-                            Part part = partQuantity.getPart();
-                            part.setQuantity(part.getQuantity() + partQuantity.getQuantity());
-                            partService.save(part);
-                        });
+                        partQuantities.forEach(partQuantity ->
+                                partService.restock(partQuantity.getPart(), partQuantity.getQuantity()));
                     }
                     savedPurchaseOrder.setStatus(approved ? ApprovalStatus.APPROVED : ApprovalStatus.REJECTED);
                     return setPartQuantities(purchaseOrderMapper.toShowDto(purchaseOrderService.save(savedPurchaseOrder)));
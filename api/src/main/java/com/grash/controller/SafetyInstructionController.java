@@ -23,6 +23,7 @@ import org.springframework.web.bind.annotation.*;
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @RestController
@@ -70,7 +71,7 @@ public class SafetyInstructionController {
             @ApiResponse(code = 500, message = "Something went wrong"),
             @ApiResponse(code = 403, message = "Access denied"),
             @ApiResponse(code = 404, message = "Vendor not found")})
-    public Collection<SafetyInstruction> getByVendor(@ApiParam("vendorId") @PathVariable("vendorId") Long vendorId, HttpServletRequest req) {
+    public List<SafetyInstruction> getByVendor(@ApiParam("vendorId") @PathVariable("vendorId") Long vendorId, HttpServletRequest req) {
         OwnUser user = userService.whoami(req);
         if (user.getRole().getViewPermissions().contains(PermissionEntity.VENDORS_AND_CUSTOMERS)) {
             return safetyInstructionService.findByVendor(vendorId);
@@ -83,7 +84,7 @@ public class SafetyInstructionController {
             @ApiResponse(code = 500, message = "Something went wrong"),
             @ApiResponse(code = 403, message = "Access denied"),
             @ApiResponse(code = 404, message = "Employee not found")})
-    public Collection<SafetyInstruction> getByEmployee(@ApiParam("employeeId") @PathVariable("employeeId") Long employeeId, HttpServletRequest req) {
+    public List<SafetyInstruction> getByEmployee(@ApiParam("employeeId") @PathVariable("employeeId") Long employeeId, HttpServletRequest req) {
         OwnUser user = userService.whoami(req);
         if (user.getRole().getViewPermissions().contains(PermissionEntity.VENDORS_AND_CUSTOMERS)) {
             return safetyInstructionService.findByEmployee(employeeId);
@@ -95,7 +96,7 @@ public class SafetyInstructionController {
     @ApiResponses(value = {//
             @ApiResponse(code = 500, message = "Something went wrong"),
             @ApiResponse(code = 403, message = "Access denied")})
-    public Collection<SafetyInstruction> getExpiredInstructions(HttpServletRequest req) {
+    public List<SafetyInstruction> getExpiredInstructions(HttpServletRequest req) {
         OwnUser user = userService.whoami(req);
         if (user.getRole().getViewPermissions().contains(PermissionEntity.VENDORS_AND_CUSTOMERS)) {
             return safetyInstructionService.findExpiredInstructions();
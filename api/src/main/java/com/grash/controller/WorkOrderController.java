@@ -4,7 +4,6 @@ import com.grash.advancedsearch.SearchCriteria;
 import com.grash.dto.*;
 import com.grash.dto.workOrder.WorkOrderPostDTO;
 import com.grash.exception.CustomException;
-import com.grash.factory.StorageServiceFactory;
 import com.grash.mapper.PreventiveMaintenanceMapper;
 import com.grash.mapper.WorkOrderMapper;
 import com.grash.model.*;
@@ -13,8 +12,6 @@ import com.grash.model.enums.*;
 import com.grash.model.enums.workflow.WFMainCondition;
 import com.grash.service.*;
 import com.grash.utils.Helper;
-import com.grash.utils.MultipartFileImpl;
-import com.itextpdf.html2pdf.HtmlConverter;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiParam;
 import io.swagger.annotations.ApiResponse;
@@ -22,23 +19,16 @@ import io.swagger.annotations.ApiResponses;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.MessageSource;
-import org.springframework.core.env.Environment;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.multipart.MultipartFile;
-import org.thymeleaf.context.Context;
-import org.thymeleaf.spring5.SpringTemplateEngine;
 
 import javax.persistence.EntityManager;
 import javax.servlet.http.HttpServletRequest;
-import javax.servlet.http.HttpServletResponse;
 import javax.transaction.Transactional;
 import javax.validation.Valid;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -66,19 +56,12 @@ public class WorkOrderController {
     private final NotificationService notificationService;
     private final EmailService2 emailService2;
     private final TeamService teamService;
-    private final TaskService taskService;
-    private final RelationService relationService;
-    private final AdditionalCostService additionalCostService;
-    private final WorkOrderHistoryService workOrderHistoryService;
-    private final SpringTemplateEngine thymeleafTemplateEngine;
-    private final StorageServiceFactory storageServiceFactory;
     private final WorkflowService workflowService;
-    private final Environment environment;
     private final PreventiveMaintenanceService preventiveMaintenanceService;
     private final EntityManager em;
     private final PreventiveMaintenanceMapper preventiveMaintenanceMapper;
-    private final BrandingService brandingService;
     private final ScheduleService scheduleService;
+    private final WorkOrderReportService workOrderReportService;
 
 
     @Value("${frontend.url}")
@@ -110,7 +93,8 @@ public class WorkOrderController {
         OwnUser user = userService.whoami(req);
         if (user.getRole().getViewPermissions().contains(PermissionEntity.WORK_ORDERS)) {
             List<CalendarEvent<WorkOrderBaseMiniDTO>> result = new ArrayList<>();
-            result.addAll(preventiveMaintenanceService.getEvents(dateRange.getEnd(), user.getCompany().getId()).stream()
+            result.addAll(preventiveMaintenanceService.getEvents(dateRange.getStart(), dateRange.getEnd(),
+                            user.getCompany().getId()).stream()
                     .filter(calendarEvent -> calendarEvent.getDate().after(new Date()))
                     .filter(calendarEvent -> canViewWorkOrderBase(user, calendarEvent.getEvent()))
                     .map(calendarEvent -> new CalendarEvent<>(calendarEvent.getType(),
@@ -146,11 +130,16 @@ public class WorkOrderController {
     @GetMapping("/location/{id}")
     @PreAuthorize("permitAll()")
     public Collection<WorkOrderShowDTO> getByLocation(@ApiParam("id") @PathVariable("id") Long id,
+                                                      @RequestParam(value = "includeSubLocations", defaultValue =
+                                                              "false") boolean includeSubLocations,
                                                       HttpServletRequest req) {
         OwnUser user = userService.whoami(req);
         Optional<Location> optionalLocation = locationService.findById(id);
         if (optionalLocation.isPresent()) {
-            return workOrderService.findByLocation(id).stream().map(workOrderMapper::toShowDto).collect(Collectors.toList());
+            Collection<WorkOrder> workOrders = includeSubLocations
+                    ? workOrderService.findByLocationSubtree(id, user.getCompany().getId())
+                    : workOrderService.findByLocation(id);
+            return workOrders.stream().map(workOrderMapper::toShowDto).collect(Collectors.toList());
         } else throw new CustomException("Not found", HttpStatus.NOT_FOUND);
     }
 
@@ -367,76 +356,54 @@ public class WorkOrderController {
     }
 
     @RequestMapping(path = "/report/{id}")
-    @Transactional
     @PreAuthorize("hasRole('ROLE_CLIENT')")
-    public ResponseEntity<?> getPDF(@ApiParam("id") @PathVariable("id") Long id, HttpServletRequest req,
-                                    HttpServletResponse response) throws IOException {
+    //no transaction is held while waiting for the rendering
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public ResponseEntity<?> getPDF(@ApiParam("id") @PathVariable("id") Long id, HttpServletRequest req) {
         OwnUser user = userService.whoami(req);
-        StorageService storageService = storageServiceFactory.getStorageService();
+        WorkOrder savedWorkOrder = getReportedWorkOrder(id, user);
+        return ResponseEntity.ok()
+                .body(new SuccessResponse(true, workOrderReportService.getUrl(savedWorkOrder,
+                        Helper.getLocale(user))));
+    }
+
+    @PostMapping("/report/{id}/jobs")
+    @PreAuthorize("hasRole('ROLE_CLIENT')")
+    public ReportJobResponse submitReport(@ApiParam("id") @PathVariable("id") Long id, HttpServletRequest req) {
+        OwnUser user = userService.whoami(req);
+        WorkOrder savedWorkOrder = getReportedWorkOrder(id, user);
+        String jobId = workOrderReportService.submit(savedWorkOrder, Helper.getLocale(user));
+        return workOrderReportService.getJob(jobId, user.getCompany().getId());
+    }
+
+    @PostMapping("/report/bulk")
+    @PreAuthorize("hasRole('ROLE_CLIENT')")
+    public ReportJobResponse submitBulkReport(@RequestBody SearchCriteria searchCriteria, HttpServletRequest req) {
+        OwnUser user = userService.whoami(req);
+        if (user.getRole().getViewPermissions().contains(PermissionEntity.WORK_ORDERS)) {
+            String jobId = workOrderReportService.submitBulk(workOrderService.getSearchCriteria(user, searchCriteria),
+                    user.getCompany().getId(), Helper.getLocale(user));
+            return workOrderReportService.getJob(jobId, user.getCompany().getId());
+        } else throw new CustomException("Access denied", HttpStatus.FORBIDDEN);
+    }
+
+    @GetMapping("/report/jobs/{jobId}")
+    @PreAuthorize("hasRole('ROLE_CLIENT')")
+    public ReportJobResponse getReportJob(@ApiParam("jobId") @PathVariable("jobId") String jobId,
+                                          HttpServletRequest req) {
+        OwnUser user = userService.whoami(req);
+        return workOrderReportService.getJob(jobId, user.getCompany().getId());
+    }
+
+    private WorkOrder getReportedWorkOrder(Long id, OwnUser user) {
         Optional<WorkOrder> optionalWorkOrder = workOrderService.findById(id);
         if (optionalWorkOrder.isPresent()) {
             WorkOrder savedWorkOrder = optionalWorkOrder.get();
             if (user.getRole().getViewPermissions().contains(PermissionEntity.WORK_ORDERS) &&
                     (user.getRole().getViewOtherPermissions().contains(PermissionEntity.WORK_ORDERS) || user.getId().equals(savedWorkOrder.getCreatedBy()) || savedWorkOrder.isAssignedTo(user))) {
-                Context thymeleafContext = new Context();
-                thymeleafContext.setLocale(Helper.getLocale(user));
-                Optional<OwnUser> creator = savedWorkOrder.getCreatedBy() == null ? Optional.empty() :
-                        userService.findById(savedWorkOrder.getCreatedBy());
-                List<Task> tasks = taskService.findByWorkOrder(id);
-                Map<Long, String[]> tasksImagesUrls = tasks.stream()
-                        .collect(Collectors.toMap(
-                                Task::getId,
-                                task -> task.getImages().stream()
-                                        .map(image -> storageService.generateSignedUrl(image, 5))
-                                        .toArray(String[]::new)
-                        ));
-                Collection<PartQuantity> partQuantities = partQuantityService.findByWorkOrder(id);
-                Collection<Labor> labors = laborService.findByWorkOrder(id);
-                Collection<Relation> relations = relationService.findByWorkOrder(id);
-                Collection<AdditionalCost> additionalCosts = additionalCostService.findByWorkOrder(id);
-                Collection<WorkOrderHistory> workOrderHistories = workOrderHistoryService.findByWorkOrder(id);
-                Map<String, Object> variables = new HashMap<String, Object>() {{
-                    put("companyName", user.getCompany().getName());
-                    put("companyPhone", user.getCompany().getPhone());
-                    put("currency",
-                            user.getCompany().getCompanySettings().getGeneralPreferences().getCurrency().getCode());
-                    put("assignedTo",
-                            Helper.enumerate(savedWorkOrder.getAssignedTo().stream().map(OwnUser::getFullName).collect(Collectors.toList())));
-                    put("customers",
-                            Helper.enumerate(savedWorkOrder.getCustomers().stream().map(Customer::getName).collect(Collectors.toList())));
-                    put("workOrder", savedWorkOrder);
-                    put("primaryUserName", savedWorkOrder.getPrimaryUser() == null ? null :
-                            savedWorkOrder.getPrimaryUser().getFullName());
-                    put("createdBy", creator.<Object>map(OwnUser::getFullName).orElse(null));
-                    put("tasks", tasks);
-                    put("labors", labors);
-                    put("relations", relations);
-                    put("additionalCosts", additionalCosts);
-                    put("workOrderHistories", workOrderHistories);
-                    put("partQuantities", partQuantities);
-                    put("environment", environment);
-                    put("tasksImagesUrls", tasksImagesUrls);
-                    put("messageSource", messageSource);
-                    put("locale", Helper.getLocale(user));
-                    put("backgroundColor", brandingService.getMailBackgroundColor());
-                }};
-                thymeleafContext.setVariables(variables);
-
-                String reportHtml = thymeleafTemplateEngine.process("work-order-report.html", thymeleafContext);
-
-                /* Setup Source and target I/O streams */
-                ByteArrayOutputStream target = new ByteArrayOutputStream();
-                /* Call convert method */
-                HtmlConverter.convertToPdf(reportHtml, target);
-                /* extract output as bytes */
-                byte[] bytes = target.toByteArray();
-                MultipartFile file = new MultipartFileImpl(bytes, "Work Order Report.pdf");
-                return ResponseEntity.ok()
-                        .body(new SuccessResponse(true, storageServiceFactory.getStorageService().uploadAndSign(file,
-                                "reports/" + user.getCompany().getId())));
+                return savedWorkOrder;
             } else throw new CustomException("Access denied", HttpStatus.FORBIDDEN);
         } else throw new CustomException("Not found", HttpStatus.NOT_FOUND);
-
     }
 
     @GetMapping("/urgent")
@@ -11,6 +11,7 @@ import com.grash.model.enums.PermissionEntity;
 import com.grash.model.enums.Status;
 import com.grash.security.CurrentUser;
 import com.grash.service.AssetDowntimeService;
+import com.grash.service.AssetMetricsService;
 import com.grash.service.AssetService;
 import com.grash.service.UserService;
 import com.grash.service.WorkOrderService;
@@ -18,6 +19,7 @@ import com.grash.utils.AuditComparator;
 import com.grash.utils.Helper;
 import io.swagger.annotations.Api;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -34,6 +36,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @RestController
+@CacheConfig(cacheManager = "analyticsCacheManager")
 @RequestMapping("/analytics/assets")
 @Api(tags = "AssetAnalytics")
 @RequiredArgsConstructor
@@ -43,29 +46,30 @@ public class AssetAnalyticsController {
     private final UserService userService;
     private final AssetService assetService;
     private final AssetDowntimeService assetDowntimeService;
+    private final AssetMetricsService assetMetricsService;
 
     @PostMapping("/time-cost")
     @PreAuthorize("hasRole('ROLE_CLIENT')")
     @Cacheable(
             value = "getTimeCostByAsset",
-            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.id, #dateRange.start, #dateRange.end)"
+            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.company.id, #dateRange.start, #dateRange.end)",
+            condition = "#user.canSeeAnalytics()"
     )
     public ResponseEntity<Collection<TimeCostByAsset>> getTimeCostByAsset(@ApiIgnore @CurrentUser OwnUser user,
                                                                           @RequestBody DateRange dateRange) {
         if (user.canSeeAnalytics()) {
             Collection<Asset> assets = assetService.findByCompanyAndBefore(user.getCompany().getId(),
                     dateRange.getEnd());
+            Map<Long, Long> times = assetMetricsService.getCompleteWOLaborTimes(user.getCompany().getId(),
+                    dateRange.getStart(), dateRange.getEnd());
+            Map<Long, Double> costs = assetMetricsService.getCompleteWOCosts(user.getCompany().getId(),
+                    dateRange.getStart(), dateRange.getEnd(),
+                    user.getCompany().getCompanySettings().getGeneralPreferences().isLaborCostInTotalCost());
             Collection<TimeCostByAsset> result = new ArrayList<>();
             assets.forEach(asset -> {
-                Collection<WorkOrder> completeWO = workOrderService.findByAssetAndCreatedAtBetween(asset.getId(),
-                                dateRange.getStart(), dateRange.getEnd())
-                        .stream().filter(workOrder -> workOrder.getStatus().equals(Status.COMPLETE)).collect(Collectors.toList());
-                long time = workOrderService.getLaborCostAndTime(completeWO).getSecond();
-                double cost = workOrderService.getAllCost(completeWO,
-                        user.getCompany().getCompanySettings().getGeneralPreferences().isLaborCostInTotalCost());
                 result.add(TimeCostByAsset.builder()
-                        .time(time)
-                        .cost(cost)
+                        .time(times.getOrDefault(asset.getId(), 0L))
+                        .cost(costs.getOrDefault(asset.getId(), 0.0))
                         .name(asset.getName())
                         .id(asset.getId())
                         .build());
@@ -78,7 +82,8 @@ public class AssetAnalyticsController {
     @PreAuthorize("hasRole('ROLE_CLIENT')")
     @Cacheable(
             value = "getOverviewStats",
-            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.id, #dateRange.start, #dateRange.end)"
+            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.company.id, #dateRange.start, #dateRange.end)",
+            condition = "#user.canSeeAnalytics()"
     )
     public ResponseEntity<AssetStats> getOverviewStats(@ApiIgnore @CurrentUser OwnUser user,
                                                        @RequestBody DateRange dateRange) {
@@ -104,17 +109,20 @@ public class AssetAnalyticsController {
     @PreAuthorize("hasRole('ROLE_CLIENT')")
     @Cacheable(
             value = "getDowntimesByAsset",
-            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.id, #dateRange.start, #dateRange.end)"
+            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.company.id, #dateRange.start, #dateRange.end)",
+            condition = "#user.canSeeAnalytics()"
     )
     public ResponseEntity<Collection<DowntimesByAsset>> getDowntimesByAsset(@ApiIgnore @CurrentUser OwnUser user,
                                                                             @RequestBody DateRange dateRange) {
         if (user.canSeeAnalytics()) {
             Collection<Asset> assets = assetService.findByCompanyAndBefore(user.getCompany().getId(),
                     dateRange.getEnd());
+            Map<Long, List<AssetDowntime>> downtimesByAsset =
+                    assetMetricsService.getDowntimesByAsset(user.getCompany().getId(), dateRange.getStart(),
+                            dateRange.getEnd());
             return ResponseEntity.ok(assets.stream().map(asset -> {
-                Collection<AssetDowntime> downtimes =
-                        assetDowntimeService.findByAssetAndStartsOnBetween(asset.getId(), dateRange.getStart(),
-                                dateRange.getEnd());
+                Collection<AssetDowntime> downtimes = downtimesByAsset.getOrDefault(asset.getId(),
+                        Collections.emptyList());
                 long downtimesDuration =
                         downtimes.stream().mapToLong(assetDowntime -> assetDowntime.getDateRangeDuration(dateRange)).sum();
                 long percent = downtimesDuration * 100 / getLivingTime(asset, dateRange);
@@ -132,15 +140,18 @@ public class AssetAnalyticsController {
     @PreAuthorize("hasRole('ROLE_CLIENT')")
     @Cacheable(
             value = "getMTBFByAsset",
-            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.id, #dateRange.start, #dateRange.end)"
+            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.company.id, #dateRange.start, #dateRange.end)",
+            condition = "#user.canSeeAnalytics()"
     )
     public ResponseEntity<Collection<MTBFByAsset>> getMTBFByAsset(@CurrentUser OwnUser user,
                                                                   @RequestBody DateRange dateRange) {
         if (user.canSeeAnalytics()) {
             Collection<Asset> assets = assetService.findByCompanyAndBefore(user.getCompany().getId(),
                     dateRange.getEnd());
+            Map<Long, Long> mtbfs = assetMetricsService.getMTBFs(user.getCompany().getId(), dateRange.getStart(),
+                    dateRange.getEnd());
             return ResponseEntity.ok(assets.stream().map(asset -> MTBFByAsset.builder()
-                    .mtbf(assetService.getMTBF(asset.getId(), dateRange.getStart(), dateRange.getEnd()))
+                    .mtbf(mtbfs.getOrDefault(asset.getId(), 0L))
                     .id(asset.getId())
                     .name(asset.getName())
                     .build()).collect(Collectors.toList()));
@@ -151,7 +162,8 @@ public class AssetAnalyticsController {
     @PreAuthorize("hasRole('ROLE_CLIENT')")
     @Cacheable(
             value = "getMeantimes",
-            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.id, #dateRange.start, #dateRange.end)"
+            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.company.id, #dateRange.start, #dateRange.end)",
+            condition = "#user.canSeeAnalytics()"
     )
     public ResponseEntity<Meantimes> getMeantimes(@ApiIgnore @CurrentUser OwnUser user,
                                                   @RequestBody DateRange dateRange) {
@@ -181,22 +193,21 @@ public class AssetAnalyticsController {
     @PreAuthorize("hasRole('ROLE_CLIENT')")
     @Cacheable(
             value = "getRepairTimeByAsset",
-            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.id, #dateRange.start, #dateRange.end)"
+            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.company.id, #dateRange.start, #dateRange.end)",
+            condition = "#user.canSeeAnalytics()"
     )
     public ResponseEntity<Collection<RepairTimeByAsset>> getRepairTimeByAsset(@ApiIgnore @CurrentUser OwnUser user,
                                                                               @RequestBody DateRange dateRange) {
         if (user.canSeeAnalytics()) {
             Collection<Asset> assets = assetService.findByCompanyAndBefore(user.getCompany().getId(),
                     dateRange.getEnd());
-            return ResponseEntity.ok(assets.stream().map(asset -> {
-                Collection<WorkOrder> completeWO = workOrderService.findByAssetAndCreatedAtBetween(asset.getId(),
-                        dateRange.getStart(), dateRange.getEnd()).stream().filter(workOrder -> workOrder.getStatus().equals(Status.COMPLETE)).collect(Collectors.toList());
-                return RepairTimeByAsset.builder()
-                        .id(asset.getId())
-                        .name(asset.getName())
-                        .duration(WorkOrder.getAverageAge(completeWO))
-                        .build();
-            }).collect(Collectors.toList()));
+            Map<Long, Long> repairTimes = assetMetricsService.getRepairTimes(user.getCompany().getId(),
+                    dateRange.getStart(), dateRange.getEnd());
+            return ResponseEntity.ok(assets.stream().map(asset -> RepairTimeByAsset.builder()
+                    .id(asset.getId())
+                    .name(asset.getName())
+                    .duration(repairTimes.getOrDefault(asset.getId(), 0L))
+                    .build()).collect(Collectors.toList()));
         } else throw new CustomException("Access Denied", HttpStatus.FORBIDDEN);
     }
 
@@ -204,7 +215,8 @@ public class AssetAnalyticsController {
     @PreAuthorize("hasRole('ROLE_CLIENT')")
     @Cacheable(
             value = "getDowntimesMeantimeByMonth",
-            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.id, #dateRange.start, #dateRange.end)"
+            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.company.id, #dateRange.start, #dateRange.end)",
+            condition = "#user.canSeeAnalytics()"
     )
     public ResponseEntity<List<DowntimesMeantimeByDate>> getDowntimesMeantimeByMonth(@ApiIgnore @CurrentUser OwnUser user,
                                                                                      @RequestBody DateRange dateRange) {
@@ -238,7 +250,8 @@ public class AssetAnalyticsController {
     @PreAuthorize("hasRole('ROLE_CLIENT')")
     @Cacheable(
             value = "getAssetsCosts",
-            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.id, #dateRange.start, #dateRange.end)"
+            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.company.id, #dateRange.start, #dateRange.end)",
+            condition = "#user.canSeeAnalytics()"
     )
     public ResponseEntity<AssetsCosts> getAssetsCosts(@ApiIgnore @CurrentUser OwnUser user,
                                                       @RequestBody DateRange dateRange) {
@@ -251,9 +264,11 @@ public class AssetAnalyticsController {
                     assets.stream().filter(asset -> asset.getAcquisitionCost() != null).collect(Collectors.toList());
             double totalAcquisitionCost =
                     assetsWithAcquisitionCost.stream().mapToDouble(Asset::getAcquisitionCost).sum();
-            double totalWOCosts = getCompleteWOCosts(assets, includeLaborCost, dateRange);
+            Map<Long, Double> costs = assetMetricsService.getCompleteWOCosts(user.getCompany().getId(),
+                    dateRange.getStart(), dateRange.getEnd(), includeLaborCost);
+            double totalWOCosts = getCompleteWOCosts(assets, costs);
             double rav = assetsWithAcquisitionCost.isEmpty() ? 0 : getCompleteWOCosts(assetsWithAcquisitionCost,
-                    includeLaborCost, dateRange) * 100 / totalAcquisitionCost;
+                    costs) * 100 / totalAcquisitionCost;
             return ResponseEntity.ok(AssetsCosts.builder()
                     .totalWOCosts(totalWOCosts)
                     .totalAcquisitionCost(totalAcquisitionCost)
@@ -265,26 +280,29 @@ public class AssetAnalyticsController {
     @PreAuthorize("hasRole('ROLE_CLIENT')")
     @Cacheable(
             value = "getDowntimesAndCosts",
-            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.id, #dateRange.start, #dateRange.end)"
+            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.company.id, #dateRange.start, #dateRange.end)",
+            condition = "#user.canSeeAnalytics()"
     )
     public ResponseEntity<Collection<DowntimesAndCostsByAsset>> getDowntimesAndCosts(@ApiIgnore @CurrentUser OwnUser user,
                                                                                      @RequestBody DateRange dateRange) {
         if (user.canSeeAnalytics()) {
             Collection<Asset> assets = assetService.findByCompanyAndBefore(user.getCompany().getId(),
                     dateRange.getEnd());
+            Map<Long, List<AssetDowntime>> downtimesByAsset =
+                    assetMetricsService.getEndedDowntimesByAsset(user.getCompany().getId());
+            Map<Long, Double> costs = assetMetricsService.getCompleteWOCosts(user.getCompany().getId(),
+                    dateRange.getStart(), dateRange.getEnd(),
+                    user.getCompany().getCompanySettings().getGeneralPreferences().isLaborCostInTotalCost());
             return ResponseEntity.ok(assets.stream().map(asset -> {
-                Collection<AssetDowntime> downtimes = assetDowntimeService.findByAsset(asset.getId()).stream()
-                        .filter(assetDowntime -> assetDowntime.getDuration() != 0).collect(Collectors.toList());
+                Collection<AssetDowntime> downtimes = downtimesByAsset.getOrDefault(asset.getId(),
+                        Collections.emptyList());
                 long downtimesDuration =
                         downtimes.stream().mapToLong(assetDowntime -> assetDowntime.getDateRangeDuration(dateRange)).sum();
-                double totalWOCosts = getCompleteWOCosts(Collections.singleton(asset),
-                        user.getCompany().getCompanySettings().getGeneralPreferences().isLaborCostInTotalCost(),
-                        dateRange);
                 return DowntimesAndCostsByAsset.builder()
                         .id(asset.getId())
                         .name(asset.getName())
                         .duration(downtimesDuration)
-                        .workOrdersCosts(totalWOCosts)
+                        .workOrdersCosts(costs.getOrDefault(asset.getId(), 0.0))
                         .build();
             }).collect(Collectors.toList()));
         } else throw new CustomException("Access Denied", HttpStatus.FORBIDDEN);
@@ -294,7 +312,8 @@ public class AssetAnalyticsController {
     @PreAuthorize("hasRole('ROLE_CLIENT')")
     @Cacheable(
             value = "getDowntimesByMonth",
-            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.id, #dateRange.start, #dateRange.end)"
+            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.company.id, #dateRange.start, #dateRange.end)",
+            condition = "#user.canSeeAnalytics()"
     )
     public ResponseEntity<List<DowntimesByDate>> getDowntimesByMonth(@ApiIgnore @CurrentUser OwnUser user,
                                                                      @RequestBody DateRange dateRange) {
@@ -334,7 +353,10 @@ public class AssetAnalyticsController {
     @PreAuthorize("hasRole('ROLE_CLIENT')")
     @Cacheable(
             value = "getDateRangeOverview",
-            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.id, #dateRange.start, #dateRange.end)+'_'+#id"
+            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.company.id, #dateRange.start, #dateRange.end)+'_'+#id",
+            //users who can only see their own assets skip the cache and go through the check below
+            condition = "#user.role.viewPermissions.contains(T(com.grash.model.enums.PermissionEntity).ASSETS) " +
+                    "&& #user.role.viewOtherPermissions.contains(T(com.grash.model.enums.PermissionEntity).ASSETS)"
     )
     public ResponseEntity<AssetOverview> getDateRangeOverview(@PathVariable Long id, @RequestBody DateRange dateRange
             , @ApiIgnore @CurrentUser OwnUser user) {
@@ -355,9 +377,8 @@ public class AssetAnalyticsController {
         } else throw new CustomException("Access Denied", HttpStatus.FORBIDDEN);
     }
 
-    private double getCompleteWOCosts(Collection<Asset> assets, boolean includeLaborCost, DateRange dateRange) {
-        return assets.stream().map(asset -> workOrderService.findByAssetAndCreatedAtBetween(asset.getId(),
-                dateRange.getStart(), dateRange.getEnd()).stream().filter(workOrder -> workOrder.getStatus().equals(Status.COMPLETE)).collect(Collectors.toList())).mapToDouble(workOrder -> workOrderService.getAllCost(workOrder, includeLaborCost)).sum();
+    private double getCompleteWOCosts(Collection<Asset> assets, Map<Long, Double> costsByAsset) {
+        return assets.stream().mapToDouble(asset -> costsByAsset.getOrDefault(asset.getId(), 0.0)).sum();
     }
 
     private long getLivingTime(Asset asset, DateRange dateRange) {
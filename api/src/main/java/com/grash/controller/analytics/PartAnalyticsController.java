@@ -11,6 +11,7 @@ import com.grash.service.*;
 import com.grash.utils.Helper;
 import io.swagger.annotations.Api;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -27,6 +28,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @RestController
+@CacheConfig(cacheManager = "analyticsCacheManager")
 @RequestMapping("/analytics/parts")
 @Api(tags = "PartAnalytics")
 @RequiredArgsConstructor
@@ -43,7 +45,8 @@ public class PartAnalyticsController {
     @PreAuthorize("hasRole('ROLE_CLIENT')")
     @Cacheable(
             value = "getPartStats",
-            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.id, #dateRange.start, #dateRange.end)"
+            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.company.id, #dateRange.start, #dateRange.end)",
+            condition = "#user.canSeeAnalytics()"
     )
     public ResponseEntity<PartStats> getPartStats(@ApiIgnore @CurrentUser OwnUser user,
                                                   @RequestBody DateRange dateRange) {
@@ -66,7 +69,8 @@ public class PartAnalyticsController {
     @PreAuthorize("hasRole('ROLE_CLIENT')")
     @Cacheable(
             value = "getPartPareto",
-            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.id, #dateRange.start, #dateRange.end)"
+            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.company.id, #dateRange.start, #dateRange.end)",
+            condition = "#user.canSeeAnalytics()"
     )
     public ResponseEntity<List<PartConsumptionsByPart>> getPareto(@ApiIgnore @CurrentUser OwnUser user,
                                                                   @RequestBody DateRange dateRange) {
@@ -93,7 +97,8 @@ public class PartAnalyticsController {
     @PreAuthorize("hasRole('ROLE_CLIENT')")
     @Cacheable(
             value = "getConsumptionByAsset",
-            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.id, #dateRange.start, #dateRange.end)"
+            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.company.id, #dateRange.start, #dateRange.end)",
+            condition = "#user.canSeeAnalytics()"
     )
     public ResponseEntity<Collection<PartConsumptionsByAsset>> getConsumptionByAsset(@ApiIgnore @CurrentUser OwnUser user,
                                                                                      @RequestBody DateRange dateRange) {
@@ -123,7 +128,8 @@ public class PartAnalyticsController {
     @PreAuthorize("hasRole('ROLE_CLIENT')")
     @Cacheable(
             value = "getConsumptionByPartCategory",
-            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.id, #dateRange.start, #dateRange.end)"
+            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.company.id, #dateRange.start, #dateRange.end)",
+            condition = "#user.canSeeAnalytics()"
     )
     public ResponseEntity<Collection<PartConsumptionByCategory>> getConsumptionByPartCategory(@ApiIgnore @CurrentUser OwnUser user,
                                                                                               @RequestBody DateRange dateRange) {
@@ -152,7 +158,8 @@ public class PartAnalyticsController {
     @PreAuthorize("hasRole('ROLE_CLIENT')")
     @Cacheable(
             value = "getConsumptionByWOCategory",
-            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.id, #dateRange.start, #dateRange.end)"
+            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.company.id, #dateRange.start, #dateRange.end)",
+            condition = "#user.canSeeAnalytics()"
     )
     public ResponseEntity<Collection<PartConsumptionByWOCategory>> getConsumptionByWOCategory(@ApiIgnore @CurrentUser OwnUser user,
                                                                                               @RequestBody DateRange dateRange) {
@@ -181,7 +188,8 @@ public class PartAnalyticsController {
     @PreAuthorize("hasRole('ROLE_CLIENT')")
     @Cacheable(
             value = "getPartConsumptionsByMonth",
-            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.id, #dateRange.start, #dateRange.end)"
+            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.company.id, #dateRange.start, #dateRange.end)",
+            condition = "#user.canSeeAnalytics()"
     )
     public ResponseEntity<List<PartConsumptionsByMonth>> getPartConsumptionsByMonth(@ApiIgnore @CurrentUser OwnUser user,
                                                                                     @RequestBody DateRange dateRange) {
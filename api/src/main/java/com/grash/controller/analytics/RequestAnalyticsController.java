@@ -16,6 +16,7 @@ import com.grash.service.WorkOrderCategoryService;
 import com.grash.utils.Helper;
 import io.swagger.annotations.Api;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -34,6 +35,7 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 @RestController
+@CacheConfig(cacheManager = "analyticsCacheManager")
 @RequestMapping("/analytics/requests")
 @Api(tags = "RequestAnalytics")
 @RequiredArgsConstructor
@@ -47,7 +49,8 @@ public class RequestAnalyticsController {
     @PreAuthorize("hasRole('ROLE_CLIENT')")
     @Cacheable(
             value = "getRequestStats",
-            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.id, #dateRange.start, #dateRange.end)"
+            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.company.id, #dateRange.start, #dateRange.end)",
+            condition = "#user.canSeeAnalytics()"
     )
     public ResponseEntity<RequestStats> getRequestStats(@ApiIgnore @CurrentUser OwnUser user,
                                                         @RequestBody DateRange dateRange) {
@@ -77,7 +80,8 @@ public class RequestAnalyticsController {
     @PreAuthorize("hasRole('ROLE_CLIENT')")
     @Cacheable(
             value = "getRequestByPriority",
-            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.id, #dateRange.start, #dateRange.end)"
+            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.company.id, #dateRange.start, #dateRange.end)",
+            condition = "#user.canSeeAnalytics()"
     )
     public ResponseEntity<RequestStatsByPriority> getByPriority(@ApiIgnore @CurrentUser OwnUser user,
                                                                 @RequestBody DateRange dateRange) {
@@ -112,7 +116,8 @@ public class RequestAnalyticsController {
     @PreAuthorize("hasRole('ROLE_CLIENT')")
     @Cacheable(
             value = "getCycleTimeByMonth",
-            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.id, #dateRange.start, #dateRange.end)"
+            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.company.id, #dateRange.start, #dateRange.end)",
+            condition = "#user.canSeeAnalytics()"
     )
     public ResponseEntity<List<RequestsByMonth>> getCycleTimeByMonth(@ApiIgnore @CurrentUser OwnUser user,
                                                                      @RequestBody DateRange dateRange) {
@@ -150,7 +155,8 @@ public class RequestAnalyticsController {
     @PreAuthorize("hasRole('ROLE_CLIENT')")
     @Cacheable(
             value = "getRequestCountsByCategory",
-            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.id, #dateRange.start, #dateRange.end)"
+            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.company.id, #dateRange.start, #dateRange.end)",
+            condition = "#user.canSeeAnalytics()"
     )
     public ResponseEntity<Collection<CountByCategory>> getCountsByCategory(@ApiIgnore @CurrentUser OwnUser user,
                                                                            @RequestBody DateRange dateRange) {
@@ -175,7 +181,8 @@ public class RequestAnalyticsController {
     @PreAuthorize("hasRole('ROLE_CLIENT')")
     @Cacheable(
             value = "getReceivedAndResolvedRequests",
-            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.id, #dateRange.start, #dateRange.end)"
+            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.company.id, #dateRange.start, #dateRange.end)",
+            condition = "#user.canSeeAnalytics()"
     )
     public ResponseEntity<List<RequestsResolvedByDate>> getReceivedAndResolvedForDateRange(@ApiIgnore @CurrentUser OwnUser user,
                                                                                            @RequestBody DateRange dateRange) {
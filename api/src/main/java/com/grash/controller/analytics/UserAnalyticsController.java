@@ -12,6 +12,7 @@ import com.grash.service.WorkOrderService;
 import com.grash.utils.Helper;
 import io.swagger.annotations.Api;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -27,6 +28,7 @@ import java.time.LocalDate;
 import java.util.*;
 
 @RestController
+@CacheConfig(cacheManager = "analyticsCacheManager")
 @RequestMapping("/analytics/users")
 @Api(tags = "UserAnalytics")
 @RequiredArgsConstructor
@@ -39,7 +41,7 @@ public class UserAnalyticsController {
     @PreAuthorize("hasRole('ROLE_CLIENT')")
     @Cacheable(
             value = "getUserWOStats",
-            key = "#user.id"
+            key = "T(com.grash.utils.CacheKeyUtils).companyPrefix(#user.company.id) + #user.id"
     )
     public ResponseEntity<UserWOStats> getWOStats(@ApiIgnore @CurrentUser OwnUser user) {
         Collection<WorkOrder> createdWorkOrders = workOrderService.findByCreatedBy(user.getId());
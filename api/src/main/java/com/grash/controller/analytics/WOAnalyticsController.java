@@ -4,19 +4,15 @@ import com.grash.dto.DateRange;
 import com.grash.dto.analytics.workOrders.*;
 import com.grash.exception.CustomException;
 import com.grash.model.*;
-import com.grash.model.abstracts.Time;
-import com.grash.model.abstracts.WorkOrderBase;
 import com.grash.model.enums.Priority;
 import com.grash.model.enums.Status;
-import com.grash.model.envers.WorkOrderAud;
-import com.grash.repository.WorkOrderAudRepository;
 import com.grash.security.CurrentUser;
 import com.grash.service.*;
 import com.grash.utils.Helper;
 import io.swagger.annotations.Api;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.util.Pair;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -31,49 +27,35 @@ import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @RestController
+@CacheConfig(cacheManager = "analyticsCacheManager")
 @RequestMapping("/analytics/work-orders")
 @Api(tags = "WorkOrderAnalytics")
 @RequiredArgsConstructor
 public class WOAnalyticsController {
 
     private final WorkOrderService workOrderService;
-    private final WorkOrderAudRepository workOrderAudRepository;
     private final UserService userService;
-    private final LaborService laborService;
     private final WorkOrderCategoryService workOrderCategoryService;
     private final AssetService assetService;
+    private final WorkOrderAnalyticsService workOrderAnalyticsService;
+    private final WorkOrderRollupService workOrderRollupService;
+    private final WorkOrderStatusIntervalService workOrderStatusIntervalService;
 
     @PostMapping("/complete/overview")
     @PreAuthorize("hasRole('ROLE_CLIENT')")
     @Cacheable(
             value = "getCompleteStats",
-            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.id, #dateRange.start, #dateRange.end)"
+            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.company.id, #dateRange.start, #dateRange.end)",
+            condition = "#user.canSeeAnalytics()"
     )
     public ResponseEntity<WOStats> getCompleteStats(@ApiIgnore @CurrentUser OwnUser user,
                                                     @RequestBody DateRange dateRange) {
         if (user.canSeeAnalytics()) {
-            Collection<WorkOrder> workOrders =
-                    workOrderService.findByCompanyAndCreatedAtBetween(user.getCompany().getId(), dateRange.getStart()
-                            , dateRange.getEnd());
-            Collection<WorkOrder> completedWO =
-                    workOrders.stream().filter(workOrder -> workOrder.getStatus().equals(Status.COMPLETE)).collect(Collectors.toList());
-            Collection<WorkOrder> withFirstTimeToReactWO =
-                    workOrders.stream().filter(workOrder -> workOrder.getFirstTimeToReact() != null).collect(Collectors.toList());
-            int total = workOrders.size();
-            int complete = completedWO.size();
-            int compliant = (int) completedWO.stream().filter(WorkOrder::isCompliant).count();
-            long mtta = withFirstTimeToReactWO.isEmpty() ? 0 : withFirstTimeToReactWO.stream().mapToLong(workOrder ->
-                    Helper.getDateDiff(workOrder.getCreatedAt(), workOrder.getFirstTimeToReact(), TimeUnit.HOURS)).sum() / withFirstTimeToReactWO.size();
-            return ResponseEntity.ok(WOStats.builder()
-                    .total(total)
-                    .complete(complete)
-                    .compliant(compliant)
-                    .mtta(mtta)
-                    .avgCycleTime(WorkOrder.getAverageAge(completedWO)).build());
+            return ResponseEntity.ok(workOrderAnalyticsService.getCompleteStats(user.getCompany().getId(),
+                    dateRange.getStart(), dateRange.getEnd()));
         } else throw new CustomException("Access Denied", HttpStatus.FORBIDDEN);
     }
 
@@ -146,24 +128,14 @@ public class WOAnalyticsController {
     @PreAuthorize("hasRole('ROLE_CLIENT')")
     @Cacheable(
             value = "getIncompleteStats",
-            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.id, #dateRange.start, #dateRange.end)"
+            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.company.id, #dateRange.start, #dateRange.end)",
+            condition = "#user.canSeeAnalytics()"
     )
     public ResponseEntity<WOIncompleteStats> getIncompleteStats(@ApiIgnore @CurrentUser OwnUser user,
                                                                 @RequestBody DateRange dateRange) {
         if (user.canSeeAnalytics()) {
-            Collection<WorkOrder> workOrders =
-                    workOrderService.findByCompanyAndCreatedAtBetween(user.getCompany().getId(), dateRange.getStart()
-                            , dateRange.getEnd());
-            Collection<WorkOrder> incompleteWO =
-                    workOrders.stream().filter(workOrder -> !workOrder.getStatus().equals(Status.COMPLETE)).collect(Collectors.toList());
-            int total = incompleteWO.size();
-            List<Long> ages = incompleteWO.stream().map(workOrder -> Helper.getDateDiff(workOrder.getRealCreatedAt(),
-                    new Date(), TimeUnit.DAYS)).collect(Collectors.toList());
-            int averageAge = ages.size() == 0 ? 0 : ages.stream().mapToInt(Long::intValue).sum() / ages.size();
-            return ResponseEntity.ok(WOIncompleteStats.builder()
-                    .total(total)
-                    .averageAge(averageAge)
-                    .build());
+            return ResponseEntity.ok(workOrderAnalyticsService.getIncompleteStats(user.getCompany().getId(),
+                    dateRange.getStart(), dateRange.getEnd()));
         } else throw new CustomException("Access Denied", HttpStatus.FORBIDDEN);
     }
 
@@ -171,21 +143,20 @@ public class WOAnalyticsController {
     @PreAuthorize("hasRole('ROLE_CLIENT')")
     @Cacheable(
             value = "getIncompleteByPriority",
-            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.id, #dateRange.start, #dateRange.end)"
+            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.company.id, #dateRange.start, #dateRange.end)",
+            condition = "#user.canSeeAnalytics()"
     )
     public ResponseEntity<WOStatsByPriority> getIncompleteByPriority(@ApiIgnore @CurrentUser OwnUser user,
                                                                      @RequestBody DateRange dateRange) {
         if (user.canSeeAnalytics()) {
-            Collection<WorkOrder> workOrders =
-                    workOrderService.findByCompanyAndCreatedAtBetween(user.getCompany().getId(), dateRange.getStart()
-                            , dateRange.getEnd());
-            Collection<WorkOrder> incompleteWO =
-                    workOrders.stream().filter(workOrder -> !workOrder.getStatus().equals(Status.COMPLETE)).collect(Collectors.toList());
+            Map<Priority, WOPriorityAggregate> aggregates =
+                    workOrderAnalyticsService.getByPriority(user.getCompany().getId(), dateRange.getStart(),
+                            dateRange.getEnd());
 
-            Pair<Integer, Double> highValues = getCountsAndEstimatedDurationByPriority(Priority.HIGH, incompleteWO);
-            Pair<Integer, Double> noneValues = getCountsAndEstimatedDurationByPriority(Priority.NONE, incompleteWO);
-            Pair<Integer, Double> lowValues = getCountsAndEstimatedDurationByPriority(Priority.LOW, incompleteWO);
-            Pair<Integer, Double> mediumValues = getCountsAndEstimatedDurationByPriority(Priority.MEDIUM, incompleteWO);
+            Pair<Integer, Double> highValues = getCountsAndEstimatedDurationByPriority(Priority.HIGH, aggregates);
+            Pair<Integer, Double> noneValues = getCountsAndEstimatedDurationByPriority(Priority.NONE, aggregates);
+            Pair<Integer, Double> lowValues = getCountsAndEstimatedDurationByPriority(Priority.LOW, aggregates);
+            Pair<Integer, Double> mediumValues = getCountsAndEstimatedDurationByPriority(Priority.MEDIUM, aggregates);
 
             int highCounts = highValues.getFirst();
             double highEstimatedDurations = highValues.getSecond();
@@ -222,22 +193,21 @@ public class WOAnalyticsController {
     @PreAuthorize("hasRole('ROLE_CLIENT')")
     @Cacheable(
             value = "getWOStatuses",
-            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.id, #dateRange.start, #dateRange.end)"
+            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.company.id, #dateRange.start, #dateRange.end)",
+            condition = "#user.canSeeAnalytics()"
     )
     public ResponseEntity<WOStatuses> getWOStatuses(@ApiIgnore @CurrentUser OwnUser user,
                                                     @RequestBody DateRange dateRange) {
         if (user.canSeeAnalytics()) {
-            Collection<WorkOrder> workOrders =
-                    workOrderService.findByCompanyAndCreatedAtBetween(user.getCompany().getId(), dateRange.getStart()
-                            , dateRange.getEnd());
-            Collection<WorkOrder> incompleteWO =
-                    workOrders.stream().filter(workOrder -> !workOrder.getStatus().equals(Status.COMPLETE)).collect(Collectors.toList());
+            Map<Status, Integer> counts = workOrderAnalyticsService.getCountsByStatus(user.getCompany().getId(),
+                    dateRange.getStart(), dateRange.getEnd());
 
             return ResponseEntity.ok(WOStatuses.builder()
-                    .open(getWOCountsByStatus(Status.OPEN, incompleteWO))
-                    .inProgress(getWOCountsByStatus(Status.IN_PROGRESS, incompleteWO))
-                    .onHold(getWOCountsByStatus(Status.ON_HOLD, incompleteWO))
-                    .complete(getWOCountsByStatus(Status.COMPLETE, incompleteWO))
+                    .open(counts.get(Status.OPEN))
+                    .inProgress(counts.get(Status.IN_PROGRESS))
+                    .onHold(counts.get(Status.ON_HOLD))
+                    // only incomplete work orders are considered
+                    .complete(0)
                     .build());
         } else throw new CustomException("Access Denied", HttpStatus.FORBIDDEN);
     }
@@ -246,24 +216,25 @@ public class WOAnalyticsController {
     @PreAuthorize("hasRole('ROLE_CLIENT')")
     @Cacheable(
             value = "getIncompleteByAsset",
-            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.id, #dateRange.start, #dateRange.end)"
+            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.company.id, #dateRange.start, #dateRange.end)",
+            condition = "#user.canSeeAnalytics()"
     )
     public ResponseEntity<Collection<IncompleteWOByAsset>> getIncompleteByAsset(@ApiIgnore @CurrentUser OwnUser user,
                                                                                 @RequestBody DateRange dateRange) {
         if (user.canSeeAnalytics()) {
             Collection<Asset> assets = assetService.findByCompanyAndBefore(user.getCompany().getId(),
                     dateRange.getEnd());
+            Map<Long, WOGroupAggregate> aggregates =
+                    workOrderAnalyticsService.getByAsset(user.getCompany().getId(), dateRange.getStart(),
+                            dateRange.getEnd());
             Collection<IncompleteWOByAsset> result = new ArrayList<>();
             assets.forEach(asset -> {
-                Collection<WorkOrder> incompleteWO = workOrderService.findByAssetAndCreatedAtBetween(asset.getId(),
-                                dateRange.getStart(), dateRange.getEnd())
-                        .stream().filter(workOrder -> !workOrder.getStatus().equals(Status.COMPLETE)).collect(Collectors.toList());
-                List<Long> ages = incompleteWO.stream().map(workOrder -> Helper.getDateDiff(workOrder.getCreatedAt(),
-                        new Date(), TimeUnit.DAYS)).collect(Collectors.toList());
-                int count = incompleteWO.size();
+                WOGroupAggregate aggregate = aggregates.get(asset.getId());
+                long count = aggregate == null ? 0 : aggregate.getIncomplete();
                 result.add(IncompleteWOByAsset.builder()
-                        .count(count)
-                        .averageAge(count == 0 ? 0 : ages.stream().mapToLong(value -> value).sum() / count)
+                        .count(Math.toIntExact(count))
+                        .averageAge(aggregate == null ? 0 :
+                                WorkOrderAnalyticsService.average(aggregate.getIncompleteAgeDays(), count))
                         .name(asset.getName())
                         .id(asset.getId())
                         .build());
@@ -276,24 +247,24 @@ public class WOAnalyticsController {
     @PreAuthorize("hasRole('ROLE_CLIENT')")
     @Cacheable(
             value = "getIncompleteByUser",
-            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.id, #dateRange.start, #dateRange.end)"
+            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.company.id, #dateRange.start, #dateRange.end)",
+            condition = "#user.canSeeAnalytics()"
     )
     public ResponseEntity<Collection<IncompleteWOByUser>> getIncompleteByUser(@ApiIgnore @CurrentUser OwnUser user,
                                                                               @RequestBody DateRange dateRange) {
         if (user.canSeeAnalytics()) {
             Collection<OwnUser> users = userService.findWorkersByCompany(user.getCompany().getId());
+            Map<Long, WOGroupAggregate> aggregates =
+                    workOrderAnalyticsService.getByAssignedUser(user.getCompany().getId(), dateRange.getStart(),
+                            dateRange.getEnd());
             Collection<IncompleteWOByUser> result = new ArrayList<>();
             users.forEach(user1 -> {
-                Collection<WorkOrder> incompleteWO =
-                        workOrderService.findByAssignedToUserAndCreatedAtBetween(user1.getId(), dateRange.getStart(),
-                                        dateRange.getEnd())
-                                .stream().filter(workOrder -> !workOrder.getStatus().equals(Status.COMPLETE)).collect(Collectors.toList());
-                List<Long> ages = incompleteWO.stream().map(workOrder -> Helper.getDateDiff(workOrder.getCreatedAt(),
-                        new Date(), TimeUnit.DAYS)).collect(Collectors.toList());
-                int count = incompleteWO.size();
+                WOGroupAggregate aggregate = aggregates.get(user1.getId());
+                long count = aggregate == null ? 0 : aggregate.getIncomplete();
                 result.add(IncompleteWOByUser.builder()
-                        .count(count)
-                        .averageAge(count == 0 ? 0 : ages.stream().mapToLong(value -> value).sum() / count)
+                        .count(Math.toIntExact(count))
+                        .averageAge(aggregate == null ? 0 :
+                                WorkOrderAnalyticsService.average(aggregate.getIncompleteAgeDays(), count))
                         .firstName(user1.getFirstName())
                         .lastName(user1.getLastName())
                         .id(user1.getId())
@@ -307,22 +278,13 @@ public class WOAnalyticsController {
     @PreAuthorize("hasRole('ROLE_CLIENT')")
     @Cacheable(
             value = "getWOHours",
-            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.id, #dateRange.start, #dateRange.end)"
+            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.company.id, #dateRange.start, #dateRange.end)",
+            condition = "#user.canSeeAnalytics()"
     )
     public ResponseEntity<WOHours> getHours(@ApiIgnore @CurrentUser OwnUser user, @RequestBody DateRange dateRange) {
         if (user.canSeeAnalytics()) {
-            Collection<WorkOrder> workOrders =
-                    workOrderService.findByCompanyAndCreatedAtBetween(user.getCompany().getId(), dateRange.getStart()
-                            , dateRange.getEnd());
-            double estimated =
-                    workOrders.stream().map(WorkOrderBase::getEstimatedDuration).mapToDouble(value -> value).sum();
-            Collection<Labor> labors = new ArrayList<>();
-            workOrders.forEach(workOrder -> labors.addAll(laborService.findByWorkOrder(workOrder.getId())));
-            int actual = labors.stream().map(Labor::getDuration).mapToInt(Math::toIntExact).sum() / 3600;
-            return ResponseEntity.ok(WOHours.builder()
-                    .estimated(estimated)
-                    .actual(actual)
-                    .build());
+            return ResponseEntity.ok(workOrderAnalyticsService.getHours(user.getCompany().getId(),
+                    dateRange.getStart(), dateRange.getEnd()));
         } else throw new CustomException("Access Denied", HttpStatus.FORBIDDEN);
     }
 
@@ -330,17 +292,20 @@ public class WOAnalyticsController {
     @PreAuthorize("hasRole('ROLE_CLIENT')")
     @Cacheable(
             value = "getWOCountsByUser",
-            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.id, #dateRange.start, #dateRange.end)"
+            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.company.id, #dateRange.start, #dateRange.end)",
+            condition = "#user.canSeeAnalytics()"
     )
     public ResponseEntity<Collection<WOCountByUser>> getCountsByUser(@ApiIgnore @CurrentUser OwnUser user,
                                                                      @RequestBody DateRange dateRange) {
         if (user.canSeeAnalytics()) {
             Collection<OwnUser> users = userService.findWorkersByCompany(user.getCompany().getId());
+            Map<Long, WOGroupAggregate> aggregates =
+                    workOrderAnalyticsService.getByAssignedUser(user.getCompany().getId(), dateRange.getStart(),
+                            dateRange.getEnd());
             Collection<WOCountByUser> results = new ArrayList<>();
             users.forEach(user1 -> {
-                int count = (int) workOrderService.findByAssignedToUserAndCreatedAtBetween(user1.getId(),
-                                dateRange.getStart(), dateRange.getEnd()).stream()
-                        .filter(workOrder -> workOrder.getStatus().equals(Status.COMPLETE)).count();
+                WOGroupAggregate aggregate = aggregates.get(user1.getId());
+                int count = aggregate == null ? 0 : Math.toIntExact(aggregate.getComplete());
                 results.add(WOCountByUser.builder()
                         .firstName(user1.getFirstName())
                         .lastName(user1.getLastName())
@@ -356,17 +321,20 @@ public class WOAnalyticsController {
     @PreAuthorize("hasRole('ROLE_CLIENT')")
     @Cacheable(
             value = "getWOCountsByCompletedBy",
-            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.id, #dateRange.start, #dateRange.end)"
+            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.company.id, #dateRange.start, #dateRange.end)",
+            condition = "#user.canSeeAnalytics()"
     )
     public ResponseEntity<Collection<WOCountByUser>> getCountsByCompletedBy(@ApiIgnore @CurrentUser OwnUser user,
                                                                             @RequestBody DateRange dateRange) {
         if (user.canSeeAnalytics()) {
             Collection<OwnUser> users = userService.findWorkersByCompany(user.getCompany().getId());
+            Map<Long, WOGroupAggregate> aggregates =
+                    workOrderAnalyticsService.getByCompletedBy(user.getCompany().getId(), dateRange.getStart(),
+                            dateRange.getEnd());
             Collection<WOCountByUser> results = new ArrayList<>();
             users.forEach(user1 -> {
-                int count = (int) workOrderService.findByCompletedByAndCreatedAtBetween(user1.getId(),
-                                dateRange.getStart(), dateRange.getEnd()).stream()
-                        .filter(workOrder -> workOrder.getStatus().equals(Status.COMPLETE)).count();
+                WOGroupAggregate aggregate = aggregates.get(user1.getId());
+                int count = aggregate == null ? 0 : Math.toIntExact(aggregate.getComplete());
                 results.add(WOCountByUser.builder()
                         .firstName(user1.getFirstName())
                         .lastName(user1.getLastName())
@@ -382,18 +350,20 @@ public class WOAnalyticsController {
     @PreAuthorize("hasRole('ROLE_CLIENT')")
     @Cacheable(
             value = "getWOCountsByPriority",
-            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.id, #dateRange.start, #dateRange.end)"
+            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.company.id, #dateRange.start, #dateRange.end)",
+            condition = "#user.canSeeAnalytics()"
     )
     public ResponseEntity<Map<Priority, Integer>> getCountsByPriority(@ApiIgnore @CurrentUser OwnUser user,
                                                                       @RequestBody DateRange dateRange) {
         if (user.canSeeAnalytics()) {
             Priority[] priorities = Priority.values();
+            Map<Priority, WOPriorityAggregate> aggregates =
+                    workOrderAnalyticsService.getByPriority(user.getCompany().getId(), dateRange.getStart(),
+                            dateRange.getEnd());
             Map<Priority, Integer> results = new HashMap<>();
             Arrays.asList(priorities).forEach(priority -> {
-                int count = (int) workOrderService.findByPriorityAndCompanyAndCreatedAtBetween(priority,
-                                user.getCompany().getId(), dateRange.getStart(), dateRange.getEnd()).stream()
-                        .filter(workOrder -> workOrder.getStatus().equals(Status.COMPLETE)).count();
-                results.put(priority, count);
+                WOPriorityAggregate aggregate = aggregates.get(priority);
+                results.put(priority, aggregate == null ? 0 : Math.toIntExact(aggregate.getComplete()));
             });
             return ResponseEntity.ok(results);
         } else throw new CustomException("Access Denied", HttpStatus.FORBIDDEN);
@@ -403,18 +373,21 @@ public class WOAnalyticsController {
     @PreAuthorize("hasRole('ROLE_CLIENT')")
     @Cacheable(
             value = "getWOCountsByCategory",
-            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.id, #dateRange.start, #dateRange.end)"
+            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.company.id, #dateRange.start, #dateRange.end)",
+            condition = "#user.canSeeAnalytics()"
     )
     public ResponseEntity<Collection<WOCountByCategory>> getCountsByCategory(@ApiIgnore @CurrentUser OwnUser user,
                                                                              @RequestBody DateRange dateRange) {
         if (user.canSeeAnalytics()) {
             Collection<WorkOrderCategory> categories =
                     workOrderCategoryService.findByCompanySettings(user.getCompany().getCompanySettings().getId());
+            Map<Long, WOGroupAggregate> aggregates =
+                    workOrderAnalyticsService.getByCategory(user.getCompany().getId(), dateRange.getStart(),
+                            dateRange.getEnd());
             Collection<WOCountByCategory> results = new ArrayList<>();
             categories.forEach(category -> {
-                int count = (int) workOrderService.findByCategoryAndCreatedAtBetween(category.getId(),
-                                dateRange.getStart(), dateRange.getEnd()).stream()
-                        .filter(workOrder -> workOrder.getStatus().equals(Status.COMPLETE)).count();
+                WOGroupAggregate aggregate = aggregates.get(category.getId());
+                int count = aggregate == null ? 0 : Math.toIntExact(aggregate.getComplete());
                 results.add(WOCountByCategory.builder()
                         .name(category.getName())
                         .id(category.getId())
@@ -429,28 +402,18 @@ public class WOAnalyticsController {
     @PreAuthorize("hasRole('ROLE_CLIENT')")
     @Cacheable(
             value = "getWOCompleteByWeek",
-            key = "#user.id"
+            key = "T(com.grash.utils.CacheKeyUtils).todayKey(#user.company.id)",
+            condition = "#user.canSeeAnalytics()"
     )
     public ResponseEntity<List<WOCountByWeek>> getCompleteByWeek(@ApiIgnore @CurrentUser OwnUser user) {
         if (user.canSeeAnalytics()) {
-            List<WOCountByWeek> result = new ArrayList<>();
-            LocalDate previousMonday =
-                    LocalDate.now(ZoneId.of("UTC"));
-            // .with(TemporalAdjusters.previous(DayOfWeek.MONDAY));
-            for (int i = 0; i < 5; i++) {
-                Collection<WorkOrder> completeWorkOrders =
-                        workOrderService.findByCompletedOnBetweenAndCompany(Helper.localDateToDate(previousMonday.minusDays(7)), Helper.localDateToDate(previousMonday), user.getCompany().getId())
-                                .stream().filter(workOrder -> workOrder.getStatus().equals(Status.COMPLETE)).collect(Collectors.toList());
-                int compliant = (int) completeWorkOrders.stream().filter(WorkOrder::isCompliant).count();
-                int reactive = (int) completeWorkOrders.stream().filter(WorkOrder::isReactive).count();
-                result.add(WOCountByWeek.builder()
-                        .count(completeWorkOrders.size())
-                        .compliant(compliant)
-                        .reactive(reactive)
-                        .date(Helper.localDateToDate(previousMonday)).build());
-                previousMonday = previousMonday.minusDays(7);
-            }
-            Collections.reverse(result);
+            List<WOCountByWeek> result = workOrderRollupService.getTotals(user.getCompany().getId(), getLastWeeks())
+                    .stream().map(totals -> WOCountByWeek.builder()
+                            .count(Math.toIntExact(totals.getCompleted()))
+                            .compliant(Math.toIntExact(totals.getCompliant()))
+                            .reactive(Math.toIntExact(totals.getReactive()))
+                            .date(totals.getEnd()).build())
+                    .collect(Collectors.toList());
             return ResponseEntity.ok(result);
         } else throw new CustomException("Access Denied", HttpStatus.FORBIDDEN);
     }
@@ -459,30 +422,17 @@ public class WOAnalyticsController {
     @PreAuthorize("hasRole('ROLE_CLIENT')")
     @Cacheable(
             value = "getWOCompleteTimeByWeek",
-            key = "#user.id"
+            key = "T(com.grash.utils.CacheKeyUtils).todayKey(#user.company.id)",
+            condition = "#user.canSeeAnalytics()"
     )
     public ResponseEntity<List<WOTimeByWeek>> getCompleteTimeByWeek(@ApiIgnore @CurrentUser OwnUser user) {
         if (user.canSeeAnalytics()) {
-            List<WOTimeByWeek> result = new ArrayList<>();
-            LocalDate previousMonday =
-                    LocalDate.now(ZoneId.of("UTC"));
-            // .with(TemporalAdjusters.previous(DayOfWeek.MONDAY));
-            for (int i = 0; i < 5; i++) {
-                Collection<WorkOrder> completeWorkOrders =
-                        workOrderService.findByCompletedOnBetweenAndCompany(Helper.localDateToDate(previousMonday.minusDays(7)), Helper.localDateToDate(previousMonday), user.getCompany().getId())
-                                .stream().filter(workOrder -> workOrder.getStatus().equals(Status.COMPLETE)).collect(Collectors.toList());
-                Collection<WorkOrder> reactiveWorkOrders =
-                        completeWorkOrders.stream().filter(WorkOrder::isReactive).collect(Collectors.toList());
-
-                long total = getTime(completeWorkOrders);
-                long reactive = getTime(reactiveWorkOrders);
-                result.add(WOTimeByWeek.builder()
-                        .total(total)
-                        .reactive(reactive)
-                        .date(Helper.localDateToDate(previousMonday)).build());
-                previousMonday = previousMonday.minusDays(7);
-            }
-            Collections.reverse(result);
+            List<WOTimeByWeek> result = workOrderRollupService.getTotals(user.getCompany().getId(), getLastWeeks())
+                    .stream().map(totals -> WOTimeByWeek.builder()
+                            .total(totals.getLaborSeconds())
+                            .reactive(totals.getReactiveLaborSeconds())
+                            .date(totals.getEnd()).build())
+                    .collect(Collectors.toList());
             return ResponseEntity.ok(result);
         } else throw new CustomException("Access Denied", HttpStatus.FORBIDDEN);
     }
@@ -491,17 +441,19 @@ public class WOAnalyticsController {
     @PreAuthorize("hasRole('ROLE_CLIENT')")
     @Cacheable(
             value = "getWOCompleteCostsAndTime",
-            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.id, #dateRange.start, #dateRange.end)"
+            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.company.id, #dateRange.start, #dateRange.end)",
+            condition = "#user.canSeeAnalytics()"
     )
     public ResponseEntity<WOCostsAndTime> getCompleteCostsAndTime(@ApiIgnore @CurrentUser OwnUser user,
                                                                   @RequestBody DateRange dateRange) {
         if (user.canSeeAnalytics()) {
             Collection<WorkOrder> completeWorkOrders = workOrderService.findByCompanyAndCreatedAtBetween(
                     user.getCompany().getId(), dateRange.getStart(), dateRange.getEnd()).stream().filter(workOrder -> workOrder.getStatus().equals(Status.COMPLETE)).collect(Collectors.toList());
-            double additionalCost = workOrderService.getAdditionalCost(completeWorkOrders);
-            long laborCost = workOrderService.getLaborCostAndTime(completeWorkOrders).getFirst();
-            long laborTime = workOrderService.getLaborCostAndTime(completeWorkOrders).getSecond();
-            double partCost = workOrderService.getPartCost(completeWorkOrders);
+            WOCosts costs = workOrderService.getCostRollup(completeWorkOrders).getTotal();
+            double additionalCost = costs.getAdditionalCost();
+            long laborCost = costs.getLaborCost();
+            long laborTime = costs.getLaborTime();
+            double partCost = costs.getPartCost();
             double total = laborCost + partCost + additionalCost;
 
             return ResponseEntity.ok(WOCostsAndTime.builder()
@@ -519,13 +471,14 @@ public class WOAnalyticsController {
     @PreAuthorize("hasRole('ROLE_CLIENT')")
     @Cacheable(
             value = "getWOCompleteCostsByDate",
-            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.id, #dateRange.start, #dateRange.end)"
+            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.company.id, #dateRange.start, #dateRange.end)",
+            condition = "#user.canSeeAnalytics()"
     )
     public ResponseEntity<List<WOCostsByDate>> getCompleteCostsByDate(@ApiIgnore @CurrentUser OwnUser user,
                                                                       @RequestBody DateRange dateRange) {
         if (user.canSeeAnalytics()) {
             LocalDate endDateLocale = Helper.dateToLocalDate(dateRange.getEnd());
-            List<WOCostsByDate> result = new ArrayList<>();
+            List<LocalDate> bounds = new ArrayList<>();
             LocalDate currentDate = Helper.dateToLocalDate(dateRange.getStart());
             LocalDate endDateExclusive = Helper.dateToLocalDate(dateRange.getEnd()).plusDays(1); // Include end date
             // in the range
@@ -533,21 +486,21 @@ public class WOAnalyticsController {
                     endDateExclusive);
             int points = Math.toIntExact(Math.min(15, totalDaysInRange));
 
+            bounds.add(currentDate);
             for (int i = 0; i < points; i++) {
                 LocalDate nextDate = currentDate.plusDays(totalDaysInRange / points); // Distribute evenly over the
                 // range
                 nextDate = nextDate.isAfter(endDateLocale) ? endDateLocale : nextDate; // Adjust for the end date
-                Collection<WorkOrder> completeWorkOrders =
-                        workOrderService.findByCompletedOnBetweenAndCompany(Helper.localDateToDate(currentDate),
-                                        Helper.localDateToDate(nextDate), user.getCompany().getId())
-                                .stream().filter(workOrder -> workOrder.getStatus().equals(Status.COMPLETE)).collect(Collectors.toList());
-                result.add(WOCostsByDate.builder()
-                        .additionalCost(workOrderService.getAdditionalCost(completeWorkOrders))
-                        .laborCost(workOrderService.getLaborCostAndTime(completeWorkOrders).getFirst())
-                        .partCost(workOrderService.getPartCost(completeWorkOrders))
-                        .date(Helper.localDateToDate(currentDate)).build());
+                bounds.add(nextDate);
                 currentDate = nextDate;
             }
+            List<WOCostsByDate> result = workOrderRollupService.getTotals(user.getCompany().getId(), bounds)
+                    .stream().map(totals -> WOCostsByDate.builder()
+                            .additionalCost(totals.getAdditionalCost())
+                            .laborCost(totals.getLaborCost())
+                            .partCost(totals.getPartCost())
+                            .date(totals.getStart()).build())
+                    .collect(Collectors.toList());
             return ResponseEntity.ok(result);
         } else throw new CustomException("Access Denied", HttpStatus.FORBIDDEN);
     }
@@ -556,7 +509,8 @@ public class WOAnalyticsController {
     @PreAuthorize("hasRole('ROLE_CLIENT')")
     @Cacheable(
             value = "getWOStatusesByDate",
-            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.id, #dateRange.start, #dateRange.end)"
+            key = "T(com.grash.utils.CacheKeyUtils).dateRangeKey(#user.company.id, #dateRange.start, #dateRange.end)",
+            condition = "#user.canSeeAnalytics()"
     )
     public ResponseEntity<List<WOStatusesByDate>> getReceivedAndResolvedForDateRange(@ApiIgnore @CurrentUser OwnUser user,
                                                                                      @RequestBody DateRange dateRange) {
@@ -570,55 +524,48 @@ public class WOAnalyticsController {
                     endDateExclusive);
             int points = Math.toIntExact(Math.min(15, totalDaysInRange));
 
+            List<Date> startDates = new ArrayList<>();
+            List<Date> endDates = new ArrayList<>();
             for (int i = 0; i < points; i++) {
                 LocalDate nextDate = currentDate.plusDays(totalDaysInRange / points); // Distribute evenly over the
                 // range
                 nextDate = nextDate.isAfter(endDateLocale) ? endDateLocale : nextDate; // Adjust for the end date
-                Collection<WorkOrder> workOrders =
-                        workOrderService.findByCompanyAndCreatedAtBetween(user.getCompany().getId(),
-                                dateRange.getStart(), Helper.localDateToDate(nextDate));
-                LocalDate finalNextDate = nextDate;
-                Collection<Status> statuses = workOrders.stream().map(workOrder -> {
-                    List<WorkOrderAud> workOrderAuds = workOrderAudRepository.findLastByIdAndDate(workOrder.getId(),
-                            Helper.localDateToDate(finalNextDate).getTime(), PageRequest.of(0, 1));
-                    if (workOrderAuds.isEmpty()) return workOrder.getStatus();
-                    else return workOrderAuds.get(0).getStatus();
-                }).filter(Objects::nonNull).collect(Collectors.toList());
-
+                startDates.add(Helper.localDateToDate(currentDate));
+                endDates.add(Helper.localDateToDate(nextDate));
+                currentDate = nextDate; // Move to the next segment
+            }
+            //the status of each work order at each date, read from its status intervals with one query
+            List<Map<Status, Integer>> statusCounts =
+                    workOrderStatusIntervalService.getStatusCounts(user.getCompany().getId(), dateRange.getStart(),
+                            endDates);
+            for (int i = 0; i < points; i++) {
+                Map<Status, Integer> counts = statusCounts.get(i);
                 result.add(WOStatusesByDate.builder()
-                        .open((int) statuses.stream().filter(status -> status.equals(Status.OPEN)).count())
-                        .onHold((int) statuses.stream().filter(status -> status.equals(Status.ON_HOLD)).count())
-                        .inProgress((int) statuses.stream().filter(status -> status.equals(Status.IN_PROGRESS)).count())
-                        .complete((int) statuses.stream().filter(status -> status.equals(Status.COMPLETE)).count())
-                        .date(Helper.localDateToDate(currentDate))
+                        .open(counts.getOrDefault(Status.OPEN, 0))
+                        .onHold(counts.getOrDefault(Status.ON_HOLD, 0))
+                        .inProgress(counts.getOrDefault(Status.IN_PROGRESS, 0))
+                        .complete(counts.getOrDefault(Status.COMPLETE, 0))
+                        .date(startDates.get(i))
                         .build());
-                currentDate = nextDate; // Move to the next segment
             }
             return ResponseEntity.ok(result);
         } else throw new CustomException("Access Denied", HttpStatus.FORBIDDEN);
     }
 
     private Pair<Integer, Double> getCountsAndEstimatedDurationByPriority(Priority priority,
-                                                                          Collection<WorkOrder> workOrders) {
-        Collection<WorkOrder> priorityWO =
-                workOrders.stream().filter(workOrder -> workOrder.getPriority().equals(priority)).collect(Collectors.toList());
-        int priorityCounts = priorityWO.size();
-        double priorityEstimatedDurations =
-                priorityWO.stream().map(WorkOrderBase::getEstimatedDuration).mapToDouble(value -> value).sum();
-        return Pair.of(priorityCounts, priorityEstimatedDurations);
-    }
-
-    private int getWOCountsByStatus(Status status, Collection<WorkOrder> workOrders) {
-        Collection<WorkOrder> statusWO =
-                workOrders.stream().filter(workOrder -> workOrder.getStatus().equals(status)).collect(Collectors.toList());
-        return statusWO.size();
+                                                                          Map<Priority, WOPriorityAggregate> aggregates) {
+        WOPriorityAggregate aggregate = aggregates.get(priority);
+        if (aggregate == null) return Pair.of(0, 0.0);
+        return Pair.of(Math.toIntExact(aggregate.getIncomplete()), aggregate.getIncompleteEstimatedHours());
     }
 
-    private long getTime(Collection<WorkOrder> workOrders) {
-        Collection<Labor> labors = new ArrayList<>();
-        workOrders.forEach(workOrder -> {
-            labors.addAll(laborService.findByWorkOrder(workOrder.getId()));
-        });
-        return labors.stream().mapToLong(Time::getDuration).sum();
+    //bounds of the last 5 weeks, the last one ending today
+    private List<LocalDate> getLastWeeks() {
+        LocalDate today = LocalDate.now(ZoneId.of("UTC"));
+        List<LocalDate> bounds = new ArrayList<>();
+        for (int i = 5; i >= 0; i--) {
+            bounds.add(today.minusDays(7L * i));
+        }
+        return bounds;
     }
 }
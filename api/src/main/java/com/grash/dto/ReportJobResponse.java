@@ -0,0 +1,27 @@
+package com.grash.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJobResponse {
+    private String id;
+    private State state;
+    //signed url of the report once it is generated
+    private String url;
+    private String error;
+    //reports rendered so far out of the total, for bulk exports
+    private int done;
+    private int total;
+
+    public enum State {
+        PENDING,
+        DONE,
+        FAILED
+    }
+}
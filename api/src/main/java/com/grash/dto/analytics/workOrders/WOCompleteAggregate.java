@@ -0,0 +1,19 @@
+package com.grash.dto.analytics.workOrders;
+
+public interface WOCompleteAggregate {
+    Long getTotal();
+
+    Long getComplete();
+
+    Long getCompliant();
+
+    Long getReacted();
+
+    //sum of the hours between creation and first reaction
+    Long getReactionHours();
+
+    Long getCycleCount();
+
+    //sum of the days between (request) creation and completion
+    Long getCycleDays();
+}
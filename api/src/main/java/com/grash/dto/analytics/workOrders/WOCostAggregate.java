@@ -0,0 +1,11 @@
+package com.grash.dto.analytics.workOrders;
+
+public interface WOCostAggregate {
+    //id of the grouping entity
+    Long getId();
+
+    Double getCost();
+
+    //seconds, only set for labors
+    Long getDuration();
+}
@@ -0,0 +1,24 @@
+package com.grash.dto.analytics.workOrders;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WOCostRollup {
+    @Builder.Default
+    private Map<Long, WOCosts> byWorkOrder = new HashMap<>();
+    @Builder.Default
+    private WOCosts total = new WOCosts();
+
+    public WOCosts get(Long workOrderId) {
+        return byWorkOrder.getOrDefault(workOrderId, new WOCosts());
+    }
+}
@@ -0,0 +1,28 @@
+package com.grash.dto.analytics.workOrders;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WOCosts {
+    private long laborCost;
+    private long laborTime; //seconds
+    private double partCost;
+    private double additionalCost;
+
+    public double getTotal(boolean includeLaborCost) {
+        return partCost + additionalCost + (includeLaborCost ? laborCost : 0);
+    }
+
+    public void add(WOCosts costs) {
+        this.laborCost += costs.getLaborCost();
+        this.laborTime += costs.getLaborTime();
+        this.partCost += costs.getPartCost();
+        this.additionalCost += costs.getAdditionalCost();
+    }
+}
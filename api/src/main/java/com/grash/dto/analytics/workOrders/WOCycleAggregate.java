@@ -0,0 +1,10 @@
+package com.grash.dto.analytics.workOrders;
+
+public interface WOCycleAggregate {
+    Long getId();
+
+    Long getCycleCount();
+
+    //sum of the days between (request) creation and completion
+    Long getCycleDays();
+}
@@ -0,0 +1,25 @@
+package com.grash.dto.analytics.workOrders;
+
+import java.time.LocalDate;
+
+public interface WODailyAggregate {
+    LocalDate getDay();
+
+    Long getCreated();
+
+    Long getCompleted();
+
+    Long getCompliant();
+
+    Long getReactive();
+
+    Long getLaborSeconds();
+
+    Long getReactiveLaborSeconds();
+
+    Double getLaborCost();
+
+    Double getPartCost();
+
+    Double getAdditionalCost();
+}
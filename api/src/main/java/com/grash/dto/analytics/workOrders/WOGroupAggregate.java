@@ -0,0 +1,12 @@
+package com.grash.dto.analytics.workOrders;
+
+public interface WOGroupAggregate {
+    Long getId();
+
+    Long getComplete();
+
+    Long getIncomplete();
+
+    //sum of the ages in days of the incomplete work orders
+    Long getIncompleteAgeDays();
+}
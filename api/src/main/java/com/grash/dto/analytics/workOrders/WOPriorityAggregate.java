@@ -0,0 +1,13 @@
+package com.grash.dto.analytics.workOrders;
+
+import com.grash.model.enums.Priority;
+
+public interface WOPriorityAggregate {
+    Priority getPriority();
+
+    Long getComplete();
+
+    Long getIncomplete();
+
+    Double getIncompleteEstimatedHours();
+}
@@ -0,0 +1,38 @@
+package com.grash.dto.analytics.workOrders;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WORollupTotals {
+    private Date start;
+    private Date end;
+    private long created;
+    private long completed;
+    private long compliant;
+    private long reactive;
+    private long laborSeconds;
+    private long reactiveLaborSeconds;
+    private double laborCost;
+    private double partCost;
+    private double additionalCost;
+
+    public void add(WODailyAggregate aggregate) {
+        this.created += aggregate.getCreated();
+        this.completed += aggregate.getCompleted();
+        this.compliant += aggregate.getCompliant();
+        this.reactive += aggregate.getReactive();
+        this.laborSeconds += aggregate.getLaborSeconds();
+        this.reactiveLaborSeconds += aggregate.getReactiveLaborSeconds();
+        this.laborCost += aggregate.getLaborCost();
+        this.partCost += aggregate.getPartCost();
+        this.additionalCost += aggregate.getAdditionalCost();
+    }
+}
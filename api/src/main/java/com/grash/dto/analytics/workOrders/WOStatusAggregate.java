@@ -0,0 +1,9 @@
+package com.grash.dto.analytics.workOrders;
+
+import com.grash.model.enums.Status;
+
+public interface WOStatusAggregate {
+    Status getStatus();
+
+    Long getTotal();
+}
@@ -0,0 +1,15 @@
+package com.grash.dto.analytics.workOrders;
+
+import com.grash.model.enums.Status;
+
+import java.util.Date;
+
+public interface WOStatusInterval {
+    Date getCreatedAt();
+
+    Status getStatus();
+
+    Long getValidFrom();
+
+    Long getValidTo();
+}
@@ -0,0 +1,12 @@
+package com.grash.event;
+
+import lombok.Data;
+
+@Data
+public class AssetDowntimeChangedEvent {
+    private final Long companyId;
+
+    public AssetDowntimeChangedEvent(Long companyId) {
+        this.companyId = companyId;
+    }
+}
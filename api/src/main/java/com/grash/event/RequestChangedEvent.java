@@ -0,0 +1,12 @@
+package com.grash.event;
+
+import lombok.Data;
+
+@Data
+public class RequestChangedEvent {
+    private final Long companyId;
+
+    public RequestChangedEvent(Long companyId) {
+        this.companyId = companyId;
+    }
+}
@@ -0,0 +1,12 @@
+package com.grash.event;
+
+import lombok.Data;
+
+@Data
+public class ScheduleChangedEvent {
+    private final Long scheduleId;
+
+    public ScheduleChangedEvent(Long scheduleId) {
+        this.scheduleId = scheduleId;
+    }
+}
@@ -0,0 +1,18 @@
+package com.grash.event;
+
+import lombok.Data;
+
+import java.util.Collection;
+import java.util.Date;
+
+@Data
+public class WorkOrderChangedEvent {
+    private final Long companyId;
+    //creation and completion dates, before and after the change, of the work order
+    private final Collection<Date> dates;
+
+    public WorkOrderChangedEvent(Long companyId, Collection<Date> dates) {
+        this.companyId = companyId;
+        this.dates = dates;
+    }
+}
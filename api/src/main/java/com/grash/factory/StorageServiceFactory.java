@@ -2,6 +2,7 @@ package com.grash.factory;
 
 import com.grash.model.enums.StorageType;
 import com.grash.service.GCPService;
+import com.grash.service.LocalFileStorageService;
 import com.grash.service.MinioService;
 import com.grash.service.StorageService;
 import lombok.RequiredArgsConstructor;
@@ -16,11 +17,14 @@ public class StorageServiceFactory {
 
     private final GCPService gcpService;
     private final MinioService minioService;
+    private final LocalFileStorageService localFileStorageService;
 
     public StorageService getStorageService() {
         switch (storageType) {
             case GCP:
                 return gcpService;
+            case LOCAL:
+                return localFileStorageService;
             default:
                 return minioService;
         }
@@ -0,0 +1,31 @@
+package com.grash.job;
+
+import com.grash.service.PreventiveMaintenanceGenerationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Generates the work orders of the preventive maintenances based on the scheduled date, from their due occurrences
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@DisallowConcurrentExecution
+public class PreventiveMaintenanceGenerationJob implements Job {
+
+    private final PreventiveMaintenanceGenerationService preventiveMaintenanceGenerationService;
+
+    @Override
+    public void execute(JobExecutionContext context) {
+        try {
+            int generated = preventiveMaintenanceGenerationService.generateDue();
+            if (generated > 0) log.info("Generated {} preventive maintenance work orders", generated);
+        } catch (RuntimeException e) {
+            log.error("Failed to generate the preventive maintenance work orders", e);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.grash.job;
+
+import com.grash.repository.CompanyRepository;
+import com.grash.service.PreventiveMaintenanceOccurrenceService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rolls the preventive maintenance occurrences forward: drops the past ones and generates the ones entering the
+ * horizon. Also runs at startup, which fills the schedules that have no occurrence yet.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@DisallowConcurrentExecution
+public class PreventiveMaintenanceOccurrenceJob implements Job {
+
+    private final CompanyRepository companyRepository;
+    private final PreventiveMaintenanceOccurrenceService preventiveMaintenanceOccurrenceService;
+
+    @Override
+    public void execute(JobExecutionContext context) {
+        log.info("Extending the preventive maintenance occurrences");
+        companyRepository.findAllIds().forEach(companyId -> {
+            try {
+                preventiveMaintenanceOccurrenceService.extend(companyId);
+            } catch (RuntimeException e) {
+                log.error("Failed to extend the preventive maintenance occurrences of company {}", companyId, e);
+            }
+        });
+        log.info("Extended the preventive maintenance occurrences");
+    }
+}
@@ -0,0 +1,31 @@
+package com.grash.job;
+
+import com.grash.service.SubscriptionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resets the paid subscriptions that have ended to the free plan
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@DisallowConcurrentExecution
+public class SubscriptionExpiryJob implements Job {
+
+    private final SubscriptionService subscriptionService;
+
+    @Override
+    public void execute(JobExecutionContext context) {
+        try {
+            int expired = subscriptionService.expireDue();
+            if (expired > 0) log.info("Reset {} ended subscriptions to the free plan", expired);
+        } catch (RuntimeException e) {
+            log.error("Failed to reset the ended subscriptions", e);
+        }
+    }
+}
@@ -12,6 +12,7 @@ import com.grash.service.WorkOrderService;
 import com.grash.utils.Helper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.quartz.DisallowConcurrentExecution;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
 import org.springframework.scheduling.quartz.QuartzJobBean;
@@ -25,6 +26,7 @@ import java.util.Date;
 @Component
 @RequiredArgsConstructor
 @Slf4j
+@DisallowConcurrentExecution
 public class WorkOrderCreationJob extends QuartzJobBean {
 
     private final ScheduleRepository scheduleRepository;
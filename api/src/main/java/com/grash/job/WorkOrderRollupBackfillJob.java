@@ -0,0 +1,37 @@
+package com.grash.job;
+
+import com.grash.repository.CompanyRepository;
+import com.grash.service.WorkOrderRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds the daily work order rollup of every company: fills it the first time and heals the days an incremental
+ * refresh missed
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@DisallowConcurrentExecution
+public class WorkOrderRollupBackfillJob implements Job {
+
+    private final CompanyRepository companyRepository;
+    private final WorkOrderRollupService workOrderRollupService;
+
+    @Override
+    public void execute(JobExecutionContext context) {
+        log.info("Rebuilding the work order rollups");
+        companyRepository.findAllIds().forEach(companyId -> {
+            try {
+                workOrderRollupService.rebuild(companyId);
+            } catch (RuntimeException e) {
+                log.error("Failed to rebuild the work order rollup of company {}", companyId, e);
+            }
+        });
+        log.info("Rebuilt the work order rollups");
+    }
+}
@@ -0,0 +1,38 @@
+package com.grash.job;
+
+import com.grash.repository.CompanyRepository;
+import com.grash.service.WorkOrderStatusIntervalService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds the status intervals of the work orders that have none from their revision history: the ones audited before
+ * the work_order_aud trigger existed, or whose trigger run failed
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@DisallowConcurrentExecution
+public class WorkOrderStatusIntervalBackfillJob implements Job {
+
+    private final CompanyRepository companyRepository;
+    private final WorkOrderStatusIntervalService workOrderStatusIntervalService;
+
+    @Override
+    public void execute(JobExecutionContext context) {
+        log.info("Backfilling the work order status intervals");
+        companyRepository.findAllIds().forEach(companyId -> {
+            try {
+                int inserted = workOrderStatusIntervalService.backfill(companyId);
+                if (inserted > 0) log.info("Backfilled {} status intervals of company {}", inserted, companyId);
+            } catch (RuntimeException e) {
+                log.error("Failed to backfill the work order status intervals of company {}", companyId, e);
+            }
+        });
+        log.info("Backfilled the work order status intervals");
+    }
+}
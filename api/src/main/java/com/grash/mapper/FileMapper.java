@@ -1,5 +1,6 @@
 package com.grash.mapper;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -17,6 +18,7 @@ import org.springframework.context.annotation.Lazy;
 
 @Mapper(componentModel = "spring")
 public abstract class FileMapper {
+    private static final long URL_EXPIRATION_MINUTES = 60 * 3;
 
     @Lazy
     @Autowired
@@ -27,6 +29,16 @@ public abstract class FileMapper {
 
     public abstract FileShowDTO toShowDto(File model);
 
+    /**
+     * Signs the URLs of the files in one batch, the mapping of each file then reuses them
+     */
+    public List<FileShowDTO> toShowDtos(Collection<File> models) {
+        if (models == null) return null;
+        if (!models.isEmpty()) storageServiceFactory.getStorageService().generateSignedUrls(
+                models.stream().map(File::getPath).distinct().collect(Collectors.toList()), URL_EXPIRATION_MINUTES);
+        return models.stream().map(this::toShowDto).collect(Collectors.toList());
+    }
+
     @AfterMapping
     protected FileShowDTO toShowDto(File model, @MappingTarget FileShowDTO target) {
         target.setUrl(getSignedUrl(model));
@@ -41,6 +53,6 @@ public abstract class FileMapper {
 
     private String getSignedUrl(File file) {
         StorageService storageService = storageServiceFactory.getStorageService();
-        return storageService.generateSignedUrl(file.getPath(), 60 * 3);
+        return storageService.generateSignedUrl(file.getPath(), URL_EXPIRATION_MINUTES);
     }
 }
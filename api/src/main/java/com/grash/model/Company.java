@@ -1,6 +1,7 @@
 package com.grash.model;
 
 import com.grash.model.abstracts.Audit;
+import com.grash.security.PrincipalCacheListener;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
@@ -8,6 +9,7 @@ import lombok.NoArgsConstructor;
 import javax.persistence.*;
 
 @Entity
+@EntityListeners(PrincipalCacheListener.class)
 @Data
 @NoArgsConstructor
 @EqualsAndHashCode(exclude = "companySettings", callSuper = false)
@@ -6,6 +6,7 @@ import com.grash.model.enums.PermissionEntity;
 import com.grash.model.enums.RoleCode;
 import com.grash.model.enums.RoleType;
 import com.grash.utils.Helper;
+import com.grash.security.PrincipalCacheListener;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -14,6 +15,7 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 @Entity
+@EntityListeners(PrincipalCacheListener.class)
 @Data
 @NoArgsConstructor
 public class CompanySettings {
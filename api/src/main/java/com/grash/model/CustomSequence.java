@@ -29,29 +29,4 @@ public class CustomSequence {
     public CustomSequence(Company company) {
         this.company = company;
     }
-
-    // Methods to get and increment counters
-    public Long getAndIncrementWorkOrderSequence() {
-        return workOrderSequence++;
-    }
-
-    public Long getAndIncrementAssetSequence() {
-        return assetSequence++;
-    }
-
-    public Long getAndIncrementPreventiveMaintenanceSequence() {
-        return preventiveMaintenanceSequence++;
-    }
-
-    public Long getAndIncrementLocationSequence() {
-        return locationSequence++;
-    }
-
-    public Long getAndIncrementRequestSequence() {
-        return requestSequence++;
-    }
-
-    public Long getAndIncrementPermitSequence() {
-        return permitSequence++;
-    }
 }
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.grash.model.enums.BusinessType;
 import com.grash.model.enums.DateFormat;
 import com.grash.model.enums.Language;
+import com.grash.security.PrincipalCacheListener;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
@@ -11,6 +12,7 @@ import lombok.NoArgsConstructor;
 import javax.persistence.*;
 
 @Entity
+@EntityListeners(PrincipalCacheListener.class)
 @Data
 @NoArgsConstructor
 @EqualsAndHashCode(exclude = "companySettings")
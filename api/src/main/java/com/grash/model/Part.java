@@ -49,6 +49,8 @@ public class Part extends CompanyAudit {
     @ManyToOne(fetch = FetchType.LAZY)
     private PartCategory category;
 
+    //only changed through the stock ledger of PartService, so that saving a part never overwrites a concurrent change
+    @Column(updatable = false)
     private double quantity;
 
     private String area;
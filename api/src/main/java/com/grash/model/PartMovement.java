@@ -0,0 +1,47 @@
+package com.grash.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.grash.model.abstracts.CompanyAudit;
+import com.grash.model.enums.PartMovementType;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Append-only row of the stock ledger of a {@link Part}: the signed change of its quantity and the quantity right
+ * after it, read from the same conditional update.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+public class PartMovement extends CompanyAudit {
+    @ManyToOne(fetch = FetchType.LAZY)
+    @NotNull
+    @JsonIgnore
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Part part;
+
+    @Enumerated(EnumType.STRING)
+    @NotNull
+    private PartMovementType type;
+
+    private double quantity;
+
+    private double quantityAfter;
+
+    //no foreign key, the ledger outlives the work order
+    private Long workOrderId;
+
+    public PartMovement(Part part, PartMovementType type, double quantity, double quantityAfter, WorkOrder workOrder) {
+        this.part = part;
+        this.type = type;
+        this.quantity = quantity;
+        this.quantityAfter = quantityAfter;
+        this.workOrderId = workOrder == null ? null : workOrder.getId();
+        this.setCompany(part.getCompany());
+    }
+}
@@ -0,0 +1,46 @@
+package com.grash.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import javax.persistence.*;
+import java.util.Date;
+
+/**
+ * Upcoming fire time of the work order trigger of a {@link Schedule}, so that the calendar reads its events with one
+ * indexed range query. The occurrences of a schedule are regenerated when it changes and extended to the horizon by
+ * the {@link com.grash.job.PreventiveMaintenanceOccurrenceJob}. The work orders of the due occurrences are generated by
+ * the {@link com.grash.job.PreventiveMaintenanceGenerationJob}.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+public class PreventiveMaintenanceOccurrence {
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Long id;
+
+    private Long companyId;
+
+    private Long scheduleId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JsonIgnore
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private PreventiveMaintenance preventiveMaintenance;
+
+    private Date date;
+
+    //set in the transaction that generates its work order, so that it is generated once
+    private Long workOrderId;
+
+    public PreventiveMaintenanceOccurrence(Schedule schedule, Long companyId, Date date) {
+        this.companyId = companyId;
+        this.scheduleId = schedule.getId();
+        this.preventiveMaintenance = schedule.getPreventiveMaintenance();
+        this.date = date;
+    }
+}
@@ -0,0 +1,43 @@
+package com.grash.model;
+
+import com.grash.dto.ReportJobResponse;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.util.Date;
+
+/**
+ * State of a report generation, so that its progress can be polled from any node while the node that submitted it
+ * renders it. Only that node writes it.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+public class ReportJob {
+    @Id
+    private String id;
+
+    private Long companyId;
+
+    @Enumerated(EnumType.STRING)
+    private ReportJobResponse.State state = ReportJobResponse.State.PENDING;
+
+    //storage path of the report once it is generated
+    @Column(length = 1000)
+    private String path;
+
+    @Column(length = 1000)
+    private String error;
+
+    private int done;
+
+    private int total;
+
+    private Date createdAt = new Date();
+
+    public ReportJob(String id, Long companyId) {
+        this.id = id;
+        this.companyId = companyId;
+    }
+}
@@ -69,6 +69,16 @@ public class WorkOrder extends WorkOrderBase {
     @NotAudited
     private Date firstTimeToReact;
 
+    //completion date when loaded from the database, to know which analytics days a change affects
+    @Transient
+    @JsonIgnore
+    private Date loadedCompletedOn;
+
+    @PostLoad
+    public void keepLoadedCompletedOn() {
+        this.loadedCompletedOn = this.completedOn;
+    }
+
     @JsonIgnore
     public boolean isCompliant() {
         return this.getDueDate() == null || this.getCompletedOn().before(this.getDueDate());
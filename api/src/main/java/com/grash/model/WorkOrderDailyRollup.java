@@ -0,0 +1,54 @@
+package com.grash.model;
+
+import com.grash.model.enums.Priority;
+import com.grash.model.enums.Status;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * Work order figures of a company for one day, per category, asset, status and priority. Creation counts are
+ * bucketed by the creation day and completion figures by the completion day.
+ * Rows are rebuilt by {@link com.grash.service.WorkOrderRollupService}, never edited one by one.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+public class WorkOrderDailyRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long companyId;
+
+    private LocalDate day;
+
+    private Long categoryId;
+
+    private Long assetId;
+
+    private Status status;
+
+    private Priority priority;
+
+    private long createdCount;
+
+    private long completedCount;
+
+    private long compliantCount;
+
+    private long reactiveCount;
+
+    //seconds
+    private long laborSeconds;
+
+    private long reactiveLaborSeconds;
+
+    private double laborCost;
+
+    private double partCost;
+
+    private double additionalCost;
+}
@@ -0,0 +1,33 @@
+package com.grash.model;
+
+import com.grash.model.enums.Status;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+
+/**
+ * Period during which a work order had a status, in epoch milliseconds like the revision timestamps. The intervals of
+ * a work order are contiguous and the current one has no end.
+ * Rows are written by the work_order_aud trigger and the {@link com.grash.job.WorkOrderStatusIntervalBackfillJob},
+ * never by the application.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+public class WorkOrderStatusInterval {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long companyId;
+
+    private Long workOrderId;
+
+    private Status status;
+
+    private Long validFrom;
+
+    //exclusive, null while the work order still has this status
+    private Long validTo;
+}
@@ -1,15 +1,13 @@
 package com.grash.model.abstracts;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
-import com.grash.exception.CustomException;
-import com.grash.model.Asset;
 import com.grash.model.Company;
-import com.grash.model.File;
 import com.grash.model.OwnUser;
-import com.grash.model.enums.RoleType;
 import com.grash.security.CustomUserDetail;
 import lombok.Data;
-import org.springframework.http.HttpStatus;
+import org.hibernate.annotations.Filter;
+import org.hibernate.annotations.FilterDef;
+import org.hibernate.annotations.ParamDef;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
@@ -17,7 +15,15 @@ import javax.persistence.*;
 
 @MappedSuperclass
 @Data
+@FilterDef(name = CompanyAudit.TENANT_FILTER, parameters = @ParamDef(name = "companyId", type = "long"))
+@Filter(name = CompanyAudit.TENANT_FILTER, condition = "company_id = :companyId")
 public class CompanyAudit extends Audit {
+    /**
+     * Restricts the queries to the rows of a company, enabled on the session of the authenticated user by
+     * {@link com.grash.aspect.TenantFilterAspect}
+     */
+    public static final String TENANT_FILTER = "tenantFilter";
+
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     private Long id;
@@ -35,33 +41,4 @@ public class CompanyAudit extends Audit {
         Company company = user.getCompany();
         this.setCompany(company);
     }
-
-
-    @PostLoad
-    public void afterLoad() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || authentication.getPrincipal() instanceof String) return;
-        Object principal = authentication.getPrincipal();
-        OwnUser user = ((CustomUserDetail) principal).getUser();
-        Company company = user.getCompany();
-        // check if not authorized
-        if (!user.getRole().getRoleType().equals(RoleType.ROLE_SUPER_ADMIN) &&
-                !company.getId().equals(this.getCompany().getId())
-                && !makesException(user)) {
-            throw new CustomException("afterLoad:  the user (id=" + user.getId() + ")  is not authorized to load  " +
-                    "this object (" + this.getClass() + ") with id " + this.id, HttpStatus.FORBIDDEN);
-        }
-    }
-
-    private boolean makesException(OwnUser user) {
-        if (this instanceof File) {
-            return user.getSuperAccountRelations().stream()
-                    .anyMatch(relation -> relation.getChildUser().getCompany().getId().equals(this.company.getId()))
-//                    || (user.getParentSuperAccount() !=null && user.getParentSuperAccount().getSuperUser()
-//                    .getSuperAccountRelations().stream().anyMatch(sar->sar.getChildUser().getCompany().getId()
-//                    .equals(this.company.getId())))
-                    ;
-        }
-        return false;
-    }
 }
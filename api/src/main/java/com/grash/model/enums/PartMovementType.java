@@ -0,0 +1,8 @@
+package com.grash.model.enums;
+
+public enum PartMovementType {
+    CONSUMPTION,
+    RETURN,
+    RESTOCK,
+    ADJUSTMENT
+}
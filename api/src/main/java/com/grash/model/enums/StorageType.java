@@ -2,5 +2,6 @@ package com.grash.model.enums;
 
 public enum StorageType {
     GCP,
-    MINIO
+    MINIO,
+    LOCAL
 }
@@ -1,13 +1,31 @@
 package com.grash.repository;
 
+import com.grash.dto.analytics.workOrders.WOCostAggregate;
 import com.grash.model.AdditionalCost;
+import com.grash.model.enums.Status;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Collection;
+import java.util.Date;
+import java.util.List;
 
 public interface AdditionalCostRepository extends JpaRepository<AdditionalCost, Long> {
     Collection<AdditionalCost> findByWorkOrder_Id(Long id);
 
+    List<AdditionalCost> findByWorkOrder_IdIn(Collection<Long> ids);
+
     void deleteByWorkOrder_Company_IdAndIsDemoTrue(Long companyId);
 
+    @Query("SELECT ac.workOrder.asset.id AS id, SUM(ac.cost) AS cost FROM AdditionalCost ac " +
+            "WHERE ac.workOrder.company.id = :companyId AND ac.workOrder.status = :status " +
+            "AND ac.workOrder.createdAt BETWEEN :start AND :end " +
+            "GROUP BY ac.workOrder.asset.id")
+    List<WOCostAggregate> getAggregatesByAsset(@Param("companyId") Long companyId, @Param("status") Status status,
+                                               @Param("start") Date start, @Param("end") Date end);
+
+    @Query("SELECT ac.workOrder.id AS id, SUM(ac.cost) AS cost FROM AdditionalCost ac " +
+            "WHERE ac.workOrder.id IN :ids GROUP BY ac.workOrder.id")
+    List<WOCostAggregate> getAggregatesByWorkOrder(@Param("ids") Collection<Long> ids);
 }
@@ -2,6 +2,7 @@ package com.grash.repository;
 
 import com.grash.model.AssetDowntime;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -21,4 +22,23 @@ public interface AssetDowntimeRepository extends JpaRepository<AssetDowntime, Lo
     @Query("SELECT ad FROM AssetDowntime ad WHERE ad.asset.id = :id AND ad.startsOn BETWEEN :start AND :end AND ad.duration != 0")
     List<AssetDowntime> findByAsset_IdAndStartsOnBetween(@Param("id") Long id, @Param("start") Date start, @Param("end") Date end);
 
+    /**
+     * Sets the audit columns itself, a userId of 0 leaves them null
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO asset_downtime (id, created_at, updated_at, created_by, updated_by, company_id, " +
+            "asset_id, starts_on, duration) " +
+            "SELECT nextval('hibernate_sequence'), :now, :now, NULLIF(:userId, 0), NULLIF(:userId, 0), :companyId, " +
+            "c.ancestor_id, :startsOn, 0 FROM asset_closure c WHERE c.descendant_id = :assetId", nativeQuery = true)
+    int startForAssetAndAncestors(@Param("assetId") Long assetId, @Param("companyId") Long companyId,
+                                  @Param("startsOn") Date startsOn, @Param("userId") long userId,
+                                  @Param("now") Date now);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE asset_downtime SET duration = FLOOR(EXTRACT(EPOCH FROM (CAST(:now AS TIMESTAMP) - starts_on)))," +
+            " updated_at = :now, updated_by = NULLIF(:userId, 0) WHERE duration = 0 " +
+            "AND asset_id IN (SELECT descendant_id FROM asset_closure WHERE ancestor_id = :assetId)", nativeQuery = true)
+    int stopForAssetAndDescendants(@Param("assetId") Long assetId, @Param("now") Date now,
+                                   @Param("userId") long userId);
+
 }
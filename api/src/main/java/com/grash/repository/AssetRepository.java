@@ -1,11 +1,15 @@
 package com.grash.repository;
 
 import com.grash.model.Asset;
+import com.grash.model.enums.AssetStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.security.core.parameters.P;
 
 import java.util.Collection;
@@ -16,13 +20,27 @@ import java.util.Optional;
 public interface AssetRepository extends JpaRepository<Asset, Long>, JpaSpecificationExecutor<Asset> {
     List<Asset> findByCompany_Id(Long id);
 
+    List<Asset> findByCompany_IdAndIdGreaterThanOrderByIdAsc(Long id, Long lastId, Pageable pageable);
+
     List<Asset> findByCompany_Id(Long id, Sort sort);
 
     List<Asset> findByCompany_IdAndParentAssetIsNull(Long id, Pageable pageable);
 
     List<Asset> findByParentAsset_Id(Long id, Sort sort);
 
-    Integer countByParentAsset_Id(Long id);
+    boolean existsByParentAsset_Id(Long id);
+
+    @Query(value = "SELECT descendant_id FROM asset_closure WHERE ancestor_id = :id AND depth > 0", nativeQuery = true)
+    List<Number> findDescendantIds(@Param("id") Long id);
+
+    @Query(value = "SELECT ancestor_id FROM asset_closure WHERE descendant_id = :id AND depth > 0", nativeQuery = true)
+    List<Number> findAncestorIds(@Param("id") Long id);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Asset a SET a.status = :status, a.updatedAt = :now WHERE a.id IN :ids " +
+            "AND a.status NOT IN :unchangedStatuses")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") AssetStatus status,
+                     @Param("unchangedStatuses") Collection<AssetStatus> unchangedStatuses, @Param("now") Date now);
 
     List<Asset> findByLocation_Id(Long id);
 
@@ -2,6 +2,7 @@ package com.grash.repository;
 
 import com.grash.model.Company;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 import java.util.Optional;
@@ -12,4 +13,7 @@ public interface CompanyRepository extends JpaRepository<Company, Long> {
     void deleteAllByDemoTrue();
 
     Optional<Company> findBySubscription_Id(Long id);
+
+    @Query("SELECT c.id FROM Company c")
+    List<Long> findAllIds();
 }
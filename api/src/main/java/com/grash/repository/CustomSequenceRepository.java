@@ -2,6 +2,9 @@ package com.grash.repository;
 
 import com.grash.model.CustomSequence;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -9,4 +12,32 @@ import java.util.Optional;
 @Repository
 public interface CustomSequenceRepository extends JpaRepository<CustomSequence, Long> {
     Optional<CustomSequence> findByCompanyId(Long companyId);
+
+    /**
+     * Adds count to a counter of the company in one statement. The row lock of the update serializes the concurrent
+     * allocations, each one reading the values it added.
+     *
+     * @param counter the name of a {@link com.grash.service.CustomSequenceService.Counter}
+     * @return the first allocated value, or empty when the company has no sequence row yet
+     */
+    @Query(value = "UPDATE custom_sequence SET " +
+            "work_order_sequence = work_order_sequence + CASE WHEN :counter = 'WORK_ORDER' THEN :count ELSE 0 END, " +
+            "asset_sequence = asset_sequence + CASE WHEN :counter = 'ASSET' THEN :count ELSE 0 END, " +
+            "preventive_maintenance_sequence = preventive_maintenance_sequence " +
+            "+ CASE WHEN :counter = 'PREVENTIVE_MAINTENANCE' THEN :count ELSE 0 END, " +
+            "location_sequence = location_sequence + CASE WHEN :counter = 'LOCATION' THEN :count ELSE 0 END, " +
+            "request_sequence = request_sequence + CASE WHEN :counter = 'REQUEST' THEN :count ELSE 0 END, " +
+            "permit_sequence = permit_sequence + CASE WHEN :counter = 'PERMIT' THEN :count ELSE 0 END " +
+            "WHERE company_id = :companyId " +
+            "RETURNING CASE :counter WHEN 'WORK_ORDER' THEN work_order_sequence WHEN 'ASSET' THEN asset_sequence " +
+            "WHEN 'PREVENTIVE_MAINTENANCE' THEN preventive_maintenance_sequence " +
+            "WHEN 'LOCATION' THEN location_sequence WHEN 'REQUEST' THEN request_sequence " +
+            "ELSE permit_sequence END - :count", nativeQuery = true)
+    Optional<Long> allocate(@Param("companyId") Long companyId, @Param("counter") String counter,
+                            @Param("count") int count);
+
+    @Modifying
+    @Query(value = "INSERT INTO custom_sequence (id, company_id) VALUES (nextval('hibernate_sequence'), :companyId) " +
+            "ON CONFLICT (company_id) DO NOTHING", nativeQuery = true)
+    int createIfAbsent(@Param("companyId") Long companyId);
 }
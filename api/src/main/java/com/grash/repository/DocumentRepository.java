@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -29,6 +30,39 @@ public interface DocumentRepository extends JpaRepository<Document, Long> {
         @Param("searchTerm") String searchTerm
     );
     
+    /**
+     * Ids and depths of the active documents of an entity, the roots being at depth 1, down to maxDepth
+     */
+    @Query(value = "WITH RECURSIVE tree (id, is_folder, depth) AS (" +
+            "SELECT d.id, d.is_folder, 1 FROM document d WHERE d.company_id = :companyId " +
+            "AND d.entity_type = :entityType AND d.entity_id = :entityId AND d.parent_document_id IS NULL " +
+            "AND d.is_active = true " +
+            "UNION ALL " +
+            "SELECT d.id, d.is_folder, t.depth + 1 FROM document d JOIN tree t ON d.parent_document_id = t.id " +
+            "WHERE t.is_folder = true AND t.depth < :maxDepth AND d.company_id = :companyId " +
+            "AND d.is_active = true) " +
+            "SELECT id, depth FROM tree", nativeQuery = true)
+    List<Object[]> findTree(@Param("entityType") String entityType, @Param("entityId") Long entityId,
+                            @Param("companyId") Long companyId, @Param("maxDepth") int maxDepth);
+
+    /**
+     * Ids and depths of the active documents under a folder, its children being at depth 1, down to maxDepth
+     */
+    @Query(value = "WITH RECURSIVE tree (id, is_folder, depth) AS (" +
+            "SELECT d.id, d.is_folder, 1 FROM document d WHERE d.company_id = :companyId " +
+            "AND d.parent_document_id = :parentId AND d.is_active = true " +
+            "UNION ALL " +
+            "SELECT d.id, d.is_folder, t.depth + 1 FROM document d JOIN tree t ON d.parent_document_id = t.id " +
+            "WHERE t.is_folder = true AND t.depth < :maxDepth AND d.company_id = :companyId " +
+            "AND d.is_active = true) " +
+            "SELECT id, depth FROM tree", nativeQuery = true)
+    List<Object[]> findSubtree(@Param("parentId") Long parentId, @Param("companyId") Long companyId,
+                               @Param("maxDepth") int maxDepth);
+
+    @Query("SELECT DISTINCT d FROM Document d LEFT JOIN FETCH d.createdByUser LEFT JOIN FETCH d.tags " +
+            "WHERE d.id IN :ids ORDER BY d.id")
+    List<Document> findByIdInForTree(@Param("ids") Collection<Long> ids);
+
     boolean existsByNameAndParentDocumentAndCompany_Id(
         String name, Document parentDocument, Long companyId
     );
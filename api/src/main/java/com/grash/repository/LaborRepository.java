@@ -1,12 +1,37 @@
 package com.grash.repository;
 
+import com.grash.dto.analytics.workOrders.WOCostAggregate;
 import com.grash.model.Labor;
+import com.grash.model.enums.Status;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Collection;
+import java.util.Date;
+import java.util.List;
 
 public interface LaborRepository extends JpaRepository<Labor, Long> {
     Collection<Labor> findByWorkOrder_Id(Long id);
 
+    List<Labor> findByWorkOrder_IdIn(Collection<Long> ids);
+
     void deleteByCompany_IdAndIsDemoTrue(Long companyId);
+
+    @Query("SELECT COALESCE(SUM(l.duration), 0) FROM Labor l " +
+            "WHERE l.workOrder.company.id = :companyId AND l.workOrder.createdAt BETWEEN :start AND :end")
+    Long getDurationSumByWorkOrderCreatedAtBetween(@Param("companyId") Long companyId, @Param("start") Date start,
+                                                   @Param("end") Date end);
+
+    @Query("SELECT l.workOrder.asset.id AS id, SUM(l.hourlyRate * l.duration / 3600) AS cost, " +
+            "SUM(l.duration) AS duration FROM Labor l " +
+            "WHERE l.workOrder.company.id = :companyId AND l.workOrder.status = :status " +
+            "AND l.workOrder.createdAt BETWEEN :start AND :end " +
+            "GROUP BY l.workOrder.asset.id")
+    List<WOCostAggregate> getAggregatesByAsset(@Param("companyId") Long companyId, @Param("status") Status status,
+                                               @Param("start") Date start, @Param("end") Date end);
+
+    @Query("SELECT l.workOrder.id AS id, SUM(l.hourlyRate * l.duration / 3600) AS cost, " +
+            "SUM(l.duration) AS duration FROM Labor l WHERE l.workOrder.id IN :ids GROUP BY l.workOrder.id")
+    List<WOCostAggregate> getAggregatesByWorkOrder(@Param("ids") Collection<Long> ids);
 }
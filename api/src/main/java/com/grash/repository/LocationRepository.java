@@ -14,6 +14,8 @@ import java.util.Optional;
 public interface LocationRepository extends JpaRepository<Location, Long>, JpaSpecificationExecutor<Location> {
     Collection<Location> findByCompany_Id(Long id);
 
+    List<Location> findByCompany_IdAndIdGreaterThanOrderByIdAsc(Long id, Long lastId, Pageable pageable);
+
     List<Location> findByCompany_Id(Long id, Sort sort);
 
     List<Location> findByParentLocation_Id(Long id, Sort sort);
@@ -22,7 +24,7 @@ public interface LocationRepository extends JpaRepository<Location, Long>, JpaSp
 
     Optional<Location> findByIdAndCompany_Id(Long id, Long companyId);
 
-    int countByParentLocation_Id(Long locationId);
+    boolean existsByParentLocation_Id(Long locationId);
 
     void deleteByCompany_IdAndIsDemoTrue(Long companyId);
 }
@@ -0,0 +1,10 @@
+package com.grash.repository;
+
+import com.grash.model.PartMovement;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface PartMovementRepository extends JpaRepository<PartMovement, Long> {
+    List<PartMovement> findByPart_IdOrderByCreatedAtDesc(Long partId);
+}
@@ -1,9 +1,15 @@
 package com.grash.repository;
 
+import com.grash.dto.analytics.workOrders.WOCostAggregate;
 import com.grash.model.PartQuantity;
+import com.grash.model.enums.Status;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Collection;
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 public interface PartQuantityRepository extends JpaRepository<PartQuantity, Long> {
@@ -11,9 +17,22 @@ public interface PartQuantityRepository extends JpaRepository<PartQuantity, Long
 
     Collection<PartQuantity> findByWorkOrder_Id(Long id);
 
+    List<PartQuantity> findByWorkOrder_IdIn(Collection<Long> ids);
+
     Collection<PartQuantity> findByPart_Id(Long id);
 
     Collection<PartQuantity> findByPurchaseOrder_Id(Long id);
 
     void deleteByCompany_IdAndIsDemoTrue(Long companyId);
+
+    @Query("SELECT pq.workOrder.asset.id AS id, SUM(pq.quantity * pq.part.cost) AS cost FROM PartQuantity pq " +
+            "WHERE pq.workOrder.company.id = :companyId AND pq.workOrder.status = :status " +
+            "AND pq.workOrder.createdAt BETWEEN :start AND :end " +
+            "GROUP BY pq.workOrder.asset.id")
+    List<WOCostAggregate> getAggregatesByAsset(@Param("companyId") Long companyId, @Param("status") Status status,
+                                               @Param("start") Date start, @Param("end") Date end);
+
+    @Query("SELECT pq.workOrder.id AS id, SUM(pq.quantity * pq.part.cost) AS cost FROM PartQuantity pq " +
+            "WHERE pq.workOrder.id IN :ids GROUP BY pq.workOrder.id")
+    List<WOCostAggregate> getAggregatesByWorkOrder(@Param("ids") Collection<Long> ids);
 }
@@ -1,16 +1,21 @@
 package com.grash.repository;
 
 import com.grash.model.Part;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface PartRepository extends JpaRepository<Part, Long>, JpaSpecificationExecutor<Part> {
     Collection<Part> findByCompany_Id(@Param("x") Long id);
 
+    List<Part> findByCompany_IdAndIdGreaterThanOrderByIdAsc(Long id, Long lastId, Pageable pageable);
+
     Optional<Part> findByIdAndCompany_Id(Long id, Long companyId);
 
     Optional<Part> findByNameIgnoreCaseAndCompany_Id(String name, Long companyId);
@@ -18,4 +23,14 @@ public interface PartRepository extends JpaRepository<Part, Long>, JpaSpecificat
     Optional<Part> findByBarcodeAndCompany_Id(String barcode, Long companyId);
 
     void deleteByCompany_IdAndIsDemoTrue(Long companyId);
+
+    /**
+     * Adds delta to the quantity in one statement, unless the quantity would become negative. The row lock of the
+     * update serializes the concurrent changes of a part, and the returned quantity is the one right after this change.
+     *
+     * @return the new quantity, or empty when there is not enough of the part
+     */
+    @Query(value = "UPDATE part SET quantity = quantity + :delta WHERE id = :id AND quantity + :delta >= 0 " +
+            "RETURNING quantity", nativeQuery = true)
+    Optional<Double> addQuantity(@Param("id") Long id, @Param("delta") double delta);
 }
@@ -0,0 +1,43 @@
+package com.grash.repository;
+
+import com.grash.model.PreventiveMaintenanceOccurrence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Date;
+import java.util.List;
+
+public interface PreventiveMaintenanceOccurrenceRepository extends JpaRepository<PreventiveMaintenanceOccurrence,
+        Long> {
+    @Query("SELECT o FROM PreventiveMaintenanceOccurrence o JOIN FETCH o.preventiveMaintenance " +
+            "WHERE o.companyId = :companyId AND o.date >= :start AND o.date <= :end ORDER BY o.date")
+    List<PreventiveMaintenanceOccurrence> findByCompanyAndDateBetween(@Param("companyId") Long companyId,
+                                                                      @Param("start") Date start,
+                                                                      @Param("end") Date end);
+
+    //schedule id and date of its last occurrence
+    @Query("SELECT o.scheduleId, MAX(o.date) FROM PreventiveMaintenanceOccurrence o " +
+            "WHERE o.companyId = :companyId GROUP BY o.scheduleId")
+    List<Object[]> findLastDatesByCompany(@Param("companyId") Long companyId);
+
+    @Query("SELECT o.date FROM PreventiveMaintenanceOccurrence o WHERE o.scheduleId = :scheduleId " +
+            "AND o.workOrderId IS NOT NULL")
+    List<Date> findGeneratedDates(@Param("scheduleId") Long scheduleId);
+
+    //skips the ones another node is generating
+    @Query(value = "SELECT * FROM preventive_maintenance_occurrence WHERE work_order_id IS NULL " +
+            "AND date > :oldest AND date <= :now ORDER BY date LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<PreventiveMaintenanceOccurrence> lockDue(@Param("oldest") Date oldest, @Param("now") Date now,
+                                                  @Param("limit") int limit);
+
+    @Modifying
+    @Query("DELETE FROM PreventiveMaintenanceOccurrence o WHERE o.scheduleId = :scheduleId AND o.workOrderId IS NULL")
+    void deletePendingBySchedule(@Param("scheduleId") Long scheduleId);
+
+    @Modifying
+    @Query("DELETE FROM PreventiveMaintenanceOccurrence o WHERE o.companyId = :companyId AND o.date <= :date")
+    int deleteByCompanyAndDateBefore(@Param("companyId") Long companyId, @Param("date") Date date);
+}
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.util.Collection;
+import java.util.List;
 
 public interface RelationRepository extends JpaRepository<Relation, Long> {
     @Query("SELECT r from Relation r where r.child.company.id = :x ")
@@ -15,5 +16,7 @@ public interface RelationRepository extends JpaRepository<Relation, Long> {
 
     Collection<Relation> findByChild_Id(Long id);
 
+    List<Relation> findByParent_IdInOrChild_IdIn(Collection<Long> parentIds, Collection<Long> childIds);
+
     Collection<Relation> findByParent_IdAndChild_Id(Long parentId, Long childId);
 }
@@ -0,0 +1,17 @@
+package com.grash.repository;
+
+import com.grash.model.ReportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+
+public interface ReportJobRepository extends JpaRepository<ReportJob, String> {
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ReportJob j WHERE j.createdAt < :date")
+    int deleteByCreatedAtBefore(@Param("date") Date date);
+}
@@ -6,10 +6,20 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.util.Collection;
+import java.util.List;
 
 public interface ScheduleRepository extends JpaRepository<Schedule, Long> {
     @Query("SELECT s from Schedule s where s.preventiveMaintenance.company.id = :x ")
     Collection<Schedule> findByCompany_Id(@Param("x") Long id);
 
     void deleteByPreventiveMaintenanceCompany_IdAndIsDemoTrue(Long companyId);
+
+    @Query("SELECT s.id FROM Schedule s ORDER BY s.id")
+    List<Long> findAllIds();
+
+    //with everything scheduleWorkOrder reads
+    @Query("SELECT DISTINCT s FROM Schedule s JOIN FETCH s.preventiveMaintenance pm JOIN FETCH pm.company c " +
+            "JOIN FETCH c.companySettings cs JOIN FETCH cs.generalPreferences LEFT JOIN FETCH s.daysOfWeek " +
+            "WHERE s.id IN :ids")
+    List<Schedule> findByIdInForScheduling(@Param("ids") Collection<Long> ids);
 }
@@ -1,10 +1,20 @@
 package com.grash.repository;
 
 import com.grash.model.Subscription;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 public interface SubscriptionRepository extends JpaRepository<Subscription, Long> {
     Optional<Subscription> findByFastSpringId(String id);
+
+    @Query("SELECT s FROM Subscription s JOIN FETCH s.subscriptionPlan p WHERE s.endsOn <= :now " +
+            "AND p.code <> 'FREE' AND s.id > :lastId " +
+            "AND EXISTS (SELECT c.id FROM Company c WHERE c.subscription = s) ORDER BY s.id")
+    List<Subscription> findExpired(@Param("now") Date now, @Param("lastId") Long lastId, Pageable pageable);
 }
@@ -16,6 +16,9 @@ public interface WorkOrderAudRepository extends JpaRepository<WorkOrderAud, Long
     @Query("SELECT w FROM WorkOrderAud w WHERE w.workOrderAudId.id = :id AND w.revtype= :revType")
     List<WorkOrderAud> findByIdAndRevtype(@Param("id") Long id, @Param("revType") Integer revType);
 
+    @Query("SELECT w FROM WorkOrderAud w WHERE w.workOrderAudId.id IN :ids AND w.revtype= :revType")
+    List<WorkOrderAud> findByIdInAndRevtype(@Param("ids") Collection<Long> ids, @Param("revType") Integer revType);
+
     @Query("SELECT w FROM WorkOrderAud w WHERE w.workOrderAudId.id = :id AND w.workOrderAudId.rev.timestamp<= :date order by w.workOrderAudId.rev.timestamp desc")
     List<WorkOrderAud> findLastByIdAndDate(@Param("id") Long id, @Param("date") Long date, Pageable pageable);
 
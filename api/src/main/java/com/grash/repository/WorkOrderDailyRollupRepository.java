@@ -0,0 +1,69 @@
+package com.grash.repository;
+
+import com.grash.dto.analytics.workOrders.WODailyAggregate;
+import com.grash.model.WorkOrderDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+
+public interface WorkOrderDailyRollupRepository extends JpaRepository<WorkOrderDailyRollup, Long> {
+
+    //serializes the rebuilds of a company until the end of the transaction
+    @Query(value = "SELECT COUNT(*) FROM (SELECT pg_advisory_xact_lock(:companyId)) AS l", nativeQuery = true)
+    Long lockCompany(@Param("companyId") Long companyId);
+
+    @Modifying
+    @Query("DELETE FROM WorkOrderDailyRollup r WHERE r.companyId = :companyId AND r.day >= :start AND r.day < :end")
+    void deleteByCompanyAndDays(@Param("companyId") Long companyId, @Param("start") LocalDate start,
+                                @Param("end") LocalDate end);
+
+    /**
+     * Rebuilds the rows of the days in [start, end[: work orders created on these days give the creation counts,
+     * work orders completed on these days give the completion counts, labor and costs
+     */
+    @Modifying
+    @Query(value = "INSERT INTO work_order_daily_rollup (company_id, day, category_id, asset_id, status, priority, " +
+            "created_count, completed_count, compliant_count, reactive_count, labor_seconds, " +
+            "reactive_labor_seconds, labor_cost, part_cost, additional_cost) " +
+            "SELECT :companyId, s.day, s.category_id, s.asset_id, s.status, s.priority, SUM(s.created), " +
+            "SUM(s.completed), SUM(s.compliant), SUM(s.reactive), SUM(s.labor_seconds), " +
+            "SUM(s.reactive_labor_seconds), SUM(s.labor_cost), SUM(s.part_cost), SUM(s.additional_cost) FROM (" +
+            "SELECT CAST(wo.created_at AS DATE) AS day, wo.category_id, wo.asset_id, wo.status, wo.priority, " +
+            "1 AS created, 0 AS completed, 0 AS compliant, 0 AS reactive, 0 AS labor_seconds, " +
+            "0 AS reactive_labor_seconds, 0 AS labor_cost, 0 AS part_cost, 0 AS additional_cost " +
+            "FROM work_order wo WHERE wo.company_id = :companyId AND wo.created_at >= :start AND wo.created_at < :end " +
+            "UNION ALL " +
+            "SELECT CAST(wo.completed_on AS DATE), wo.category_id, wo.asset_id, wo.status, wo.priority, 0, 1, " +
+            "CASE WHEN wo.due_date IS NULL OR wo.completed_on < wo.due_date THEN 1 ELSE 0 END, " +
+            "CASE WHEN wo.parent_preventive_maintenance_id IS NULL THEN 1 ELSE 0 END, " +
+            "COALESCE(l.seconds, 0), " +
+            "CASE WHEN wo.parent_preventive_maintenance_id IS NULL THEN COALESCE(l.seconds, 0) ELSE 0 END, " +
+            "COALESCE(l.cost, 0), COALESCE(pq.cost, 0), COALESCE(ac.cost, 0) " +
+            "FROM work_order wo " +
+            "LEFT JOIN LATERAL (SELECT SUM(l.duration) AS seconds, SUM(l.hourly_rate * l.duration / 3600) AS cost " +
+            "FROM labor l WHERE l.work_order_id = wo.id) l ON TRUE " +
+            "LEFT JOIN LATERAL (SELECT SUM(pq.quantity * p.cost) AS cost FROM part_quantity pq " +
+            "JOIN part p ON p.id = pq.part_id WHERE pq.work_order_id = wo.id) pq ON TRUE " +
+            "LEFT JOIN LATERAL (SELECT SUM(ac.cost) AS cost FROM additional_cost ac " +
+            "WHERE ac.work_order_id = wo.id) ac ON TRUE " +
+            "WHERE wo.company_id = :companyId AND wo.status = :complete " +
+            "AND wo.completed_on >= :start AND wo.completed_on < :end" +
+            ") s GROUP BY s.day, s.category_id, s.asset_id, s.status, s.priority",
+            nativeQuery = true)
+    void insertByCompanyAndDays(@Param("companyId") Long companyId, @Param("start") Date start,
+                                @Param("end") Date end, @Param("complete") int complete);
+
+    @Query("SELECT r.day AS day, SUM(r.createdCount) AS created, SUM(r.completedCount) AS completed, " +
+            "SUM(r.compliantCount) AS compliant, SUM(r.reactiveCount) AS reactive, " +
+            "SUM(r.laborSeconds) AS laborSeconds, SUM(r.reactiveLaborSeconds) AS reactiveLaborSeconds, " +
+            "SUM(r.laborCost) AS laborCost, SUM(r.partCost) AS partCost, SUM(r.additionalCost) AS additionalCost " +
+            "FROM WorkOrderDailyRollup r WHERE r.companyId = :companyId AND r.day >= :start AND r.day < :end " +
+            "GROUP BY r.day")
+    List<WODailyAggregate> getDailyAggregates(@Param("companyId") Long companyId, @Param("start") LocalDate start,
+                                              @Param("end") LocalDate end);
+}
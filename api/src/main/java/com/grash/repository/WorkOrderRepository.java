@@ -1,7 +1,13 @@
 package com.grash.repository;
 
+import com.grash.dto.analytics.workOrders.WOCompleteAggregate;
+import com.grash.dto.analytics.workOrders.WOCycleAggregate;
+import com.grash.dto.analytics.workOrders.WOGroupAggregate;
+import com.grash.dto.analytics.workOrders.WOPriorityAggregate;
+import com.grash.dto.analytics.workOrders.WOStatusAggregate;
 import com.grash.model.WorkOrder;
 import com.grash.model.enums.Priority;
+import com.grash.model.enums.Status;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -11,15 +17,22 @@ import org.springframework.data.repository.query.Param;
 
 import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 public interface WorkOrderRepository extends JpaRepository<WorkOrder, Long>, JpaSpecificationExecutor<WorkOrder> {
     Collection<WorkOrder> findByCompany_Id(Long id);
 
+    List<WorkOrder> findByCompany_IdAndIdGreaterThanOrderByIdAsc(Long id, Long lastId, Pageable pageable);
+
     Collection<WorkOrder> findByAsset_Id(Long id);
 
     Collection<WorkOrder> findByLocation_Id(Long id);
 
+    @Query(value = "SELECT w.* FROM work_order w JOIN location_closure c ON w.location_id = c.descendant_id " +
+            "WHERE c.ancestor_id = :id AND w.company_id = :companyId", nativeQuery = true)
+    Collection<WorkOrder> findByLocationSubtree(@Param("id") Long id, @Param("companyId") Long companyId);
+
     Page<WorkOrder> findByParentPreventiveMaintenance_Id(Long id, Pageable pageable);
 
     Collection<WorkOrder> findByPrimaryUser_Id(Long id);
@@ -69,4 +82,187 @@ public interface WorkOrderRepository extends JpaRepository<WorkOrder, Long>, Jpa
     Collection<WorkOrder> findByCategory_IdAndCreatedAtBetween(Long id, Date start, Date end);
 
     void deleteByCompany_IdAndIsDemoTrue(Long companyId);
+
+    @Query(value = "SELECT COUNT(*) AS \"total\", " +
+            "COUNT(*) FILTER (WHERE wo.status = :complete) AS \"complete\", " +
+            "COUNT(*) FILTER (WHERE wo.status = :complete AND (wo.due_date IS NULL OR wo.completed_on < wo" +
+            ".due_date)) AS \"compliant\", " +
+            "COUNT(wo.first_time_to_react) AS \"reacted\", " +
+            "COALESCE(SUM(TRUNC(EXTRACT(EPOCH FROM (wo.first_time_to_react - wo.created_at)) / 3600)), 0) AS " +
+            "\"reactionHours\", " +
+            "COUNT(wo.completed_on) FILTER (WHERE wo.status = :complete) AS \"cycleCount\", " +
+            "COALESCE(SUM(TRUNC(EXTRACT(EPOCH FROM (wo.completed_on - COALESCE(r.created_at, wo.created_at))) / " +
+            "86400)) FILTER (WHERE wo.status = :complete), 0) AS \"cycleDays\" " +
+            "FROM work_order wo LEFT JOIN request r ON r.id = wo.parent_request_id " +
+            "WHERE wo.company_id = :companyId AND wo.created_at BETWEEN :start AND :end",
+            nativeQuery = true)
+    WOCompleteAggregate getCompleteAggregate(@Param("companyId") Long companyId, @Param("start") Date start,
+                                             @Param("end") Date end, @Param("complete") int completeOrdinal);
+
+    @Query(value = "SELECT wo.company_id AS \"id\", " +
+            "COUNT(*) FILTER (WHERE wo.status = :complete) AS \"complete\", " +
+            "COUNT(*) FILTER (WHERE wo.status <> :complete) AS \"incomplete\", " +
+            "COALESCE(SUM(TRUNC(EXTRACT(EPOCH FROM (CAST(:now AS TIMESTAMP) - COALESCE(r.created_at, wo" +
+            ".created_at))) / 86400)) FILTER (WHERE wo.status <> :complete), 0) AS \"incompleteAgeDays\" " +
+            "FROM work_order wo LEFT JOIN request r ON r.id = wo.parent_request_id " +
+            "WHERE wo.company_id = :companyId AND wo.created_at BETWEEN :start AND :end " +
+            "GROUP BY wo.company_id",
+            nativeQuery = true)
+    Optional<WOGroupAggregate> getCompanyAggregate(@Param("companyId") Long companyId, @Param("start") Date start,
+                                                   @Param("end") Date end, @Param("now") Date now,
+                                                   @Param("complete") int completeOrdinal);
+
+    @Query(value = "SELECT wo.asset_id AS \"id\", " +
+            "COUNT(*) FILTER (WHERE wo.status = :complete) AS \"complete\", " +
+            "COUNT(*) FILTER (WHERE wo.status <> :complete) AS \"incomplete\", " +
+            "COALESCE(SUM(TRUNC(EXTRACT(EPOCH FROM (CAST(:now AS TIMESTAMP) - wo.created_at)) / 86400)) " +
+            "FILTER (WHERE wo.status <> :complete), 0) AS \"incompleteAgeDays\" " +
+            "FROM work_order wo " +
+            "WHERE wo.company_id = :companyId AND wo.asset_id IS NOT NULL AND wo.created_at BETWEEN :start AND :end " +
+            "GROUP BY wo.asset_id",
+            nativeQuery = true)
+    List<WOGroupAggregate> getAggregatesByAsset(@Param("companyId") Long companyId, @Param("start") Date start,
+                                                @Param("end") Date end, @Param("now") Date now,
+                                                @Param("complete") int completeOrdinal);
+
+    @Query(value = "SELECT wo.category_id AS \"id\", " +
+            "COUNT(*) FILTER (WHERE wo.status = :complete) AS \"complete\", " +
+            "COUNT(*) FILTER (WHERE wo.status <> :complete) AS \"incomplete\", " +
+            "COALESCE(SUM(TRUNC(EXTRACT(EPOCH FROM (CAST(:now AS TIMESTAMP) - wo.created_at)) / 86400)) " +
+            "FILTER (WHERE wo.status <> :complete), 0) AS \"incompleteAgeDays\" " +
+            "FROM work_order wo " +
+            "WHERE wo.company_id = :companyId AND wo.category_id IS NOT NULL AND wo.created_at BETWEEN :start AND" +
+            " :end " +
+            "GROUP BY wo.category_id",
+            nativeQuery = true)
+    List<WOGroupAggregate> getAggregatesByCategory(@Param("companyId") Long companyId, @Param("start") Date start,
+                                                   @Param("end") Date end, @Param("now") Date now,
+                                                   @Param("complete") int completeOrdinal);
+
+    @Query(value = "SELECT wo.completed_by_id AS \"id\", " +
+            "COUNT(*) FILTER (WHERE wo.status = :complete) AS \"complete\", " +
+            "COUNT(*) FILTER (WHERE wo.status <> :complete) AS \"incomplete\", " +
+            "COALESCE(SUM(TRUNC(EXTRACT(EPOCH FROM (CAST(:now AS TIMESTAMP) - wo.created_at)) / 86400)) " +
+            "FILTER (WHERE wo.status <> :complete), 0) AS \"incompleteAgeDays\" " +
+            "FROM work_order wo " +
+            "WHERE wo.company_id = :companyId AND wo.completed_by_id IS NOT NULL AND wo.created_at BETWEEN :start " +
+            "AND :end " +
+            "GROUP BY wo.completed_by_id",
+            nativeQuery = true)
+    List<WOGroupAggregate> getAggregatesByCompletedBy(@Param("companyId") Long companyId, @Param("start") Date start,
+                                                      @Param("end") Date end, @Param("now") Date now,
+                                                      @Param("complete") int completeOrdinal);
+
+    /**
+     * A work order counts for a user when the user is its primary user, one of its assignees or a member of its
+     * team, the same rule as {@link #findByAssignedToUserAndCreatedAtBetween}
+     */
+    @Query(value = "SELECT assignment.user_id AS \"id\", " +
+            "COUNT(*) FILTER (WHERE wo.status = :complete) AS \"complete\", " +
+            "COUNT(*) FILTER (WHERE wo.status <> :complete) AS \"incomplete\", " +
+            "COALESCE(SUM(TRUNC(EXTRACT(EPOCH FROM (CAST(:now AS TIMESTAMP) - wo.created_at)) / 86400)) " +
+            "FILTER (WHERE wo.status <> :complete), 0) AS \"incompleteAgeDays\" " +
+            "FROM work_order wo JOIN (" +
+            "SELECT pwo.id AS work_order_id, pwo.primary_user_id AS user_id FROM work_order pwo " +
+            "WHERE pwo.company_id = :companyId AND pwo.primary_user_id IS NOT NULL " +
+            "UNION SELECT wat.work_order_id, wat.assigned_to_id FROM work_order_assigned_to wat " +
+            "UNION SELECT two.id, tua.id_user FROM work_order two " +
+            "JOIN t_team_user_associations tua ON tua.id_team = two.team_id WHERE two.company_id = :companyId" +
+            ") assignment ON assignment.work_order_id = wo.id " +
+            "WHERE wo.company_id = :companyId AND wo.created_at BETWEEN :start AND :end " +
+            "GROUP BY assignment.user_id",
+            nativeQuery = true)
+    List<WOGroupAggregate> getAggregatesByAssignedUser(@Param("companyId") Long companyId, @Param("start") Date start,
+                                                       @Param("end") Date end, @Param("now") Date now,
+                                                       @Param("complete") int completeOrdinal);
+
+    @Query(value = "SELECT wo.asset_id AS \"id\", " +
+            "COUNT(wo.completed_on) AS \"cycleCount\", " +
+            "COALESCE(SUM(TRUNC(EXTRACT(EPOCH FROM (wo.completed_on - COALESCE(r.created_at, wo.created_at))) / " +
+            "86400)), 0) AS \"cycleDays\" " +
+            "FROM work_order wo LEFT JOIN request r ON r.id = wo.parent_request_id " +
+            "WHERE wo.company_id = :companyId AND wo.asset_id IS NOT NULL AND wo.status = :complete " +
+            "AND wo.created_at BETWEEN :start AND :end " +
+            "GROUP BY wo.asset_id",
+            nativeQuery = true)
+    List<WOCycleAggregate> getCompleteCycleAggregatesByAsset(@Param("companyId") Long companyId,
+                                                             @Param("start") Date start, @Param("end") Date end,
+                                                             @Param("complete") int completeOrdinal);
+
+    @Query("SELECT wo.priority AS priority, " +
+            "SUM(CASE WHEN wo.status = :complete THEN 1 ELSE 0 END) AS complete, " +
+            "SUM(CASE WHEN wo.status <> :complete THEN 1 ELSE 0 END) AS incomplete, " +
+            "SUM(CASE WHEN wo.status <> :complete THEN wo.estimatedDuration ELSE 0 END) AS incompleteEstimatedHours " +
+            "FROM WorkOrder wo WHERE wo.company.id = :companyId AND wo.createdAt BETWEEN :start AND :end " +
+            "GROUP BY wo.priority")
+    List<WOPriorityAggregate> getAggregatesByPriority(@Param("companyId") Long companyId, @Param("start") Date start,
+                                                      @Param("end") Date end, @Param("complete") Status complete);
+
+    @Query("SELECT wo.status AS status, COUNT(wo) AS total " +
+            "FROM WorkOrder wo WHERE wo.company.id = :companyId AND wo.createdAt BETWEEN :start AND :end " +
+            "GROUP BY wo.status")
+    List<WOStatusAggregate> getAggregatesByStatus(@Param("companyId") Long companyId, @Param("start") Date start,
+                                                  @Param("end") Date end);
+
+    @Query("SELECT COALESCE(SUM(wo.estimatedDuration), 0) FROM WorkOrder wo " +
+            "WHERE wo.company.id = :companyId AND wo.createdAt BETWEEN :start AND :end")
+    Double getEstimatedDurationSum(@Param("companyId") Long companyId, @Param("start") Date start,
+                                   @Param("end") Date end);
+
+    /**
+     * Changes as soon as the work order or anything its report shows is edited, added or removed, including the
+     * company, its currency and the names of the users, customers, asset, location, team, category and task bases.
+     * It is a digest of every row with its source, id and update time, in order, so that replacing the assignees or
+     * customers with others changes it even though the join tables have no update time.
+     */
+    @Query(value = "SELECT MD5(STRING_AGG(CONCAT(s.source, ':', s.id, ':', s.updated_at), ',' " +
+            "ORDER BY s.source, s.id, s.updated_at)) FROM (" +
+            "SELECT 'work_order' AS source, wo.id, wo.updated_at FROM work_order wo WHERE wo.id = :id " +
+            "UNION ALL SELECT 'task', t.id, t.updated_at FROM task t WHERE t.work_order_id = :id " +
+            "UNION ALL SELECT 'task_base', tb.id, tb.updated_at FROM task t JOIN task_base tb " +
+            "ON tb.id = t.task_base_id WHERE t.work_order_id = :id " +
+            "UNION ALL SELECT 'labor', l.id, l.updated_at FROM labor l WHERE l.work_order_id = :id " +
+            "UNION ALL SELECT 'part_quantity', pq.id, pq.updated_at FROM part_quantity pq " +
+            "WHERE pq.work_order_id = :id " +
+            "UNION ALL SELECT 'part', p.id, p.updated_at FROM part_quantity pq JOIN part p ON p.id = pq.part_id " +
+            "WHERE pq.work_order_id = :id " +
+            "UNION ALL SELECT 'additional_cost', ac.id, ac.updated_at FROM additional_cost ac " +
+            "WHERE ac.work_order_id = :id " +
+            "UNION ALL SELECT 'relation', r.id, r.updated_at FROM relation r " +
+            "WHERE r.parent_id = :id OR r.child_id = :id " +
+            "UNION ALL SELECT 'history', h.id, h.updated_at FROM work_order_history h WHERE h.work_order_id = :id " +
+            //the currency is a reference row, its id is what changes
+            "UNION ALL SELECT 'company', gp.currency_id, c.updated_at FROM work_order wo " +
+            "JOIN company c ON c.id = wo.company_id LEFT JOIN company_settings cs ON cs.id = c.company_settings_id " +
+            "LEFT JOIN general_preferences gp ON gp.id = cs.general_preferences_id WHERE wo.id = :id " +
+            "UNION ALL SELECT 'assigned_to', u.id, u.updated_at FROM work_order_assigned_to a JOIN own_user u " +
+            "ON u.id = a.assigned_to_id WHERE a.work_order_id = :id " +
+            "UNION ALL SELECT 'customer', cu.id, cu.updated_at FROM work_order_customers wc JOIN customer cu " +
+            "ON cu.id = wc.customers_id WHERE wc.work_order_id = :id " +
+            "UNION ALL SELECT 'user', u.id, u.updated_at FROM work_order wo JOIN own_user u " +
+            "ON u.id IN (wo.primary_user_id, wo.completed_by_id, wo.created_by) WHERE wo.id = :id " +
+            "UNION ALL SELECT 'labor_user', u.id, u.updated_at FROM labor l JOIN own_user u " +
+            "ON u.id = l.assigned_to_id WHERE l.work_order_id = :id " +
+            "UNION ALL SELECT 'history_user', u.id, u.updated_at FROM work_order_history h JOIN own_user u " +
+            "ON u.id = h.user_id WHERE h.work_order_id = :id " +
+            "UNION ALL SELECT 'asset', a.id, a.updated_at FROM work_order wo JOIN asset a ON a.id = wo.asset_id " +
+            "WHERE wo.id = :id " +
+            "UNION ALL SELECT 'location', lo.id, lo.updated_at FROM work_order wo JOIN location lo " +
+            "ON lo.id = wo.location_id WHERE wo.id = :id " +
+            "UNION ALL SELECT 'team', te.id, te.updated_at FROM work_order wo JOIN team te ON te.id = wo.team_id " +
+            "WHERE wo.id = :id " +
+            "UNION ALL SELECT 'category', ca.id, ca.updated_at FROM work_order wo JOIN work_order_category ca " +
+            "ON ca.id = wo.category_id WHERE wo.id = :id) s",
+            nativeQuery = true)
+    String getReportVersion(@Param("id") Long id);
+
+    //preventive maintenances whose last `count` work orders were never reacted to
+    @Query(value = "SELECT last_work_orders.parent_preventive_maintenance_id FROM (" +
+            "SELECT wo.parent_preventive_maintenance_id, wo.first_time_to_react, ROW_NUMBER() OVER (" +
+            "PARTITION BY wo.parent_preventive_maintenance_id ORDER BY wo.created_at DESC) AS position " +
+            "FROM work_order wo WHERE wo.parent_preventive_maintenance_id IN (:ids)) last_work_orders " +
+            "WHERE last_work_orders.position <= :count GROUP BY last_work_orders.parent_preventive_maintenance_id " +
+            "HAVING COUNT(*) >= :count AND COUNT(last_work_orders.first_time_to_react) = 0",
+            nativeQuery = true)
+    List<Number> findStalePreventiveMaintenanceIds(@Param("ids") Collection<Long> ids, @Param("count") int count);
 }
@@ -0,0 +1,53 @@
+package com.grash.repository;
+
+import com.grash.dto.analytics.workOrders.WOStatusInterval;
+import com.grash.model.WorkOrderStatusInterval;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Date;
+import java.util.List;
+
+public interface WorkOrderStatusIntervalRepository extends JpaRepository<WorkOrderStatusInterval, Long> {
+
+    /**
+     * Intervals overlapping [from, to] of the work orders created in [start, end]
+     */
+    @Query("SELECT wo.createdAt AS createdAt, i.status AS status, i.validFrom AS validFrom, i.validTo AS validTo " +
+            "FROM WorkOrderStatusInterval i, WorkOrder wo WHERE wo.id = i.workOrderId AND i.companyId = :companyId " +
+            "AND wo.createdAt >= :start AND wo.createdAt <= :end " +
+            "AND i.validFrom <= :to AND (i.validTo IS NULL OR i.validTo > :from)")
+    List<WOStatusInterval> findByCompanyAndCreatedAtBetween(@Param("companyId") Long companyId,
+                                                            @Param("start") Date start, @Param("end") Date end,
+                                                            @Param("from") Long from, @Param("to") Long to);
+
+    /**
+     * Builds the intervals of the work orders of a company that have none, from their revisions. Consecutive
+     * revisions with the same status are merged, the first interval starts at the creation of the work order and
+     * work orders without revisions get one interval with their current status.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO work_order_status_interval (company_id, work_order_id, status, valid_from, valid_to) " +
+            "SELECT c.company_id, c.id, c.status, c.valid_from, " +
+            "LEAD(c.valid_from) OVER (PARTITION BY c.id ORDER BY c.valid_from, c.rev) FROM (" +
+            "SELECT wo.company_id, s.id, s.status, s.rev, CASE WHEN ROW_NUMBER() OVER w = 1 " +
+            "THEN COALESCE(LEAST(s.revision_timestamp, CAST(EXTRACT(EPOCH FROM wo.created_at) * 1000 AS BIGINT)), 0) " +
+            "ELSE s.revision_timestamp END AS valid_from, LAG(s.status) OVER w AS previous_status FROM (" +
+            "SELECT a.id, a.status, a.rev, r.revtstmp AS revision_timestamp FROM work_order_aud a " +
+            "JOIN revinfo r ON r.rev = a.rev WHERE a.revtype <> 2 AND a.status IS NOT NULL " +
+            "AND a.id IN (SELECT wo.id FROM work_order wo WHERE wo.company_id = :companyId) " +
+            "UNION ALL " +
+            "SELECT wo.id, wo.status, 0, NULL FROM work_order wo " +
+            "WHERE wo.company_id = :companyId AND wo.status IS NOT NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM work_order_aud a WHERE a.id = wo.id AND a.revtype <> 2 " +
+            "AND a.status IS NOT NULL)" +
+            ") s JOIN work_order wo ON wo.id = s.id WHERE wo.company_id = :companyId " +
+            "AND NOT EXISTS (SELECT 1 FROM work_order_status_interval i WHERE i.work_order_id = wo.id) " +
+            "WINDOW w AS (PARTITION BY s.id ORDER BY s.revision_timestamp, s.rev)" +
+            ") c WHERE c.previous_status IS NULL OR c.previous_status <> c.status " +
+            "ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int backfillByCompany(@Param("companyId") Long companyId);
+}
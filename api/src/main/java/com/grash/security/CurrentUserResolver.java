@@ -5,6 +5,8 @@ import com.grash.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.core.MethodParameter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.bind.support.WebDataBinderFactory;
 import org.springframework.web.context.request.NativeWebRequest;
@@ -32,6 +34,10 @@ public class CurrentUserResolver implements HandlerMethodArgumentResolver {
     @Override
     public OwnUser resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer, NativeWebRequest webRequest,
                                    WebDataBinderFactory binderFactory) throws Exception {
+        //the filter already put the cached user of the token in the security context
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof CustomUserDetail)
+            return ((CustomUserDetail) authentication.getPrincipal()).getUser();
         return userService.whoami(webRequest.getNativeRequest(HttpServletRequest.class));
     }
 }
\ No newline at end of file
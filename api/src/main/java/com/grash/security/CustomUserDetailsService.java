@@ -13,11 +13,13 @@ import org.springframework.transaction.annotation.Transactional;
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
 
     @Override
     @Transactional(readOnly = true)
     public CustomUserDetail loadUserByUsername(String username) throws UsernameNotFoundException {
-        final OwnUser user = userRepository.findByEmailIgnoreCase(username).orElse(null);
+        final OwnUser user = principalCache.get(username,
+                subject -> userRepository.findByEmailIgnoreCase(subject).orElse(null));
         if (user == null) {
             throw new UsernameNotFoundException("User '" + username + "' not found");
         }
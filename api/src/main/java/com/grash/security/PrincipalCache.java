@@ -0,0 +1,162 @@
+package com.grash.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.grash.model.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hibernate.Hibernate;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Authenticated users by token subject, so that an API call does not look its user up. The cache is bounded and
+ * entries are evicted as soon as their user, role, company or subscription changes on this node. The evictions are not
+ * broadcast, so the entries expire after a few seconds: a change made on another node, like a revoked permission or a
+ * disabled user, takes effect here within that expiry.
+ */
+@Component
+public class PrincipalCache {
+    private final Cache<String, OwnUser> users;
+
+    public PrincipalCache(@Value("${security.principal-cache.spec:maximumSize=10000,expireAfterWrite=15s,recordStats}")
+                          String spec, MeterRegistry meterRegistry) {
+        this.users = Caffeine.from(spec).build();
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "principals");
+    }
+
+    /**
+     * @return a copy of the cached user, so that a request changing its user does not change the one of the others
+     */
+    public OwnUser get(String subject, Function<String, OwnUser> loader) {
+        return copy(users.get(subject.toLowerCase(Locale.ROOT), key -> initialize(loader.apply(key))));
+    }
+
+    public void invalidateUser(Long userId) {
+        invalidateIf(user -> userId.equals(user.getId()));
+    }
+
+    public void invalidateRole(Long roleId) {
+        invalidateIf(user -> user.getRole() != null && roleId.equals(user.getRole().getId()));
+    }
+
+    public void invalidateCompany(Long companyId) {
+        invalidateIf(user -> user.getCompany() != null && companyId.equals(user.getCompany().getId()));
+    }
+
+    public void invalidateSubscription(Long subscriptionId) {
+        invalidateIf(user -> user.getCompany() != null && user.getCompany().getSubscription() != null
+                && subscriptionId.equals(user.getCompany().getSubscription().getId()));
+    }
+
+    public void invalidateCompanySettings(Long companySettingsId) {
+        invalidateIf(user -> user.getCompany() != null && user.getCompany().getCompanySettings() != null
+                && companySettingsId.equals(user.getCompany().getCompanySettings().getId()));
+    }
+
+    public void invalidateGeneralPreferences(Long generalPreferencesId) {
+        invalidateIf(user -> user.getCompany() != null && user.getCompany().getCompanySettings() != null
+                && user.getCompany().getCompanySettings().getGeneralPreferences() != null
+                && generalPreferencesId.equals(user.getCompany().getCompanySettings().getGeneralPreferences().getId()));
+    }
+
+    public void invalidateAll() {
+        users.invalidateAll();
+    }
+
+    private void invalidateIf(Predicate<OwnUser> predicate) {
+        users.asMap().values().removeIf(predicate);
+    }
+
+    //cached users are shared between requests, so what the permission checks read is loaded once here
+    private OwnUser initialize(OwnUser user) {
+        if (user == null) return null;
+        if (user.getRole() != null) {
+            Hibernate.initialize(user.getRole().getCreatePermissions());
+            Hibernate.initialize(user.getRole().getViewPermissions());
+            Hibernate.initialize(user.getRole().getViewOtherPermissions());
+            Hibernate.initialize(user.getRole().getEditOtherPermissions());
+            Hibernate.initialize(user.getRole().getDeleteOtherPermissions());
+        }
+        Company company = user.getCompany();
+        if (company != null) {
+            Hibernate.initialize(company);
+            Hibernate.initialize(company.getCompanySettings());
+            Hibernate.initialize(company.getCompanySettings().getGeneralPreferences());
+            if (company.getSubscription() != null && company.getSubscription().getSubscriptionPlan() != null)
+                Hibernate.initialize(company.getSubscription().getSubscriptionPlan().getFeatures());
+        }
+        Hibernate.initialize(user.getUserSettings());
+        Hibernate.initialize(user.getSuperAccountRelations());
+        return user;
+    }
+
+    //the user with its own role and company graph, down to what was initialized above
+    private static OwnUser copy(OwnUser user) {
+        if (user == null) return null;
+        OwnUser copy = new OwnUser();
+        BeanUtils.copyProperties(user, copy);
+        if (user.getSuperAccountRelations() != null)
+            copy.setSuperAccountRelations(new ArrayList<>(user.getSuperAccountRelations()));
+        copy.setRole(copy(user.getRole()));
+        copy.setCompany(copy(user.getCompany()));
+        return copy;
+    }
+
+    private static Role copy(Role role) {
+        if (role == null) return null;
+        Role copy = new Role();
+        BeanUtils.copyProperties(role, copy);
+        copy.setCreatePermissions(copy(role.getCreatePermissions()));
+        copy.setViewPermissions(copy(role.getViewPermissions()));
+        copy.setViewOtherPermissions(copy(role.getViewOtherPermissions()));
+        copy.setEditOtherPermissions(copy(role.getEditOtherPermissions()));
+        copy.setDeleteOtherPermissions(copy(role.getDeleteOtherPermissions()));
+        return copy;
+    }
+
+    private static Company copy(Company company) {
+        if (company == null) return null;
+        Company copy = new Company();
+        BeanUtils.copyProperties(company, copy, "companySettings", "subscription");
+        CompanySettings companySettings = company.getCompanySettings();
+        if (companySettings != null) {
+            CompanySettings companySettingsCopy = new CompanySettings();
+            BeanUtils.copyProperties(companySettings, companySettingsCopy, "company", "generalPreferences");
+            companySettingsCopy.setCompany(copy);
+            if (companySettings.getGeneralPreferences() != null) {
+                GeneralPreferences generalPreferences = new GeneralPreferences();
+                BeanUtils.copyProperties(companySettings.getGeneralPreferences(), generalPreferences,
+                        "companySettings");
+                generalPreferences.setCompanySettings(companySettingsCopy);
+                companySettingsCopy.setGeneralPreferences(generalPreferences);
+            }
+            copy.setCompanySettings(companySettingsCopy);
+        } else copy.setCompanySettings(null);
+        Subscription subscription = company.getSubscription();
+        if (subscription != null) {
+            Subscription subscriptionCopy = new Subscription();
+            BeanUtils.copyProperties(subscription, subscriptionCopy, "subscriptionPlan");
+            if (subscription.getSubscriptionPlan() != null) {
+                SubscriptionPlan subscriptionPlan = new SubscriptionPlan();
+                BeanUtils.copyProperties(subscription.getSubscriptionPlan(), subscriptionPlan);
+                subscriptionPlan.setFeatures(copy(subscription.getSubscriptionPlan().getFeatures()));
+                subscriptionCopy.setSubscriptionPlan(subscriptionPlan);
+            }
+            copy.setSubscription(subscriptionCopy);
+        }
+        return copy;
+    }
+
+    private static <T> Set<T> copy(Set<T> set) {
+        return set == null ? null : new HashSet<>(set);
+    }
+}
@@ -0,0 +1,69 @@
+package com.grash.security;
+
+import com.grash.model.*;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * Entity listener of the entities a cached principal is made of. The entry is evicted on flush and once more after
+ * commit, so that a request running in between cannot put the old state back.
+ */
+@Component
+@RequiredArgsConstructor
+public class PrincipalCacheListener {
+    private final PrincipalCache principalCache;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        Runnable invalidation = invalidation(entity);
+        if (invalidation == null) return;
+        invalidation.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidation.run();
+                }
+            });
+        }
+    }
+
+    private Runnable invalidation(Object entity) {
+        if (entity instanceof OwnUser) {
+            Long id = ((OwnUser) entity).getId();
+            return () -> principalCache.invalidateUser(id);
+        } else if (entity instanceof Role) {
+            Long id = ((Role) entity).getId();
+            return () -> principalCache.invalidateRole(id);
+        } else if (entity instanceof Company) {
+            Long id = ((Company) entity).getId();
+            return () -> principalCache.invalidateCompany(id);
+        } else if (entity instanceof Subscription) {
+            Long id = ((Subscription) entity).getId();
+            return () -> principalCache.invalidateSubscription(id);
+        } else if (entity instanceof CompanySettings) {
+            Long id = ((CompanySettings) entity).getId();
+            return () -> principalCache.invalidateCompanySettings(id);
+        } else if (entity instanceof GeneralPreferences) {
+            Long id = ((GeneralPreferences) entity).getId();
+            return () -> principalCache.invalidateGeneralPreferences(id);
+        } else if (entity instanceof SuperAccountRelation) {
+            SuperAccountRelation relation = (SuperAccountRelation) entity;
+            Long superUserId = relation.getSuperUser() == null ? null : relation.getSuperUser().getId();
+            Long childUserId = relation.getChildUser() == null ? null : relation.getChildUser().getId();
+            return () -> {
+                if (superUserId != null) principalCache.invalidateUser(superUserId);
+                if (childUserId != null) principalCache.invalidateUser(childUserId);
+            };
+        }
+        return null;
+    }
+}
@@ -33,6 +33,7 @@ public class AdditionalCostService {
     public AdditionalCost create(AdditionalCost additionalCost) {
         AdditionalCost savedAdditionalCost = additionalCostRepository.saveAndFlush(additionalCost);
         em.refresh(savedAdditionalCost);
+        workOrderService.publishChange(savedAdditionalCost.getWorkOrder());
         return savedAdditionalCost;
     }
 
@@ -42,6 +43,7 @@ public class AdditionalCostService {
             AdditionalCost savedAdditionalCost = additionalCostRepository.findById(id).get();
             AdditionalCost updatedAdditionalCost = additionalCostRepository.saveAndFlush(additionalCostMapper.updateAdditionalCost(savedAdditionalCost, additionalCost));
             em.refresh(updatedAdditionalCost);
+            workOrderService.publishChange(updatedAdditionalCost.getWorkOrder());
             return updatedAdditionalCost;
         } else throw new CustomException("Not found", HttpStatus.NOT_FOUND);
     }
@@ -51,7 +53,9 @@ public class AdditionalCostService {
     }
 
     public void delete(Long id) {
+        Optional<AdditionalCost> optionalAdditionalCost = additionalCostRepository.findById(id);
         additionalCostRepository.deleteById(id);
+        optionalAdditionalCost.ifPresent(additionalCost -> workOrderService.publishChange(additionalCost.getWorkOrder()));
     }
 
     public Optional<AdditionalCost> findById(Long id) {
@@ -0,0 +1,100 @@
+package com.grash.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.grash.event.AssetCreatedEvent;
+import com.grash.event.AssetDowntimeChangedEvent;
+import com.grash.event.RequestChangedEvent;
+import com.grash.event.WorkOrderChangedEvent;
+import com.grash.utils.CacheKeyUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evicts the analytics of a company when the data behind them changes. Each event only clears the caches reading
+ * that data, and the number of evicted entries is published as the analytics.cache.invalidations metric.
+ */
+@Service
+public class AnalyticsCacheService {
+    static final List<String> WORK_ORDER_CACHES = Arrays.asList("getCompleteStats", "getIncompleteStats",
+            "getIncompleteByPriority", "getWOStatuses", "getIncompleteByAsset", "getIncompleteByUser", "getWOHours",
+            "getWOCountsByUser", "getWOCountsByCompletedBy", "getWOCountsByPriority", "getWOCountsByCategory",
+            "getWOCompleteByWeek", "getWOCompleteTimeByWeek", "getWOCompleteCostsAndTime", "getWOCompleteCostsByDate",
+            "getWOStatusesByDate", "getUserWOStats");
+    static final List<String> ASSET_CACHES = Arrays.asList("getTimeCostByAsset", "getOverviewStats",
+            "getDowntimesByAsset", "getMTBFByAsset", "getMeantimes", "getRepairTimeByAsset",
+            "getDowntimesMeantimeByMonth", "getAssetsCosts", "getDowntimesAndCosts", "getDowntimesByMonth",
+            "getDateRangeOverview");
+    static final List<String> PART_CACHES = Arrays.asList("getPartStats", "getPartPareto", "getConsumptionByAsset",
+            "getConsumptionByPartCategory", "getConsumptionByWOCategory", "getPartConsumptionsByMonth");
+    static final List<String> REQUEST_CACHES = Arrays.asList("getRequestStats", "getRequestByPriority",
+            "getCycleTimeByMonth", "getRequestCountsByCategory", "getReceivedAndResolvedRequests");
+
+    private final CacheManager analyticsCacheManager;
+    private final MeterRegistry meterRegistry;
+
+    public AnalyticsCacheService(@Qualifier("analyticsCacheManager") CacheManager analyticsCacheManager,
+                                 MeterRegistry meterRegistry) {
+        this.analyticsCacheManager = analyticsCacheManager;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public static String[] getCacheNames() {
+        List<String> cacheNames = new ArrayList<>();
+        cacheNames.addAll(WORK_ORDER_CACHES);
+        cacheNames.addAll(ASSET_CACHES);
+        cacheNames.addAll(PART_CACHES);
+        cacheNames.addAll(REQUEST_CACHES);
+        return cacheNames.toArray(new String[0]);
+    }
+
+    //labors, costs and part quantities are published as changes of their work order
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleWorkOrderChanged(WorkOrderChangedEvent event) {
+        //asset costs and repair times, part consumptions and request cycle times read work orders too
+        evict(event.getCompanyId(), "work_order", WORK_ORDER_CACHES, ASSET_CACHES, PART_CACHES, REQUEST_CACHES);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleAssetDowntimeChanged(AssetDowntimeChangedEvent event) {
+        evict(event.getCompanyId(), "downtime", ASSET_CACHES);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleRequestChanged(RequestChangedEvent event) {
+        evict(event.getCompanyId(), "request", REQUEST_CACHES);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleAssetCreated(AssetCreatedEvent event) {
+        if (event.getAsset().getCompany() != null)
+            evict(event.getAsset().getCompany().getId(), "asset", ASSET_CACHES, PART_CACHES);
+    }
+
+    @SafeVarargs
+    @SuppressWarnings("unchecked")
+    public final void evict(Long companyId, String cause, Collection<String>... cacheNameGroups) {
+        String prefix = CacheKeyUtils.companyPrefix(companyId);
+        long evicted = 0;
+        for (Collection<String> cacheNames : cacheNameGroups) {
+            for (String cacheName : cacheNames) {
+                org.springframework.cache.Cache cache = analyticsCacheManager.getCache(cacheName);
+                if (cache == null) continue;
+                Map<Object, Object> entries = ((Cache<Object, Object>) cache.getNativeCache()).asMap();
+                for (Object key : entries.keySet()) {
+                    if (key.toString().startsWith(prefix) && entries.remove(key) != null) evicted++;
+                }
+            }
+        }
+        meterRegistry.counter("analytics.cache.invalidations", "cause", cause).increment(evicted);
+    }
+}
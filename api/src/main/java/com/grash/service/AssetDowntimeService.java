@@ -1,13 +1,19 @@
 package com.grash.service;
 
 import com.grash.dto.AssetDowntimePatchDTO;
+import com.grash.event.AssetDowntimeChangedEvent;
 import com.grash.exception.CustomException;
 import com.grash.mapper.AssetDowntimeMapper;
+import com.grash.model.Asset;
 import com.grash.model.AssetDowntime;
 import com.grash.repository.AssetDowntimeRepository;
 import com.grash.utils.DowntimeComparator;
 import com.grash.utils.Helper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.AuditorAware;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
@@ -20,14 +26,21 @@ public class AssetDowntimeService {
     private final AssetDowntimeRepository assetDowntimeRepository;
     private final CompanyService companyService;
     private final AssetDowntimeMapper assetDowntimeMapper;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private AuditorAware<Long> auditorAware;
+
+    @Autowired
+    public void setDeps(@Lazy AuditorAware<Long> auditorAware) {
+        this.auditorAware = auditorAware;
+    }
 
     public AssetDowntime create(AssetDowntime assetDowntime) {
         checkOverlapping(assetDowntime);
-        return assetDowntimeRepository.save(assetDowntime);
+        return publishChange(assetDowntimeRepository.save(assetDowntime));
     }
 
     public AssetDowntime save(AssetDowntime assetDowntime) {
-        return assetDowntimeRepository.save(assetDowntime);
+        return publishChange(assetDowntimeRepository.save(assetDowntime));
     }
 
     public AssetDowntime update(Long id, AssetDowntimePatchDTO assetDowntime) {
@@ -35,7 +48,7 @@ public class AssetDowntimeService {
             AssetDowntime savedAssetDowntime = assetDowntimeRepository.findById(id).get();
             AssetDowntime updatedAssetDowntime = assetDowntimeMapper.updateAssetDowntime(savedAssetDowntime, assetDowntime);
             checkOverlapping(updatedAssetDowntime);
-            return assetDowntimeRepository.save(updatedAssetDowntime);
+            return publishChange(assetDowntimeRepository.save(updatedAssetDowntime));
         } else throw new CustomException("Not found", HttpStatus.NOT_FOUND);
     }
 
@@ -44,7 +57,40 @@ public class AssetDowntimeService {
     }
 
     public void delete(Long id) {
+        Optional<AssetDowntime> optionalAssetDowntime = assetDowntimeRepository.findById(id);
         assetDowntimeRepository.deleteById(id);
+        optionalAssetDowntime.ifPresent(this::publishChange);
+    }
+
+    /**
+     * Starts a downtime on the asset and each of its ancestors with one statement
+     */
+    public void startForAssetAndAncestors(Asset asset, Date startsOn) {
+        assetDowntimeRepository.startForAssetAndAncestors(asset.getId(), asset.getCompany().getId(), startsOn,
+                getCurrentUserId(), new Date());
+        applicationEventPublisher.publishEvent(new AssetDowntimeChangedEvent(asset.getCompany().getId()));
+    }
+
+    /**
+     * Stops the running downtimes of the asset and of its whole subtree with one statement
+     */
+    public void stopForAssetAndDescendants(Asset asset, Date now) {
+        assetDowntimeRepository.stopForAssetAndDescendants(asset.getId(), now, getCurrentUserId());
+        applicationEventPublisher.publishEvent(new AssetDowntimeChangedEvent(asset.getCompany().getId()));
+    }
+
+    /**
+     * The native statements bypass JPA auditing. 0 rather than null when there is no user,
+     * a null parameter would be bound without a type
+     */
+    private long getCurrentUserId() {
+        return auditorAware.getCurrentAuditor().orElse(0L);
+    }
+
+    private AssetDowntime publishChange(AssetDowntime assetDowntime) {
+        if (assetDowntime.getCompany() != null)
+            applicationEventPublisher.publishEvent(new AssetDowntimeChangedEvent(assetDowntime.getCompany().getId()));
+        return assetDowntime;
     }
 
     public Optional<AssetDowntime> findById(Long id) {
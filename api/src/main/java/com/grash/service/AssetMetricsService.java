@@ -0,0 +1,76 @@
+package com.grash.service;
+
+import com.grash.dto.analytics.workOrders.WOCostAggregate;
+import com.grash.dto.analytics.workOrders.WOCycleAggregate;
+import com.grash.model.AssetDowntime;
+import com.grash.model.enums.Status;
+import com.grash.repository.AdditionalCostRepository;
+import com.grash.repository.LaborRepository;
+import com.grash.repository.PartQuantityRepository;
+import com.grash.repository.WorkOrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Per asset metrics of a company fetched with a constant number of grouped queries, whatever the number of assets
+ */
+@Service
+@RequiredArgsConstructor
+public class AssetMetricsService {
+    private final AssetDowntimeService assetDowntimeService;
+    private final WorkOrderRepository workOrderRepository;
+    private final LaborRepository laborRepository;
+    private final PartQuantityRepository partQuantityRepository;
+    private final AdditionalCostRepository additionalCostRepository;
+
+    public Map<Long, List<AssetDowntime>> getDowntimesByAsset(Long companyId, Date start, Date end) {
+        return groupByAsset(assetDowntimeService.findByStartsOnBetweenAndCompany(start, end, companyId));
+    }
+
+    //ended downtimes only, the running ones have no duration yet
+    public Map<Long, List<AssetDowntime>> getEndedDowntimesByAsset(Long companyId) {
+        return groupByAsset(assetDowntimeService.findByCompany(companyId).stream()
+                .filter(assetDowntime -> assetDowntime.getDuration() != 0).collect(Collectors.toList()));
+    }
+
+    public Map<Long, Long> getMTBFs(Long companyId, Date start, Date end) {
+        return getDowntimesByAsset(companyId, start, end).entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> AssetService.getMTBF(entry.getValue())));
+    }
+
+    //average number of days to complete the work orders of each asset
+    public Map<Long, Long> getRepairTimes(Long companyId, Date start, Date end) {
+        return workOrderRepository.getCompleteCycleAggregatesByAsset(companyId, start, end,
+                        Status.COMPLETE.ordinal()).stream()
+                .collect(Collectors.toMap(WOCycleAggregate::getId,
+                        aggregate -> WorkOrderAnalyticsService.average(aggregate.getCycleDays(),
+                                aggregate.getCycleCount())));
+    }
+
+    public Map<Long, Long> getCompleteWOLaborTimes(Long companyId, Date start, Date end) {
+        Map<Long, Long> result = new HashMap<>();
+        laborRepository.getAggregatesByAsset(companyId, Status.COMPLETE, start, end).stream()
+                .filter(aggregate -> aggregate.getId() != null)
+                .forEach(aggregate -> result.put(aggregate.getId(), aggregate.getDuration()));
+        return result;
+    }
+
+    public Map<Long, Double> getCompleteWOCosts(Long companyId, Date start, Date end, boolean includeLaborCost) {
+        Map<Long, Double> result = new HashMap<>();
+        List<WOCostAggregate> aggregates = new ArrayList<>();
+        aggregates.addAll(partQuantityRepository.getAggregatesByAsset(companyId, Status.COMPLETE, start, end));
+        aggregates.addAll(additionalCostRepository.getAggregatesByAsset(companyId, Status.COMPLETE, start, end));
+        if (includeLaborCost)
+            aggregates.addAll(laborRepository.getAggregatesByAsset(companyId, Status.COMPLETE, start, end));
+        aggregates.stream().filter(aggregate -> aggregate.getId() != null && aggregate.getCost() != null)
+                .forEach(aggregate -> result.merge(aggregate.getId(), aggregate.getCost(), Double::sum));
+        return result;
+    }
+
+    private Map<Long, List<AssetDowntime>> groupByAsset(Collection<AssetDowntime> downtimes) {
+        return downtimes.stream().collect(Collectors.groupingBy(assetDowntime -> assetDowntime.getAsset().getId()));
+    }
+}
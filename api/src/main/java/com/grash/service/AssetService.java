@@ -14,6 +14,7 @@ import com.grash.model.enums.AssetStatus;
 import com.grash.model.enums.NotificationType;
 import com.grash.repository.AssetRepository;
 import com.grash.utils.Helper;
+import com.grash.utils.ImportLookups;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationEventPublisher;
@@ -150,51 +151,33 @@ public class AssetService {
         return assetRepository.findByLocation_Id(id);
     }
 
-    private void stopAssetDowntime(Asset asset) {
-        Collection<AssetDowntime> assetDowntimes = assetDowntimeService.findByAsset(asset.getId());
-        Optional<AssetDowntime> optionalRunningDowntime =
-                assetDowntimes.stream().filter(downtime -> downtime.getDuration() == 0).findFirst();
-
-        if (optionalRunningDowntime.isPresent()) {
-            AssetDowntime runningDowntime = optionalRunningDowntime.get();
-            runningDowntime.setDuration(Helper.getDateDiff(runningDowntime.getStartsOn(), new Date(),
-                    TimeUnit.SECONDS));
-            assetDowntimeService.save(runningDowntime);
-        }
-
-        asset.setStatus(AssetStatus.OPERATIONAL);
-        save(asset);
-    }
-
-    private void recursivelyStopChildrenDowntime(Asset parentAsset) {
-        List<Asset> children = findAssetChildren(parentAsset.getId(), null);
-        for (Asset child : children) {
-            stopAssetDowntime(child);
-            recursivelyStopChildrenDowntime(child);
-        }
-    }
-
+    @Transactional
     public void stopDownTime(Long id, Locale locale) {
         Asset savedAsset = findById(id).orElseThrow(() -> new EntityNotFoundException("Asset not found"));
-        stopAssetDowntime(savedAsset);
-        recursivelyStopChildrenDowntime(savedAsset);
+        Date now = new Date();
+        assetDowntimeService.stopForAssetAndDescendants(savedAsset, now);
+        List<Long> descendantIds = toIds(assetRepository.findDescendantIds(id));
+        if (!descendantIds.isEmpty()) {
+            assetRepository.updateStatus(descendantIds, AssetStatus.OPERATIONAL,
+                    Collections.singletonList(AssetStatus.OPERATIONAL), now);
+        }
+        savedAsset.setStatus(AssetStatus.OPERATIONAL);
+        save(savedAsset);
         String message = messageSource.getMessage("notification_asset_operational",
                 new Object[]{savedAsset.getName()}, locale);
         notify(savedAsset, message, messageSource.getMessage("asset_status_change", null, locale));
     }
 
+    @Transactional
     public void triggerDownTime(Long id, Locale locale, AssetStatus status) {
         Date now = new Date();
         Asset asset = findById(id).get();
-        createAssetDowntime(asset, now, asset.getCompany());
-        Asset parentAsset = asset.getParentAsset();
-        while (parentAsset != null) {
-            createAssetDowntime(parentAsset, now, asset.getCompany());
-            if (!parentAsset.getStatus().isReallyDown()) {
-                parentAsset.setStatus(status);
-                save(parentAsset);
-            }
-            parentAsset = parentAsset.getParentAsset();
+        assetDowntimeService.startForAssetAndAncestors(asset, now);
+        List<Long> ancestorIds = toIds(assetRepository.findAncestorIds(id));
+        if (!ancestorIds.isEmpty()) {
+            //the ancestors already down keep their status
+            assetRepository.updateStatus(ancestorIds, status, Arrays.stream(AssetStatus.values())
+                    .filter(AssetStatus::isReallyDown).collect(Collectors.toList()), now);
         }
         asset.setStatus(status);
         save(asset);
@@ -203,13 +186,8 @@ public class AssetService {
 
     }
 
-    private void createAssetDowntime(Asset asset, Date startsOn, Company company) {
-        AssetDowntime downtime = AssetDowntime.builder()
-                .startsOn(startsOn)
-                .asset(asset)
-                .build();
-        downtime.setCompany(company);
-        assetDowntimeService.create(downtime);
+    private static List<Long> toIds(List<Number> ids) {
+        return ids.stream().map(Number::longValue).collect(Collectors.toList());
     }
 
     public boolean isAssetInCompany(Asset asset, long companyId, boolean optional) {
@@ -234,18 +212,16 @@ public class AssetService {
         return assetRepository.findByNameIgnoreCaseAndCompany_Id(assetName, companyId);
     }
 
-    public void importAsset(Asset asset, AssetImportDTO dto, Company company) {
-        Long companySettingsId = company.getCompanySettings().getId();
-        Long companyId = company.getId();
+    public void importAsset(Asset asset, AssetImportDTO dto, Company company, ImportLookups lookups) {
         asset.setArea(dto.getArea());
         if (dto.getBarCode() != null) {
-            Optional<Asset> optionalAssetWithSameBarCode = findByBarcodeAndCompany(dto.getBarCode(), company.getId());
+            Optional<Long> optionalAssetWithSameBarCode = lookups.findAssetIdByBarcode(dto.getBarCode());
             if (optionalAssetWithSameBarCode.isPresent()) {
                 boolean hasError = false;
                 if (dto.getId() == null) {//creation
                     hasError = true;
                 } else {//update
-                    if (!dto.getId().equals(optionalAssetWithSameBarCode.get().getId())) {
+                    if (!dto.getId().equals(optionalAssetWithSameBarCode.get())) {
                         hasError = true;
                     }
                 }
@@ -262,56 +238,24 @@ public class AssetService {
         asset.setPower(dto.getPower());
         asset.setCustomId(getAssetNumber(company));
         asset.setManufacturer(dto.getManufacturer());
-        Optional<Location> optionalLocation = locationService.findByNameIgnoreCaseAndCompany(dto.getLocationName(),
-                companyId).stream().findFirst();
-        optionalLocation.ifPresent(asset::setLocation);
-        Optional<Asset> optionalAsset =
-                findByNameIgnoreCaseAndCompany(dto.getParentAssetName(), companyId).stream().findFirst();
-        optionalAsset.ifPresent(asset::setParentAsset);
-        Optional<AssetCategory> optionalAssetCategory =
-                assetCategoryService.findByNameIgnoreCaseAndCompanySettings(dto.getCategory(), companySettingsId);
-        optionalAssetCategory.ifPresent(asset::setCategory);
+        lookups.findLocation(dto.getLocationName()).ifPresent(asset::setLocation);
+        lookups.findAsset(dto.getParentAssetName()).ifPresent(asset::setParentAsset);
+        lookups.findAssetCategory(dto.getCategory()).ifPresent(asset::setCategory);
         asset.setName(dto.getName());
-        Optional<OwnUser> optionalPrimaryUser = userService.findByEmailAndCompany(dto.getPrimaryUserEmail(), companyId);
-        optionalPrimaryUser.ifPresent(asset::setPrimaryUser);
+        lookups.findUserByEmail(dto.getPrimaryUserEmail()).ifPresent(asset::setPrimaryUser);
         asset.setWarrantyExpirationDate(Helper.getDateFromExcelDate(dto.getWarrantyExpirationDate()));
         asset.setAdditionalInfos(dto.getAdditionalInfos());
         asset.setSerialNumber(dto.getSerialNumber());
-        List<OwnUser> assignedTo = new ArrayList<>();
-        dto.getAssignedToEmails().forEach(email -> {
-            Optional<OwnUser> optionalUser1 = userService.findByEmailAndCompany(email, companyId);
-            optionalUser1.ifPresent(assignedTo::add);
-        });
-        asset.setAssignedTo(assignedTo);
-        List<Team> teams = new ArrayList<>();
-        dto.getTeamsNames().forEach(teamName -> {
-            Optional<Team> optionalTeam = teamService.findByNameIgnoreCaseAndCompany(teamName, companyId);
-            optionalTeam.ifPresent(teams::add);
-        });
-        asset.setTeams(teams);
+        asset.setAssignedTo(lookups.findUsersByEmails(dto.getAssignedToEmails()));
+        asset.setTeams(lookups.findTeams(dto.getTeamsNames()));
         asset.setStatus(AssetStatus.getAssetStatusFromString(dto.getStatus(), Helper.getLocale(company),
                 messageSource));
         asset.setAcquisitionCost(dto.getAcquisitionCost());
-        List<Customer> customers = new ArrayList<>();
-        dto.getCustomersNames().forEach(name -> {
-            Optional<Customer> optionalCustomer = customerService.findByNameIgnoreCaseAndCompany(name, companyId);
-            optionalCustomer.ifPresent(customers::add);
-        });
-        asset.setCustomers(customers);
-        List<Vendor> vendors = new ArrayList<>();
-        dto.getVendorsNames().forEach(name -> {
-            Optional<Vendor> optionalVendor = vendorService.findByNameIgnoreCaseAndCompany(name, companyId);
-            optionalVendor.ifPresent(vendors::add);
-        });
-        asset.setVendors(vendors);
-        List<Part> parts = new ArrayList<>();
-        dto.getPartsNames().forEach(name -> {
-            Optional<Part> optionalPart = partService.findByNameIgnoreCaseAndCompany(name, companyId);
-            optionalPart.ifPresent(parts::add);
-        });
-        asset.setParts(parts);
-
-        assetRepository.save(asset);
+        asset.setCustomers(lookups.findCustomers(dto.getCustomersNames()));
+        asset.setVendors(lookups.findVendors(dto.getVendorsNames()));
+        asset.setParts(lookups.findParts(dto.getPartsNames()));
+
+        lookups.addAsset(assetRepository.save(asset));
     }
 
     public Optional<Asset> findByIdAndCompany(Long id, Long companyId) {
@@ -383,7 +327,7 @@ public class AssetService {
 
 
     public Boolean hasChildren(Long assetId) {
-        return assetRepository.countByParentAsset_Id(assetId) > 0;
+        return assetRepository.existsByParentAsset_Id(assetId);
     }
 
     // Stats
@@ -396,7 +340,10 @@ public class AssetService {
     }
 
     public long getMTBF(Long assetId, Date start, Date end) {
-        List<AssetDowntime> downtimes = assetDowntimeService.findByAssetAndStartsOnBetween(assetId, start, end);
+        return getMTBF(assetDowntimeService.findByAssetAndStartsOnBetween(assetId, start, end));
+    }
+
+    public static long getMTBF(List<AssetDowntime> downtimes) {
         downtimes.sort(Comparator.comparing(AssetDowntime::getStartsOn));
         if (downtimes.size() < 2) {
             return 0L;
@@ -418,10 +365,8 @@ public class AssetService {
 
     public long getMTTR(Long assetId, Date start, Date end) {
         Collection<WorkOrder> workOrders = workOrderService.findByAssetAndCreatedAtBetween(assetId, start, end);
-        List<Labor> labors = new ArrayList<>();
-        for (WorkOrder workOrder : workOrders) {
-            labors.addAll(laborService.findByWorkOrder(workOrder.getId()));
-        }
+        List<Labor> labors =
+                laborService.findByWorkOrders(workOrders.stream().map(WorkOrder::getId).collect(Collectors.toList()));
         return workOrders.isEmpty() ? 0 : (Labor.getTotalWorkDuration(labors) / 60) / workOrders.size();
     }
 
@@ -4,14 +4,40 @@ import com.grash.model.Company;
 import com.grash.model.CustomSequence;
 import com.grash.repository.CustomSequenceRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.transaction.Transactional;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Allocates the numbers of the custom ids of a company with one conditional UPDATE ... RETURNING instead of reading
+ * and saving its {@link CustomSequence}. With a block size above 1, each node reserves blocks of numbers in their
+ * own transaction and hands them out from memory: numbers are then unique but can have gaps, and are not ordered
+ * across nodes.
+ */
 @Service
 @RequiredArgsConstructor
 public class CustomSequenceService {
     private final CustomSequenceRepository customSequenceRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    @Value("${custom-sequences.block-size:1}")
+    private int blockSize;
+
+    public enum Counter {
+        WORK_ORDER,
+        ASSET,
+        PREVENTIVE_MAINTENANCE,
+        LOCATION,
+        REQUEST,
+        PERMIT
+    }
 
     public CustomSequence findByCompanyId(Long companyId) {
         return customSequenceRepository.findByCompanyId(companyId)
@@ -35,51 +61,66 @@ public class CustomSequenceService {
 
     @Transactional
     public Long getNextWorkOrderSequence(Company company) {
-        CustomSequence customSequence = getOrCreateCustomSequence(company);
-        Long nextSequence = customSequence.getAndIncrementWorkOrderSequence();
-        customSequenceRepository.save(customSequence);
-        return nextSequence;
+        return next(company, Counter.WORK_ORDER);
     }
 
+    /**
+     * @return the first of count consecutive work order numbers
+     */
+    @Transactional
+    public Long getNextWorkOrderSequences(Company company, int count) {
+        return allocate(company.getId(), Counter.WORK_ORDER, count);
+    }
 
     @Transactional
     public Long getNextAssetSequence(Company company) {
-        CustomSequence customSequence = getOrCreateCustomSequence(company);
-        Long nextSequence = customSequence.getAndIncrementAssetSequence();
-        customSequenceRepository.save(customSequence);
-        return nextSequence;
+        return next(company, Counter.ASSET);
     }
 
     @Transactional
     public Long getNextPreventiveMaintenanceSequence(Company company) {
-        CustomSequence customSequence = getOrCreateCustomSequence(company);
-        Long nextSequence = customSequence.getAndIncrementPreventiveMaintenanceSequence();
-        customSequenceRepository.save(customSequence);
-        return nextSequence;
+        return next(company, Counter.PREVENTIVE_MAINTENANCE);
     }
 
     @Transactional
     public Long getNextLocationSequence(Company company) {
-        CustomSequence customSequence = getOrCreateCustomSequence(company);
-        Long nextSequence = customSequence.getAndIncrementLocationSequence();
-        customSequenceRepository.save(customSequence);
-        return nextSequence;
+        return next(company, Counter.LOCATION);
     }
 
     @Transactional
     public Long getNextRequestSequence(Company company) {
-        CustomSequence customSequence = getOrCreateCustomSequence(company);
-        Long nextSequence = customSequence.getAndIncrementRequestSequence();
-        customSequenceRepository.save(customSequence);
-        return nextSequence;
+        return next(company, Counter.REQUEST);
     }
 
     @Transactional
     public Long getNextPermitSequence(Company company) {
-        CustomSequence customSequence = getOrCreateCustomSequence(company);
-        Long nextSequence = customSequence.getAndIncrementPermitSequence();
-        customSequenceRepository.save(customSequence);
-        return nextSequence;
+        return next(company, Counter.PERMIT);
     }
 
+    private long next(Company company, Counter counter) {
+        if (blockSize <= 1) return allocate(company.getId(), counter, 1);
+        Block block = blocks.computeIfAbsent(company.getId() + "-" + counter, key -> new Block());
+        synchronized (block) {
+            if (block.next == block.end) {
+                TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+                transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+                //committed at once, so that a rolled back caller leaves a gap instead of handing the block out again
+                block.next = transactionTemplate.execute(status -> allocate(company.getId(), counter, blockSize));
+                block.end = block.next + blockSize;
+            }
+            return block.next++;
+        }
+    }
+
+    private long allocate(Long companyId, Counter counter, int count) {
+        return customSequenceRepository.allocate(companyId, counter.name(), count).orElseGet(() -> {
+            customSequenceRepository.createIfAbsent(companyId);
+            return customSequenceRepository.allocate(companyId, counter.name(), count).get();
+        });
+    }
+
+    private static class Block {
+        private long next;
+        private long end;
+    }
 }
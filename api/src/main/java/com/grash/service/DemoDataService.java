@@ -357,6 +357,7 @@ public class DemoDataService {
 
         pm = preventiveMaintenanceRepository.save(pm);
         scheduleService.scheduleWorkOrder(pm.getSchedule());
+        scheduleService.publishChange(pm.getSchedule());
         return pm;
     }
 
@@ -21,6 +21,7 @@ import org.springframework.transaction.event.TransactionPhase;
 import org.springframework.transaction.event.TransactionalEventListener;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.OutputStream;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -99,31 +100,41 @@ public class DocumentService {
     }
     
     public List<DocumentDTO> getDocumentTree(String entityType, Long entityId, Long companyId) {
-        log.info("[DEBUG] getDocumentTree called: entityType={}, entityId={}, companyId={}", entityType, entityId, companyId);
-        List<Document> rootDocuments = documentRepository
-            .findByEntityTypeAndEntityIdAndParentDocumentIsNullAndIsActiveTrue(entityType, entityId);
-        log.info("[DEBUG] Found {} root documents", rootDocuments.size());
-        
-        List<DocumentDTO> result = rootDocuments.stream()
-            .filter(doc -> doc.getCompany().getId().equals(companyId))
-            .map(this::convertToTreeDTO)
-            .collect(Collectors.toList());
-        log.info("[DEBUG] Returning {} documents after company filter", result.size());
-        return result;
+        return getDocumentTree(entityType, entityId, companyId, Integer.MAX_VALUE);
     }
     
-    private DocumentDTO convertToTreeDTO(Document document) {
-        DocumentDTO dto = convertToDTO(document);
-        
-        if (document.getIsFolder()) {
-            List<Document> children = documentRepository
-                .findByParentDocumentAndIsActiveTrue(document);
-            dto.setChildren(children.stream()
-                .map(this::convertToTreeDTO)
-                .collect(Collectors.toList()));
-        }
-        
-        return dto;
+    /**
+     * Active documents of an entity as a tree, read with one recursive query whatever its depth.
+     *
+     * @param maxDepth levels to load. The folders of the last level have null children, to be loaded with
+     *                 {@link #getDocumentChildren} when expanded
+     */
+    public List<DocumentDTO> getDocumentTree(String entityType, Long entityId, Long companyId, int maxDepth) {
+        return buildTree(documentRepository.findTree(entityType, entityId, companyId, maxDepth), maxDepth);
+    }
+    
+    public List<DocumentDTO> getDocumentChildren(Long parentId, Long companyId, int maxDepth) {
+        return buildTree(documentRepository.findSubtree(parentId, companyId, maxDepth), maxDepth);
+    }
+    
+    private List<DocumentDTO> buildTree(List<Object[]> rows, int maxDepth) {
+        Map<Long, Integer> depths = new HashMap<>();
+        rows.forEach(row -> depths.put(((Number) row[0]).longValue(), ((Number) row[1]).intValue()));
+        if (depths.isEmpty()) return new ArrayList<>();
+        Map<Long, DocumentDTO> dtos = new LinkedHashMap<>();
+        documentRepository.findByIdInForTree(depths.keySet()).forEach(document -> {
+            DocumentDTO dto = convertToDTO(document);
+            if (document.getIsFolder() && depths.get(document.getId()) < maxDepth) {
+                dto.setChildren(new ArrayList<>());
+            }
+            dtos.put(document.getId(), dto);
+        });
+        List<DocumentDTO> roots = new ArrayList<>();
+        dtos.values().forEach(dto -> {
+            if (depths.get(dto.getId()) == 1) roots.add(dto);
+            else dtos.get(dto.getParentDocumentId()).getChildren().add(dto);
+        });
+        return roots;
     }
     
     @Transactional
@@ -214,16 +225,27 @@ public class DocumentService {
         }
     }
     
-    public byte[] downloadDocument(Long id, Long companyId) {
+    public Document getDocumentWithFile(Long id, Long companyId) {
         Document document = documentRepository.findByIdAndCompanyId(id, companyId)
             .orElseThrow(() -> new CustomException("Document not found", HttpStatus.NOT_FOUND));
         
         if (document.getFilePath() == null) {
             throw new CustomException("Document has no file", HttpStatus.BAD_REQUEST);
         }
-        
+        return document;
+    }
+    
+    public long getFileSize(Document document) {
+        return document.getFileSize() != null ? document.getFileSize()
+                : storageServiceFactory.getStorageService().getSize(document.getFilePath());
+    }
+    
+    /**
+     * Streams a range of the file of the document, without holding it in memory
+     */
+    public void downloadDocument(Document document, long offset, long length, OutputStream outputStream) {
         try {
-            return storageServiceFactory.getStorageService().download(document.getFilePath());
+            storageServiceFactory.getStorageService().download(document.getFilePath(), offset, length, outputStream);
         } catch (Exception e) {
             log.error("Error downloading file", e);
             throw new CustomException("Error downloading file", HttpStatus.INTERNAL_SERVER_ERROR);
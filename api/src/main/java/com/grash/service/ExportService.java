@@ -0,0 +1,103 @@
+package com.grash.service;
+
+import com.grash.exception.CustomException;
+import com.grash.factory.StorageServiceFactory;
+import com.grash.model.*;
+import com.grash.repository.*;
+import com.grash.utils.CsvFileGenerator;
+import com.grash.utils.FileSystemMultipartFile;
+import com.grash.utils.Helper;
+import com.grash.utils.KeysetIterable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * CSV exports of a company streamed to a temporary file while the entities are read in chunks, then uploaded to the
+ * storage. The memory used does not depend on the size of the export.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExportService {
+    static final int CHUNK_SIZE = 500;
+
+    private final WorkOrderRepository workOrderRepository;
+    private final AssetRepository assetRepository;
+    private final LocationRepository locationRepository;
+    private final PartRepository partRepository;
+    private final MeterRepository meterRepository;
+    private final CsvFileGenerator csvFileGenerator;
+    private final StorageServiceFactory storageServiceFactory;
+    private final EntityManager em;
+
+    public String exportWorkOrders(OwnUser user) {
+        Locale locale = Helper.getLocale(user);
+        return export(user, "Work Orders.csv", "work-orders",
+                workOrderRepository::findByCompany_IdAndIdGreaterThanOrderByIdAsc, WorkOrder::getId,
+                (workOrders, writer) -> csvFileGenerator.writeWorkOrdersToCsv(workOrders, writer, locale));
+    }
+
+    public String exportAssets(OwnUser user) {
+        Locale locale = Helper.getLocale(user);
+        return export(user, "Assets.csv", "assets",
+                assetRepository::findByCompany_IdAndIdGreaterThanOrderByIdAsc, Asset::getId,
+                (assets, writer) -> csvFileGenerator.writeAssetsToCsv(assets, writer, locale));
+    }
+
+    public String exportLocations(OwnUser user) {
+        Locale locale = Helper.getLocale(user);
+        return export(user, "Locations.csv", "locations",
+                locationRepository::findByCompany_IdAndIdGreaterThanOrderByIdAsc, Location::getId,
+                (locations, writer) -> csvFileGenerator.writeLocationsToCsv(locations, writer, locale));
+    }
+
+    public String exportParts(OwnUser user) {
+        Locale locale = Helper.getLocale(user);
+        return export(user, "Parts.csv", "parts",
+                partRepository::findByCompany_IdAndIdGreaterThanOrderByIdAsc, Part::getId,
+                (parts, writer) -> csvFileGenerator.writePartsToCsv(parts, writer, locale));
+    }
+
+    public String exportMeters(OwnUser user) {
+        Locale locale = Helper.getLocale(user);
+        return export(user, "Meters.csv", "meters",
+                meterRepository::findByCompany_IdAndIdGreaterThanOrderByIdAsc, Meter::getId,
+                (meters, writer) -> csvFileGenerator.writeMetersToCsv(meters, writer, locale));
+    }
+
+    private <T> String export(OwnUser user, String fileName, String folder, ChunkLoader<T> chunkLoader,
+                              Function<T, Long> idGetter, BiConsumer<Iterable<T>, Writer> csvWriter) {
+        Long companyId = user.getCompany().getId();
+        Path path = null;
+        try {
+            path = Files.createTempFile("export", ".csv");
+            KeysetIterable<T> entities = new KeysetIterable<>((lastId, pageable) ->
+                    chunkLoader.load(companyId, lastId, pageable), idGetter, em, CHUNK_SIZE);
+            //the generator closes the writer
+            csvWriter.accept(entities, Files.newBufferedWriter(path, StandardCharsets.UTF_8));
+            return storageServiceFactory.getStorageService().uploadAndSign(new FileSystemMultipartFile(path,
+                    fileName), companyId + "/exports/" + folder);
+        } catch (IOException e) {
+            throw new CustomException("Export failed: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        } finally {
+            if (path != null) path.toFile().delete();
+        }
+    }
+
+    @FunctionalInterface
+    private interface ChunkLoader<T> {
+        List<T> load(Long companyId, Long lastId, Pageable pageable);
+    }
+}
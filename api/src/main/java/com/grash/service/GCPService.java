@@ -1,26 +1,37 @@
 package com.grash.service;
 
 import com.google.auth.Credentials;
+import com.google.cloud.ReadChannel;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.cloud.storage.*;
 import com.grash.exception.CustomException;
 import com.grash.model.File;
 import com.grash.utils.Helper;
+import com.grash.utils.SignedUrlCache;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.util.StreamUtils;
 
 import javax.annotation.PostConstruct;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.channels.Channels;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -33,11 +44,16 @@ public class GCPService implements StorageService {
     private String gcpProjectId;
     @Value("${storage.gcp.bucket-name}")
     private String gcpBucketName;
+    @Value("${storage.signed-url-cache.spec:maximumSize=50000,recordStats}")
+    private String signedUrlCacheSpec;
+    private final MeterRegistry meterRegistry;
     private Storage storage;
+    private SignedUrlCache signedUrls;
     private static boolean configured = false;
 
     @PostConstruct
     private void init() {
+        signedUrls = new SignedUrlCache(signedUrlCacheSpec, meterRegistry, "gcp");
         if (gcpJson.isEmpty() && gcpJsonPath.isEmpty()) {
             return;
         }
@@ -58,38 +74,48 @@ public class GCPService implements StorageService {
                 .getService();
     }
 
-    public String upload(MultipartFile file, String folder) {
+    public String upload(InputStream inputStream, long size, String contentType, String fileName, String folder) {
         checkIfConfigured();
         Helper helper = new Helper();
         try {
-            String filePath = folder + "/" + helper.generateString() + " " + file.getOriginalFilename();
-            BlobInfo blobInfo = storage.create(
-                    BlobInfo.newBuilder(gcpBucketName, filePath
-                    ).build(), //get
-                    // original file name
-                    file.getBytes(),
-                    Storage.BlobTargetOption.predefinedAcl(Storage.PredefinedAcl.PRIVATE)
+            String filePath = folder + "/" + helper.generateString() + " " + fileName;
+            //resumable upload of the stream in chunks, whatever its length
+            storage.createFrom(
+                    BlobInfo.newBuilder(gcpBucketName, filePath).setContentType(contentType).build(),
+                    inputStream,
+                    Storage.BlobWriteOption.predefinedAcl(Storage.PredefinedAcl.PRIVATE)
             );
             return filePath;
-        } catch (IllegalStateException | IOException e) {
+        } catch (IllegalStateException | IOException | StorageException e) {
             throw new CustomException(e.getMessage(), HttpStatus.UNPROCESSABLE_ENTITY);
         }
     }
 
-    public byte[] download(String filePath) {
+    public void download(String filePath, OutputStream outputStream) {
         checkIfConfigured();
-        Blob blob = storage.get(BlobId.of(gcpBucketName, filePath));
-
-        if (blob == null) {
-            throw new CustomException("File not found", HttpStatus.NOT_FOUND);
-        }
         try {
-            return blob.getContent();
+            getBlob(filePath).downloadTo(outputStream);
         } catch (StorageException e) {
             throw new CustomException("Error retrieving file", HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    public void download(String filePath, long offset, long length, OutputStream outputStream) {
+        checkIfConfigured();
+        try (ReadChannel reader = storage.reader(BlobId.of(gcpBucketName, filePath))) {
+            reader.seek(offset);
+            //the reader has no limit, it is stopped after the range
+            StreamUtils.copyRange(Channels.newInputStream(reader), outputStream, 0, length - 1);
+        } catch (IOException | StorageException e) {
+            throw new CustomException("Error retrieving file", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    public long getSize(String filePath) {
+        checkIfConfigured();
+        return getBlob(filePath).getSize();
+    }
+
     public byte[] download(File file) {
         checkIfConfigured();
         return download(file.getPath());
@@ -109,7 +135,24 @@ public class GCPService implements StorageService {
     }
 
     public String generateSignedUrl(String filePath, long expirationMinutes) {
-        Blob blob = getBlob(filePath);
+        return signedUrls.get(filePath, expirationMinutes,
+                (path, minutes) -> generateSignedUrl(getBlob(path), minutes));
+    }
+
+    @Override
+    public Map<String, String> generateSignedUrls(Collection<String> filePaths, long expirationMinutes) {
+        return signedUrls.getAll(filePaths, expirationMinutes, (paths, minutes) -> {
+            //one batch request fetches the content types of all the blobs
+            List<Blob> blobs = storage.get(paths.stream().map(path -> BlobId.of(gcpBucketName, path))
+                    .collect(Collectors.toList()));
+            Map<String, String> urls = new LinkedHashMap<>();
+            blobs.stream().filter(Objects::nonNull)
+                    .forEach(blob -> urls.put(blob.getName(), generateSignedUrl(blob, minutes)));
+            return urls;
+        });
+    }
+
+    private String generateSignedUrl(Blob blob, long expirationMinutes) {
         BlobInfo blobInfo = BlobInfo.newBuilder(blob.getBlobId()).setContentType(blob.getContentType()).build();
         return generateSignedUrl(blobInfo, expirationMinutes);
     }
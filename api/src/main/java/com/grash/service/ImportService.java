@@ -2,16 +2,31 @@ package com.grash.service;
 
 import com.grash.dto.imports.*;
 import com.grash.model.*;
+import com.grash.utils.ImportLookups;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import lombok.RequiredArgsConstructor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import javax.validation.Valid;
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
+/**
+ * Imports rows in chunks, each chunk in its own transaction with JDBC batched writes. References are resolved with
+ * {@link ImportLookups} instead of one lookup per row, and the persistence context is cleared after each chunk.
+ */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class ImportService {
+    static final int CHUNK_SIZE = 500;
 
     private final AssetService assetService;
     private final LocationService locationService;
@@ -19,156 +34,97 @@ public class ImportService {
     private final MeterService meterService;
     private final WorkOrderService workOrderService;
     private final PreventiveMaintenanceService preventiveMaintenanceService;
+    private final EntityManager em;
+    private final PlatformTransactionManager transactionManager;
 
     public ImportResponse importWorkOrders(List<WorkOrderImportDTO> toImport, Company company) {
-        final int[] created = {0};
-        final int[] updated = {0};
-        toImport.forEach(workOrderImportDTO -> {
-            Long id = workOrderImportDTO.getId();
-            WorkOrder workOrder = new WorkOrder();
-            if (id == null) {
-                created[0]++;
-            } else {
-                Optional<WorkOrder> optionalWorkOrder = workOrderService.findByIdAndCompany(id, company.getId());
-                if (optionalWorkOrder.isPresent()) {
-                    workOrder = optionalWorkOrder.get();
-                    updated[0]++;
-                } else {
-                    created[0]++;
-                }
-            }
-            workOrderService.importWorkOrder(workOrder, workOrderImportDTO, company);
-        });
-        return ImportResponse.builder()
-                .created(created[0])
-                .updated(updated[0])
-                .build();
+        ImportLookups lookups = new ImportLookups(em, company);
+        return importInChunks("work orders", toImport, company, WorkOrderImportDTO::getId,
+                id -> workOrderService.findByIdAndCompany(id, company.getId()), WorkOrder::new,
+                (workOrder, dto) -> workOrderService.importWorkOrder(workOrder, dto, company, lookups),
+                //one analytics refresh per chunk
+                workOrders -> workOrderService.publishChange(company.getId(), workOrders));
     }
 
     public ImportResponse importAssets(List<AssetImportDTO> toImport, Company company) {
-        final int[] created = {0};
-        final int[] updated = {0};
-        AssetService.orderAssets(toImport).forEach(assetImportDTO -> {
-            Long id = assetImportDTO.getId();
-            Asset asset = new Asset();
-            if (id == null) {
-                created[0]++;
-            } else {
-                Optional<Asset> optionalAsset = assetService.findByIdAndCompany(id, company.getId());
-                if (optionalAsset.isPresent()) {
-                    asset = optionalAsset.get();
-                    updated[0]++;
-                } else {
-                    created[0]++;
-                }
-            }
-            assetService.importAsset(asset, assetImportDTO, company);
-        });
-        return ImportResponse.builder()
-                .created(created[0])
-                .updated(updated[0])
-                .build();
+        ImportLookups lookups = new ImportLookups(em, company);
+        return importInChunks("assets", AssetService.orderAssets(toImport), company, AssetImportDTO::getId,
+                id -> assetService.findByIdAndCompany(id, company.getId()), Asset::new,
+                (asset, dto) -> assetService.importAsset(asset, dto, company, lookups));
     }
 
     public ImportResponse importLocations(List<LocationImportDTO> toImport, Company company) {
-        final int[] created = {0};
-        final int[] updated = {0};
-        LocationService.orderLocations(toImport).forEach(locationImportDTO -> {
-            Long id = locationImportDTO.getId();
-            Location location = new Location();
-            if (id == null) {
-                created[0]++;
-            } else {
-                Optional<Location> optionalLocation = locationService.findByIdAndCompany(id, company.getId());
-                if (optionalLocation.isPresent()) {
-                    location = optionalLocation.get();
-                    updated[0]++;
-                } else {
-                    created[0]++;
-                }
-            }
-            locationService.importLocation(location, locationImportDTO, company);
-        });
-        return ImportResponse.builder()
-                .created(created[0])
-                .updated(updated[0])
-                .build();
+        ImportLookups lookups = new ImportLookups(em, company);
+        return importInChunks("locations", LocationService.orderLocations(toImport), company,
+                LocationImportDTO::getId, id -> locationService.findByIdAndCompany(id, company.getId()), Location::new,
+                (location, dto) -> locationService.importLocation(location, dto, company, lookups));
     }
 
     public ImportResponse importMeters(List<MeterImportDTO> toImport, Company company) {
-        final int[] created = {0};
-        final int[] updated = {0};
-        toImport.forEach(meterImportDTO -> {
-            Long id = meterImportDTO.getId();
-            Meter meter = new Meter();
-            if (id == null) {
-                created[0]++;
-            } else {
-                Optional<Meter> optionalMeter = meterService.findByIdAndCompany(id, company.getId());
-                if (optionalMeter.isPresent()) {
-                    meter = optionalMeter.get();
-                    updated[0]++;
-                } else {
-                    created[0]++;
-                }
-            }
-            meterService.importMeter(meter, meterImportDTO, company);
-        });
-        return ImportResponse.builder()
-                .created(created[0])
-                .updated(updated[0])
-                .build();
+        ImportLookups lookups = new ImportLookups(em, company);
+        return importInChunks("meters", toImport, company, MeterImportDTO::getId,
+                id -> meterService.findByIdAndCompany(id, company.getId()), Meter::new,
+                (meter, dto) -> meterService.importMeter(meter, dto, lookups));
     }
 
     public ImportResponse importParts(List<PartImportDTO> toImport, Company company) {
-        final int[] created = {0};
-        final int[] updated = {0};
-        toImport.forEach(partImportDTO -> {
-            Long id = partImportDTO.getId();
-            Part part = new Part();
-            if (id == null) {
-                created[0]++;
-            } else {
-                Optional<Part> optionalPart = partService.findByIdAndCompany(id, company.getId());
-                if (optionalPart.isPresent()) {
-                    part = optionalPart.get();
-                    updated[0]++;
-                } else {
-                    created[0]++;
-                }
-            }
-            partService.importPart(part, partImportDTO, company);
-        });
-        return ImportResponse.builder()
-                .created(created[0])
-                .updated(updated[0])
-                .build();
+        ImportLookups lookups = new ImportLookups(em, company);
+        return importInChunks("parts", toImport, company, PartImportDTO::getId,
+                id -> partService.findByIdAndCompany(id, company.getId()), Part::new,
+                (part, dto) -> partService.importPart(part, dto, lookups));
     }
 
     public ImportResponse importPreventiveMaintenances(List<PreventiveMaintenanceImportDTO> toImport, Company company) {
+        ImportLookups lookups = new ImportLookups(em, company);
+        return importInChunks("preventive maintenances", toImport, company, PreventiveMaintenanceImportDTO::getId,
+                id -> preventiveMaintenanceService.findByIdAndCompany(id, company.getId()),
+                PreventiveMaintenance::new,
+                (preventiveMaintenance, dto) -> preventiveMaintenanceService.importPreventiveMaintenance(
+                        preventiveMaintenance, dto, company, lookups));
+    }
+
+    private <T, D> ImportResponse importInChunks(String type, List<D> toImport, Company company,
+                                                 Function<D, Long> idGetter, Function<Long, Optional<T>> finder,
+                                                 Supplier<T> creator, BiConsumer<T, D> importer) {
+        return importInChunks(type, toImport, company, idGetter, finder, creator, importer, imported -> {
+        });
+    }
+
+    private <T, D> ImportResponse importInChunks(String type, List<D> toImport, Company company,
+                                                 Function<D, Long> idGetter, Function<Long, Optional<T>> finder,
+                                                 Supplier<T> creator, BiConsumer<T, D> importer,
+                                                 Consumer<List<T>> afterChunk) {
         final int[] created = {0};
         final int[] updated = {0};
-        toImport.forEach(pmImportDTO -> {
-            Long id = pmImportDTO.getId();
-            PreventiveMaintenance preventiveMaintenance = new PreventiveMaintenance();
-            if (id == null) {
-                created[0]++;
-            } else {
-                Optional<PreventiveMaintenance> optionalPM = preventiveMaintenanceService.findByIdAndCompany(id,
-                        company.getId());
-                if (optionalPM.isPresent()) {
-                    preventiveMaintenance = optionalPM.get();
-                    updated[0]++;
-                } else {
-                    created[0]++;
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int i = 0; i < toImport.size(); i += CHUNK_SIZE) {
+            List<D> chunk = toImport.subList(i, Math.min(i + CHUNK_SIZE, toImport.size()));
+            transactionTemplate.executeWithoutResult(status -> {
+                List<T> imported = new ArrayList<>();
+                chunk.forEach(dto -> {
+                    Long id = idGetter.apply(dto);
+                    Optional<T> optionalEntity = id == null ? Optional.empty() : finder.apply(id);
+                    if (optionalEntity.isPresent()) {
+                        updated[0]++;
+                    } else {
+                        created[0]++;
+                    }
+                    T entity = optionalEntity.orElseGet(creator);
+                    importer.accept(entity, dto);
+                    imported.add(entity);
+                });
+                afterChunk.accept(imported);
+                //when called within a wider transaction, its entities must stay managed
+                if (status.isNewTransaction()) {
+                    em.flush();
+                    em.clear();
                 }
-            }
-            preventiveMaintenanceService.importPreventiveMaintenance(preventiveMaintenance, pmImportDTO, company);
-        });
+            });
+            log.info("Imported {}/{} {} of company {}", i + chunk.size(), toImport.size(), type, company.getId());
+        }
         return ImportResponse.builder()
                 .created(created[0])
                 .updated(updated[0])
                 .build();
     }
-
 }
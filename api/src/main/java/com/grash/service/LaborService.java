@@ -15,8 +15,10 @@ import org.springframework.stereotype.Service;
 
 import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
@@ -36,6 +38,7 @@ public class LaborService {
     public Labor create(Labor labor) {
         Labor savedLabor = laborRepository.saveAndFlush(labor);
         em.refresh(savedLabor);
+        workOrderService.publishChange(savedLabor.getWorkOrder());
         return savedLabor;
     }
 
@@ -45,12 +48,15 @@ public class LaborService {
             Labor savedLabor = laborRepository.findById(id).get();
             Labor updatedLabor = laborRepository.saveAndFlush(laborMapper.updateLabor(savedLabor, labor));
             em.refresh(updatedLabor);
+            workOrderService.publishChange(updatedLabor.getWorkOrder());
             return updatedLabor;
         } else throw new CustomException("Not found", HttpStatus.NOT_FOUND);
     }
 
     public Labor save(Labor labor) {
-        return laborRepository.save(labor);
+        Labor savedLabor = laborRepository.save(labor);
+        workOrderService.publishChange(savedLabor.getWorkOrder());
+        return savedLabor;
     }
 
     public Collection<Labor> getAll() {
@@ -58,7 +64,9 @@ public class LaborService {
     }
 
     public void delete(Long id) {
+        Optional<Labor> optionalLabor = laborRepository.findById(id);
         laborRepository.deleteById(id);
+        optionalLabor.ifPresent(labor -> workOrderService.publishChange(labor.getWorkOrder()));
     }
 
     public Optional<Labor> findById(Long id) {
@@ -69,6 +77,11 @@ public class LaborService {
         return laborRepository.findByWorkOrder_Id(id);
     }
 
+    public List<Labor> findByWorkOrders(Collection<Long> ids) {
+        if (ids.isEmpty()) return new ArrayList<>();
+        return laborRepository.findByWorkOrder_IdIn(ids);
+    }
+
     public Labor stop(Labor labor) {
         labor.setStatus(TimeStatus.STOPPED);
         labor.setDuration(labor.getDuration() + Helper.getDateDiff(labor.getStartedAt(), new Date(), TimeUnit.SECONDS));
@@ -0,0 +1,203 @@
+package com.grash.service;
+
+import com.grash.exception.CustomException;
+import com.grash.model.File;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import javax.annotation.PostConstruct;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.DigestInputStream;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Stores the files on the local filesystem, for development and on-premise deployments. The content is addressed by
+ * its SHA-256 digest: identical uploads share one object, and the file path only names it within its folder. Uploads
+ * are written to a temporary file and moved in place once complete, and the signed URLs are HMAC-signed links to
+ * {@link com.grash.controller.LocalStorageController}.
+ */
+@Service
+public class LocalFileStorageService implements StorageService {
+    private static final String SIGNATURE_ALGORITHM = "HmacSHA256";
+    //the file path is "folder/hash fileName"
+    private static final Pattern OBJECT_NAME = Pattern.compile("(?:^|/)([0-9a-f]{64})(?: |$)");
+
+    @Value("${storage.local.root}")
+    private String root;
+    @Value("${storage.local.secret-key:}")
+    private String secretKey;
+    @Value("${security.jwt.token.secret-key:secret-key}")
+    private String jwtSecretKey;
+    @Value("${api.host}")
+    private String apiHost;
+
+    private Path objects;
+    private Path uploads;
+    private byte[] signingKey;
+
+    @PostConstruct
+    private void init() {
+        objects = Paths.get(root, "objects").toAbsolutePath().normalize();
+        uploads = Paths.get(root, "uploads").toAbsolutePath().normalize();
+        //without a key of its own, the URLs are signed with a key derived from the JWT one rather than with it
+        signingKey = secretKey.isEmpty() ? hmac(jwtSecretKey.getBytes(StandardCharsets.UTF_8),
+                "local storage signed URLs") : secretKey.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public String upload(InputStream inputStream, long size, String contentType, String fileName, String folder) {
+        Path temporaryFile = null;
+        try {
+            Files.createDirectories(uploads);
+            temporaryFile = Files.createTempFile(uploads, "upload", null);
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            Files.copy(new DigestInputStream(inputStream, digest), temporaryFile, StandardCopyOption.REPLACE_EXISTING);
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path object = getObject(hash);
+            if (Files.exists(object)) {
+                //the same content was already uploaded
+                Files.delete(temporaryFile);
+            } else {
+                Files.createDirectories(object.getParent());
+                Files.move(temporaryFile, object, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return folder + "/" + hash + " " + fileName;
+        } catch (IOException | NoSuchAlgorithmException e) {
+            deleteIfExists(temporaryFile);
+            throw new CustomException(e.getMessage(), HttpStatus.UNPROCESSABLE_ENTITY);
+        }
+    }
+
+    //the file is mapped rather than read through a buffer
+    @Override
+    public byte[] download(String filePath) {
+        try (FileChannel channel = FileChannel.open(getFile(filePath), StandardOpenOption.READ)) {
+            byte[] content = new byte[Math.toIntExact(channel.size())];
+            channel.map(FileChannel.MapMode.READ_ONLY, 0, content.length).get(content);
+            return content;
+        } catch (NoSuchFileException e) {
+            throw new CustomException("File not found", HttpStatus.NOT_FOUND);
+        } catch (IOException | ArithmeticException e) {
+            throw new CustomException("Error retrieving file", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    public byte[] download(File file) {
+        return download(file.getPath());
+    }
+
+    public void download(String filePath, OutputStream outputStream) {
+        download(filePath, 0, getSize(filePath), outputStream);
+    }
+
+    public void download(String filePath, long offset, long length, OutputStream outputStream) {
+        try (FileChannel channel = FileChannel.open(getFile(filePath), StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(outputStream);
+            long end = Math.min(offset + length, channel.size());
+            //transferTo may transfer less than asked
+            for (long position = offset; position < end; ) {
+                position += channel.transferTo(position, end - position, target);
+            }
+        } catch (NoSuchFileException e) {
+            throw new CustomException("File not found", HttpStatus.NOT_FOUND);
+        } catch (IOException e) {
+            throw new CustomException("Error retrieving file", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    public long getSize(String filePath) {
+        try {
+            return Files.size(getFile(filePath));
+        } catch (NoSuchFileException e) {
+            throw new CustomException("File not found", HttpStatus.NOT_FOUND);
+        } catch (IOException e) {
+            throw new CustomException("Error retrieving file", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    public String generateSignedUrl(File file, long expirationMinutes) {
+        return generateSignedUrl(file.getPath(), expirationMinutes);
+    }
+
+    public String generateSignedUrl(String filePath, long expirationMinutes) {
+        long expires = Instant.now().plusSeconds(expirationMinutes * 60).getEpochSecond();
+        return UriComponentsBuilder.fromHttpUrl(apiHost)
+                .path("/storage/local")
+                .queryParam("path", "{path}")
+                .queryParam("expires", "{expires}")
+                .queryParam("signature", "{signature}")
+                .encode()
+                .buildAndExpand(filePath, expires, sign(filePath, expires))
+                .toUriString();
+    }
+
+    /**
+     * @return the file of a signed URL, if its signature is valid and it has not expired
+     */
+    public Path getSignedFile(String filePath, long expires, String signature) {
+        if (Instant.now().getEpochSecond() > expires) {
+            throw new CustomException("The URL has expired", HttpStatus.FORBIDDEN);
+        }
+        if (!MessageDigest.isEqual(sign(filePath, expires).getBytes(StandardCharsets.UTF_8),
+                signature.getBytes(StandardCharsets.UTF_8))) {
+            throw new CustomException("Invalid signature", HttpStatus.FORBIDDEN);
+        }
+        return getFile(filePath);
+    }
+
+    private String sign(String filePath, long expires) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hmac(signingKey, filePath + "\n" + expires));
+    }
+
+    private static byte[] hmac(byte[] key, String data) {
+        try {
+            Mac mac = Mac.getInstance(SIGNATURE_ALGORITHM);
+            mac.init(new SecretKeySpec(key, SIGNATURE_ALGORITHM));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new CustomException("Error signing URL: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    public static String getFileName(String filePath) {
+        Matcher matcher = OBJECT_NAME.matcher(filePath);
+        return matcher.find() ? filePath.substring(matcher.end()) : filePath;
+    }
+
+    private Path getFile(String filePath) {
+        Matcher matcher = OBJECT_NAME.matcher(filePath);
+        if (!matcher.find()) {
+            throw new CustomException("File not found", HttpStatus.NOT_FOUND);
+        }
+        return getObject(matcher.group(1));
+    }
+
+    private Path getObject(String hash) {
+        return objects.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private static void deleteIfExists(Path path) {
+        if (path == null) return;
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -12,6 +12,7 @@ import com.grash.model.*;
 import com.grash.model.enums.NotificationType;
 import com.grash.model.enums.RoleType;
 import com.grash.repository.LocationRepository;
+import com.grash.utils.ImportLookups;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.MessageSource;
@@ -129,41 +130,18 @@ public class LocationService {
         return locationRepository.findByNameIgnoreCaseAndCompany_Id(locationName, companyId);
     }
 
-    public void importLocation(Location location, LocationImportDTO dto, Company company) {
-        Long companyId = company.getId();
+    public void importLocation(Location location, LocationImportDTO dto, Company company, ImportLookups lookups) {
         location.setName(dto.getName());
         location.setAddress(dto.getAddress());
         location.setLongitude(dto.getLongitude());
         location.setLatitude(dto.getLatitude());
-        Optional<Location> optionalLocation =
-                findByNameIgnoreCaseAndCompany(dto.getParentLocationName(), companyId).stream().findFirst();
-        optionalLocation.ifPresent(location::setParentLocation);
-        List<OwnUser> workers = new ArrayList<>();
-        dto.getWorkersEmails().forEach(email -> {
-            Optional<OwnUser> optionalUser1 = userService.findByEmailAndCompany(email, companyId);
-            optionalUser1.ifPresent(workers::add);
-        });
-        location.setWorkers(workers);
-        List<Team> teams = new ArrayList<>();
-        dto.getTeamsNames().forEach(teamName -> {
-            Optional<Team> optionalTeam = teamService.findByNameIgnoreCaseAndCompany(teamName, companyId);
-            optionalTeam.ifPresent(teams::add);
-        });
-        location.setTeams(teams);
+        lookups.findLocation(dto.getParentLocationName()).ifPresent(location::setParentLocation);
+        location.setWorkers(lookups.findUsersByEmails(dto.getWorkersEmails()));
+        location.setTeams(lookups.findTeams(dto.getTeamsNames()));
         location.setCustomId(getLocationNumber(company));
-        List<Customer> customers = new ArrayList<>();
-        dto.getCustomersNames().forEach(name -> {
-            Optional<Customer> optionalCustomer = customerService.findByNameIgnoreCaseAndCompany(name, companyId);
-            optionalCustomer.ifPresent(customers::add);
-        });
-        location.setCustomers(customers);
-        List<Vendor> vendors = new ArrayList<>();
-        dto.getVendorsNames().forEach(name -> {
-            Optional<Vendor> optionalVendor = vendorService.findByNameIgnoreCaseAndCompany(name, companyId);
-            optionalVendor.ifPresent(vendors::add);
-        });
-        location.setVendors(vendors);
-        locationRepository.save(location);
+        location.setCustomers(lookups.findCustomers(dto.getCustomersNames()));
+        location.setVendors(lookups.findVendors(dto.getVendorsNames()));
+        lookups.addLocation(locationRepository.save(location));
     }
 
     public Optional<Location> findByIdAndCompany(Long id, Long companyId) {
@@ -239,6 +217,6 @@ public class LocationService {
     }
 
     public boolean hasChildren(Long locationId) {
-        return locationRepository.countByParentLocation_Id(locationId) > 0;
+        return locationRepository.existsByParentLocation_Id(locationId);
     }
 }
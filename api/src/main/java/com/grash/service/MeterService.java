@@ -11,6 +11,7 @@ import com.grash.model.*;
 import com.grash.model.enums.NotificationType;
 import com.grash.model.enums.RoleType;
 import com.grash.repository.MeterRepository;
+import com.grash.utils.ImportLookups;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.MessageSource;
 import org.springframework.data.domain.Page;
@@ -117,27 +118,14 @@ public class MeterService {
                 readingService));
     }
 
-    public void importMeter(Meter meter, MeterImportDTO dto, Company company) {
-        Long companyId = company.getId();
-        Long companySettingsId = company.getCompanySettings().getId();
+    public void importMeter(Meter meter, MeterImportDTO dto, ImportLookups lookups) {
         meter.setName(dto.getName());
         meter.setUnit(dto.getUnit());
         meter.setUpdateFrequency(dto.getUpdateFrequency());
-        Optional<Location> optionalLocation = locationService.findByNameIgnoreCaseAndCompany(dto.getLocationName(),
-                companyId).stream().findFirst();
-        optionalLocation.ifPresent(meter::setLocation);
-        Optional<Asset> optionalAsset = assetService.findByNameIgnoreCaseAndCompany(dto.getAssetName(),
-                companyId).stream().findFirst();
-        optionalAsset.ifPresent(meter::setAsset);
-        Optional<MeterCategory> optionalMeterCategory =
-                meterCategoryService.findByNameIgnoreCaseAndCompanySettings(dto.getMeterCategory(), companySettingsId);
-        optionalMeterCategory.ifPresent(meter::setMeterCategory);
-        List<OwnUser> users = new ArrayList<>();
-        dto.getUsersEmails().forEach(email -> {
-            Optional<OwnUser> optionalUser1 = userService.findByEmailAndCompany(email, companyId);
-            optionalUser1.ifPresent(users::add);
-        });
-        meter.setUsers(users);
+        lookups.findLocation(dto.getLocationName()).ifPresent(meter::setLocation);
+        lookups.findAsset(dto.getAssetName()).ifPresent(meter::setAsset);
+        lookups.findMeterCategory(dto.getMeterCategory()).ifPresent(meter::setMeterCategory);
+        meter.setUsers(lookups.findUsersByEmails(dto.getUsersEmails()));
         meterRepository.save(meter);
     }
 
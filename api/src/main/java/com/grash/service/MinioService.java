@@ -3,23 +3,27 @@ package com.grash.service;
 import com.grash.exception.CustomException;
 import com.grash.model.File;
 import com.grash.utils.Helper;
+import com.grash.utils.SignedUrlCache;
 import io.minio.*;
 import io.minio.errors.*;
 import io.minio.http.Method;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import okhttp3.OkHttpClient;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 
 import javax.annotation.PostConstruct;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.*;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 @Service
@@ -35,12 +39,20 @@ public class MinioService implements StorageService {
     private String minioSecretKey;
     @Value("${storage.minio.public-endpoint}")
     private String minioPublicEndpoint;
+    @Value("${storage.signed-url-cache.spec:maximumSize=50000,recordStats}")
+    private String signedUrlCacheSpec;
+    private final MeterRegistry meterRegistry;
+
+    //part size of the multipart uploads of streams of unknown length
+    private static final long UNKNOWN_SIZE_PART_SIZE = 10 * 1024 * 1024;
 
     private MinioClient minioClient;
+    private SignedUrlCache signedUrls;
     private static boolean configured = false;
 
     @PostConstruct
     private void init() {
+        signedUrls = new SignedUrlCache(signedUrlCacheSpec, meterRegistry, "minio");
         if (minioEndpoint.isEmpty() || minioBucket.isEmpty() || minioAccessKey.isEmpty() || minioSecretKey.isEmpty() || minioPublicEndpoint.isEmpty()) {
             return;
         }
@@ -67,17 +79,17 @@ public class MinioService implements StorageService {
         }
     }
 
-    public String upload(MultipartFile file, String folder) {
+    public String upload(InputStream inputStream, long size, String contentType, String fileName, String folder) {
         checkIfConfigured();
         Helper helper = new Helper();
-        String filePath = folder + "/" + helper.generateString() + " " + file.getOriginalFilename();
+        String filePath = folder + "/" + helper.generateString() + " " + fileName;
         try {
             minioClient.putObject(
                     PutObjectArgs.builder()
                             .bucket(minioBucket)
                             .object(filePath)
-                            .stream(file.getInputStream(), file.getSize(), -1)
-                            .contentType(file.getContentType())
+                            .stream(inputStream, size, size < 0 ? UNKNOWN_SIZE_PART_SIZE : -1)
+                            .contentType(contentType)
                             .build()
             );
 
@@ -92,6 +104,20 @@ public class MinioService implements StorageService {
     }
 
     public String generateSignedUrl(String filePath, long expirationMinutes) {
+        return signedUrls.get(filePath, expirationMinutes, this::sign);
+    }
+
+    @Override
+    public Map<String, String> generateSignedUrls(Collection<String> filePaths, long expirationMinutes) {
+        return signedUrls.getAll(filePaths, expirationMinutes, (paths, minutes) -> {
+            //presigning is computed locally, there is no round trip to save
+            Map<String, String> urls = new LinkedHashMap<>();
+            paths.forEach(path -> urls.put(path, sign(path, minutes)));
+            return urls;
+        });
+    }
+
+    private String sign(String filePath, long expirationMinutes) {
         try {
             String url = minioClient.getPresignedObjectUrl(
                     GetPresignedObjectUrlArgs.builder()
@@ -107,34 +133,32 @@ public class MinioService implements StorageService {
         }
     }
 
-    public byte[] download(String filePath) {
+    public void download(String filePath, OutputStream outputStream) {
+        download(GetObjectArgs.builder().bucket(minioBucket).object(filePath).build(), outputStream);
+    }
+
+    public void download(String filePath, long offset, long length, OutputStream outputStream) {
+        download(GetObjectArgs.builder().bucket(minioBucket).object(filePath).offset(offset).length(length).build(),
+                outputStream);
+    }
+
+    private void download(GetObjectArgs args, OutputStream outputStream) {
+        checkIfConfigured();
+        try (InputStream inputStream = minioClient.getObject(args)) {
+            inputStream.transferTo(outputStream);
+        } catch (MinioException | IOException | InvalidKeyException | NoSuchAlgorithmException e) {
+            throw new CustomException("Error retrieving file", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    public long getSize(String filePath) {
         checkIfConfigured();
-        InputStream inputStream = null;
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
         try {
-            inputStream = minioClient.getObject(
-                    GetObjectArgs.builder()
-                            .bucket(minioBucket)
-                            .object(filePath)
-                            .build()
-            );
-            byte[] buffer = new byte[8192];
-            int bytesRead;
-            while ((bytesRead = inputStream.read(buffer)) != -1) {
-                byteArrayOutputStream.write(buffer, 0, bytesRead);
-            }
-            return byteArrayOutputStream.toByteArray();
+            return minioClient.statObject(StatObjectArgs.builder().bucket(minioBucket).object(filePath).build()).size();
+        } catch (ErrorResponseException e) {
+            throw new CustomException("File not found", HttpStatus.NOT_FOUND);
         } catch (MinioException | IOException | InvalidKeyException | NoSuchAlgorithmException e) {
             throw new CustomException("Error retrieving file", HttpStatus.INTERNAL_SERVER_ERROR);
-        } finally {
-            try {
-                if (inputStream != null) {
-                    inputStream.close();
-                }
-                byteArrayOutputStream.close();
-            } catch (IOException e) {
-                throw new CustomException("Error closing stream", HttpStatus.INTERNAL_SERVER_ERROR);
-            }
         }
     }
 
@@ -25,13 +25,18 @@ public class PartQuantityService {
     private final PartQuantityMapper partQuantityMapper;
 
     public PartQuantity create(PartQuantity PartQuantity) {
-        return partQuantityRepository.save(PartQuantity);
+        PartQuantity savedPartQuantity = partQuantityRepository.save(PartQuantity);
+        workOrderService.publishChange(savedPartQuantity.getWorkOrder());
+        return savedPartQuantity;
     }
 
     public PartQuantity update(Long id, PartQuantityPatchDTO partQuantity) {
         if (partQuantityRepository.existsById(id)) {
             PartQuantity savedPartQuantity = partQuantityRepository.findById(id).get();
-            return partQuantityRepository.save(partQuantityMapper.updatePartQuantity(savedPartQuantity, partQuantity));
+            PartQuantity updatedPartQuantity =
+                    partQuantityRepository.save(partQuantityMapper.updatePartQuantity(savedPartQuantity, partQuantity));
+            workOrderService.publishChange(updatedPartQuantity.getWorkOrder());
+            return updatedPartQuantity;
         } else throw new CustomException("Not found", HttpStatus.NOT_FOUND);
     }
 
@@ -40,7 +45,9 @@ public class PartQuantityService {
     }
 
     public void delete(Long id) {
+        Optional<PartQuantity> optionalPartQuantity = partQuantityRepository.findById(id);
         partQuantityRepository.deleteById(id);
+        optionalPartQuantity.ifPresent(partQuantity -> workOrderService.publishChange(partQuantity.getWorkOrder()));
     }
 
     public Optional<PartQuantity> findById(Long id) {
@@ -65,6 +72,6 @@ public class PartQuantityService {
 
 
     public void save(PartQuantity partQuantity) {
-        partQuantityRepository.save(partQuantity);
+        workOrderService.publishChange(partQuantityRepository.save(partQuantity).getWorkOrder());
     }
 }
@@ -9,9 +9,12 @@ import com.grash.exception.CustomException;
 import com.grash.mapper.PartMapper;
 import com.grash.model.*;
 import com.grash.model.enums.NotificationType;
+import com.grash.model.enums.PartMovementType;
+import com.grash.repository.PartMovementRepository;
 import com.grash.repository.PartRepository;
 import com.grash.utils.AuditComparator;
 import com.grash.utils.Helper;
+import com.grash.utils.ImportLookups;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.MessageSource;
 import org.springframework.data.domain.Page;
@@ -29,6 +32,7 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class PartService {
     private final PartRepository partRepository;
+    private final PartMovementRepository partMovementRepository;
     private final PartCategoryService partCategoryService;
     private final PartConsumptionService partConsumptionService;
     private final CompanyService companyService;
@@ -53,37 +57,59 @@ public class PartService {
     public Part update(Long id, PartPatchDTO part) {
         if (partRepository.existsById(id)) {
             Part savedPart = partRepository.findById(id).get();
+            double quantity = savedPart.getQuantity();
             Part patchedPart = partRepository.saveAndFlush(partMapper.updatePart(savedPart, part));
+            changeQuantity(patchedPart, patchedPart.getQuantity() - quantity, PartMovementType.ADJUSTMENT, null);
             em.refresh(patchedPart);
             return patchedPart;
 
         } else throw new CustomException("Not found", HttpStatus.NOT_FOUND);
     }
 
+    @Transactional
     public void consumePart(Long id, double quantity, WorkOrder workOrder, Locale locale) {
         Part part = findById(id).get();
-        part.setQuantity(part.getQuantity() - quantity);
         if (quantity < 0) {
             PartConsumption partConsumption =
                     Collections.max(partConsumptionService.findByWorkOrderAndPart(workOrder.getId(), part.getId()),
                             new AuditComparator());
             partConsumption.setQuantity(partConsumption.getQuantity() + quantity);
-            partRepository.save(part);
+            changeQuantity(part, -quantity, PartMovementType.RETURN, workOrder);
             partConsumptionService.save(partConsumption);
         } else {
-            String message = messageSource.getMessage("notification_part_low", new Object[]{part.getName()}, locale);
-            if (part.getQuantity() >= quantity) {
-                if (part.getQuantity() < part.getMinQuantity()) {
-                    notificationService.createMultiple(part.getAssignedTo().stream().map(user ->
-                            new Notification(message, user, NotificationType.PART, part.getId())
-                    ).collect(Collectors.toList()), true, message);
-                }
-                partConsumptionService.create(new PartConsumption(part, workOrder, quantity));
-                partRepository.save(part);
-            } else throw new CustomException("There is not enough of this part", HttpStatus.NOT_ACCEPTABLE);
+            double quantityAfter = changeQuantity(part, -quantity, PartMovementType.CONSUMPTION, workOrder);
+            //once per crossing of the threshold, the concurrent consumptions each see their own quantities
+            if (quantityAfter + quantity >= part.getMinQuantity() && quantityAfter < part.getMinQuantity()) {
+                String message = messageSource.getMessage("notification_part_low", new Object[]{part.getName()},
+                        locale);
+                notificationService.createMultiple(part.getAssignedTo().stream().map(user ->
+                        new Notification(message, user, NotificationType.PART, part.getId())
+                ).collect(Collectors.toList()), true, message);
+            }
+            partConsumptionService.create(new PartConsumption(part, workOrder, quantity));
         }
     }
 
+    @Transactional
+    public void restock(Part part, double quantity) {
+        changeQuantity(part, quantity, PartMovementType.RESTOCK, null);
+    }
+
+    /**
+     * Applies delta to the quantity of the part with a conditional update and appends the movement to the ledger
+     *
+     * @return the quantity right after this change
+     */
+    private double changeQuantity(Part part, double delta, PartMovementType type, WorkOrder workOrder) {
+        if (delta == 0) return part.getQuantity();
+        double quantityAfter = partRepository.addQuantity(part.getId(), delta).orElseThrow(() ->
+                new CustomException("There is not enough of this part", HttpStatus.NOT_ACCEPTABLE));
+        //not written back, the column is not updatable
+        part.setQuantity(quantityAfter);
+        partMovementRepository.save(new PartMovement(part, type, delta, quantityAfter, workOrder));
+        return quantityAfter;
+    }
+
     public Collection<Part> getAll() {
         return partRepository.findAll();
     }
@@ -138,23 +164,21 @@ public class PartService {
         return partRepository.findAll(builder.build(), page).map(partMapper::toShowDto);
     }
 
-    public void importPart(Part part, PartImportDTO dto, Company company) {
-        Long companyId = company.getId();
-        Long companySettingsId = company.getCompanySettings().getId();
+    public void importPart(Part part, PartImportDTO dto, ImportLookups lookups) {
+        boolean creation = part.getId() == null;
+        double quantity = part.getQuantity();
         part.setName(dto.getName());
         part.setCost(dto.getCost());
-        Optional<PartCategory> optionalPartCategory =
-                partCategoryService.findByNameIgnoreCaseAndCompanySettings(dto.getCategory(), companySettingsId);
-        optionalPartCategory.ifPresent(part::setCategory);
+        lookups.findPartCategory(dto.getCategory()).ifPresent(part::setCategory);
         part.setNonStock(Helper.getBooleanFromString(dto.getCategory()));
         if (dto.getBarcode() != null) {
-            Optional<Part> optionalPartWithSameBarCode = findByBarcodeAndCompany(dto.getBarcode(), company.getId());
+            Optional<Long> optionalPartWithSameBarCode = lookups.findPartIdByBarcode(dto.getBarcode());
             if (optionalPartWithSameBarCode.isPresent()) {
                 boolean hasError = false;
                 if (dto.getId() == null) {//creation
                     hasError = true;
                 } else {//update
-                    if (!dto.getId().equals(optionalPartWithSameBarCode.get().getId())) {
+                    if (!dto.getId().equals(optionalPartWithSameBarCode.get())) {
                         hasError = true;
                     }
                 }
@@ -172,31 +196,15 @@ public class PartService {
 //        Optional<Location> optionalLocation = locationService.findByNameIgnoreCaseAndCompany(dto.getLocationName(),
 //        companyId);
 //        optionalLocation.ifPresent(part::setLocation);
-        List<OwnUser> users = new ArrayList<>();
-        dto.getAssignedToEmails().forEach(email -> {
-            Optional<OwnUser> optionalUser1 = userService.findByEmailAndCompany(email, companyId);
-            optionalUser1.ifPresent(users::add);
-        });
-        part.setAssignedTo(users);
-        List<Team> teams = new ArrayList<>();
-        dto.getTeamsNames().forEach(teamName -> {
-            Optional<Team> optionalTeam = teamService.findByNameIgnoreCaseAndCompany(teamName, companyId);
-            optionalTeam.ifPresent(teams::add);
-        });
-        part.setTeams(teams);
-        List<Customer> customers = new ArrayList<>();
-        dto.getCustomersNames().forEach(name -> {
-            Optional<Customer> optionalCustomer = customerService.findByNameIgnoreCaseAndCompany(name, companyId);
-            optionalCustomer.ifPresent(customers::add);
-        });
-        part.setCustomers(customers);
-        List<Vendor> vendors = new ArrayList<>();
-        dto.getVendorsNames().forEach(name -> {
-            Optional<Vendor> optionalVendor = vendorService.findByNameIgnoreCaseAndCompany(name, companyId);
-            optionalVendor.ifPresent(vendors::add);
-        });
-        part.setVendors(vendors);
-        partRepository.save(part);
+        part.setAssignedTo(lookups.findUsersByEmails(dto.getAssignedToEmails()));
+        part.setTeams(lookups.findTeams(dto.getTeamsNames()));
+        part.setCustomers(lookups.findCustomers(dto.getCustomersNames()));
+        part.setVendors(lookups.findVendors(dto.getVendorsNames()));
+        Part savedPart = partRepository.save(part);
+        if (!creation) {
+            changeQuantity(savedPart, dto.getQuantity() - quantity, PartMovementType.ADJUSTMENT, null);
+        }
+        lookups.addPart(savedPart);
     }
 
     public Optional<Part> findByIdAndCompany(Long id, Long companyId) {
@@ -0,0 +1,154 @@
+package com.grash.service;
+
+import com.grash.model.*;
+import com.grash.repository.PreventiveMaintenanceOccurrenceRepository;
+import com.grash.repository.ScheduleRepository;
+import com.grash.repository.TaskRepository;
+import com.grash.repository.WorkOrderRepository;
+import com.grash.utils.Helper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Generates the work orders of the due {@link PreventiveMaintenanceOccurrence}s in batches: each batch claims its
+ * occurrences, inserts their work orders and tasks with batched statements and marks the occurrences in one
+ * transaction, so that a retry or another node never generates an occurrence twice. Notifications and workflows are
+ * then run by a few workers.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PreventiveMaintenanceGenerationService {
+    static final int BATCH_SIZE = 100;
+
+    private final PreventiveMaintenanceOccurrenceRepository preventiveMaintenanceOccurrenceRepository;
+    private final ScheduleRepository scheduleRepository;
+    private final TaskRepository taskRepository;
+    private final WorkOrderRepository workOrderRepository;
+    private final WorkOrderService workOrderService;
+    private final PlatformTransactionManager transactionManager;
+
+    //older occurrences are skipped, like the misfires of a trigger
+    @Value("${preventive-maintenance.generation.max-delay-minutes:60}")
+    private int maxDelayMinutes;
+    @Value("${preventive-maintenance.generation.notification-workers:2}")
+    private int notificationWorkers;
+    @Value("${preventive-maintenance.generation.notification-queue-capacity:1000}")
+    private int notificationQueueCapacity;
+
+    private ThreadPoolExecutor notificationExecutor;
+
+    @PostConstruct
+    private void init() {
+        //when the queue is full, the generation waits by notifying itself
+        notificationExecutor = new ThreadPoolExecutor(notificationWorkers, notificationWorkers, 0L,
+                TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(notificationQueueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "pm-notification");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    private void shutdown() {
+        notificationExecutor.shutdown();
+    }
+
+    /**
+     * @return the number of generated work orders
+     */
+    public int generateDue() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int generated = 0;
+        int claimed;
+        do {
+            List<Long> workOrderIds = new ArrayList<>();
+            claimed = Objects.requireNonNull(transactionTemplate.execute(status -> generateBatch(workOrderIds)));
+            //after the commit, so that the workers read the work orders
+            workOrderIds.forEach(workOrderId -> notificationExecutor.execute(() -> afterCreate(workOrderId)));
+            generated += workOrderIds.size();
+        } while (claimed == BATCH_SIZE);
+        return generated;
+    }
+
+    private int generateBatch(List<Long> workOrderIds) {
+        Date now = new Date();
+        List<PreventiveMaintenanceOccurrence> occurrences = preventiveMaintenanceOccurrenceRepository.lockDue(
+                new Date(now.getTime() - TimeUnit.MINUTES.toMillis(maxDelayMinutes)), now, BATCH_SIZE);
+        if (occurrences.isEmpty()) return 0;
+        Map<Long, Schedule> schedules = scheduleRepository.findByIdInForScheduling(occurrences.stream()
+                        .map(PreventiveMaintenanceOccurrence::getScheduleId).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Schedule::getId, schedule -> schedule));
+        Map<Long, List<Task>> tasksByPreventiveMaintenance = taskRepository.findByPreventiveMaintenance_IdIn(
+                        schedules.values().stream().map(schedule -> schedule.getPreventiveMaintenance().getId())
+                                .collect(Collectors.toSet())).stream()
+                .collect(Collectors.groupingBy(task -> task.getPreventiveMaintenance().getId()));
+
+        //aligned
+        List<PreventiveMaintenanceOccurrence> generatedOccurrences = new ArrayList<>();
+        List<WorkOrder> workOrders = new ArrayList<>();
+        for (PreventiveMaintenanceOccurrence occurrence : occurrences) {
+            Schedule schedule = schedules.get(occurrence.getScheduleId());
+            if (schedule == null || schedule.isDisabled()) {
+                preventiveMaintenanceOccurrenceRepository.delete(occurrence);
+                continue;
+            }
+            PreventiveMaintenance preventiveMaintenance = schedule.getPreventiveMaintenance();
+            WorkOrder workOrder = workOrderService.getWorkOrderFromWorkOrderBase(preventiveMaintenance);
+            workOrder.setParentPreventiveMaintenance(preventiveMaintenance);
+            if (schedule.getDueDateDelay() != null) {
+                workOrder.setDueDate(Helper.incrementDays(occurrence.getDate(), schedule.getDueDateDelay()));
+            }
+            generatedOccurrences.add(occurrence);
+            workOrders.add(workOrder);
+        }
+        workOrders.stream().collect(Collectors.groupingBy(workOrder ->
+                workOrder.getParentPreventiveMaintenance().getCompany().getId())).values().forEach(companyWorkOrders -> {
+            Iterator<String> customIds = workOrderService.getWorkOrderNumbers(
+                    companyWorkOrders.get(0).getParentPreventiveMaintenance().getCompany(), companyWorkOrders.size())
+                    .iterator();
+            companyWorkOrders.forEach(workOrder -> workOrder.setCustomId(customIds.next()));
+        });
+        workOrderRepository.saveAll(workOrders);
+
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < workOrders.size(); i++) {
+            WorkOrder workOrder = workOrders.get(i);
+            generatedOccurrences.get(i).setWorkOrderId(workOrder.getId());
+            workOrderIds.add(workOrder.getId());
+            PreventiveMaintenance preventiveMaintenance = workOrder.getParentPreventiveMaintenance();
+            tasksByPreventiveMaintenance.getOrDefault(preventiveMaintenance.getId(), Collections.emptyList())
+                    .forEach(task -> {
+                        Task copiedTask = new Task(task.getTaskBase(), workOrder, null, task.getValue());
+                        copiedTask.setCompany(preventiveMaintenance.getCompany());
+                        tasks.add(copiedTask);
+                    });
+        }
+        taskRepository.saveAll(tasks);
+        workOrders.stream().collect(Collectors.groupingBy(workOrder -> workOrder.getCompany().getId()))
+                .forEach(workOrderService::publishChange);
+        return occurrences.size();
+    }
+
+    private void afterCreate(Long workOrderId) {
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                    workOrderRepository.findById(workOrderId).ifPresent(workOrder ->
+                            workOrderService.afterCreate(workOrder, workOrder.getCompany())));
+        } catch (RuntimeException e) {
+            log.error("Failed to notify the creation of work order {}", workOrderId, e);
+        }
+    }
+}
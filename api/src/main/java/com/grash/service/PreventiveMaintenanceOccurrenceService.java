@@ -0,0 +1,138 @@
+package com.grash.service;
+
+import com.grash.dto.CalendarEvent;
+import com.grash.event.ScheduleChangedEvent;
+import com.grash.model.PreventiveMaintenance;
+import com.grash.model.PreventiveMaintenanceOccurrence;
+import com.grash.model.Schedule;
+import com.grash.repository.PreventiveMaintenanceOccurrenceRepository;
+import com.grash.repository.ScheduleRepository;
+import com.grash.utils.Helper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.transaction.Transactional;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the {@link PreventiveMaintenanceOccurrence} rows of the upcoming horizon: the occurrences of a schedule
+ * are regenerated after the commit of its change, and the calendar reads them instead of walking the Quartz triggers
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PreventiveMaintenanceOccurrenceService {
+    //per schedule and generation, like the former safety limit of the calendar
+    static final int MAX_OCCURRENCES = 1000;
+
+    private final PreventiveMaintenanceOccurrenceRepository preventiveMaintenanceOccurrenceRepository;
+    private final ScheduleRepository scheduleRepository;
+    private final ScheduleService scheduleService;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${preventive-maintenance.occurrences.horizon-days:366}")
+    private int horizonDays;
+    @Value("${preventive-maintenance.generation.max-delay-minutes:60}")
+    private int maxDelayMinutes;
+
+    /**
+     * Runs synchronously after the commit, in its own transaction, so that a failure is only logged: the previous
+     * occurrences are kept until the next change of the schedule
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleScheduleChanged(ScheduleChangedEvent event) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            transactionTemplate.executeWithoutResult(status -> regenerate(event.getScheduleId()));
+        } catch (RuntimeException e) {
+            log.error("Failed to regenerate the occurrences of schedule {}", event.getScheduleId(), e);
+        }
+    }
+
+    /**
+     * Replaces the occurrences of the schedule whose work order is not generated yet. The ones due since the maximum
+     * generation delay are included, like the first fire time of a schedule starting now, unless they were generated.
+     */
+    @Transactional
+    public void regenerate(Long scheduleId) {
+        preventiveMaintenanceOccurrenceRepository.deletePendingBySchedule(scheduleId);
+        scheduleRepository.findById(scheduleId).filter(schedule -> schedule.getPreventiveMaintenance() != null)
+                .ifPresent(schedule -> {
+                    Date now = new Date();
+                    Set<Date> generatedDates = preventiveMaintenanceOccurrenceRepository
+                            .findGeneratedDates(scheduleId).stream().map(date -> new Date(date.getTime()))
+                            .collect(Collectors.toSet());
+                    preventiveMaintenanceOccurrenceRepository.saveAll(generate(schedule,
+                            schedule.getPreventiveMaintenance().getCompany().getId(), getOldestDue(now),
+                            getHorizon(now)).stream()
+                            .filter(occurrence -> !generatedDates.contains(occurrence.getDate()))
+                            .collect(Collectors.toList()));
+                });
+    }
+
+    /**
+     * Drops the occurrences of the company older than the maximum generation delay and generates the ones entering
+     * the horizon
+     *
+     * @return the number of generated occurrences
+     */
+    @Transactional
+    public int extend(Long companyId) {
+        Date now = new Date();
+        Date horizon = getHorizon(now);
+        preventiveMaintenanceOccurrenceRepository.deleteByCompanyAndDateBefore(companyId, getOldestDue(now));
+        Map<Long, Date> lastDates = preventiveMaintenanceOccurrenceRepository.findLastDatesByCompany(companyId)
+                .stream().collect(Collectors.toMap(row -> (Long) row[0], row -> (Date) row[1]));
+        List<PreventiveMaintenanceOccurrence> occurrences = new ArrayList<>();
+        scheduleRepository.findByCompany_Id(companyId).forEach(schedule -> {
+            Date lastDate = lastDates.get(schedule.getId());
+            occurrences.addAll(generate(schedule, companyId, lastDate == null || lastDate.before(now) ? now :
+                    lastDate, horizon));
+        });
+        preventiveMaintenanceOccurrenceRepository.saveAll(occurrences);
+        return occurrences.size();
+    }
+
+    /**
+     * @return the occurrences from start to end, the ones past the horizon are not generated yet
+     */
+    public List<CalendarEvent<PreventiveMaintenance>> getEvents(Long companyId, Date start, Date end) {
+        Date horizon = getHorizon(new Date());
+        return preventiveMaintenanceOccurrenceRepository.findByCompanyAndDateBetween(companyId, start,
+                end.after(horizon) ? horizon : end)
+                .stream().map(occurrence -> new CalendarEvent<>("PREVENTIVE_MAINTENANCE",
+                        occurrence.getPreventiveMaintenance(), occurrence.getDate()))
+                .collect(Collectors.toList());
+    }
+
+    private List<PreventiveMaintenanceOccurrence> generate(Schedule schedule, Long companyId, Date after,
+                                                           Date until) {
+        try {
+            return scheduleService.getFireTimes(schedule, after, until, MAX_OCCURRENCES).stream()
+                    .map(date -> new PreventiveMaintenanceOccurrence(schedule, companyId, date))
+                    .collect(Collectors.toList());
+        } catch (RuntimeException e) {
+            //an invalid schedule has no trigger either
+            log.warn("Could not compute the occurrences of schedule {}", schedule.getId(), e);
+            return Collections.emptyList();
+        }
+    }
+
+    private Date getHorizon(Date now) {
+        return Helper.incrementDays(now, horizonDays);
+    }
+
+    private Date getOldestDue(Date now) {
+        return new Date(now.getTime() - TimeUnit.MINUTES.toMillis(maxDelayMinutes));
+    }
+}
@@ -4,6 +4,7 @@ import com.grash.advancedsearch.SearchCriteria;
 import com.grash.advancedsearch.SpecificationBuilder;
 import com.grash.dto.RequestPatchDTO;
 import com.grash.dto.RequestShowDTO;
+import com.grash.event.RequestChangedEvent;
 import com.grash.exception.CustomException;
 import com.grash.mapper.RequestMapper;
 import com.grash.model.*;
@@ -12,6 +13,7 @@ import com.grash.model.enums.RoleType;
 import com.grash.repository.RequestRepository;
 import com.grash.utils.Helper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -39,6 +41,7 @@ public class RequestService {
     private final RequestMapper requestMapper;
     private final EntityManager em;
     private final CustomSequenceService customSequenceService;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     @Transactional
     public Request create(Request request, Company company) {
@@ -47,7 +50,7 @@ public class RequestService {
 
         Request savedRequest = requestRepository.saveAndFlush(request);
         em.refresh(savedRequest);
-        return savedRequest;
+        return publishChange(savedRequest);
     }
 
     @Transactional
@@ -56,7 +59,7 @@ public class RequestService {
             Request savedRequest = requestRepository.findById(id).get();
             Request updatedRequest = requestRepository.saveAndFlush(requestMapper.updateRequest(savedRequest, request));
             em.refresh(updatedRequest);
-            return updatedRequest;
+            return publishChange(updatedRequest);
         } else throw new CustomException("Not found", HttpStatus.NOT_FOUND);
     }
 
@@ -65,7 +68,9 @@ public class RequestService {
     }
 
     public void delete(Long id) {
+        Optional<Request> optionalRequest = requestRepository.findById(id);
         requestRepository.deleteById(id);
+        optionalRequest.ifPresent(this::publishChange);
     }
 
     public Optional<Request> findById(Long id) {
@@ -85,13 +90,19 @@ public class RequestService {
         workOrder.setParentRequest(request);
         WorkOrder savedWorkOrder = workOrderService.create(workOrder, creator.getCompany());
         request.setWorkOrder(savedWorkOrder);
-        requestRepository.save(request);
+        publishChange(requestRepository.save(request));
 
         return savedWorkOrder;
     }
 
     public Request save(Request request) {
-        return requestRepository.save(request);
+        return publishChange(requestRepository.save(request));
+    }
+
+    private Request publishChange(Request request) {
+        if (request.getCompany() != null)
+            applicationEventPublisher.publishEvent(new RequestChangedEvent(request.getCompany().getId()));
+        return request;
     }
 
     public Collection<Request> findByCreatedAtBetweenAndCompany(Date date1, Date date2, Long id) {
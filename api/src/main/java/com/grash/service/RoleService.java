@@ -8,6 +8,7 @@ import com.grash.model.Company;
 import com.grash.model.Role;
 import com.grash.model.enums.RoleCode;
 import com.grash.repository.RoleRepository;
+import com.grash.security.PrincipalCache;
 import com.grash.utils.Helper;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.collections4.CollectionUtils;
@@ -23,6 +24,7 @@ public class RoleService {
     private final RoleRepository roleRepository;
     private final RoleMapper roleMapper;
     private final CompanySettingsService companySettingsService;
+    private final PrincipalCache principalCache;
 
     public Role create(Role Role) {
         return roleRepository.save(Role);
@@ -31,7 +33,10 @@ public class RoleService {
     public Role update(Long id, RolePatchDTO role) {
         if (roleRepository.existsById(id)) {
             Role savedRole = roleRepository.findById(id).get();
-            return roleRepository.save(roleMapper.updateRole(savedRole, role));
+            Role updatedRole = roleRepository.save(roleMapper.updateRole(savedRole, role));
+            //permission changes only touch the element collections, which the entity listener does not see
+            principalCache.invalidateRole(id);
+            return updatedRole;
         } else throw new CustomException("Not found", HttpStatus.NOT_FOUND);
     }
 
@@ -41,6 +46,7 @@ public class RoleService {
 
     public void delete(Long id) {
         roleRepository.deleteById(id);
+        principalCache.invalidateRole(id);
     }
 
     public Optional<Role> findById(Long id) {
@@ -19,6 +19,7 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -58,15 +59,15 @@ public class SafetyInstructionService {
         return safetyInstructionRepository.findById(id);
     }
 
-    public Collection<SafetyInstruction> findByVendor(Long vendorId) {
+    public List<SafetyInstruction> findByVendor(Long vendorId) {
         return safetyInstructionRepository.findByVendor_Id(vendorId);
     }
 
-    public Collection<SafetyInstruction> findByEmployee(Long employeeId) {
+    public List<SafetyInstruction> findByEmployee(Long employeeId) {
         return safetyInstructionRepository.findByEmployee_Id(employeeId);
     }
 
-    public Collection<SafetyInstruction> findExpiredInstructions() {
+    public List<SafetyInstruction> findExpiredInstructions() {
         return safetyInstructionRepository.findByExpirationDateBeforeAndCompletedTrue(LocalDateTime.now());
     }
 
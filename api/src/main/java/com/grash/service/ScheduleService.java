@@ -1,6 +1,7 @@
 package com.grash.service;
 
 import com.grash.dto.SchedulePatchDTO;
+import com.grash.event.ScheduleChangedEvent;
 import com.grash.exception.CustomException;
 import com.grash.job.PreventiveMaintenanceNotificationJob;
 import com.grash.job.WorkOrderCreationJob;
@@ -14,13 +15,24 @@ import com.grash.repository.ScheduleRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.quartz.*;
+import org.quartz.impl.matchers.GroupMatcher;
+import org.quartz.spi.OperableTrigger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import com.grash.model.enums.RecurrenceBasedOn;
 import org.quartz.CronScheduleBuilder;
@@ -34,12 +46,22 @@ import java.util.stream.Collectors;
 @Transactional
 @Slf4j
 public class ScheduleService {
+    //a preventive maintenance whose last work orders were never reacted to is disabled
+    private static final int STALE_LIMIT = 10;
+
     private final ScheduleRepository scheduleRepository;
     private final ScheduleMapper scheduleMapper;
     private final WorkOrderService workOrderService;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     // Quartz Scheduler
     private final Scheduler scheduler;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${preventive-maintenance.startup.batch-size:500}")
+    private int startupBatchSize;
+    @Value("${preventive-maintenance.startup.threads:4}")
+    private int startupThreads;
 
     public Schedule create(Schedule Schedule) {
         return scheduleRepository.save(Schedule);
@@ -71,15 +93,15 @@ public class ScheduleService {
     }
 
     public void scheduleWorkOrder(Schedule schedule) {
-        int limit = 10;
         PreventiveMaintenance preventiveMaintenance = schedule.getPreventiveMaintenance();
-        Page<WorkOrder> workOrdersPage = workOrderService.findLastByPM(preventiveMaintenance.getId(), limit);
+        Page<WorkOrder> workOrdersPage = workOrderService.findLastByPM(preventiveMaintenance.getId(), STALE_LIMIT);
 
         boolean isStale = false;
-        if (workOrdersPage.getTotalElements() >= limit && workOrdersPage.getContent().stream().allMatch(workOrder -> workOrder.getFirstTimeToReact() == null)) {
+        if (workOrdersPage.getTotalElements() >= STALE_LIMIT && workOrdersPage.getContent().stream().allMatch(workOrder -> workOrder.getFirstTimeToReact() == null)) {
             isStale = true;
             schedule.setDisabled(true);
             scheduleRepository.save(schedule);
+            publishChange(schedule);
         }
 
         boolean shouldSchedule =
@@ -93,7 +115,8 @@ public class ScheduleService {
                 if (schedule.getRecurrenceBasedOn() == RecurrenceBasedOn.COMPLETED_DATE) {
                     if (workOrdersPage.isEmpty()) {
                         scheduleBuilder = SimpleScheduleBuilder.simpleSchedule()
-                                .withRepeatCount(0);
+                                .withRepeatCount(0)
+                                .withMisfireHandlingInstructionFireNow();
                     } else {
                         WorkOrder lastCompletedWorkOrder =
                                 workOrdersPage.stream()
@@ -106,109 +129,293 @@ public class ScheduleService {
                         return; // Exit after scheduling completion-based job
                     }
                 } else { // SCHEDULED_DATE
-                    Calendar cal = Calendar.getInstance();
-                    cal.setTime(startsOn);
-                    int hour = cal.get(Calendar.HOUR_OF_DAY);
-                    int minute = cal.get(Calendar.MINUTE);
-
-                    switch (schedule.getRecurrenceType()) {
-                        case DAILY:
-                            scheduleBuilder = SimpleScheduleBuilder.simpleSchedule()
-                                    .withIntervalInHours(24 * schedule.getFrequency())
-                                    .repeatForever()
-                                    .withMisfireHandlingInstructionNextWithRemainingCount();
-                            break;
-
-                        case WEEKLY:
-                            if (schedule.getDaysOfWeek() == null || schedule.getDaysOfWeek().isEmpty()) {
-                                throw new CustomException("Days of week are required for weekly recurrence.",
-                                        HttpStatus.BAD_REQUEST);
-                            }
-
-                            // Convert ISO days to Quartz format
-                            String daysOfWeekCron = schedule.getDaysOfWeek().stream()
-                                    .map(d -> (d + 1) % 7 + 1) // 0-based (Mon=0) to Calendar (Sun=1, Mon=2)
-                                    .map(String::valueOf)
-                                    .collect(Collectors.joining(","));
-
-                            String cronExpression = String.format("0 %d %d ? * %s", minute, hour, daysOfWeekCron);
-                            scheduleBuilder = CronScheduleBuilder.cronSchedule(cronExpression)
-                                    .withMisfireHandlingInstructionDoNothing()
-                                    .inTimeZone(TimeZone.getDefault());
-
-                            // Store the frequency in the job data so the job can handle it
-                            // The cron will fire every week on specified days, but the job will check frequency
-                            break;
-
-                        case MONTHLY:
-                            scheduleBuilder = CalendarIntervalScheduleBuilder.calendarIntervalSchedule()
-                                    .withIntervalInMonths(schedule.getFrequency())
-                                    .withMisfireHandlingInstructionDoNothing()
-                                    .preserveHourOfDayAcrossDaylightSavings(true);
-                            break;
-
-                        case YEARLY:
-                            scheduleBuilder = CalendarIntervalScheduleBuilder.calendarIntervalSchedule()
-                                    .withIntervalInYears(schedule.getFrequency())
-                                    .withMisfireHandlingInstructionDoNothing()
-                                    .preserveHourOfDayAcrossDaylightSavings(true);
-                            break;
-
-                        default:
-                            throw new CustomException("Unsupported recurrence type: " + schedule.getRecurrenceType(),
-                                    HttpStatus.BAD_REQUEST);
-                    }
+                    scheduleBuilder = getScheduledDateScheduleBuilder(schedule);
                 }
 
-                // ---------------------------------------------------------
-                // JOB 1: Work Order Creation (FIXED)
-                // ---------------------------------------------------------
+                scheduler.scheduleJobs(buildJobs(schedule, scheduleBuilder), false);
+
+            } catch (SchedulerException e) {
+                log.error("Error scheduling quartz job for schedule " + schedule.getId(), e);
+                // Depending on your error handling policy, you might want to throw a RuntimeException here
+            }
+        }
+    }
+
+    /**
+     * Work order creation job of a schedule based on the completed date and the notification job of the schedule, with
+     * their triggers. Empty when the schedule ends before it starts.
+     */
+    private Map<JobDetail, Set<? extends Trigger>> buildJobs(Schedule schedule, ScheduleBuilder<?> scheduleBuilder) {
+        Map<JobDetail, Set<? extends Trigger>> jobs = new HashMap<>();
+        Date startsOn = schedule.getStartsOn();
+        PreventiveMaintenance preventiveMaintenance = schedule.getPreventiveMaintenance();
+
+        // ---------------------------------------------------------
+        // JOB 1: Work Order Creation (FIXED)
+        // ---------------------------------------------------------
+
+        // Validate that end date is after start date
+        if (schedule.getEndsOn() != null && !schedule.getEndsOn().after(startsOn)) {
+            log.warn("Schedule {} has endsOn date {} that is not after effective start date {}. Skipping " +
+                            "scheduling.",
+                    schedule.getId(), schedule.getEndsOn(), startsOn);
+            return jobs;
+        }
+
+        JobDetail woJob = JobBuilder.newJob(WorkOrderCreationJob.class)
+                .withIdentity("wo-job-" + schedule.getId(), "wo-group")
+                .usingJobData("scheduleId", schedule.getId())
+                .storeDurably()
+                .build();
+
+        Trigger woTrigger = TriggerBuilder.newTrigger()
+                .withIdentity("wo-trigger-" + schedule.getId(), "wo-group")
+                .startAt(startsOn) // Now points to the original startsOn
+                .withSchedule(scheduleBuilder)
+                .endAt(schedule.getEndsOn())
+                .build();
+
+        //the work orders of scheduled dates are generated from the occurrences by the PreventiveMaintenanceGenerationJob
+        if (schedule.getRecurrenceBasedOn() == RecurrenceBasedOn.COMPLETED_DATE)
+            jobs.put(woJob, Collections.singleton(woTrigger));
+
+        // ---------------------------------------------------------
+        // JOB 2: Notification (Shared Method Call - FIXED CALL SITE)
+        // ---------------------------------------------------------
+        int daysBeforePMNotification = preventiveMaintenance.getCompany()
+                .getCompanySettings().getGeneralPreferences().getDaysBeforePrevMaintNotification();
+
+        if (daysBeforePMNotification > 0) {
+            Date trueStartsOnForNotif = preventiveMaintenance.getEstimatedStartDate() == null ? startsOn :
+                    preventiveMaintenance.getEstimatedStartDate();
+
+            addNotificationJob(
+                    jobs,
+                    trueStartsOnForNotif, // Pass the date the WO is scheduled to run
+                    scheduleBuilder,
+                    schedule,
+                    daysBeforePMNotification
+            );
+        }
+        return jobs;
+    }
+
+    /**
+     * Recurring triggers skip the fire times they missed by more than the misfire threshold, so that a scheduler
+     * down for a while, or a trigger registered with a past start, does not generate a burst of work orders. One-shot
+     * triggers fire as soon as they can instead.
+     */
+    private ScheduleBuilder<?> getScheduledDateScheduleBuilder(Schedule schedule) {
+        ScheduleBuilder<?> scheduleBuilder;
+        Calendar cal = Calendar.getInstance();
+        cal.setTime(schedule.getStartsOn());
+        int hour = cal.get(Calendar.HOUR_OF_DAY);
+        int minute = cal.get(Calendar.MINUTE);
 
-                // Validate that end date is after start date
-                if (schedule.getEndsOn() != null && !schedule.getEndsOn().after(startsOn)) {
-                    log.warn("Schedule {} has endsOn date {} that is not after effective start date {}. Skipping " +
-                                    "scheduling.",
-                            schedule.getId(), schedule.getEndsOn(), startsOn);
-                    return;
+        switch (schedule.getRecurrenceType()) {
+            case DAILY:
+                scheduleBuilder = SimpleScheduleBuilder.simpleSchedule()
+                        .withIntervalInHours(24 * schedule.getFrequency())
+                        .repeatForever()
+                        .withMisfireHandlingInstructionNextWithRemainingCount();
+                break;
+
+            case WEEKLY:
+                if (schedule.getDaysOfWeek() == null || schedule.getDaysOfWeek().isEmpty()) {
+                    throw new CustomException("Days of week are required for weekly recurrence.",
+                            HttpStatus.BAD_REQUEST);
                 }
 
-                JobDetail woJob = JobBuilder.newJob(WorkOrderCreationJob.class)
-                        .withIdentity("wo-job-" + schedule.getId(), "wo-group")
-                        .usingJobData("scheduleId", schedule.getId())
-                        .storeDurably()
-                        .build();
-
-                Trigger woTrigger = TriggerBuilder.newTrigger()
-                        .withIdentity("wo-trigger-" + schedule.getId(), "wo-group")
-                        .startAt(startsOn) // Now points to the original startsOn
-                        .withSchedule(scheduleBuilder)
-                        .endAt(schedule.getEndsOn())
-                        .build();
-
-                scheduler.scheduleJob(woJob, woTrigger);
-
-                // ---------------------------------------------------------
-                // JOB 2: Notification (Shared Method Call - FIXED CALL SITE)
-                // ---------------------------------------------------------
-                int daysBeforePMNotification = preventiveMaintenance.getCompany()
-                        .getCompanySettings().getGeneralPreferences().getDaysBeforePrevMaintNotification();
-
-                if (daysBeforePMNotification > 0) {
-                    Date trueStartsOnForNotif = preventiveMaintenance.getEstimatedStartDate() == null ? startsOn :
-                            preventiveMaintenance.getEstimatedStartDate();
-
-                    scheduleNotificationJob(
-                            trueStartsOnForNotif, // Pass the date the WO is scheduled to run
-                            scheduleBuilder,
-                            schedule,
-                            daysBeforePMNotification
-                    );
+                // Convert ISO days to Quartz format
+                String daysOfWeekCron = schedule.getDaysOfWeek().stream()
+                        .map(d -> (d + 1) % 7 + 1) // 0-based (Mon=0) to Calendar (Sun=1, Mon=2)
+                        .map(String::valueOf)
+                        .collect(Collectors.joining(","));
+
+                String cronExpression = String.format("0 %d %d ? * %s", minute, hour, daysOfWeekCron);
+                scheduleBuilder = CronScheduleBuilder.cronSchedule(cronExpression)
+                        .withMisfireHandlingInstructionDoNothing()
+                        .inTimeZone(TimeZone.getDefault());
+
+                // Store the frequency in the job data so the job can handle it
+                // The cron will fire every week on specified days, but the job will check frequency
+                break;
+
+            case MONTHLY:
+                scheduleBuilder = CalendarIntervalScheduleBuilder.calendarIntervalSchedule()
+                        .withIntervalInMonths(schedule.getFrequency())
+                        .withMisfireHandlingInstructionDoNothing()
+                        .preserveHourOfDayAcrossDaylightSavings(true);
+                break;
+
+            case YEARLY:
+                scheduleBuilder = CalendarIntervalScheduleBuilder.calendarIntervalSchedule()
+                        .withIntervalInYears(schedule.getFrequency())
+                        .withMisfireHandlingInstructionDoNothing()
+                        .preserveHourOfDayAcrossDaylightSavings(true);
+                break;
+
+            default:
+                throw new CustomException("Unsupported recurrence type: " + schedule.getRecurrenceType(),
+                        HttpStatus.BAD_REQUEST);
+        }
+        return scheduleBuilder;
+    }
+
+    /**
+     * Fire times of the work order trigger of a {@link RecurrenceBasedOn#SCHEDULED_DATE} schedule in ]after, until],
+     * computed in memory like Quartz does, without reading the trigger from the scheduler
+     */
+    public List<Date> getFireTimes(Schedule schedule, Date after, Date until, int limit) {
+        List<Date> fireTimes = new ArrayList<>();
+        if (schedule.isDisabled() || schedule.getRecurrenceBasedOn() != RecurrenceBasedOn.SCHEDULED_DATE
+                || (schedule.getEndsOn() != null && !schedule.getEndsOn().after(schedule.getStartsOn())))
+            return fireTimes;
+        OperableTrigger trigger = (OperableTrigger) TriggerBuilder.newTrigger()
+                .startAt(schedule.getStartsOn())
+                .withSchedule(getScheduledDateScheduleBuilder(schedule))
+                .endAt(schedule.getEndsOn())
+                .build();
+        Date fireTime = trigger.getFireTimeAfter(after);
+        while (fireTime != null && !fireTime.after(until) && fireTimes.size() < limit) {
+            fireTimes.add(fireTime);
+            fireTime = trigger.getFireTimeAfter(fireTime);
+        }
+        return fireTimes;
+    }
+
+    /**
+     * Reconciles the job store with the schedules at startup, so that it can run on every node sharing a persistent
+     * job store. Batches of schedules are loaded with their preventive maintenance and company preferences on a few
+     * threads, the missing jobs of each batch are stored with one scheduleJobs call, and the jobs of the schedules
+     * that should no longer fire are removed. Schedules that already have a trigger are left as they are.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void scheduleAllWorkOrders() {
+        List<Long> ids = scheduleRepository.findAllIds();
+        log.info("Scheduling {} work orders...", ids.size());
+        Set<Long> scheduledIds = new HashSet<>();
+        Set<Long> notifiedIds = new HashSet<>();
+        try {
+            scheduler.getTriggerKeys(GroupMatcher.triggerGroupEquals("wo-group")).stream()
+                    .map(triggerKey -> getScheduleId(triggerKey, "wo-trigger-")).filter(Objects::nonNull)
+                    .forEach(scheduledIds::add);
+            scheduler.getTriggerKeys(GroupMatcher.triggerGroupEquals("notif-group")).stream()
+                    .map(triggerKey -> getScheduleId(triggerKey, "notif-trigger-")).filter(Objects::nonNull)
+                    .forEach(notifiedIds::add);
+        } catch (SchedulerException e) {
+            log.error("Error reading the existing work order triggers", e);
+        }
+        //deleted schedules
+        Set<Long> orphanIds = new HashSet<>(scheduledIds);
+        orphanIds.addAll(notifiedIds);
+        ids.forEach(orphanIds::remove);
+        orphanIds.forEach(this::stopScheduleTimers);
+
+        ExecutorService executor = Executors.newFixedThreadPool(startupThreads);
+        try {
+            List<Future<Integer>> batches = new ArrayList<>();
+            for (int i = 0; i < ids.size(); i += startupBatchSize) {
+                List<Long> batch = ids.subList(i, Math.min(i + startupBatchSize, ids.size()));
+                batches.add(executor.submit(() -> scheduleBatch(batch, scheduledIds, notifiedIds)));
+            }
+            int scheduled = 0;
+            for (Future<Integer> batch : batches) {
+                try {
+                    scheduled += batch.get();
+                } catch (ExecutionException e) {
+                    log.error("Failed to schedule a batch of work orders", e.getCause());
                 }
+            }
+            log.info("Scheduled the jobs of {} schedules", scheduled);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while scheduling the work orders", e);
+        } finally {
+            executor.shutdown();
+        }
+    }
 
+    private int scheduleBatch(List<Long> ids, Set<Long> scheduledIds, Set<Long> notifiedIds) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        return transactionTemplate.execute(status -> {
+            List<Schedule> schedules = scheduleRepository.findByIdInForScheduling(ids);
+            Set<Long> stalePreventiveMaintenanceIds = workOrderService.findStalePreventiveMaintenanceIds(
+                    schedules.stream().map(schedule -> schedule.getPreventiveMaintenance().getId())
+                            .collect(Collectors.toList()), STALE_LIMIT);
+            Map<JobDetail, Set<? extends Trigger>> jobs = new HashMap<>();
+            Date now = new Date();
+            int scheduled = 0;
+            for (Schedule schedule : schedules) {
+                try {
+                    if (schedule.getRecurrenceBasedOn() == RecurrenceBasedOn.COMPLETED_DATE) {
+                        //depends on the last completed work order
+                        if (!scheduledIds.contains(schedule.getId())) scheduleWorkOrder(schedule);
+                        continue;
+                    }
+                    if (scheduledIds.contains(schedule.getId())) {
+                        //work order trigger stored before the occurrences generated the work orders
+                        scheduler.deleteJob(new JobKey("wo-job-" + schedule.getId(), "wo-group"));
+                    }
+                    boolean alreadyScheduled = notifiedIds.contains(schedule.getId());
+                    if (stalePreventiveMaintenanceIds.contains(schedule.getPreventiveMaintenance().getId())
+                            && !schedule.isDisabled()) {
+                        //flushed with the batch
+                        schedule.setDisabled(true);
+                        publishChange(schedule);
+                    }
+                    boolean shouldSchedule = !schedule.isDisabled()
+                            && (schedule.getEndsOn() == null || schedule.getEndsOn().after(now));
+                    if (alreadyScheduled) {
+                        if (!shouldSchedule) stopScheduleTimers(schedule.getId());
+                        continue;
+                    }
+                    if (!shouldSchedule) continue;
+                    Map<JobDetail, Set<? extends Trigger>> scheduleJobs = withFiringTriggers(schedule,
+                            buildJobs(schedule, getScheduledDateScheduleBuilder(schedule)));
+                    jobs.putAll(scheduleJobs);
+                    if (!scheduleJobs.isEmpty()) scheduled++;
+                } catch (RuntimeException | SchedulerException e) {
+                    log.error("Failed to schedule work order for schedule ID: {}", schedule.getId(), e);
+                }
+            }
+            try {
+                //replaces what another node stored since the triggers were listed
+                scheduler.scheduleJobs(jobs, true);
             } catch (SchedulerException e) {
-                log.error("Error scheduling quartz job for schedule " + schedule.getId(), e);
-                // Depending on your error handling policy, you might want to throw a RuntimeException here
+                throw new RuntimeException("Error scheduling the quartz jobs of schedules " + ids.get(0) + " to "
+                        + ids.get(ids.size() - 1), e);
             }
+            return scheduled;
+        });
+    }
+
+    //a trigger that never fires, e.g. ending before its next occurrence, would make Quartz reject the whole batch
+    static Map<JobDetail, Set<? extends Trigger>> withFiringTriggers(Schedule schedule,
+                                                                     Map<JobDetail, Set<? extends Trigger>> jobs) {
+        Map<JobDetail, Set<? extends Trigger>> firingJobs = new HashMap<>();
+        jobs.forEach((job, triggers) -> {
+            Set<Trigger> firingTriggers = triggers.stream()
+                    .filter(trigger -> ((OperableTrigger) ((OperableTrigger) trigger).clone()).computeFirstFireTime(null) != null)
+                    .collect(Collectors.toSet());
+            if (firingTriggers.size() < triggers.size()) {
+                log.warn("Skipping the triggers of job {} of schedule {} that will never fire", job.getKey(),
+                        schedule.getId());
+            }
+            if (!firingTriggers.isEmpty()) firingJobs.put(job, firingTriggers);
+        });
+        return firingJobs;
+    }
+
+    //from {prefix}{scheduleId} and wo-trigger-chained-{scheduleId}-{time}
+    private static Long getScheduleId(TriggerKey triggerKey, String prefix) {
+        String name = triggerKey.getName();
+        String suffix = name.startsWith("wo-trigger-chained-") ? name.substring("wo-trigger-chained-".length())
+                .split("-")[0] : name.substring(Math.min(prefix.length(), name.length()));
+        try {
+            return Long.valueOf(suffix);
+        } catch (NumberFormatException e) {
+            return null;
         }
     }
 
@@ -217,6 +424,12 @@ public class ScheduleService {
         // to ensure all parameters (trigger times, data map) are fresh.
         stopScheduleTimers(newSchedule.getId());
         scheduleWorkOrder(newSchedule);
+        publishChange(newSchedule);
+    }
+
+    //regenerates the calendar occurrences of the schedule after the commit
+    public void publishChange(Schedule schedule) {
+        applicationEventPublisher.publishEvent(new ScheduleChangedEvent(schedule.getId()));
     }
 
     public void stopScheduleTimers(Long id) {
@@ -238,6 +451,17 @@ public class ScheduleService {
             ScheduleBuilder<?> woScheduleBuilder,
             Schedule schedule,
             int daysBeforeNotification) throws SchedulerException {
+        Map<JobDetail, Set<? extends Trigger>> jobs = new HashMap<>();
+        addNotificationJob(jobs, woStartOn, woScheduleBuilder, schedule, daysBeforeNotification);
+        scheduler.scheduleJobs(jobs, false);
+    }
+
+    private void addNotificationJob(
+            Map<JobDetail, Set<? extends Trigger>> jobs,
+            Date woStartOn,
+            ScheduleBuilder<?> woScheduleBuilder,
+            Schedule schedule,
+            int daysBeforeNotification) {
         Long scheduleId = schedule.getId();
         Date endsOn = schedule.getEndsOn();
         // 1. Calculate the actual start date for the FIRST notification
@@ -312,7 +536,7 @@ public class ScheduleService {
                 .endAt(endsOn)
                 .build();
 
-        scheduler.scheduleJob(notifJob, notifTrigger);
+        jobs.put(notifJob, Collections.singleton(notifTrigger));
     }
 
     // =========================================================================================
@@ -349,7 +573,8 @@ public class ScheduleService {
         Date nextRunDate = cal.getTime();
 
         // The one-shot schedule for the chained job
-        ScheduleBuilder oneShotSchedule = SimpleScheduleBuilder.simpleSchedule().withRepeatCount(0);
+        ScheduleBuilder oneShotSchedule = SimpleScheduleBuilder.simpleSchedule().withRepeatCount(0)
+                .withMisfireHandlingInstructionFireNow();
 
         // 2. Schedule a "One-Shot" Job for that date
         try {
@@ -358,10 +583,10 @@ public class ScheduleService {
             JobDetail woJob = JobBuilder.newJob(WorkOrderCreationJob.class)
                     .withIdentity(jobKey)
                     .usingJobData("scheduleId", schedule.getId())
-                    .storeDurably()
                     .build();
 
             Trigger woTrigger = TriggerBuilder.newTrigger()
+                    .withIdentity("wo-trigger-chained-" + schedule.getId() + "-" + nextRunDate.getTime(), "wo-group")
                     .startAt(nextRunDate)
                     .withSchedule(oneShotSchedule) // Run Once
                     .build();
@@ -388,7 +613,9 @@ public class ScheduleService {
     }
 
     public Schedule save(Schedule schedule) {
-        return scheduleRepository.saveAndFlush(schedule);
+        Schedule savedSchedule = scheduleRepository.saveAndFlush(schedule);
+        publishChange(savedSchedule);
+        return savedSchedule;
     }
 
     public void deleteByCompanyIdAndIsDemoTrue(Long companyId) {
@@ -1,8 +1,18 @@
 package com.grash.service;
 
+import com.grash.exception.CustomException;
 import com.grash.model.File;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 public interface StorageService {
     /**
      * Uploads a file to the storage and returns the public URL.
@@ -11,7 +21,25 @@ public interface StorageService {
      * @param folder The folder where the file should be uploaded.
      * @return The file Path of the uploaded file.
      */
-    String upload(MultipartFile file, String folder);
+    default String upload(MultipartFile file, String folder) {
+        try (InputStream inputStream = file.getInputStream()) {
+            return upload(inputStream, file.getSize(), file.getContentType(), file.getOriginalFilename(), folder);
+        } catch (IOException e) {
+            throw new CustomException(e.getMessage(), HttpStatus.UNPROCESSABLE_ENTITY);
+        }
+    }
+
+    /**
+     * Uploads the content of a stream to the storage, without holding it in memory.
+     *
+     * @param inputStream The content to be uploaded. It is not closed.
+     * @param size        The length of the content, or -1 when unknown to upload it in parts.
+     * @param contentType The content type, may be null.
+     * @param fileName    The name of the file.
+     * @param folder      The folder where the file should be uploaded.
+     * @return The file Path of the uploaded file.
+     */
+    String upload(InputStream inputStream, long size, String contentType, String fileName, String folder);
 
     /**
      * Downloads a file from the storage using its file path.
@@ -19,7 +47,35 @@ public interface StorageService {
      * @param filePath The path of the file to be downloaded.
      * @return A byte array of the file content.
      */
-    byte[] download(String filePath);
+    default byte[] download(String filePath) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        download(filePath, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Streams a file from the storage.
+     *
+     * @param filePath     The path of the file to be downloaded.
+     * @param outputStream Where the content is written. It is not closed.
+     */
+    void download(String filePath, OutputStream outputStream);
+
+    /**
+     * Streams a range of a file from the storage, for HTTP range requests.
+     *
+     * @param filePath     The path of the file to be downloaded.
+     * @param offset       The position of the first byte to read.
+     * @param length       The number of bytes to read.
+     * @param outputStream Where the content is written. It is not closed.
+     */
+    void download(String filePath, long offset, long length, OutputStream outputStream);
+
+    /**
+     * @param filePath The path of a file of the storage.
+     * @return The length of the file in bytes.
+     */
+    long getSize(String filePath);
 
     /**
      * Downloads a file from the storage using a File object.
@@ -33,6 +89,19 @@ public interface StorageService {
 
     String generateSignedUrl(String filePath, long expirationMinutes);
 
+    /**
+     * Signs several files at once, for the list endpoints.
+     *
+     * @param filePaths         The paths of the files to sign.
+     * @param expirationMinutes The minimum lifetime of the URLs.
+     * @return The signed URLs by file path, without the files that could not be found.
+     */
+    default Map<String, String> generateSignedUrls(Collection<String> filePaths, long expirationMinutes) {
+        Map<String, String> urls = new LinkedHashMap<>();
+        filePaths.forEach(filePath -> urls.put(filePath, generateSignedUrl(filePath, expirationMinutes)));
+        return urls;
+    }
+
     default String uploadAndSign(MultipartFile file, String folder) {
         return generateSignedUrl(upload(file, folder), 10);
     }
@@ -10,6 +10,8 @@ import com.grash.repository.CompanyRepository;
 import com.grash.repository.SubscriptionRepository;
 import com.grash.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -19,7 +21,10 @@ import java.util.*;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class SubscriptionService {
+    static final int EXPIRY_BATCH_SIZE = 100;
+
     private final SubscriptionRepository subscriptionRepository;
     private final CompanyService companyService;
     private final SubscriptionPlanService subscriptionPlanService;
@@ -63,28 +68,42 @@ public class SubscriptionService {
         return subscriptionRepository.findById(id);
     }
 
-    public void scheduleEnd(Subscription subscription) {
-        boolean shouldSchedule =
-                !subscription.getSubscriptionPlan().getCode().equals("FREE") && subscription.getEndsOn() != null;
-        if (shouldSchedule) {
-            Timer timer = new Timer();
-            TimerTask timerTask = new TimerTask() {
-                @Override
-                public void run() {
-                    resetToFreePlan(subscription);
+    /**
+     * Resets the paid subscriptions whose end has passed to the free plan. The ends are read from the database, so
+     * the ones passed while the application was down are reset on the next run.
+     *
+     * @return the number of subscriptions reset
+     */
+    public int expireDue() {
+        Date now = new Date();
+        int expired = 0;
+        long lastId = 0;
+        List<Subscription> subscriptions;
+        do {
+            subscriptions = subscriptionRepository.findExpired(now, lastId, PageRequest.of(0, EXPIRY_BATCH_SIZE));
+            for (Subscription subscription : subscriptions) {
+                lastId = subscription.getId();
+                try {
+                    if (resetToFreePlan(subscription)) expired++;
+                } catch (RuntimeException e) {
+                    //retried on the next run
+                    log.error("Failed to reset subscription {} to the free plan", subscription.getId(), e);
                 }
-            };
-            timer.schedule(timerTask, subscription.getEndsOn());
-        }
+            }
+        } while (subscriptions.size() == EXPIRY_BATCH_SIZE);
+        return expired;
     }
 
     public Optional<Subscription> findByFastSpringId(String id) {
         return subscriptionRepository.findByFastSpringId(id);
     }
 
-    public void resetToFreePlan(Subscription subscription) {
+    /**
+     * @return false when no company has the subscription, it is then left unchanged
+     */
+    public boolean resetToFreePlan(Subscription subscription) {
         Optional<Company> optionalCompany = companyRepository.findBySubscription_Id(subscription.getId());
-        if (!optionalCompany.isPresent()) return;
+        if (!optionalCompany.isPresent()) return false;
 
         subscription.setActivated(false);
         subscription.setUsersCount(3);
@@ -100,5 +119,6 @@ public class SubscriptionService {
         subscription.setStartsOn(new Date());
         subscription.setEndsOn(null);
         subscriptionRepository.save(subscription);
+        return true;
     }
 }
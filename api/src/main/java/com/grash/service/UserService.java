@@ -16,6 +16,7 @@ import com.grash.model.*;
 import com.grash.model.enums.RoleCode;
 import com.grash.repository.UserRepository;
 import com.grash.repository.VerificationTokenRepository;
+import com.grash.security.CustomUserDetailsService;
 import com.grash.security.JwtTokenProvider;
 import com.grash.utils.Helper;
 import com.grash.utils.Utils;
@@ -67,6 +68,7 @@ public class UserService {
     private final BrandingService brandingService;
     private final DemoDataService demoDataService;
     private final ApplicationEventPublisher applicationEventPublisher;
+    private final CustomUserDetailsService customUserDetailsService;
 
     @Value("${api.host}")
     private String PUBLIC_API_URL;
@@ -219,7 +221,7 @@ public class UserService {
     }
 
     public OwnUser whoami(HttpServletRequest req) {
-        return userRepository.findByEmailIgnoreCase(jwtTokenProvider.getUsername(jwtTokenProvider.resolveToken(req))).get();
+        return customUserDetailsService.loadUserByUsername(jwtTokenProvider.getUsername(jwtTokenProvider.resolveToken(req))).getUser();
     }
 
     public String refresh(String username) {
@@ -0,0 +1,97 @@
+package com.grash.service;
+
+import com.grash.dto.analytics.workOrders.*;
+import com.grash.model.enums.Priority;
+import com.grash.model.enums.Status;
+import com.grash.repository.LaborRepository;
+import com.grash.repository.WorkOrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Work order dashboard figures computed with aggregate queries, so that no work order entity gets loaded
+ */
+@Service
+@RequiredArgsConstructor
+public class WorkOrderAnalyticsService {
+    private final WorkOrderRepository workOrderRepository;
+    private final LaborRepository laborRepository;
+
+    public WOStats getCompleteStats(Long companyId, Date start, Date end) {
+        WOCompleteAggregate aggregate = workOrderRepository.getCompleteAggregate(companyId, start, end,
+                Status.COMPLETE.ordinal());
+        return WOStats.builder()
+                .total(Math.toIntExact(aggregate.getTotal()))
+                .complete(Math.toIntExact(aggregate.getComplete()))
+                .compliant(Math.toIntExact(aggregate.getCompliant()))
+                .mtta(average(aggregate.getReactionHours(), aggregate.getReacted()))
+                .avgCycleTime(average(aggregate.getCycleDays(), aggregate.getCycleCount()))
+                .build();
+    }
+
+    public WOIncompleteStats getIncompleteStats(Long companyId, Date start, Date end) {
+        Optional<WOGroupAggregate> optionalAggregate = workOrderRepository.getCompanyAggregate(companyId, start, end,
+                new Date(), Status.COMPLETE.ordinal());
+        if (!optionalAggregate.isPresent()) return WOIncompleteStats.builder().build();
+        WOGroupAggregate aggregate = optionalAggregate.get();
+        return WOIncompleteStats.builder()
+                .total(Math.toIntExact(aggregate.getIncomplete()))
+                .averageAge(Math.toIntExact(average(aggregate.getIncompleteAgeDays(), aggregate.getIncomplete())))
+                .build();
+    }
+
+    public Map<Priority, WOPriorityAggregate> getByPriority(Long companyId, Date start, Date end) {
+        return workOrderRepository.getAggregatesByPriority(companyId, start, end, Status.COMPLETE).stream()
+                .filter(aggregate -> aggregate.getPriority() != null)
+                .collect(Collectors.toMap(WOPriorityAggregate::getPriority, Function.identity()));
+    }
+
+    public Map<Status, Integer> getCountsByStatus(Long companyId, Date start, Date end) {
+        Map<Status, Integer> result = new EnumMap<>(Status.class);
+        Arrays.stream(Status.values()).forEach(status -> result.put(status, 0));
+        workOrderRepository.getAggregatesByStatus(companyId, start, end).stream()
+                .filter(aggregate -> aggregate.getStatus() != null)
+                .forEach(aggregate -> result.put(aggregate.getStatus(), Math.toIntExact(aggregate.getTotal())));
+        return result;
+    }
+
+    public Map<Long, WOGroupAggregate> getByAsset(Long companyId, Date start, Date end) {
+        return toMap(workOrderRepository.getAggregatesByAsset(companyId, start, end, new Date(),
+                Status.COMPLETE.ordinal()));
+    }
+
+    public Map<Long, WOGroupAggregate> getByCategory(Long companyId, Date start, Date end) {
+        return toMap(workOrderRepository.getAggregatesByCategory(companyId, start, end, new Date(),
+                Status.COMPLETE.ordinal()));
+    }
+
+    public Map<Long, WOGroupAggregate> getByCompletedBy(Long companyId, Date start, Date end) {
+        return toMap(workOrderRepository.getAggregatesByCompletedBy(companyId, start, end, new Date(),
+                Status.COMPLETE.ordinal()));
+    }
+
+    public Map<Long, WOGroupAggregate> getByAssignedUser(Long companyId, Date start, Date end) {
+        return toMap(workOrderRepository.getAggregatesByAssignedUser(companyId, start, end, new Date(),
+                Status.COMPLETE.ordinal()));
+    }
+
+    public WOHours getHours(Long companyId, Date start, Date end) {
+        long laborSeconds = laborRepository.getDurationSumByWorkOrderCreatedAtBetween(companyId, start, end);
+        return WOHours.builder()
+                .estimated(workOrderRepository.getEstimatedDurationSum(companyId, start, end))
+                .actual(Math.toIntExact(laborSeconds / 3600))
+                .build();
+    }
+
+    public static long average(Long sum, Long count) {
+        return count == null || count == 0 ? 0 : sum / count;
+    }
+
+    private Map<Long, WOGroupAggregate> toMap(List<WOGroupAggregate> aggregates) {
+        return aggregates.stream().collect(Collectors.toMap(WOGroupAggregate::getId, Function.identity()));
+    }
+}
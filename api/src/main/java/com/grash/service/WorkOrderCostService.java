@@ -0,0 +1,61 @@
+package com.grash.service;
+
+import com.grash.dto.analytics.workOrders.WOCostAggregate;
+import com.grash.dto.analytics.workOrders.WOCostRollup;
+import com.grash.dto.analytics.workOrders.WOCosts;
+import com.grash.repository.AdditionalCostRepository;
+import com.grash.repository.LaborRepository;
+import com.grash.repository.PartQuantityRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * Rolls up the labor, part and additional costs of many work orders with one grouped query per cost type,
+ * instead of loading the cost entities of each work order
+ */
+@Service
+@RequiredArgsConstructor
+public class WorkOrderCostService {
+    //keeps the IN clause far below the JDBC bind parameter limit
+    static final int CHUNK_SIZE = 5000;
+
+    private final LaborRepository laborRepository;
+    private final PartQuantityRepository partQuantityRepository;
+    private final AdditionalCostRepository additionalCostRepository;
+
+    public WOCostRollup getCostRollup(Collection<Long> workOrderIds) {
+        WOCostRollup rollup = new WOCostRollup();
+        List<Long> ids = new ArrayList<>(new HashSet<>(workOrderIds));
+        for (int i = 0; i < ids.size(); i += CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(i, Math.min(i + CHUNK_SIZE, ids.size()));
+            merge(rollup, laborRepository.getAggregatesByWorkOrder(chunk), (costs, aggregate) -> {
+                costs.setLaborCost(costs.getLaborCost() + toLong(aggregate.getCost()));
+                costs.setLaborTime(costs.getLaborTime() + (aggregate.getDuration() == null ? 0 :
+                        aggregate.getDuration()));
+            });
+            merge(rollup, partQuantityRepository.getAggregatesByWorkOrder(chunk),
+                    (costs, aggregate) -> costs.setPartCost(costs.getPartCost() + toDouble(aggregate.getCost())));
+            merge(rollup, additionalCostRepository.getAggregatesByWorkOrder(chunk),
+                    (costs, aggregate) -> costs.setAdditionalCost(costs.getAdditionalCost() + toDouble(aggregate.getCost())));
+        }
+        rollup.getByWorkOrder().values().forEach(costs -> rollup.getTotal().add(costs));
+        return rollup;
+    }
+
+    private void merge(WOCostRollup rollup, List<WOCostAggregate> aggregates,
+                       BiConsumer<WOCosts, WOCostAggregate> accumulator) {
+        aggregates.forEach(aggregate -> accumulator.accept(rollup.getByWorkOrder()
+                .computeIfAbsent(aggregate.getId(), id -> new WOCosts()), aggregate));
+    }
+
+    private static long toLong(Double value) {
+        return value == null ? 0 : value.longValue();
+    }
+
+    private static double toDouble(Double value) {
+        return value == null ? 0 : value;
+    }
+}
@@ -12,7 +12,10 @@ import org.springframework.context.MessageSource;
 import org.springframework.stereotype.Service;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -54,4 +57,21 @@ public class WorkOrderHistoryService {
                     .build();
         }).collect(Collectors.toList());
     }
+
+    /**
+     * Histories of many work orders with one query, by work order id
+     */
+    public Map<Long, List<WorkOrderHistory>> findByWorkOrders(Collection<WorkOrder> workOrders) {
+        Map<Long, WorkOrder> workOrdersById = workOrders.stream()
+                .collect(Collectors.toMap(WorkOrder::getId, Function.identity()));
+        return workOrderAudRepository.findByIdInAndRevtype(workOrdersById.keySet(), 1).stream()
+                .map(workOrderAud -> {
+                    OwnUser user = workOrderAud.getWorkOrderAudId().getRev().getUser();
+                    return WorkOrderHistory.builder()
+                            .workOrder(workOrdersById.get(workOrderAud.getWorkOrderAudId().getId()))
+                            .name(workOrderAud.getSummary(messageSource, Helper.getLocale(user)))
+                            .user(user)
+                            .build();
+                }).collect(Collectors.groupingBy(history -> history.getWorkOrder().getId()));
+    }
 }
@@ -0,0 +1,439 @@
+package com.grash.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.grash.advancedsearch.FilterField;
+import com.grash.advancedsearch.SearchCriteria;
+import com.grash.dto.ReportJobResponse;
+import com.grash.exception.CustomException;
+import com.grash.factory.StorageServiceFactory;
+import com.grash.model.*;
+import com.grash.repository.*;
+import com.grash.utils.FileSystemMultipartFile;
+import com.grash.utils.Helper;
+import com.itextpdf.html2pdf.HtmlConverter;
+import lombok.Builder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSource;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Renders the work order PDF reports on a bounded pool of workers. A report is written to a temporary file and
+ * uploaded from it, and its storage path is cached by work order version and locale: downloading the report of an
+ * unchanged work order again only signs a new URL, and concurrent requests for the same version share one rendering.
+ * Bulk exports zip the reports of many work orders into one file. The state of the jobs is kept in the database, so
+ * that they can be polled from any node.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WorkOrderReportService {
+    private static final long RESULT_TIMEOUT_MINUTES = 2;
+    static final int BULK_BATCH_SIZE = 50;
+    private static final long JOB_RETENTION_HOURS = 1;
+
+    private final WorkOrderRepository workOrderRepository;
+    private final TaskService taskService;
+    private final PartQuantityService partQuantityService;
+    private final LaborService laborService;
+    private final RelationService relationService;
+    private final AdditionalCostService additionalCostService;
+    private final WorkOrderHistoryService workOrderHistoryService;
+    private final UserService userService;
+    private final BrandingService brandingService;
+    private final SpringTemplateEngine thymeleafTemplateEngine;
+    private final StorageServiceFactory storageServiceFactory;
+    private final MessageSource messageSource;
+    private final Environment environment;
+    private final PlatformTransactionManager transactionManager;
+    private final WorkOrderService workOrderService;
+    private final TaskRepository taskRepository;
+    private final LaborRepository laborRepository;
+    private final PartQuantityRepository partQuantityRepository;
+    private final AdditionalCostRepository additionalCostRepository;
+    private final RelationRepository relationRepository;
+    private final UserRepository userRepository;
+    private final ReportJobRepository reportJobRepository;
+
+    @Value("${reports.workers:2}")
+    private int workers;
+    @Value("${reports.queue-capacity:20}")
+    private int queueCapacity;
+    @Value("${reports.cache-spec:maximumSize=10000,expireAfterAccess=1d}")
+    private String cacheSpec;
+    @Value("${reports.bulk-queue-capacity:5}")
+    private int bulkQueueCapacity;
+
+    private ThreadPoolExecutor executor;
+    //bulk exports are run one at a time, their PDFs are rendered by the workers
+    private ThreadPoolExecutor bulkExecutor;
+    //storage paths by work order version and locale
+    private AsyncCache<String, String> reports;
+
+    @PostConstruct
+    private void init() {
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), daemonThreads("report-worker"));
+        bulkExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(bulkQueueCapacity), daemonThreads("bulk-report"));
+        reports = Caffeine.from(cacheSpec).buildAsync();
+    }
+
+    @PreDestroy
+    private void shutdown() {
+        executor.shutdownNow();
+        bulkExecutor.shutdownNow();
+    }
+
+    /**
+     * @return the id of the job to poll with {@link #getJob(String, Long)}
+     */
+    public String submit(WorkOrder workOrder, Locale locale) {
+        ReportJob job = createJob(workOrder.getCompany().getId());
+        job.setTotal(1);
+        reportJobRepository.save(job);
+        getReport(workOrder, locale).whenComplete((path, throwable) -> {
+            if (throwable == null) job.setDone(1);
+            complete(job, path, throwable);
+        });
+        return job.getId();
+    }
+
+    /**
+     * Exports the reports of all the work orders matching the criteria in one ZIP file. The work orders are read in
+     * batches whose related rows are fetched with one query per type, and their PDFs are rendered by the workers.
+     *
+     * @param searchCriteria already restricted to what the user can see
+     * @return the id of the job to poll with {@link #getJob(String, Long)}
+     */
+    public String submitBulk(SearchCriteria searchCriteria, Long companyId, Locale locale) {
+        ReportJob job = reportJobRepository.save(createJob(companyId));
+        try {
+            bulkExecutor.execute(() -> {
+                String path = null;
+                RuntimeException exception = null;
+                try {
+                    path = exportReports(job, searchCriteria, companyId, locale);
+                } catch (RuntimeException e) {
+                    log.error("Failed to export the work order reports of company {}", companyId, e);
+                    exception = e;
+                }
+                complete(job, path, exception);
+            });
+        } catch (RejectedExecutionException e) {
+            reportJobRepository.delete(job);
+            throw new CustomException("Too many report exports are running, please retry later",
+                    HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return job.getId();
+    }
+
+    public ReportJobResponse getJob(String jobId, Long companyId) {
+        ReportJob job = reportJobRepository.findById(jobId)
+                .filter(reportJob -> reportJob.getCompanyId().equals(companyId))
+                .orElseThrow(() -> new CustomException("Report job not found", HttpStatus.NOT_FOUND));
+        return ReportJobResponse.builder().id(jobId).state(job.getState()).done(job.getDone()).total(job.getTotal())
+                .url(job.getState() == ReportJobResponse.State.DONE ? sign(job.getPath()) : null)
+                .error(job.getError()).build();
+    }
+
+    //the jobs are polled for a while after they are done, then deleted with the next submission
+    private ReportJob createJob(Long companyId) {
+        reportJobRepository.deleteByCreatedAtBefore(new Date(System.currentTimeMillis()
+                - TimeUnit.HOURS.toMillis(JOB_RETENTION_HOURS)));
+        return new ReportJob(UUID.randomUUID().toString(), companyId);
+    }
+
+    private void complete(ReportJob job, String path, Throwable throwable) {
+        if (throwable == null) {
+            job.setState(ReportJobResponse.State.DONE);
+            job.setPath(path);
+        } else {
+            Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                    ? throwable.getCause() : throwable;
+            job.setState(ReportJobResponse.State.FAILED);
+            String error = String.valueOf(cause.getMessage());
+            job.setError(error.length() > 1000 ? error.substring(0, 1000) : error);
+        }
+        reportJobRepository.save(job);
+    }
+
+    /**
+     * Waits for the report, for the clients that expect its URL in the response
+     */
+    public String getUrl(WorkOrder workOrder, Locale locale) {
+        try {
+            return sign(getReport(workOrder, locale).get(RESULT_TIMEOUT_MINUTES, TimeUnit.MINUTES));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof CustomException) throw (CustomException) e.getCause();
+            throw new CustomException("Report generation failed: " + e.getCause().getMessage(),
+                    HttpStatus.INTERNAL_SERVER_ERROR);
+        } catch (TimeoutException e) {
+            throw new CustomException("Report generation is taking too long, please retry later",
+                    HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CustomException("Report generation interrupted", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    private CompletableFuture<String> getReport(WorkOrder workOrder, Locale locale) {
+        Long workOrderId = workOrder.getId();
+        Long companyId = workOrder.getCompany().getId();
+        String key = workOrderId + ":" + workOrderRepository.getReportVersion(workOrderId) + ":" +
+                locale.toLanguageTag();
+        try {
+            return reports.get(key, (reportKey, reportExecutor) ->
+                    CompletableFuture.supplyAsync(() -> render(workOrderId, companyId, locale), executor));
+        } catch (RejectedExecutionException e) {
+            throw new CustomException("Too many reports are being generated, please retry later",
+                    HttpStatus.SERVICE_UNAVAILABLE);
+        }
+    }
+
+    private String sign(String path) {
+        return storageServiceFactory.getStorageService().generateSignedUrl(path, 10);
+    }
+
+    private String render(Long workOrderId, Long companyId, Locale locale) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        String reportHtml = transactionTemplate.execute(status -> {
+            WorkOrder workOrder = workOrderRepository.findById(workOrderId)
+                    .orElseThrow(() -> new CustomException("Not found", HttpStatus.NOT_FOUND));
+            return renderHtml(workOrder, locale, ReportRows.builder()
+                    .createdBy(workOrder.getCreatedBy() == null ? null : userService.findById(workOrder.getCreatedBy())
+                            .map(OwnUser::getFullName).orElse(null))
+                    .tasks(taskService.findByWorkOrder(workOrderId))
+                    .labors(laborService.findByWorkOrder(workOrderId))
+                    .relations(relationService.findByWorkOrder(workOrderId))
+                    .additionalCosts(additionalCostService.findByWorkOrder(workOrderId))
+                    .workOrderHistories(workOrderHistoryService.findByWorkOrder(workOrderId))
+                    .partQuantities(partQuantityService.findByWorkOrder(workOrderId))
+                    .build());
+        });
+        Path path = null;
+        try {
+            path = renderPdf(reportHtml);
+            return storageServiceFactory.getStorageService().upload(new FileSystemMultipartFile(path,
+                    "Work Order Report.pdf"), "reports/" + companyId);
+        } finally {
+            if (path != null) path.toFile().delete();
+        }
+    }
+
+    private String exportReports(ReportJob job, SearchCriteria searchCriteria, Long companyId, Locale locale) {
+        Path zipPath = null;
+        try {
+            zipPath = Files.createTempFile("reports", ".zip");
+            try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(zipPath))) {
+                long lastId = 0;
+                while (true) {
+                    List<ReportFile> batch = renderBatch(job, searchCriteria, lastId, locale);
+                    if (batch.isEmpty()) break;
+                    //the PDFs of the batch are rendered in parallel, and added in order
+                    List<CompletableFuture<Path>> pdfs = batch.stream().map(reportFile -> {
+                        try {
+                            return CompletableFuture.supplyAsync(() -> renderPdf(reportFile.html), executor);
+                        } catch (RejectedExecutionException e) {
+                            return CompletableFuture.completedFuture(renderPdf(reportFile.html));
+                        }
+                    }).collect(Collectors.toList());
+                    for (int i = 0; i < batch.size(); i++) {
+                        Path pdf = pdfs.get(i).join();
+                        try {
+                            zip.putNextEntry(new ZipEntry(batch.get(i).name));
+                            Files.copy(pdf, zip);
+                            zip.closeEntry();
+                        } finally {
+                            pdf.toFile().delete();
+                        }
+                        job.setDone(job.getDone() + 1);
+                        reportJobRepository.save(job);
+                    }
+                    lastId = batch.get(batch.size() - 1).workOrderId;
+                }
+            }
+            return storageServiceFactory.getStorageService().upload(new FileSystemMultipartFile(zipPath,
+                    "Work Order Reports.zip"), "reports/" + companyId);
+        } catch (IOException e) {
+            throw new CustomException("Report export failed: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        } finally {
+            if (zipPath != null) zipPath.toFile().delete();
+        }
+    }
+
+    /**
+     * Renders the HTML of the next batch of work orders after lastId, fetching their related rows with one query per
+     * type
+     */
+    private List<ReportFile> renderBatch(ReportJob job, SearchCriteria searchCriteria, long lastId, Locale locale) {
+        SearchCriteria batchCriteria = searchCriteria.clone();
+        batchCriteria.getFilterFields().add(FilterField.builder()
+                .field("id")
+                .value(lastId)
+                .operation("gt")
+                .values(new ArrayList<>()).build());
+        batchCriteria.setPageNum(0);
+        batchCriteria.setPageSize(BULK_BATCH_SIZE);
+        batchCriteria.setSortField("id");
+        batchCriteria.setDirection(Sort.Direction.ASC);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate.execute(status -> {
+            Page<WorkOrder> page = workOrderService.findBySearchCriteria(batchCriteria);
+            if (lastId == 0) {
+                job.setTotal(Math.toIntExact(page.getTotalElements()));
+                reportJobRepository.save(job);
+            }
+            List<WorkOrder> workOrders = page.getContent();
+            if (workOrders.isEmpty()) return Collections.<ReportFile>emptyList();
+            List<Long> ids = workOrders.stream().map(WorkOrder::getId).collect(Collectors.toList());
+            Map<Long, List<Task>> tasks = taskRepository.findByWorkOrder_IdInOrderByCreatedAtAsc(ids).stream()
+                    .collect(Collectors.groupingBy(task -> task.getWorkOrder().getId()));
+            Map<Long, List<Labor>> labors = laborRepository.findByWorkOrder_IdIn(ids).stream()
+                    .collect(Collectors.groupingBy(labor -> labor.getWorkOrder().getId()));
+            Map<Long, List<PartQuantity>> partQuantities = partQuantityRepository.findByWorkOrder_IdIn(ids).stream()
+                    .collect(Collectors.groupingBy(partQuantity -> partQuantity.getWorkOrder().getId()));
+            Map<Long, List<AdditionalCost>> additionalCosts = additionalCostRepository.findByWorkOrder_IdIn(ids)
+                    .stream().collect(Collectors.groupingBy(additionalCost -> additionalCost.getWorkOrder().getId()));
+            Map<Long, List<Relation>> relations = new HashMap<>();
+            relationRepository.findByParent_IdInOrChild_IdIn(ids, ids).forEach(relation -> Stream.of(
+                            relation.getParent(), relation.getChild()).filter(Objects::nonNull).map(WorkOrder::getId)
+                    .distinct().forEach(id -> relations.computeIfAbsent(id, key -> new ArrayList<>()).add(relation)));
+            Map<Long, List<WorkOrderHistory>> workOrderHistories = workOrderHistoryService.findByWorkOrders(workOrders);
+            Map<Long, String> userNames = userRepository.findAllById(workOrders.stream().map(WorkOrder::getCreatedBy)
+                            .filter(Objects::nonNull).collect(Collectors.toSet())).stream()
+                    .collect(Collectors.toMap(OwnUser::getId, OwnUser::getFullName));
+            return workOrders.stream().map(workOrder -> new ReportFile(workOrder.getId(),
+                    "Work Order " + (workOrder.getCustomId() == null ? workOrder.getId() : workOrder.getCustomId())
+                            + " - " + workOrder.getId() + ".pdf",
+                    renderHtml(workOrder, locale, ReportRows.builder()
+                            .createdBy(workOrder.getCreatedBy() == null ? null :
+                                    userNames.get(workOrder.getCreatedBy()))
+                            .tasks(tasks.getOrDefault(workOrder.getId(), Collections.emptyList()))
+                            .labors(labors.getOrDefault(workOrder.getId(), Collections.emptyList()))
+                            .relations(relations.getOrDefault(workOrder.getId(), Collections.emptyList()))
+                            .additionalCosts(additionalCosts.getOrDefault(workOrder.getId(), Collections.emptyList()))
+                            .workOrderHistories(workOrderHistories.getOrDefault(workOrder.getId(),
+                                    Collections.emptyList()))
+                            .partQuantities(partQuantities.getOrDefault(workOrder.getId(), Collections.emptyList()))
+                            .build()))).collect(Collectors.toList());
+        });
+    }
+
+    private Path renderPdf(String reportHtml) {
+        Path path = null;
+        try {
+            path = Files.createTempFile("report", ".pdf");
+            try (OutputStream outputStream = Files.newOutputStream(path)) {
+                HtmlConverter.convertToPdf(reportHtml, outputStream);
+            }
+            return path;
+        } catch (IOException e) {
+            if (path != null) path.toFile().delete();
+            throw new CustomException("Report generation failed: " + e.getMessage(),
+                    HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    private String renderHtml(WorkOrder workOrder, Locale locale, ReportRows rows) {
+        Company company = workOrder.getCompany();
+        StorageService storageService = storageServiceFactory.getStorageService();
+        Context thymeleafContext = new Context();
+        thymeleafContext.setLocale(locale);
+        Map<String, String> imagesUrls = storageService.generateSignedUrls(rows.tasks.stream()
+                .flatMap(task -> task.getImages().stream()).map(File::getPath).distinct()
+                .collect(Collectors.toList()), 5);
+        Map<Long, String[]> tasksImagesUrls = rows.tasks.stream()
+                .collect(Collectors.toMap(
+                        Task::getId,
+                        task -> task.getImages().stream()
+                                .map(image -> imagesUrls.get(image.getPath()))
+                                .filter(Objects::nonNull)
+                                .toArray(String[]::new)
+                ));
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("companyName", company.getName());
+        variables.put("companyPhone", company.getPhone());
+        variables.put("currency", company.getCompanySettings().getGeneralPreferences().getCurrency().getCode());
+        variables.put("assignedTo",
+                Helper.enumerate(workOrder.getAssignedTo().stream().map(OwnUser::getFullName)
+                        .collect(Collectors.toList())));
+        variables.put("customers",
+                Helper.enumerate(workOrder.getCustomers().stream().map(Customer::getName)
+                        .collect(Collectors.toList())));
+        variables.put("workOrder", workOrder);
+        variables.put("primaryUserName", workOrder.getPrimaryUser() == null ? null :
+                workOrder.getPrimaryUser().getFullName());
+        variables.put("createdBy", rows.createdBy);
+        variables.put("tasks", rows.tasks);
+        variables.put("labors", rows.labors);
+        variables.put("relations", rows.relations);
+        variables.put("additionalCosts", rows.additionalCosts);
+        variables.put("workOrderHistories", rows.workOrderHistories);
+        variables.put("partQuantities", rows.partQuantities);
+        variables.put("environment", environment);
+        variables.put("tasksImagesUrls", tasksImagesUrls);
+        variables.put("messageSource", messageSource);
+        variables.put("locale", locale);
+        variables.put("backgroundColor", brandingService.getMailBackgroundColor());
+        thymeleafContext.setVariables(variables);
+        return thymeleafTemplateEngine.process("work-order-report.html", thymeleafContext);
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    //what a report shows besides the work order itself
+    @Builder
+    private static class ReportRows {
+        private final String createdBy;
+        private final List<Task> tasks;
+        private final Collection<Labor> labors;
+        private final Collection<Relation> relations;
+        private final Collection<AdditionalCost> additionalCosts;
+        private final Collection<WorkOrderHistory> workOrderHistories;
+        private final Collection<PartQuantity> partQuantities;
+    }
+
+    private static class ReportFile {
+        private final Long workOrderId;
+        private final String name;
+        private final String html;
+
+        private ReportFile(Long workOrderId, String name, String html) {
+            this.workOrderId = workOrderId;
+            this.name = name;
+            this.html = html;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.grash.service;
+
+import com.grash.dto.analytics.workOrders.WODailyAggregate;
+import com.grash.dto.analytics.workOrders.WORollupTotals;
+import com.grash.event.WorkOrderChangedEvent;
+import com.grash.model.enums.Status;
+import com.grash.repository.WorkOrderDailyRollupRepository;
+import com.grash.utils.Helper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.transaction.Transactional;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the {@link com.grash.model.WorkOrderDailyRollup} rows: the days touched by a work order change are
+ * rebuilt after the commit, and charts read one row per day instead of the work orders
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WorkOrderRollupService {
+    private static final LocalDate FIRST_DAY = LocalDate.of(1970, 1, 1);
+    private static final LocalDate LAST_DAY = LocalDate.of(3000, 1, 1);
+
+    private final WorkOrderDailyRollupRepository workOrderDailyRollupRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Runs synchronously after the commit, in its own transaction, so that a failure is only logged: the nightly
+     * backfill heals the rollup anyway
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleWorkOrderChanged(WorkOrderChangedEvent event) {
+        Set<LocalDate> days = event.getDates().stream().filter(Objects::nonNull).map(Helper::dateToLocalDate)
+                .collect(Collectors.toCollection(TreeSet::new));
+        if (days.isEmpty()) return;
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                workOrderDailyRollupRepository.lockCompany(event.getCompanyId());
+                days.forEach(day -> rebuild(event.getCompanyId(), day, day.plusDays(1)));
+            });
+        } catch (RuntimeException e) {
+            log.error("Failed to refresh the work order rollup of company {}", event.getCompanyId(), e);
+        }
+    }
+
+    @Transactional
+    public void rebuild(Long companyId) {
+        workOrderDailyRollupRepository.lockCompany(companyId);
+        rebuild(companyId, FIRST_DAY, LAST_DAY);
+    }
+
+    /**
+     * @param bounds ascending days, the totals of each [bounds[i], bounds[i + 1][ interval are returned
+     */
+    public List<WORollupTotals> getTotals(Long companyId, List<LocalDate> bounds) {
+        List<WORollupTotals> result = new ArrayList<>();
+        for (int i = 0; i < bounds.size() - 1; i++) {
+            result.add(WORollupTotals.builder()
+                    .start(Helper.localDateToDate(bounds.get(i)))
+                    .end(Helper.localDateToDate(bounds.get(i + 1))).build());
+        }
+        if (result.isEmpty()) return result;
+        List<WODailyAggregate> aggregates = workOrderDailyRollupRepository.getDailyAggregates(companyId,
+                bounds.get(0), bounds.get(bounds.size() - 1));
+        aggregates.forEach(aggregate -> {
+            for (int i = 0; i < result.size(); i++) {
+                if (!aggregate.getDay().isBefore(bounds.get(i)) && aggregate.getDay().isBefore(bounds.get(i + 1))) {
+                    result.get(i).add(aggregate);
+                    break;
+                }
+            }
+        });
+        return result;
+    }
+
+    private void rebuild(Long companyId, LocalDate start, LocalDate end) {
+        workOrderDailyRollupRepository.deleteByCompanyAndDays(companyId, start, end);
+        workOrderDailyRollupRepository.insertByCompanyAndDays(companyId, Helper.localDateToDate(start),
+                Helper.localDateToDate(end), Status.COMPLETE.ordinal());
+    }
+}
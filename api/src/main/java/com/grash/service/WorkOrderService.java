@@ -4,21 +4,25 @@ import com.grash.advancedsearch.FilterField;
 import com.grash.advancedsearch.SearchCriteria;
 import com.grash.advancedsearch.SpecificationBuilder;
 import com.grash.dto.WorkOrderPatchDTO;
+import com.grash.dto.analytics.workOrders.WOCostRollup;
+import com.grash.dto.analytics.workOrders.WOCosts;
 import com.grash.dto.imports.WorkOrderImportDTO;
 import com.grash.dto.workOrder.WorkOrderPostDTO;
+import com.grash.event.WorkOrderChangedEvent;
 import com.grash.exception.CustomException;
 import com.grash.mapper.WorkOrderMapper;
 import com.grash.model.*;
-import com.grash.model.abstracts.Cost;
 import com.grash.model.abstracts.WorkOrderBase;
 import com.grash.model.enums.*;
 import com.grash.model.enums.workflow.WFMainCondition;
 import com.grash.repository.WorkOrderHistoryRepository;
 import com.grash.repository.WorkOrderRepository;
 import com.grash.utils.Helper;
+import com.grash.utils.ImportLookups;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.MessageSource;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.Page;
@@ -34,6 +38,7 @@ import javax.persistence.criteria.JoinType;
 import javax.transaction.Transactional;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 @Service
 @RequiredArgsConstructor
@@ -46,9 +51,6 @@ public class WorkOrderService {
     private final AssetService assetService;
     private final UserService userService;
     private final CompanyService companyService;
-    private LaborService laborService;
-    private AdditionalCostService additionalCostService;
-    private PartQuantityService partQuantityService;
     private final NotificationService notificationService;
     private final WorkOrderMapper workOrderMapper;
     private final EntityManager em;
@@ -58,6 +60,8 @@ public class WorkOrderService {
     private final MessageSource messageSource;
     private final CustomSequenceService customSequenceService;
     private final SafetyInstructionService safetyInstructionService;
+    private final WorkOrderCostService workOrderCostService;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     @Value("${frontend.url}")
     private String frontendUrl;
@@ -83,7 +87,15 @@ public class WorkOrderService {
 
         WorkOrder savedWorkOrder = workOrderRepository.saveAndFlush(workOrder);
         em.refresh(savedWorkOrder);
+        publishChange(savedWorkOrder);
         
+        afterCreate(savedWorkOrder, company);
+
+        return savedWorkOrder;
+    }
+
+    //notifications and workflows of a new work order
+    public void afterCreate(WorkOrder savedWorkOrder, Company company) {
         // Check contractor employee safety instruction
         checkAndWarnContractorEmployeeSafetyInstruction(savedWorkOrder, Helper.getLocale(company));
         
@@ -91,22 +103,20 @@ public class WorkOrderService {
         Collection<Workflow> workflows =
                 workflowService.findByMainConditionAndCompany(WFMainCondition.WORK_ORDER_CREATED, company.getId());
         workflows.forEach(workflow -> workflowService.runWorkOrder(workflow, savedWorkOrder));
-
-        return savedWorkOrder;
     }
 
     public String getWorkOrderNumber(Company company) {
-        Long nextSequence = customSequenceService.getNextWorkOrderSequence(company);
-        return "WO" + String.format("%06d", nextSequence);
+        return getWorkOrderNumber(customSequenceService.getNextWorkOrderSequence(company));
     }
 
-    @Autowired
-    public void setDeps(@Lazy LaborService laborService,
-                        @Lazy AdditionalCostService additionalCostService,
-                        @Lazy PartQuantityService partQuantityService) {
-        this.laborService = laborService;
-        this.additionalCostService = additionalCostService;
-        this.partQuantityService = partQuantityService;
+    //allocated with one statement
+    public List<String> getWorkOrderNumbers(Company company, int count) {
+        long first = customSequenceService.getNextWorkOrderSequences(company, count);
+        return LongStream.range(first, first + count).mapToObj(this::getWorkOrderNumber).collect(Collectors.toList());
+    }
+
+    private String getWorkOrderNumber(long sequence) {
+        return "WO" + String.format("%06d", sequence);
     }
 
     @Transactional
@@ -116,6 +126,7 @@ public class WorkOrderService {
             if (savedWorkOrder.getFirstTimeToReact() == null) savedWorkOrder.setFirstTimeToReact(new Date());
             WorkOrder updatedWorkOrder =
                     workOrderRepository.saveAndFlush(workOrderMapper.updateWorkOrder(savedWorkOrder, workOrder));
+            publishChange(updatedWorkOrder);
             em.refresh(updatedWorkOrder);
             return updatedWorkOrder;
         } else throw new CustomException("Not found", HttpStatus.NOT_FOUND);
@@ -126,7 +137,9 @@ public class WorkOrderService {
     }
 
     public void delete(Long id) {
+        Optional<WorkOrder> optionalWorkOrder = workOrderRepository.findById(id);
         workOrderRepository.deleteById(id);
+        optionalWorkOrder.ifPresent(this::publishChange);
     }
 
     public Optional<WorkOrder> findById(Long id) {
@@ -236,10 +249,22 @@ public class WorkOrderService {
                 Sort.by(Sort.Direction.DESC, "createdAt")));
     }
 
+    public Set<Long> findStalePreventiveMaintenanceIds(Collection<Long> ids, int count) {
+        if (ids.isEmpty()) return new HashSet<>();
+        return workOrderRepository.findStalePreventiveMaintenanceIds(ids, count).stream().map(Number::longValue)
+                .collect(Collectors.toSet());
+    }
+
     public Collection<WorkOrder> findByLocation(Long id) {
         return workOrderRepository.findByLocation_Id(id);
     }
 
+    //the work orders of the location and of all the locations under it
+    //native, so not restricted by the tenant filter
+    public Collection<WorkOrder> findByLocationSubtree(Long id, Long companyId) {
+        return workOrderRepository.findByLocationSubtree(id, companyId);
+    }
+
     public Page<WorkOrder> findBySearchCriteria(SearchCriteria searchCriteria) {
         SpecificationBuilder<WorkOrder> builder = new SpecificationBuilder<>();
         searchCriteria.getFilterFields().forEach(builder::with);
@@ -249,15 +274,32 @@ public class WorkOrderService {
     }
 
     public void save(WorkOrder workOrder) {
-        workOrderRepository.save(workOrder);
+        publishChange(workOrderRepository.save(workOrder));
     }
 
     public WorkOrder saveAndFlush(WorkOrder workOrder) {
         WorkOrder updatedWorkOrder = workOrderRepository.saveAndFlush(workOrder);
+        publishChange(updatedWorkOrder);
         em.refresh(updatedWorkOrder);
         return updatedWorkOrder;
     }
 
+    /**
+     * Publishes the days affected by a change of the work order, its labors or its costs, before a refresh resets
+     * {@link WorkOrder#getLoadedCompletedOn()}
+     */
+    public void publishChange(WorkOrder workOrder) {
+        if (workOrder == null || workOrder.getCompany() == null) return;
+        publishChange(workOrder.getCompany().getId(), Collections.singletonList(workOrder));
+    }
+
+    public void publishChange(Long companyId, Collection<WorkOrder> workOrders) {
+        List<Date> dates = new ArrayList<>();
+        workOrders.forEach(workOrder -> dates.addAll(Arrays.asList(workOrder.getCreatedAt(),
+                workOrder.getCompletedOn(), workOrder.getLoadedCompletedOn())));
+        applicationEventPublisher.publishEvent(new WorkOrderChangedEvent(companyId, dates));
+    }
+
     public WorkOrder getWorkOrderFromWorkOrderBase(WorkOrderBase workOrderBase) {
         WorkOrder workOrder = new WorkOrder();
         workOrder.setTitle(workOrderBase.getTitle());
@@ -309,46 +351,25 @@ public class WorkOrderService {
         return workOrderRepository.findByCompletedOnBetweenAndCompany_Id(date1, date2, companyId);
     }
 
-    public Pair<Long, Long> getLaborCostAndTime(Collection<WorkOrder> workOrders) {
-        Collection<Long> laborCostsArray = new ArrayList<>();
-        Collection<Long> laborTimesArray = new ArrayList<>();
-        workOrders.forEach(workOrder -> {
-                    Collection<Labor> labors = laborService.findByWorkOrder(workOrder.getId());
-                    long laborsCosts =
-                            labors.stream().mapToLong(labor -> labor.getHourlyRate() * labor.getDuration() / 3600).sum();
-                    long laborTimes = labors.stream().mapToLong(Labor::getDuration).sum();
-                    laborCostsArray.add(laborsCosts);
-                    laborTimesArray.add(laborTimes);
-                }
-        );
-        long laborCost = laborCostsArray.stream().mapToLong(value -> value).sum();
-        long laborTimes = laborTimesArray.stream().mapToLong(value -> value).sum();
+    public WOCostRollup getCostRollup(Collection<WorkOrder> workOrders) {
+        return workOrderCostService.getCostRollup(workOrders.stream().map(WorkOrder::getId).collect(Collectors.toList()));
+    }
 
-        return Pair.of(laborCost, laborTimes);
+    public Pair<Long, Long> getLaborCostAndTime(Collection<WorkOrder> workOrders) {
+        WOCosts total = getCostRollup(workOrders).getTotal();
+        return Pair.of(total.getLaborCost(), total.getLaborTime());
     }
 
     public double getAdditionalCost(Collection<WorkOrder> workOrders) {
-        Collection<Double> costs = workOrders.stream().map(workOrder -> {
-                    Collection<AdditionalCost> additionalCosts =
-                            additionalCostService.findByWorkOrder(workOrder.getId());
-                    return additionalCosts.stream().mapToDouble(Cost::getCost).sum();
-                }
-        ).collect(Collectors.toList());
-        return costs.stream().mapToDouble(value -> value).sum();
+        return getCostRollup(workOrders).getTotal().getAdditionalCost();
     }
 
     public double getPartCost(Collection<WorkOrder> workOrders) {
-        Collection<Double> costs = workOrders.stream().map(workOrder -> {
-                    Collection<PartQuantity> partQuantities = partQuantityService.findByWorkOrder(workOrder.getId());
-                    return partQuantities.stream().mapToDouble(partQuantity -> partQuantity.getPart().getCost() * partQuantity.getQuantity()).sum();
-                }
-        ).collect(Collectors.toList());
-        return costs.stream().mapToDouble(value -> value).sum();
+        return getCostRollup(workOrders).getTotal().getPartCost();
     }
 
     public double getAllCost(Collection<WorkOrder> workOrders, boolean includeLaborCost) {
-        return getPartCost(workOrders) + getAdditionalCost(workOrders) + (includeLaborCost ?
-                getLaborCostAndTime(workOrders).getFirst() : 0);
+        return getCostRollup(workOrders).getTotal().getTotal(includeLaborCost);
     }
 
     public Collection<WorkOrder> findByCreatedBy(Long id) {
@@ -369,27 +390,19 @@ public class WorkOrderService {
         return workOrderRepository.findByDueDateBetweenAndCompany_Id(date1, date2, id);
     }
 
-    public void importWorkOrder(WorkOrder workOrder, WorkOrderImportDTO dto, Company company) {
-        Helper.populateWorkOrderBaseFromImportDTO(workOrder, dto, company, locationService, teamService, userService,
-                assetService, workOrderCategoryService);
+    public void importWorkOrder(WorkOrder workOrder, WorkOrderImportDTO dto, Company company, ImportLookups lookups) {
+        Helper.populateWorkOrderBaseFromImportDTO(workOrder, dto, lookups);
 
         workOrder.setDueDate(Helper.getDateFromExcelDate(dto.getDueDate()));
         workOrder.setCustomId(getWorkOrderNumber(company));
         workOrder.setRequiredSignature(Helper.getBooleanFromString(dto.getRequiredSignature()));
 
-        Optional<OwnUser> optionalCompletedBy = userService.findByEmailAndCompany(dto.getCompletedByEmail(),
-                company.getId());
-        optionalCompletedBy.ifPresent(workOrder::setCompletedBy);
+        lookups.findUserByEmail(dto.getCompletedByEmail()).ifPresent(workOrder::setCompletedBy);
         workOrder.setCompletedOn(dto.getCompletedOn() == null ? null : Helper.addSeconds(new Date(), 60 * 10));
         workOrder.setArchived(Helper.getBooleanFromString(dto.getArchived()));
         workOrder.setStatus(Status.getStatusFromString(dto.getStatus()));
         workOrder.setFeedback(dto.getFeedback());
-        List<Customer> customers = new ArrayList<>();
-        dto.getCustomersNames().forEach(name -> {
-            Optional<Customer> optionalCustomer = customerService.findByNameIgnoreCaseAndCompany(name, company.getId());
-            optionalCustomer.ifPresent(customers::add);
-        });
-        workOrder.setCustomers(customers);
+        workOrder.setCustomers(lookups.findCustomers(dto.getCustomersNames()));
         workOrderRepository.save(workOrder);
     }
 
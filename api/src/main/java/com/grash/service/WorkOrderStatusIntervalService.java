@@ -0,0 +1,49 @@
+package com.grash.service;
+
+import com.grash.dto.analytics.workOrders.WOStatusInterval;
+import com.grash.model.enums.Status;
+import com.grash.repository.WorkOrderStatusIntervalRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import javax.transaction.Transactional;
+import java.util.*;
+
+/**
+ * Reads the {@link com.grash.model.WorkOrderStatusInterval} rows to tell the status of the work orders at past dates
+ * without replaying their revisions
+ */
+@Service
+@RequiredArgsConstructor
+public class WorkOrderStatusIntervalService {
+
+    private final WorkOrderStatusIntervalRepository workOrderStatusIntervalRepository;
+
+    @Transactional
+    public int backfill(Long companyId) {
+        return workOrderStatusIntervalRepository.backfillByCompany(companyId);
+    }
+
+    /**
+     * @param dates ascending dates, for each of them the work orders created between start and this date are
+     *              counted by their status at this date
+     */
+    public List<Map<Status, Integer>> getStatusCounts(Long companyId, Date start, List<Date> dates) {
+        List<Map<Status, Integer>> result = new ArrayList<>();
+        dates.forEach(date -> result.add(new EnumMap<>(Status.class)));
+        if (dates.isEmpty()) return result;
+        List<WOStatusInterval> intervals = workOrderStatusIntervalRepository.findByCompanyAndCreatedAtBetween(
+                companyId, start, dates.get(dates.size() - 1), dates.get(0).getTime(),
+                dates.get(dates.size() - 1).getTime());
+        intervals.forEach(interval -> {
+            for (int i = 0; i < dates.size(); i++) {
+                long time = dates.get(i).getTime();
+                if (!interval.getCreatedAt().after(dates.get(i)) && interval.getValidFrom() <= time
+                        && (interval.getValidTo() == null || interval.getValidTo() > time)) {
+                    result.get(i).merge(interval.getStatus(), 1, Integer::sum);
+                }
+            }
+        });
+        return result;
+    }
+}
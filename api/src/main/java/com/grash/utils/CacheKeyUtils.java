@@ -1,15 +1,27 @@
 package com.grash.utils;
 
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.Date;
 
 public class CacheKeyUtils {
     public static long roundToNearest20Minutes(Date date) {
         long millis = date.getTime();
-        long interval = 20 * 60 * 1000L; // 10 minutes in ms
+        long interval = 20 * 60 * 1000L; // 20 minutes in ms
         return (millis / interval) * interval;
     }
 
-    public static String dateRangeKey(Long userId, Date start, Date end) {
-        return userId + "_" + roundToNearest20Minutes(start) + "_" + roundToNearest20Minutes(end);
+    //analytics keys start with the company id, so that the entries of a company can be evicted together
+    public static String companyPrefix(Long companyId) {
+        return companyId + "_";
+    }
+
+    public static String dateRangeKey(Long companyId, Date start, Date end) {
+        return companyPrefix(companyId) + roundToNearest20Minutes(start) + "_" + roundToNearest20Minutes(end);
+    }
+
+    //for the charts ending today
+    public static String todayKey(Long companyId) {
+        return companyPrefix(companyId) + LocalDate.now(ZoneId.of("UTC"));
     }
 }
@@ -22,7 +22,7 @@ public class CsvFileGenerator {
     private final MessageSource messageSource;
     private final AssetDowntimeService assetDowntimeService;
 
-    public void writeWorkOrdersToCsv(Collection<WorkOrder> workOrders, Writer writer, Locale locale) {
+    public void writeWorkOrdersToCsv(Iterable<WorkOrder> workOrders, Writer writer, Locale locale) {
         try {
             CSVPrinter printer = new CSVPrinter(writer, CSVFormat.DEFAULT);
             List<String> headers = Arrays.asList("ID", "Title", "Status", "Priority", "Description", "Due_Date", "Estimated_Duration", "Requires_Signature", "Category", "Location_Name", "Team_Name", "Primary_User_Email", "Assigned_To_Emails", "Asset_Name", "Completed_By_Email", "Completed_On", "Archived", "Feedback", "Customers", "Created_At");
@@ -56,7 +56,7 @@ public class CsvFileGenerator {
         }
     }
 
-    public void writeAssetsToCsv(Collection<Asset> assets, Writer writer, Locale locale) {
+    public void writeAssetsToCsv(Iterable<Asset> assets, Writer writer, Locale locale) {
         try {
             CSVPrinter printer = new CSVPrinter(writer, CSVFormat.DEFAULT);
             List<String> headers = Arrays.asList("ID", "Name",
@@ -112,7 +112,7 @@ public class CsvFileGenerator {
         }
     }
 
-    public void writeLocationsToCsv(Collection<Location> locations, Writer writer, Locale locale) {
+    public void writeLocationsToCsv(Iterable<Location> locations, Writer writer, Locale locale) {
         try {
             CSVPrinter printer = new CSVPrinter(writer, CSVFormat.DEFAULT);
             List<String> headers = Arrays.asList("ID", "Name",
@@ -140,7 +140,7 @@ public class CsvFileGenerator {
         }
     }
 
-    public void writePartsToCsv(Collection<Part> parts, Writer writer, Locale locale) {
+    public void writePartsToCsv(Iterable<Part> parts, Writer writer, Locale locale) {
         try {
             CSVPrinter printer = new CSVPrinter(writer, CSVFormat.DEFAULT);
             List<String> headers = Arrays.asList("ID", "Name",
@@ -183,7 +183,7 @@ public class CsvFileGenerator {
         }
     }
 
-    public void writeMetersToCsv(Collection<Meter> meters, Writer writer, Locale locale) {
+    public void writeMetersToCsv(Iterable<Meter> meters, Writer writer, Locale locale) {
         try {
             CSVPrinter printer = new CSVPrinter(writer, CSVFormat.DEFAULT);
             List<String> headers = Arrays.asList("ID", "Name",
@@ -0,0 +1,71 @@
+package com.grash.utils;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * MultipartFile read from a file on disk, for content too large to be held in memory
+ */
+public class FileSystemMultipartFile implements MultipartFile {
+    private final Path path;
+    private final String name;
+
+    public FileSystemMultipartFile(Path path, String name) {
+        this.path = path;
+        this.name = name;
+    }
+
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    @Override
+    public String getOriginalFilename() {
+        return this.name;
+    }
+
+    @Override
+    public String getContentType() {
+        String nameLowerCase = name.toLowerCase();
+        if (nameLowerCase.endsWith(".csv")) {
+            return "text/csv";
+        } else if (nameLowerCase.endsWith(".pdf")) {
+            return "application/pdf";
+        } else if (nameLowerCase.endsWith(".zip")) {
+            return "application/zip";
+        }
+        return null;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return getSize() == 0;
+    }
+
+    @Override
+    public long getSize() {
+        return path.toFile().length();
+    }
+
+    @Override
+    public byte[] getBytes() throws IOException {
+        return Files.readAllBytes(path);
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return Files.newInputStream(path);
+    }
+
+    @Override
+    public void transferTo(File dest) throws IOException, IllegalStateException {
+        Files.copy(path, dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+}
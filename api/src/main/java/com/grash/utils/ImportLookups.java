@@ -0,0 +1,168 @@
+package com.grash.utils;
+
+import com.grash.model.*;
+import com.grash.model.abstracts.CategoryAbstract;
+
+import javax.persistence.EntityManager;
+import java.util.*;
+
+/**
+ * Name to id dictionaries of a company, each loaded with one query the first time an import needs it, so that the
+ * references of the imported rows are resolved in memory. Resolved entities are references of the current
+ * persistence context, so they stay valid when it is cleared between chunks.
+ */
+public class ImportLookups {
+    private final EntityManager em;
+    private final Long companyId;
+    private final Long companySettingsId;
+    private final Map<String, Dictionary> dictionaries = new HashMap<>();
+
+    public ImportLookups(EntityManager em, Company company) {
+        this.em = em;
+        this.companyId = company.getId();
+        this.companySettingsId = company.getCompanySettings().getId();
+    }
+
+    public Optional<OwnUser> findUserByEmail(String email) {
+        return find(OwnUser.class, "email", true, email);
+    }
+
+    public List<OwnUser> findUsersByEmails(Collection<String> emails) {
+        return findAll(OwnUser.class, "email", true, emails);
+    }
+
+    public Optional<Location> findLocation(String name) {
+        return find(Location.class, "name", true, name);
+    }
+
+    public Optional<Asset> findAsset(String name) {
+        return find(Asset.class, "name", true, name);
+    }
+
+    public Optional<Long> findAssetIdByBarcode(String barcode) {
+        return Optional.ofNullable(getDictionary(Asset.class, "barCode", false).get(barcode));
+    }
+
+    public Optional<Part> findPart(String name) {
+        return find(Part.class, "name", true, name);
+    }
+
+    public List<Part> findParts(Collection<String> names) {
+        return findAll(Part.class, "name", true, names);
+    }
+
+    public Optional<Long> findPartIdByBarcode(String barcode) {
+        return Optional.ofNullable(getDictionary(Part.class, "barcode", false).get(barcode));
+    }
+
+    public Optional<Team> findTeam(String name) {
+        return find(Team.class, "name", true, name);
+    }
+
+    public List<Team> findTeams(Collection<String> names) {
+        return findAll(Team.class, "name", true, names);
+    }
+
+    public List<Customer> findCustomers(Collection<String> names) {
+        return findAll(Customer.class, "name", true, names);
+    }
+
+    public List<Vendor> findVendors(Collection<String> names) {
+        return findAll(Vendor.class, "name", true, names);
+    }
+
+    public Optional<WorkOrderCategory> findWorkOrderCategory(String name) {
+        return find(WorkOrderCategory.class, "name", true, name);
+    }
+
+    public Optional<AssetCategory> findAssetCategory(String name) {
+        return find(AssetCategory.class, "name", true, name);
+    }
+
+    public Optional<PartCategory> findPartCategory(String name) {
+        return find(PartCategory.class, "name", true, name);
+    }
+
+    public Optional<MeterCategory> findMeterCategory(String name) {
+        return find(MeterCategory.class, "name", true, name);
+    }
+
+    //so that the next rows can reference the rows already imported, like a parent asset or location
+    public void addLocation(Location location) {
+        add(Location.class, "name", true, location.getName(), location.getId());
+    }
+
+    public void addAsset(Asset asset) {
+        add(Asset.class, "name", true, asset.getName(), asset.getId());
+        add(Asset.class, "barCode", false, asset.getBarCode(), asset.getId());
+    }
+
+    public void addPart(Part part) {
+        add(Part.class, "name", true, part.getName(), part.getId());
+        add(Part.class, "barcode", false, part.getBarcode(), part.getId());
+    }
+
+    private <T> Optional<T> find(Class<T> entityClass, String field, boolean ignoreCase, String value) {
+        if (value == null) return Optional.empty();
+        Long id = getDictionary(entityClass, field, ignoreCase).get(key(value, ignoreCase));
+        return id == null ? Optional.empty() : Optional.of(em.getReference(entityClass, id));
+    }
+
+    private <T> List<T> findAll(Class<T> entityClass, String field, boolean ignoreCase, Collection<String> values) {
+        List<T> result = new ArrayList<>();
+        values.forEach(value -> find(entityClass, field, ignoreCase, value).ifPresent(result::add));
+        return result;
+    }
+
+    //an imported row can rename an existing one, or change its barcode
+    private void add(Class<?> entityClass, String field, boolean ignoreCase, String value, Long id) {
+        Dictionary dictionary = getDictionary(entityClass, field, ignoreCase);
+        if (value == null) dictionary.remove(id);
+        else dictionary.put(key(value, ignoreCase), id);
+    }
+
+    private Dictionary getDictionary(Class<?> entityClass, String field, boolean ignoreCase) {
+        return dictionaries.computeIfAbsent(entityClass.getSimpleName() + "." + field, dictionaryKey -> {
+            boolean ofCompanySettings = CategoryAbstract.class.isAssignableFrom(entityClass);
+            List<Object[]> rows = em.createQuery("SELECT e.id, e." + field + " FROM " + entityClass.getSimpleName()
+                            + " e WHERE e." + (ofCompanySettings ? "companySettings" : "company") + ".id = :ownerId " +
+                            "AND e." + field + " IS NOT NULL ORDER BY e.id", Object[].class)
+                    .setParameter("ownerId", ofCompanySettings ? companySettingsId : companyId)
+                    .getResultList();
+            Dictionary dictionary = new Dictionary();
+            rows.forEach(row -> dictionary.load(key((String) row[1], ignoreCase), (Long) row[0]));
+            return dictionary;
+        });
+    }
+
+    private static String key(String value, boolean ignoreCase) {
+        return ignoreCase ? value.toLowerCase(Locale.ROOT) : value;
+    }
+
+    private static class Dictionary {
+        private final Map<String, Long> ids = new HashMap<>();
+        //the key of each row, to drop it when the row is renamed
+        private final Map<Long, String> keys = new HashMap<>();
+
+        private Long get(String key) {
+            return ids.get(key);
+        }
+
+        //the first match wins, as the lookups by name did
+        private void load(String key, Long id) {
+            ids.putIfAbsent(key, id);
+            keys.put(id, key);
+        }
+
+        private void put(String key, Long id) {
+            remove(id);
+            ids.put(key, id);
+            keys.put(id, key);
+        }
+
+        private void remove(Long id) {
+            String previousKey = keys.remove(id);
+            if (previousKey != null) ids.remove(previousKey, id);
+        }
+    }
+}
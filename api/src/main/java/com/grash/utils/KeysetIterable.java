@@ -0,0 +1,61 @@
+package com.grash.utils;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import javax.persistence.EntityManager;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Iterates over entities in chunks read by ascending id, each chunk starting after the last id of the previous one.
+ * The persistence context is cleared before each chunk, so that only one chunk stays in memory.
+ */
+public class KeysetIterable<T> implements Iterable<T> {
+    private final BiFunction<Long, Pageable, List<T>> chunkLoader;
+    private final Function<T, Long> idGetter;
+    private final EntityManager entityManager;
+    private final int chunkSize;
+
+    /**
+     * @param chunkLoader the entities with an id greater than the given one, ordered by id
+     */
+    public KeysetIterable(BiFunction<Long, Pageable, List<T>> chunkLoader, Function<T, Long> idGetter,
+                          EntityManager entityManager, int chunkSize) {
+        this.chunkLoader = chunkLoader;
+        this.idGetter = idGetter;
+        this.entityManager = entityManager;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private Iterator<T> chunk = Collections.emptyIterator();
+            private Long lastId = 0L;
+            private boolean lastChunk = false;
+
+            @Override
+            public boolean hasNext() {
+                if (!chunk.hasNext() && !lastChunk) {
+                    entityManager.clear();
+                    List<T> entities = chunkLoader.apply(lastId, PageRequest.of(0, chunkSize));
+                    lastChunk = entities.size() < chunkSize;
+                    if (!entities.isEmpty()) lastId = idGetter.apply(entities.get(entities.size() - 1));
+                    chunk = entities.iterator();
+                }
+                return chunk.hasNext();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return chunk.next();
+            }
+        };
+    }
+}
@@ -0,0 +1,103 @@
+package com.grash.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Value;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Signed URLs by storage path and requested lifetime. A URL is signed for twice the requested lifetime and handed out
+ * again until only the requested lifetime is left on it, so that every caller still gets the lifetime it asked for.
+ * The cache hits are the signatures saved.
+ */
+public class SignedUrlCache {
+    //longest lifetime of a V4 signature, on GCS as on S3 compatible storages
+    static final long MAX_SIGNED_MINUTES = TimeUnit.DAYS.toMinutes(7);
+
+    private final Cache<Key, String> urls;
+    private final Counter signatures;
+
+    public SignedUrlCache(String spec, MeterRegistry meterRegistry, String storage) {
+        this.urls = Caffeine.from(spec).expireAfter(new Expiry<Key, String>() {
+            @Override
+            public long expireAfterCreate(Key key, String url, long currentTime) {
+                return TimeUnit.MINUTES.toNanos(reuseMinutes(key.getExpirationMinutes()));
+            }
+
+            @Override
+            public long expireAfterUpdate(Key key, String url, long currentTime, long currentDuration) {
+                return expireAfterCreate(key, url, currentTime);
+            }
+
+            @Override
+            public long expireAfterRead(Key key, String url, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        }).build();
+        CaffeineCacheMetrics.monitor(meterRegistry, urls, "signedUrls", "storage", storage);
+        this.signatures = meterRegistry.counter("storage.signatures", "storage", storage);
+    }
+
+    /**
+     * @param signer signs a path for a number of minutes
+     */
+    public String get(String path, long expirationMinutes, BiFunction<String, Long, String> signer) {
+        if (reuseMinutes(expirationMinutes) <= 0) return sign(path, expirationMinutes, signer);
+        return urls.get(new Key(path, expirationMinutes),
+                key -> sign(path, signedMinutes(expirationMinutes), signer));
+    }
+
+    /**
+     * @param signer signs paths for a number of minutes, leaving out the ones it can't sign
+     * @return the signed URLs by path
+     */
+    public Map<String, String> getAll(Collection<String> paths, long expirationMinutes,
+                                      BiFunction<Collection<String>, Long, Map<String, String>> signer) {
+        if (reuseMinutes(expirationMinutes) <= 0) return signAll(paths, expirationMinutes, signer);
+        Set<Key> keys = paths.stream().map(path -> new Key(path, expirationMinutes))
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Map<Key, String> signedUrls = urls.getAll(keys, missingKeys -> {
+            List<String> missingPaths = new ArrayList<>();
+            missingKeys.forEach(key -> missingPaths.add(key.getPath()));
+            return signAll(missingPaths, signedMinutes(expirationMinutes), signer).entrySet().stream()
+                    .collect(Collectors.toMap(entry -> new Key(entry.getKey(), expirationMinutes),
+                            Map.Entry::getValue));
+        });
+        Map<String, String> result = new LinkedHashMap<>();
+        signedUrls.forEach((key, url) -> result.put(key.getPath(), url));
+        return result;
+    }
+
+    private String sign(String path, long minutes, BiFunction<String, Long, String> signer) {
+        signatures.increment();
+        return signer.apply(path, minutes);
+    }
+
+    private Map<String, String> signAll(Collection<String> paths, long minutes,
+                                        BiFunction<Collection<String>, Long, Map<String, String>> signer) {
+        signatures.increment(paths.size());
+        return signer.apply(paths, minutes);
+    }
+
+    private static long signedMinutes(long expirationMinutes) {
+        return Math.min(expirationMinutes * 2, MAX_SIGNED_MINUTES);
+    }
+
+    private static long reuseMinutes(long expirationMinutes) {
+        return signedMinutes(expirationMinutes) - expirationMinutes;
+    }
+
+    @Value
+    private static class Key {
+        String path;
+        long expirationMinutes;
+    }
+}
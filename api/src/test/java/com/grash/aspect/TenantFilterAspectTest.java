@@ -0,0 +1,96 @@
+package com.grash.aspect;
+
+import com.grash.exception.CustomException;
+import com.grash.model.*;
+import com.grash.model.enums.RoleType;
+import com.grash.repository.AssetRepository;
+import com.grash.security.CustomUserDetail;
+import com.grash.utils.RecordingJpa;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TenantFilterAspectTest {
+
+    private OwnUser user;
+
+    @BeforeEach
+    void setUp() {
+        user = user(1L, RoleType.ROLE_CLIENT);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                CustomUserDetail.builder().user(user).build(), "", Collections.emptyList()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testLoadByIdOfOtherCompanyIsRejected() {
+        TenantFilterAspect.checkTenant(user, asset(1L));
+        assertThrows(CustomException.class, () -> TenantFilterAspect.checkTenant(user, asset(2L)));
+    }
+
+    @Test
+    void testSuperAccountLoadsFilesOfChildAccounts() {
+        SuperAccountRelation relation = new SuperAccountRelation();
+        relation.setChildUser(user(2L, RoleType.ROLE_CLIENT));
+        user.setSuperAccountRelations(Collections.singletonList(relation));
+        File file = new File();
+        file.setCompany(company(2L));
+
+        TenantFilterAspect.checkTenant(user, file);
+        assertThrows(CustomException.class, () -> TenantFilterAspect.checkTenant(user, asset(2L)));
+    }
+
+    @Test
+    void testSuperAdminIsNotFiltered() {
+        assertSame(user, TenantFilterAspect.getTenantUser());
+        user.getRole().setRoleType(RoleType.ROLE_SUPER_ADMIN);
+        assertNull(TenantFilterAspect.getTenantUser());
+    }
+
+    @Test
+    void testRepositoryQueriesOnlyReadTheRowsOfTheCompany() {
+        try (RecordingJpa jpa = new RecordingJpa()) {
+            AssetRepository assetRepository = jpa.getRepository(AssetRepository.class);
+            TenantFilterAspect.enableFilter(jpa.getEntityManager().unwrap(Session.class), user);
+
+            assetRepository.findAll();
+
+            RecordingJpa.Statement statement = jpa.getStatements().get(0);
+            assertTrue(statement.getSql().matches("(?s).*where\\s+\\w+\\.company_id\\s*=\\s*\\?.*"),
+                    statement.getSql());
+            assertEquals(List.of(1L), statement.getParameters());
+        }
+    }
+
+    private static Asset asset(Long companyId) {
+        Asset asset = new Asset();
+        asset.setCompany(company(companyId));
+        return asset;
+    }
+
+    private static Company company(Long id) {
+        Company company = new Company();
+        company.setId(id);
+        return company;
+    }
+
+    private static OwnUser user(Long companyId, RoleType roleType) {
+        OwnUser user = new OwnUser();
+        user.setId(companyId);
+        user.setRole(Role.builder().roleType(roleType).build());
+        user.setCompany(company(companyId));
+        return user;
+    }
+}
@@ -3,9 +3,12 @@ package com.grash.controller;
 import com.grash.model.ContractorEmployee;
 import com.grash.model.Location;
 import com.grash.model.OwnUser;
+import com.grash.model.Role;
 import com.grash.model.SafetyInstruction;
 import com.grash.model.Vendor;
 import com.grash.model.enums.InstructionType;
+import com.grash.model.enums.PermissionEntity;
+import com.grash.model.enums.RoleType;
 import com.grash.service.SafetyInstructionService;
 import com.grash.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
@@ -19,9 +22,7 @@ import org.springframework.http.ResponseEntity;
 
 import javax.servlet.http.HttpServletRequest;
 import java.time.LocalDateTime;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -69,6 +70,10 @@ class SafetyInstructionControllerTest {
         testUser.setId(1L);
         testUser.setFirstName("Jane");
         testUser.setLastName("Smith");
+        Set<PermissionEntity> permissions = new HashSet<>(List.of(PermissionEntity.VENDORS_AND_CUSTOMERS));
+        testUser.setRole(Role.builder().roleType(RoleType.ROLE_CLIENT).createPermissions(permissions)
+                .viewPermissions(permissions).editOtherPermissions(permissions).deleteOtherPermissions(permissions)
+                .build());
 
         testInstruction = new SafetyInstruction();
         testInstruction.setId(1L);
@@ -155,8 +160,12 @@ class SafetyInstructionControllerTest {
     void testCompleteInstruction_Success() {
         when(userService.whoami(request)).thenReturn(testUser);
         when(safetyInstructionService.findById(anyLong())).thenReturn(Optional.of(testInstruction));
+        //the service marks the instruction completed
         when(safetyInstructionService.completeInstruction(anyLong(), anyString(), anyString(), anyLong()))
-            .thenReturn(testInstruction);
+            .thenAnswer(invocation -> {
+                testInstruction.setCompleted(true);
+                return testInstruction;
+            });
 
         SafetyInstruction result = safetyInstructionController.completeInstruction(
             1L, "testSignature", "Test User", request
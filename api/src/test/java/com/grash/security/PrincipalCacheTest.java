@@ -0,0 +1,129 @@
+package com.grash.security;
+
+import com.grash.model.Company;
+import com.grash.model.OwnUser;
+import com.grash.model.Role;
+import com.grash.model.enums.PermissionEntity;
+import com.grash.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashSet;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PrincipalCacheTest {
+    @Mock
+    private UserRepository userRepository;
+
+    private PrincipalCache principalCache;
+    private CustomUserDetailsService customUserDetailsService;
+
+    @BeforeEach
+    void setUp() {
+        principalCache = new PrincipalCache("maximumSize=100,expireAfterWrite=5m,recordStats",
+                new SimpleMeterRegistry());
+        customUserDetailsService = new CustomUserDetailsService(userRepository, principalCache);
+        lenient().when(userRepository.findByEmailIgnoreCase(anyString())).thenAnswer(invocation -> {
+            String email = invocation.getArgument(0);
+            return Optional.of(user(Long.parseLong(email.substring(4, email.indexOf('@'))), email));
+        });
+    }
+
+    @Test
+    void testSubjectIsLookedUpOnce() {
+        OwnUser user = customUserDetailsService.loadUserByUsername("user1@grash.com").getUser();
+
+        OwnUser sameUser = customUserDetailsService.loadUserByUsername("USER1@grash.com").getUser();
+        assertEquals(user.getId(), sameUser.getId());
+        verify(userRepository, times(1)).findByEmailIgnoreCase(anyString());
+    }
+
+    @Test
+    void testEachRequestGetsItsOwnCopy() {
+        OwnUser user = customUserDetailsService.loadUserByUsername("user1@grash.com").getUser();
+        user.setPassword("changed");
+
+        OwnUser otherRequestUser = customUserDetailsService.loadUserByUsername("user1@grash.com").getUser();
+        assertNotSame(user, otherRequestUser);
+        assertNull(otherRequestUser.getPassword());
+
+        user.getRole().getViewPermissions().add(PermissionEntity.SETTINGS);
+        user.getCompany().getCompanySettings().getGeneralPreferences().setTimeZone("changed");
+        otherRequestUser = customUserDetailsService.loadUserByUsername("user1@grash.com").getUser();
+        assertNotSame(user.getRole(), otherRequestUser.getRole());
+        assertTrue(otherRequestUser.getRole().getViewPermissions().isEmpty());
+        assertNotSame(user.getCompany(), otherRequestUser.getCompany());
+        assertNull(otherRequestUser.getCompany().getCompanySettings().getGeneralPreferences().getTimeZone());
+        assertSame(otherRequestUser.getCompany(), otherRequestUser.getCompany().getCompanySettings().getCompany());
+    }
+
+    @Test
+    void testInvalidation() {
+        customUserDetailsService.loadUserByUsername("user1@grash.com");
+        customUserDetailsService.loadUserByUsername("user2@grash.com");
+        customUserDetailsService.loadUserByUsername("user3@grash.com");
+
+        principalCache.invalidateUser(1L);
+        customUserDetailsService.loadUserByUsername("user1@grash.com");
+        verify(userRepository, times(4)).findByEmailIgnoreCase(anyString());
+
+        //users 2 and 3 belong to company 1, user 3 has role 3
+        principalCache.invalidateRole(3L);
+        customUserDetailsService.loadUserByUsername("user2@grash.com");
+        customUserDetailsService.loadUserByUsername("user3@grash.com");
+        verify(userRepository, times(5)).findByEmailIgnoreCase(anyString());
+
+        principalCache.invalidateCompany(1L);
+        customUserDetailsService.loadUserByUsername("user1@grash.com");
+        customUserDetailsService.loadUserByUsername("user2@grash.com");
+        customUserDetailsService.loadUserByUsername("user3@grash.com");
+        verify(userRepository, times(7)).findByEmailIgnoreCase(anyString());
+
+        //company 1 has settings 10 and general preferences 100
+        principalCache.invalidateCompanySettings(10L);
+        customUserDetailsService.loadUserByUsername("user2@grash.com");
+        verify(userRepository, times(8)).findByEmailIgnoreCase(anyString());
+        principalCache.invalidateGeneralPreferences(100L);
+        customUserDetailsService.loadUserByUsername("user1@grash.com");
+        customUserDetailsService.loadUserByUsername("user3@grash.com");
+        verify(userRepository, times(9)).findByEmailIgnoreCase(anyString());
+    }
+
+    @Test
+    void testEachUserIsLookedUpOnceUntilInvalidated() {
+        for (int i = 0; i < 100; i++) {
+            customUserDetailsService.loadUserByUsername("user" + (i % 20) + "@grash.com");
+        }
+        verify(userRepository, times(20)).findByEmailIgnoreCase(anyString());
+
+        principalCache.invalidateUser(5L);
+        for (int i = 0; i < 10; i++) {
+            customUserDetailsService.loadUserByUsername("user5@grash.com");
+        }
+        verify(userRepository, times(21)).findByEmailIgnoreCase(anyString());
+        verify(userRepository, times(2)).findByEmailIgnoreCase("user5@grash.com");
+    }
+
+    private static OwnUser user(long id, String email) {
+        OwnUser user = new OwnUser();
+        user.setId(id);
+        user.setEmail(email);
+        user.setEnabled(true);
+        user.setRole(Role.builder().id(id).viewPermissions(new HashSet<>()).build());
+        Company company = new Company();
+        company.setId(id == 1 ? 2L : 1L);
+        company.getCompanySettings().setId(company.getId() * 10);
+        company.getCompanySettings().getGeneralPreferences().setId(company.getId() * 100);
+        user.setCompany(company);
+        return user;
+    }
+}
@@ -0,0 +1,59 @@
+package com.grash.service;
+
+import com.grash.event.AssetDowntimeChangedEvent;
+import com.grash.event.WorkOrderChangedEvent;
+import com.grash.utils.CacheKeyUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.util.Collections;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalyticsCacheServiceTest {
+
+    private CaffeineCacheManager cacheManager;
+    private SimpleMeterRegistry meterRegistry;
+    private AnalyticsCacheService analyticsCacheService;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new CaffeineCacheManager(AnalyticsCacheService.getCacheNames());
+        meterRegistry = new SimpleMeterRegistry();
+        analyticsCacheService = new AnalyticsCacheService(cacheManager, meterRegistry);
+    }
+
+    @Test
+    void testWorkOrderChangeEvictsOnlyTheCompanyEntries() {
+        Date start = new Date(0);
+        Date end = new Date();
+        Cache cache = cacheManager.getCache("getCompleteStats");
+        cache.put(CacheKeyUtils.dateRangeKey(1L, start, end), "company 1");
+        cache.put(CacheKeyUtils.dateRangeKey(12L, start, end), "company 12");
+        cacheManager.getCache("getWOCompleteByWeek").put(CacheKeyUtils.todayKey(1L), "company 1");
+
+        analyticsCacheService.handleWorkOrderChanged(new WorkOrderChangedEvent(1L, Collections.emptyList()));
+
+        assertNull(cache.get(CacheKeyUtils.dateRangeKey(1L, start, end)));
+        assertNull(cacheManager.getCache("getWOCompleteByWeek").get(CacheKeyUtils.todayKey(1L)));
+        assertNotNull(cache.get(CacheKeyUtils.dateRangeKey(12L, start, end)));
+        assertEquals(2, meterRegistry.counter("analytics.cache.invalidations", "cause", "work_order").count());
+    }
+
+    @Test
+    void testDowntimeChangeKeepsWorkOrderEntries() {
+        Date start = new Date(0);
+        Date end = new Date();
+        cacheManager.getCache("getCompleteStats").put(CacheKeyUtils.dateRangeKey(1L, start, end), "stats");
+        cacheManager.getCache("getMTBFByAsset").put(CacheKeyUtils.dateRangeKey(1L, start, end), "mtbf");
+
+        analyticsCacheService.handleAssetDowntimeChanged(new AssetDowntimeChangedEvent(1L));
+
+        assertNotNull(cacheManager.getCache("getCompleteStats").get(CacheKeyUtils.dateRangeKey(1L, start, end)));
+        assertNull(cacheManager.getCache("getMTBFByAsset").get(CacheKeyUtils.dateRangeKey(1L, start, end)));
+    }
+}
@@ -0,0 +1,143 @@
+package com.grash.service;
+
+import com.grash.model.Company;
+import com.grash.repository.CustomSequenceRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomSequenceServiceTest {
+    @Mock
+    private CustomSequenceRepository customSequenceRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private CustomSequenceService customSequenceService;
+
+    @Test
+    void testEachAllocationIsARoundTripWithoutBlocks() {
+        List<Integer> counts = stubRow();
+
+        List<Long> sequences = allocate(5);
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), sequences);
+        assertEquals(List.of(1, 1, 1, 1, 1), counts);
+    }
+
+    @Test
+    void testBlocksServeConsecutiveNumbersUntilTheyAreUsedUp() {
+        ReflectionTestUtils.setField(customSequenceService, "blockSize", 3);
+        List<Integer> counts = stubRow();
+
+        List<Long> sequences = allocate(7);
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L), sequences);
+        assertEquals(List.of(3, 3, 3), counts);
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    void testConcurrentCallersGetEachNumberOnce() throws Exception {
+        int blockSize = 7;
+        int threads = 16;
+        int callsPerThread = 500;
+        ReflectionTestUtils.setField(customSequenceService, "blockSize", blockSize);
+        //atomic like the conditional update on the row
+        AtomicLong row = new AtomicLong(1);
+        when(customSequenceRepository.allocate(eq(1L), eq("WORK_ORDER"), eq(blockSize)))
+                .thenAnswer(invocation -> Optional.of(row.getAndAdd(blockSize)));
+        Company company = company();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<Long>>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                List<Long> sequences = new ArrayList<>();
+                for (int j = 0; j < callsPerThread; j++) {
+                    sequences.add(customSequenceService.getNextWorkOrderSequence(company));
+                }
+                return sequences;
+            }));
+        }
+        start.countDown();
+        List<Long> sequences = new ArrayList<>();
+        for (Future<List<Long>> future : futures) {
+            sequences.addAll(future.get(30, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        int total = threads * callsPerThread;
+        Collections.sort(sequences);
+        assertEquals(LongStream.rangeClosed(1, total).boxed().collect(Collectors.toList()), sequences);
+        verify(customSequenceRepository, times((total + blockSize - 1) / blockSize))
+                .allocate(1L, "WORK_ORDER", blockSize);
+    }
+
+    @Test
+    void testEachCounterHasItsOwnBlock() {
+        ReflectionTestUtils.setField(customSequenceService, "blockSize", 10);
+        when(customSequenceRepository.allocate(1L, "WORK_ORDER", 10)).thenReturn(Optional.of(1L));
+        when(customSequenceRepository.allocate(1L, "ASSET", 10)).thenReturn(Optional.of(21L));
+
+        assertEquals(1L, customSequenceService.getNextWorkOrderSequence(company()));
+        assertEquals(21L, customSequenceService.getNextAssetSequence(company()));
+        assertEquals(2L, customSequenceService.getNextWorkOrderSequence(company()));
+        assertEquals(22L, customSequenceService.getNextAssetSequence(company()));
+    }
+
+    @Test
+    void testCreatesTheRowOfTheCompanyOnFirstAllocation() {
+        when(customSequenceRepository.allocate(1L, "ASSET", 1)).thenReturn(Optional.empty(), Optional.of(1L));
+
+        assertEquals(1L, customSequenceService.getNextAssetSequence(company()));
+        verify(customSequenceRepository).createIfAbsent(1L);
+    }
+
+    //the sequence row, recording the count of each allocation
+    private List<Integer> stubRow() {
+        long[] row = {1};
+        List<Integer> counts = new ArrayList<>();
+        when(customSequenceRepository.allocate(eq(1L), eq("WORK_ORDER"), anyInt())).thenAnswer(invocation -> {
+            int count = invocation.getArgument(2);
+            counts.add(count);
+            row[0] += count;
+            return Optional.of(row[0] - count);
+        });
+        return counts;
+    }
+
+    private List<Long> allocate(int count) {
+        Company company = company();
+        List<Long> sequences = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            sequences.add(customSequenceService.getNextWorkOrderSequence(company));
+        }
+        return sequences;
+    }
+
+    private static Company company() {
+        Company company = new Company();
+        company.setId(1L);
+        return company;
+    }
+}
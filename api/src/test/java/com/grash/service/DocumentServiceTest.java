@@ -0,0 +1,80 @@
+package com.grash.service;
+
+import com.grash.dto.DocumentDTO;
+import com.grash.model.Company;
+import com.grash.model.Document;
+import com.grash.repository.DocumentRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentServiceTest {
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @InjectMocks
+    private DocumentService documentService;
+
+    @Test
+    void testAssemblesTheTreeFromOneRecursiveQuery() {
+        Company company = new Company();
+        company.setId(1L);
+        Document manuals = document(1L, null, true, company);
+        Document pump = document(2L, manuals, true, company);
+        Document notice = document(3L, pump, false, company);
+        Document photos = document(4L, null, true, company);
+        when(documentRepository.findTree("ASSET", 5L, 1L, Integer.MAX_VALUE)).thenReturn(List.of(
+                row(1, 1), row(4, 1), row(2, 2), row(3, 3)));
+        when(documentRepository.findByIdInForTree(anyCollection())).thenReturn(List.of(manuals, pump, notice, photos));
+
+        List<DocumentDTO> tree = documentService.getDocumentTree("ASSET", 5L, 1L);
+
+        assertEquals(List.of(1L, 4L), tree.stream().map(DocumentDTO::getId).toList());
+        DocumentDTO pumpDto = tree.get(0).getChildren().get(0);
+        assertEquals(2L, pumpDto.getId());
+        assertEquals(3L, pumpDto.getChildren().get(0).getId());
+        assertNull(pumpDto.getChildren().get(0).getChildren());
+        assertTrue(tree.get(1).getChildren().isEmpty());
+        verify(documentRepository, never()).findByParentDocumentAndIsActiveTrue(any());
+    }
+
+    @Test
+    void testFoldersOfTheLastLoadedLevelAreLeftToExpand() {
+        Company company = new Company();
+        company.setId(1L);
+        Document manuals = document(1L, null, true, company);
+        Document pump = document(2L, manuals, true, company);
+        when(documentRepository.findSubtree(1L, 1L, 1)).thenReturn(List.<Object[]>of(row(2, 1)));
+        when(documentRepository.findByIdInForTree(anyCollection())).thenReturn(List.of(pump));
+
+        List<DocumentDTO> children = documentService.getDocumentChildren(1L, 1L, 1);
+
+        assertEquals(1, children.size());
+        assertNull(children.get(0).getChildren());
+    }
+
+    private static Object[] row(long id, int depth) {
+        return new Object[]{BigInteger.valueOf(id), depth};
+    }
+
+    private static Document document(Long id, Document parent, boolean folder, Company company) {
+        Document document = new Document();
+        document.setId(id);
+        document.setName("Document " + id);
+        document.setParentDocument(parent);
+        document.setIsFolder(folder);
+        document.setCompany(company);
+        return document;
+    }
+}
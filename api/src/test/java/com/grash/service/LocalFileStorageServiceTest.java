@@ -0,0 +1,82 @@
+package com.grash.service;
+
+import com.grash.exception.CustomException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalFileStorageServiceTest {
+
+    @TempDir
+    Path root;
+
+    private final LocalFileStorageService storageService = new LocalFileStorageService();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(storageService, "root", root.toString());
+        ReflectionTestUtils.setField(storageService, "secretKey", "secret");
+        ReflectionTestUtils.setField(storageService, "apiHost", "http://localhost:8080");
+        ReflectionTestUtils.invokeMethod(storageService, "init");
+    }
+
+    @Test
+    void testIdenticalUploadsShareTheirContent() throws Exception {
+        String first = upload("manual.pdf", "company 1/documents");
+        String second = upload("copy of manual.pdf", "company 2/documents");
+
+        assertNotEquals(first, second);
+        assertArrayEquals(content(), storageService.download(second));
+        try (Stream<Path> files = Files.walk(root)) {
+            assertEquals(1, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    void testDownloadsARange() {
+        String path = upload("manual.pdf", "documents");
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        storageService.download(path, 6, 5, outputStream);
+
+        assertEquals("range", outputStream.toString(StandardCharsets.UTF_8));
+        assertEquals(content().length, storageService.getSize(path));
+    }
+
+    @Test
+    void testOnlyValidatesItsOwnSignatures() {
+        String path = upload("my manual.pdf", "company 1/documents");
+        UriComponents url = UriComponentsBuilder.fromUriString(storageService.generateSignedUrl(path, 10)).build();
+        long expires = Long.parseLong(url.getQueryParams().getFirst("expires"));
+        String signature = url.getQueryParams().getFirst("signature");
+
+        assertEquals("my manual.pdf", LocalFileStorageService.getFileName(path));
+        assertTrue(Files.exists(storageService.getSignedFile(path, expires, signature)));
+        assertThrows(CustomException.class, () -> storageService.getSignedFile(path, expires + 1, signature));
+        assertThrows(CustomException.class,
+                () -> storageService.getSignedFile("company 2/documents/" + path.substring(path.lastIndexOf('/') + 1),
+                        expires, signature));
+    }
+
+    private String upload(String fileName, String folder) {
+        byte[] content = content();
+        return storageService.upload(new ByteArrayInputStream(content), content.length, "application/pdf", fileName,
+                folder);
+    }
+
+    private static byte[] content() {
+        return "pages range of a manual".getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,88 @@
+package com.grash.service;
+
+import com.grash.exception.CustomException;
+import com.grash.model.Part;
+import com.grash.model.PartMovement;
+import com.grash.model.WorkOrder;
+import com.grash.repository.PartMovementRepository;
+import com.grash.repository.PartRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.MessageSource;
+
+import java.util.Locale;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PartServiceTest {
+
+    @Mock
+    private PartRepository partRepository;
+    @Mock
+    private PartMovementRepository partMovementRepository;
+    @Mock
+    private PartConsumptionService partConsumptionService;
+    @Mock
+    private NotificationService notificationService;
+    @Mock
+    private MessageSource messageSource;
+
+    @InjectMocks
+    private PartService partService;
+
+    @Test
+    void testConsumptionRecordsTheQuantityReturnedByTheConditionalUpdate() {
+        when(partRepository.findById(1L)).thenReturn(Optional.of(part(20, 10)));
+        //another consumption got in between the read and the update
+        when(partRepository.addQuantity(1L, -3)).thenReturn(Optional.of(15.0));
+        when(partMovementRepository.save(any(PartMovement.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        partService.consumePart(1L, 3, new WorkOrder(), Locale.ENGLISH);
+
+        ArgumentCaptor<PartMovement> movement = ArgumentCaptor.forClass(PartMovement.class);
+        verify(partMovementRepository).save(movement.capture());
+        assertEquals(15, movement.getValue().getQuantityAfter());
+        verify(partConsumptionService).create(any());
+        verifyNoInteractions(notificationService);
+    }
+
+    @Test
+    void testNotifiesOnlyTheConsumptionThatCrossesTheMinimum() {
+        when(partRepository.findById(1L)).thenReturn(Optional.of(part(12, 10)), Optional.of(part(9, 10)));
+        when(partRepository.addQuantity(1L, -3)).thenReturn(Optional.of(9.0), Optional.of(6.0));
+        when(partMovementRepository.save(any(PartMovement.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        partService.consumePart(1L, 3, new WorkOrder(), Locale.ENGLISH);
+        partService.consumePart(1L, 3, new WorkOrder(), Locale.ENGLISH);
+
+        verify(notificationService, times(1)).createMultiple(anyList(), anyBoolean(), any());
+        verify(partConsumptionService, times(2)).create(any());
+    }
+
+    @Test
+    void testConsumptionAboveTheStockIsRefusedWithoutMovement() {
+        when(partRepository.findById(1L)).thenReturn(Optional.of(part(2, 0)));
+        when(partRepository.addQuantity(1L, -3)).thenReturn(Optional.empty());
+
+        assertThrows(CustomException.class, () -> partService.consumePart(1L, 3, new WorkOrder(), Locale.ENGLISH));
+
+        verifyNoInteractions(partMovementRepository, partConsumptionService, notificationService);
+    }
+
+    private static Part part(double quantity, double minQuantity) {
+        Part part = new Part();
+        part.setId(1L);
+        part.setName("Filter");
+        part.setQuantity(quantity);
+        part.setMinQuantity(minQuantity);
+        return part;
+    }
+}
@@ -0,0 +1,108 @@
+package com.grash.service;
+
+import com.grash.model.*;
+import com.grash.repository.PreventiveMaintenanceOccurrenceRepository;
+import com.grash.repository.ScheduleRepository;
+import com.grash.repository.TaskRepository;
+import com.grash.repository.WorkOrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PreventiveMaintenanceGenerationServiceTest {
+
+    @Mock
+    private PreventiveMaintenanceOccurrenceRepository preventiveMaintenanceOccurrenceRepository;
+    @Mock
+    private ScheduleRepository scheduleRepository;
+    @Mock
+    private TaskRepository taskRepository;
+    @Mock
+    private WorkOrderRepository workOrderRepository;
+    @Mock
+    private WorkOrderService workOrderService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private PreventiveMaintenanceGenerationService preventiveMaintenanceGenerationService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(preventiveMaintenanceGenerationService, "maxDelayMinutes", 60);
+        ReflectionTestUtils.setField(preventiveMaintenanceGenerationService, "notificationWorkers", 1);
+        ReflectionTestUtils.setField(preventiveMaintenanceGenerationService, "notificationQueueCapacity", 10);
+        ReflectionTestUtils.invokeMethod(preventiveMaintenanceGenerationService, "init");
+    }
+
+    @Test
+    void testGeneratesTheWorkOrdersAndTasksOfTheDueOccurrencesOnce() {
+        Company company = new Company();
+        company.setId(1L);
+        Schedule enabled = schedule(1L, company, false);
+        enabled.setDueDateDelay(2);
+        Schedule disabled = schedule(2L, company, true);
+        Date date = new Date(System.currentTimeMillis() - 1000);
+        PreventiveMaintenanceOccurrence due = new PreventiveMaintenanceOccurrence(enabled, 1L, date);
+        PreventiveMaintenanceOccurrence ofDisabled = new PreventiveMaintenanceOccurrence(disabled, 1L, date);
+        Task task = new Task(new TaskBase(), null, enabled.getPreventiveMaintenance(), "value");
+
+        when(preventiveMaintenanceOccurrenceRepository.lockDue(any(Date.class), any(Date.class),
+                eq(PreventiveMaintenanceGenerationService.BATCH_SIZE))).thenReturn(List.of(due, ofDisabled));
+        when(scheduleRepository.findByIdInForScheduling(anyCollection())).thenReturn(List.of(enabled, disabled));
+        when(taskRepository.findByPreventiveMaintenance_IdIn(anyCollection())).thenReturn(List.of(task));
+        when(workOrderService.getWorkOrderFromWorkOrderBase(enabled.getPreventiveMaintenance())).thenAnswer(
+                invocation -> {
+                    WorkOrder workOrder = new WorkOrder();
+                    workOrder.setCompany(company);
+                    return workOrder;
+                });
+        when(workOrderService.getWorkOrderNumbers(company, 1)).thenReturn(List.of("WO000001"));
+        when(workOrderRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<WorkOrder> workOrders = invocation.getArgument(0);
+            workOrders.forEach(workOrder -> workOrder.setId(10L));
+            return workOrders;
+        });
+
+        assertEquals(1, preventiveMaintenanceGenerationService.generateDue());
+
+        assertEquals(10L, due.getWorkOrderId());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<WorkOrder>> workOrders = ArgumentCaptor.forClass(List.class);
+        verify(workOrderRepository).saveAll(workOrders.capture());
+        assertEquals("WO000001", workOrders.getValue().get(0).getCustomId());
+        verify(preventiveMaintenanceOccurrenceRepository).delete(ofDisabled);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Task>> tasks = ArgumentCaptor.forClass(List.class);
+        verify(taskRepository).saveAll(tasks.capture());
+        assertEquals(1, tasks.getValue().size());
+        assertEquals(10L, tasks.getValue().get(0).getWorkOrder().getId());
+        assertNull(tasks.getValue().get(0).getPreventiveMaintenance());
+        verify(workOrderService).publishChange(eq(1L), anyList());
+    }
+
+    private static Schedule schedule(Long id, Company company, boolean disabled) {
+        PreventiveMaintenance preventiveMaintenance = new PreventiveMaintenance();
+        preventiveMaintenance.setId(id);
+        preventiveMaintenance.setCompany(company);
+        Schedule schedule = new Schedule();
+        schedule.setId(id);
+        schedule.setDisabled(disabled);
+        schedule.setPreventiveMaintenance(preventiveMaintenance);
+        return schedule;
+    }
+}
@@ -0,0 +1,54 @@
+package com.grash.service;
+
+import com.grash.repository.PreventiveMaintenanceOccurrenceRepository;
+import com.grash.utils.Helper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class PreventiveMaintenanceOccurrenceServiceTest {
+    @Mock
+    private PreventiveMaintenanceOccurrenceRepository preventiveMaintenanceOccurrenceRepository;
+
+    @InjectMocks
+    private PreventiveMaintenanceOccurrenceService preventiveMaintenanceOccurrenceService;
+
+    @Test
+    void testEventsStartAtTheRequestedStart() {
+        ReflectionTestUtils.setField(preventiveMaintenanceOccurrenceService, "horizonDays", 366);
+        Date start = Helper.incrementDays(new Date(), 30);
+        Date end = Helper.incrementDays(start, 31);
+
+        preventiveMaintenanceOccurrenceService.getEvents(1L, start, end);
+
+        verify(preventiveMaintenanceOccurrenceRepository).findByCompanyAndDateBetween(1L, start, end);
+    }
+
+    @Test
+    void testEventsEndAtTheHorizon() {
+        ReflectionTestUtils.setField(preventiveMaintenanceOccurrenceService, "horizonDays", 10);
+        Date start = Helper.incrementDays(new Date(), -5);
+        Date end = Helper.incrementDays(new Date(), 60);
+
+        Date before = new Date();
+        preventiveMaintenanceOccurrenceService.getEvents(1L, start, end);
+
+        ArgumentCaptor<Date> captor = ArgumentCaptor.forClass(Date.class);
+        verify(preventiveMaintenanceOccurrenceRepository).findByCompanyAndDateBetween(eq(1L), eq(start),
+                captor.capture());
+        assertFalse(captor.getValue().before(Helper.incrementDays(before, 10)));
+        assertTrue(captor.getValue().before(Helper.incrementDays(before, 11)));
+    }
+}
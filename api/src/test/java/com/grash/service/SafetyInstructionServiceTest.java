@@ -99,7 +99,6 @@ class SafetyInstructionServiceTest {
     void testCompleteInstruction() {
         when(safetyInstructionRepository.findById(anyLong())).thenReturn(Optional.of(testInstruction));
         when(safetyInstructionRepository.save(any(SafetyInstruction.class))).thenReturn(testInstruction);
-        when(contractorEmployeeService.findById(anyLong())).thenReturn(Optional.of(testEmployee));
         when(contractorEmployeeService.update(anyLong(), any(ContractorEmployee.class))).thenReturn(testEmployee);
 
         SafetyInstruction completed = safetyInstructionService.completeInstruction(
@@ -113,6 +112,7 @@ class SafetyInstructionServiceTest {
         assertEquals("Test User", completed.getSignatureName());
         verify(safetyInstructionRepository, times(1)).findById(1L);
         verify(safetyInstructionRepository, times(1)).save(testInstruction);
+        verify(contractorEmployeeService, times(1)).update(testEmployee.getId(), testEmployee);
     }
 
     @Test
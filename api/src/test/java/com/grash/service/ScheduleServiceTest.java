@@ -0,0 +1,77 @@
+package com.grash.service;
+
+import com.grash.model.Schedule;
+import com.grash.model.enums.RecurrenceBasedOn;
+import com.grash.model.enums.RecurrenceType;
+import com.grash.utils.Helper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.quartz.*;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+class ScheduleServiceTest {
+
+    @InjectMocks
+    private ScheduleService scheduleService;
+
+    @Test
+    void testFireTimesAreBoundedByTheRangeAndTheEndOfTheSchedule() {
+        Date startsOn = new Date(1_700_000_000_000L);
+        Schedule schedule = new Schedule();
+        schedule.setStartsOn(startsOn);
+        schedule.setFrequency(2);
+        schedule.setRecurrenceType(RecurrenceType.DAILY);
+        schedule.setEndsOn(Helper.incrementDays(startsOn, 9));
+
+        List<Date> fireTimes = scheduleService.getFireTimes(schedule, Helper.incrementDays(startsOn, 1),
+                Helper.incrementDays(startsOn, 30), 100);
+
+        assertEquals(List.of(Helper.incrementDays(startsOn, 2), Helper.incrementDays(startsOn, 4),
+                Helper.incrementDays(startsOn, 6), Helper.incrementDays(startsOn, 8)), fireTimes);
+        assertEquals(2, scheduleService.getFireTimes(schedule, startsOn, Helper.incrementDays(startsOn, 30), 2)
+                .size());
+    }
+
+    @Test
+    void testDisabledAndCompletionBasedSchedulesHaveNoFireTimes() {
+        Date now = new Date();
+        Schedule schedule = new Schedule();
+        schedule.setStartsOn(now);
+        schedule.setRecurrenceBasedOn(RecurrenceBasedOn.COMPLETED_DATE);
+        assertTrue(scheduleService.getFireTimes(schedule, now, Helper.incrementDays(now, 30), 100).isEmpty());
+
+        schedule.setRecurrenceBasedOn(RecurrenceBasedOn.SCHEDULED_DATE);
+        schedule.setDisabled(true);
+        assertTrue(scheduleService.getFireTimes(schedule, now, Helper.incrementDays(now, 30), 100).isEmpty());
+    }
+
+    @Test
+    void testTriggersThatNeverFireAreLeftOutOfTheBatch() {
+        Date startsOn = new Date(1_700_000_000_000L);
+        Schedule schedule = new Schedule();
+        schedule.setId(1L);
+        JobDetail job = JobBuilder.newJob(Job.class).withIdentity("job").storeDurably().build();
+        JobDetail endedJob = JobBuilder.newJob(Job.class).withIdentity("ended-job").storeDurably().build();
+        Trigger trigger = TriggerBuilder.newTrigger().withIdentity("trigger").startAt(startsOn)
+                .withSchedule(SimpleScheduleBuilder.repeatHourlyForever()).build();
+        //ends before its first occurrence
+        Trigger endedTrigger = TriggerBuilder.newTrigger().withIdentity("ended-trigger").startAt(startsOn)
+                .endAt(Helper.incrementDays(startsOn, 1))
+                .withSchedule(CronScheduleBuilder.cronSchedule("0 0 0 1 1 ? 2099")).build();
+
+        Map<JobDetail, Set<? extends Trigger>> jobs = ScheduleService.withFiringTriggers(schedule,
+                Map.of(job, Set.of(trigger, endedTrigger), endedJob, Set.of(endedTrigger)));
+
+        assertEquals(Map.of(job, Set.of(trigger)), jobs);
+    }
+}
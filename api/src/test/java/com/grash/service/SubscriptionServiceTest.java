@@ -0,0 +1,67 @@
+package com.grash.service;
+
+import com.grash.model.Company;
+import com.grash.model.Subscription;
+import com.grash.model.SubscriptionPlan;
+import com.grash.repository.CompanyRepository;
+import com.grash.repository.SubscriptionRepository;
+import com.grash.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SubscriptionServiceTest {
+
+    @Mock
+    private SubscriptionRepository subscriptionRepository;
+    @Mock
+    private CompanyRepository companyRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private SubscriptionPlanService subscriptionPlanService;
+
+    @InjectMocks
+    private SubscriptionService subscriptionService;
+
+    @Test
+    void testExpiresAllTheEndedSubscriptionsPastAFailure() {
+        List<Subscription> firstBatch = subscriptions(1, SubscriptionService.EXPIRY_BATCH_SIZE);
+        List<Subscription> secondBatch = subscriptions(SubscriptionService.EXPIRY_BATCH_SIZE + 1, 3);
+        when(subscriptionRepository.findExpired(any(), eq(0L), any())).thenReturn(firstBatch);
+        when(subscriptionRepository.findExpired(any(), eq((long) SubscriptionService.EXPIRY_BATCH_SIZE), any()))
+                .thenReturn(secondBatch);
+        when(companyRepository.findBySubscription_Id(any())).thenReturn(Optional.of(new Company()));
+        when(companyRepository.findBySubscription_Id(1L)).thenThrow(new IllegalStateException());
+        when(companyRepository.findBySubscription_Id(2L)).thenReturn(Optional.empty());
+        when(subscriptionPlanService.findByCode("FREE")).thenReturn(Optional.of(new SubscriptionPlan()));
+
+        int expired = subscriptionService.expireDue();
+
+        //the failed one and the one without a company are not counted
+        assertEquals(SubscriptionService.EXPIRY_BATCH_SIZE + 1, expired);
+        verify(subscriptionRepository, times(2)).findExpired(any(), any(), any());
+        verify(subscriptionRepository, times(SubscriptionService.EXPIRY_BATCH_SIZE + 1)).save(any());
+    }
+
+    private static List<Subscription> subscriptions(long firstId, int count) {
+        return LongStream.range(firstId, firstId + count).mapToObj(id -> {
+            Subscription subscription = new Subscription();
+            subscription.setId(id);
+            return subscription;
+        }).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,142 @@
+package com.grash.service;
+
+import com.grash.dto.analytics.workOrders.WOCostAggregate;
+import com.grash.dto.analytics.workOrders.WOCostRollup;
+import com.grash.repository.AdditionalCostRepository;
+import com.grash.repository.LaborRepository;
+import com.grash.repository.PartQuantityRepository;
+import com.grash.utils.RecordingJpa;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WorkOrderCostServiceTest {
+
+    @Mock
+    private LaborRepository laborRepository;
+
+    @Mock
+    private PartQuantityRepository partQuantityRepository;
+
+    @Mock
+    private AdditionalCostRepository additionalCostRepository;
+
+    @InjectMocks
+    private WorkOrderCostService workOrderCostService;
+
+    @BeforeEach
+    void setUp() {
+        // every work order has one labor of 2 hours at 30/hour, 10.5 of parts and 4 of additional costs
+        lenient().when(laborRepository.getAggregatesByWorkOrder(anyCollection())).thenAnswer(invocation ->
+                aggregates(invocation.getArgument(0), id -> new Aggregate(id, 60.0, 7200L)));
+        lenient().when(partQuantityRepository.getAggregatesByWorkOrder(anyCollection())).thenAnswer(invocation ->
+                aggregates(invocation.getArgument(0), id -> new Aggregate(id, 10.5, null)));
+        lenient().when(additionalCostRepository.getAggregatesByWorkOrder(anyCollection())).thenAnswer(invocation ->
+                aggregates(invocation.getArgument(0), id -> new Aggregate(id, 4.0, null)));
+    }
+
+    @Test
+    void testCostRollupPerWorkOrderAndTotal() {
+        WOCostRollup rollup = workOrderCostService.getCostRollup(Arrays.asList(1L, 2L, 2L));
+
+        assertEquals(2, rollup.getByWorkOrder().size());
+        assertEquals(60, rollup.get(1L).getLaborCost());
+        assertEquals(7200, rollup.get(1L).getLaborTime());
+        assertEquals(10.5, rollup.get(2L).getPartCost());
+        assertEquals(4.0, rollup.get(2L).getAdditionalCost());
+        assertEquals(120, rollup.getTotal().getLaborCost());
+        assertEquals(14400, rollup.getTotal().getLaborTime());
+        assertEquals(21.0, rollup.getTotal().getPartCost());
+        assertEquals(8.0, rollup.getTotal().getAdditionalCost());
+        assertEquals(149.0, rollup.getTotal().getTotal(true));
+        assertEquals(29.0, rollup.getTotal().getTotal(false));
+        assertEquals(0, rollup.get(3L).getLaborCost());
+    }
+
+    @Test
+    void testEmptyRollupRunsNoQuery() {
+        WOCostRollup rollup = workOrderCostService.getCostRollup(Collections.emptyList());
+
+        assertTrue(rollup.getByWorkOrder().isEmpty());
+        verifyNoInteractions(laborRepository, partQuantityRepository, additionalCostRepository);
+    }
+
+    @Test
+    void testOneQueryPerCostTypeWhateverTheNumberOfWorkOrders() {
+        try (RecordingJpa jpa = new RecordingJpa()) {
+            WorkOrderCostService service = new WorkOrderCostService(jpa.getRepository(LaborRepository.class),
+                    jpa.getRepository(PartQuantityRepository.class),
+                    jpa.getRepository(AdditionalCostRepository.class));
+            for (int n : new int[]{1, 10, 1000}) {
+                jpa.getStatements().clear();
+                List<Long> ids = LongStream.rangeClosed(1, n).boxed().collect(Collectors.toList());
+
+                service.getCostRollup(ids);
+
+                //where loading the costs of each work order ran 3 queries per work order
+                assertEquals(3, jpa.getStatements().size());
+                jpa.getStatements().forEach(statement -> {
+                    assertTrue(statement.getSql().contains("group by"), statement.getSql());
+                    assertEquals(n, statement.getParameters().size());
+                });
+            }
+        }
+    }
+
+    @Test
+    void testQueriesAreChunked() {
+        List<Long> ids = LongStream.rangeClosed(1, WorkOrderCostService.CHUNK_SIZE * 2L + 1).boxed()
+                .collect(Collectors.toList());
+
+        WOCostRollup rollup = workOrderCostService.getCostRollup(ids);
+
+        verify(laborRepository, times(3)).getAggregatesByWorkOrder(anyCollection());
+        verify(partQuantityRepository, times(3)).getAggregatesByWorkOrder(anyCollection());
+        verify(additionalCostRepository, times(3)).getAggregatesByWorkOrder(anyCollection());
+        assertEquals(ids.size(), rollup.getByWorkOrder().size());
+    }
+
+    private static List<WOCostAggregate> aggregates(Collection<Long> ids, Function<Long, WOCostAggregate> mapper) {
+        return ids.stream().map(mapper).collect(Collectors.toList());
+    }
+
+    private static class Aggregate implements WOCostAggregate {
+        private final Long id;
+        private final Double cost;
+        private final Long duration;
+
+        Aggregate(Long id, Double cost, Long duration) {
+            this.id = id;
+            this.cost = cost;
+            this.duration = duration;
+        }
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public Double getCost() {
+            return cost;
+        }
+
+        @Override
+        public Long getDuration() {
+            return duration;
+        }
+    }
+}
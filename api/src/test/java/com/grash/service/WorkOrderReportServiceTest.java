@@ -0,0 +1,205 @@
+package com.grash.service;
+
+import com.grash.advancedsearch.SearchCriteria;
+import com.grash.dto.ReportJobResponse;
+import com.grash.factory.StorageServiceFactory;
+import com.grash.model.Company;
+import com.grash.model.ReportJob;
+import com.grash.model.WorkOrder;
+import com.grash.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.beans.BeanUtils;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.web.multipart.MultipartFile;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.StringTemplateResolver;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class WorkOrderReportServiceTest {
+
+    @Mock
+    private WorkOrderRepository workOrderRepository;
+    @Mock
+    private TaskService taskService;
+    @Mock
+    private PartQuantityService partQuantityService;
+    @Mock
+    private LaborService laborService;
+    @Mock
+    private RelationService relationService;
+    @Mock
+    private AdditionalCostService additionalCostService;
+    @Mock
+    private WorkOrderHistoryService workOrderHistoryService;
+    @Mock
+    private StorageServiceFactory storageServiceFactory;
+    @Mock
+    private StorageService storageService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private BrandingService brandingService;
+    @Mock
+    private WorkOrderService workOrderService;
+    @Mock
+    private TaskRepository taskRepository;
+    @Mock
+    private LaborRepository laborRepository;
+    @Mock
+    private PartQuantityRepository partQuantityRepository;
+    @Mock
+    private AdditionalCostRepository additionalCostRepository;
+    @Mock
+    private RelationRepository relationRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private ReportJobRepository reportJobRepository;
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private Company company;
+
+    @InjectMocks
+    private WorkOrderReportService workOrderReportService;
+
+    private WorkOrder workOrder;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(workOrderReportService, "workers", 1);
+        ReflectionTestUtils.setField(workOrderReportService, "queueCapacity", 5);
+        ReflectionTestUtils.setField(workOrderReportService, "cacheSpec", "maximumSize=100");
+        ReflectionTestUtils.setField(workOrderReportService, "bulkQueueCapacity", 1);
+        ReflectionTestUtils.invokeMethod(workOrderReportService, "init");
+        //renders the template name as the template content
+        SpringTemplateEngine thymeleafTemplateEngine = new SpringTemplateEngine();
+        thymeleafTemplateEngine.setTemplateResolver(new StringTemplateResolver());
+        ReflectionTestUtils.setField(workOrderReportService, "thymeleafTemplateEngine", thymeleafTemplateEngine);
+
+        when(company.getId()).thenReturn(1L);
+        workOrder = new WorkOrder();
+        workOrder.setId(10L);
+        workOrder.setCompany(company);
+        when(workOrderRepository.findById(10L)).thenReturn(Optional.of(workOrder));
+        when(taskService.findByWorkOrder(10L)).thenReturn(Collections.emptyList());
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(storageServiceFactory.getStorageService()).thenReturn(storageService);
+        when(storageService.upload(any(), eq("reports/1"))).thenReturn("reports/1/report.pdf");
+        when(storageService.generateSignedUrl("reports/1/report.pdf", 10)).thenReturn("signed");
+        //the job rows, saved as copies like the database does
+        Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+        when(reportJobRepository.save(any())).thenAnswer(invocation -> {
+            ReportJob job = new ReportJob();
+            BeanUtils.copyProperties(invocation.getArgument(0), job);
+            jobs.put(job.getId(), job);
+            return invocation.getArgument(0);
+        });
+        when(reportJobRepository.findById(anyString())).thenAnswer(invocation ->
+                Optional.ofNullable(jobs.get(invocation.<String>getArgument(0))));
+    }
+
+    @Test
+    void testUnchangedWorkOrderIsRenderedOnce() {
+        when(workOrderRepository.getReportVersion(10L)).thenReturn("3-1000");
+
+        assertEquals("signed", workOrderReportService.getUrl(workOrder, Locale.ENGLISH));
+        assertEquals("signed", workOrderReportService.getUrl(workOrder, Locale.ENGLISH));
+
+        verify(storageService, times(1)).upload(any(), anyString());
+        verify(storageService, times(2)).generateSignedUrl("reports/1/report.pdf", 10);
+    }
+
+    @Test
+    void testChangedWorkOrderIsRenderedAgain() {
+        when(workOrderRepository.getReportVersion(10L)).thenReturn("3-1000", "3-2000");
+
+        workOrderReportService.getUrl(workOrder, Locale.ENGLISH);
+        workOrderReportService.getUrl(workOrder, Locale.ENGLISH);
+
+        verify(storageService, times(2)).upload(any(), anyString());
+    }
+
+    @Test
+    void testJobIsDoneOnceRendered() throws InterruptedException {
+        when(workOrderRepository.getReportVersion(10L)).thenReturn("3-1000");
+
+        String jobId = workOrderReportService.submit(workOrder, Locale.ENGLISH);
+        ReportJobResponse job = workOrderReportService.getJob(jobId, 1L);
+        for (int i = 0; i < 100 && job.getState() == ReportJobResponse.State.PENDING; i++) {
+            Thread.sleep(100);
+            job = workOrderReportService.getJob(jobId, 1L);
+        }
+
+        assertEquals(ReportJobResponse.State.DONE, job.getState());
+        assertEquals("signed", job.getUrl());
+    }
+
+    @Test
+    void testBulkExportZipsTheReportsOfAllBatches() throws InterruptedException {
+        List<WorkOrder> workOrders = new ArrayList<>();
+        for (long id = 1; id <= WorkOrderReportService.BULK_BATCH_SIZE + 2; id++) {
+            WorkOrder bulkWorkOrder = new WorkOrder();
+            bulkWorkOrder.setId(id);
+            bulkWorkOrder.setCompany(company);
+            workOrders.add(bulkWorkOrder);
+        }
+        //pages of the work orders after the id filter of the criteria
+        when(workOrderService.findBySearchCriteria(any())).thenAnswer(invocation -> {
+            SearchCriteria criteria = invocation.getArgument(0);
+            long lastId = (long) criteria.getFilterFields().get(criteria.getFilterFields().size() - 1).getValue();
+            List<WorkOrder> content = workOrders.stream().filter(bulkWorkOrder -> bulkWorkOrder.getId() > lastId)
+                    .limit(criteria.getPageSize()).collect(Collectors.toList());
+            return new PageImpl<>(content, PageRequest.of(0, criteria.getPageSize()), workOrders.size());
+        });
+        List<String> entries = new ArrayList<>();
+        when(storageService.upload(any(), eq("reports/1"))).thenAnswer(invocation -> {
+            MultipartFile file = invocation.getArgument(0);
+            try (ZipInputStream zip = new ZipInputStream(file.getInputStream())) {
+                for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                    entries.add(entry.getName());
+                }
+            }
+            return "reports/1/reports.zip";
+        });
+        when(storageService.generateSignedUrl("reports/1/reports.zip", 10)).thenReturn("signed zip");
+
+        String jobId = workOrderReportService.submitBulk(new SearchCriteria(), 1L, Locale.ENGLISH);
+        ReportJobResponse job = workOrderReportService.getJob(jobId, 1L);
+        for (int i = 0; i < 300 && job.getState() == ReportJobResponse.State.PENDING; i++) {
+            Thread.sleep(100);
+            job = workOrderReportService.getJob(jobId, 1L);
+        }
+
+        assertEquals(ReportJobResponse.State.DONE, job.getState());
+        assertEquals("signed zip", job.getUrl());
+        assertEquals(workOrders.size(), job.getTotal());
+        assertEquals(workOrders.size(), job.getDone());
+        assertEquals(workOrders.size(), entries.size());
+        assertEquals("Work Order 1 - 1.pdf", entries.get(0));
+        //one query per batch and type
+        verify(taskRepository, times(2)).findByWorkOrder_IdInOrderByCreatedAtAsc(any());
+        verify(taskService, never()).findByWorkOrder(anyLong());
+    }
+}
@@ -10,6 +10,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.MessageSource;
 
 import java.util.Arrays;
 import java.util.Locale;
@@ -34,6 +35,9 @@ class WorkOrderServiceSafetyInstructionTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private MessageSource messageSource;
+
     @InjectMocks
     private WorkOrderService workOrderService;
 
@@ -114,6 +118,8 @@ class WorkOrderServiceSafetyInstructionTest {
     @Test
     void testCheckAndWarnContractorEmployeeSafetyInstruction_Invalid() {
         when(safetyInstructionService.isEmployeeInstructionValid(anyLong())).thenReturn(false);
+        when(messageSource.getMessage(anyString(), any(), any(Locale.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
         when(userService.findById(anyLong())).thenReturn(java.util.Optional.of(testCreator));
 
         workOrderService.checkAndWarnContractorEmployeeSafetyInstruction(testWorkOrder, Locale.GERMAN);
@@ -136,6 +142,8 @@ class WorkOrderServiceSafetyInstructionTest {
     @Test
     void testCheckAndWarnContractorEmployeeSafetyInstruction_CreatorNotFound() {
         when(safetyInstructionService.isEmployeeInstructionValid(anyLong())).thenReturn(false);
+        when(messageSource.getMessage(anyString(), any(), any(Locale.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
         when(userService.findById(anyLong())).thenReturn(java.util.Optional.empty());
 
         workOrderService.checkAndWarnContractorEmployeeSafetyInstruction(testWorkOrder, Locale.GERMAN);
@@ -0,0 +1,81 @@
+package com.grash.service;
+
+import com.grash.dto.analytics.workOrders.WOStatusInterval;
+import com.grash.model.enums.Status;
+import com.grash.repository.WorkOrderStatusIntervalRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class WorkOrderStatusIntervalServiceTest {
+
+    @Mock
+    private WorkOrderStatusIntervalRepository workOrderStatusIntervalRepository;
+
+    @InjectMocks
+    private WorkOrderStatusIntervalService workOrderStatusIntervalService;
+
+    @Test
+    void testCountsTheStatusOfEachWorkOrderAtEachDate() {
+        List<Date> dates = List.of(new Date(100), new Date(200), new Date(300));
+        //opened at 50, in progress from 150, complete from 250
+        WOStatusInterval open = interval(50, Status.OPEN, 50L, 150L);
+        WOStatusInterval inProgress = interval(50, Status.IN_PROGRESS, 150L, 250L);
+        WOStatusInterval complete = interval(50, Status.COMPLETE, 250L, null);
+        //created after the first date
+        WOStatusInterval late = interval(180, Status.OPEN, 180L, null);
+        when(workOrderStatusIntervalRepository.findByCompanyAndCreatedAtBetween(eq(1L), any(Date.class),
+                eq(dates.get(2)), eq(100L), eq(300L))).thenReturn(List.of(open, inProgress, complete, late));
+
+        List<Map<Status, Integer>> result = workOrderStatusIntervalService.getStatusCounts(1L, new Date(0), dates);
+
+        assertEquals(Map.of(Status.OPEN, 1), result.get(0));
+        assertEquals(Map.of(Status.IN_PROGRESS, 1, Status.OPEN, 1), result.get(1));
+        assertEquals(Map.of(Status.COMPLETE, 1, Status.OPEN, 1), result.get(2));
+    }
+
+    @Test
+    void testIntervalEndIsExclusive() {
+        List<Date> dates = List.of(new Date(150));
+        when(workOrderStatusIntervalRepository.findByCompanyAndCreatedAtBetween(anyLong(), any(Date.class),
+                any(Date.class), anyLong(), anyLong())).thenReturn(List.of(interval(50, Status.OPEN, 50L, 150L),
+                interval(50, Status.ON_HOLD, 150L, null)));
+
+        List<Map<Status, Integer>> result = workOrderStatusIntervalService.getStatusCounts(1L, new Date(0), dates);
+
+        assertEquals(Map.of(Status.ON_HOLD, 1), result.get(0));
+    }
+
+    private static WOStatusInterval interval(long createdAt, Status status, Long validFrom, Long validTo) {
+        return new WOStatusInterval() {
+            @Override
+            public Date getCreatedAt() {
+                return new Date(createdAt);
+            }
+
+            @Override
+            public Status getStatus() {
+                return status;
+            }
+
+            @Override
+            public Long getValidFrom() {
+                return validFrom;
+            }
+
+            @Override
+            public Long getValidTo() {
+                return validTo;
+            }
+        };
+    }
+}
@@ -0,0 +1,72 @@
+package com.grash.utils;
+
+import com.grash.model.Asset;
+import com.grash.model.Company;
+import com.grash.model.CompanySettings;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ImportLookupsTest {
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private EntityManager em;
+
+    private ImportLookups lookups;
+
+    @BeforeEach
+    void setUp() {
+        Company company = new Company();
+        company.setId(1L);
+        company.getCompanySettings().setId(10L);
+        lookups = new ImportLookups(em, company);
+    }
+
+    @Test
+    void testRenamedAssetIsFoundByItsNewNameOnly() {
+        stubRows("name", List.<Object[]>of(new Object[]{1L, "Pump"}, new Object[]{2L, "Boiler"}));
+        Asset asset = new Asset();
+        when(em.getReference(Asset.class, 1L)).thenReturn(asset);
+
+        lookups.addAsset(asset(1L, "Main pump", null));
+
+        assertSame(asset, lookups.findAsset("main pump").orElseThrow());
+        assertTrue(lookups.findAsset("Pump").isEmpty());
+    }
+
+    @Test
+    void testChangedBarcodeReplacesThePreviousOne() {
+        stubRows("name", List.<Object[]>of());
+        stubRows("barCode", List.<Object[]>of(new Object[]{1L, "A-1"}));
+
+        lookups.addAsset(asset(1L, "Pump", "A-2"));
+
+        assertEquals(Optional.of(1L), lookups.findAssetIdByBarcode("A-2"));
+        assertTrue(lookups.findAssetIdByBarcode("A-1").isEmpty());
+    }
+
+    private void stubRows(String field, List<Object[]> rows) {
+        when(em.createQuery(contains("SELECT e.id, e." + field + " FROM Asset"), eq(Object[].class))
+                .setParameter(anyString(), any()).getResultList()).thenReturn(rows);
+    }
+
+    private static Asset asset(Long id, String name, String barCode) {
+        Asset asset = new Asset();
+        asset.setId(id);
+        asset.setName(name);
+        asset.setBarCode(barCode);
+        return asset;
+    }
+}
@@ -0,0 +1,53 @@
+package com.grash.utils;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+class KeysetIterableTest {
+
+    @Test
+    void testReadsAllChunksAfterTheLastId() {
+        List<Long> ids = LongStream.rangeClosed(1, 25).boxed().collect(Collectors.toList());
+        EntityManager entityManager = mock(EntityManager.class);
+        List<Long> requestedAfter = new ArrayList<>();
+
+        List<Long> result = new ArrayList<>();
+        new KeysetIterable<Long>((lastId, pageable) -> {
+            requestedAfter.add(lastId);
+            return chunk(ids, lastId, pageable);
+        }, Function.identity(), entityManager, 10).forEach(result::add);
+
+        assertEquals(ids, result);
+        assertEquals(List.of(0L, 10L, 20L), requestedAfter);
+        verify(entityManager, times(3)).clear();
+    }
+
+    @Test
+    void testFullLastChunkEndsWithAnEmptyRead() {
+        List<Long> ids = LongStream.rangeClosed(1, 20).boxed().collect(Collectors.toList());
+        List<Long> requestedAfter = new ArrayList<>();
+
+        List<Long> result = new ArrayList<>();
+        new KeysetIterable<Long>((lastId, pageable) -> {
+            requestedAfter.add(lastId);
+            return chunk(ids, lastId, pageable);
+        }, Function.identity(), mock(EntityManager.class), 10).forEach(result::add);
+
+        assertEquals(ids, result);
+        assertEquals(List.of(0L, 10L, 20L), requestedAfter);
+    }
+
+    private static List<Long> chunk(List<Long> ids, Long lastId, Pageable pageable) {
+        return ids.stream().filter(id -> id > lastId).limit(pageable.getPageSize()).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,111 @@
+package com.grash.utils;
+
+import com.grash.security.PrincipalCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.orm.hibernate5.SpringBeanContainer;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Hibernate on the real mappings, over a JDBC driver that records the prepared statements with their parameters and
+ * returns no rows, for the tests of the SQL the repositories issue without a database
+ */
+public class RecordingJpa implements AutoCloseable {
+    private final List<Statement> statements = new ArrayList<>();
+    private final LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+    private final EntityManager entityManager;
+
+    public RecordingJpa() {
+        DataSource dataSource = jdbc(DataSource.class, (method, args) -> method.getName().equals("getConnection")
+                ? jdbc(Connection.class, (connectionMethod, connectionArgs) -> {
+            if (!connectionMethod.getName().equals("prepareStatement")) return null;
+            Statement statement = new Statement((String) connectionArgs[0]);
+            statements.add(statement);
+            return jdbc(PreparedStatement.class, (statementMethod, statementArgs) -> {
+                if (statementMethod.getName().startsWith("set") && statementArgs.length == 2)
+                    statement.parameters.add(statementArgs[1]);
+                return statementMethod.getName().equals("executeQuery")
+                        ? jdbc(ResultSet.class, (resultSetMethod, resultSetArgs) -> null) : null;
+            });
+        }) : null);
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setPackagesToScan("com.grash.model");
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        //the entity listeners are Spring beans
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("principalCache", new PrincipalCache("maximumSize=10",
+                new SimpleMeterRegistry()));
+        factoryBean.setJpaPropertyMap(Map.of(
+                "hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect",
+                "hibernate.temp.use_jdbc_metadata_defaults", "false",
+                "hibernate.id.new_generator_mappings", "false",
+                AvailableSettings.BEAN_CONTAINER, new SpringBeanContainer(beanFactory)));
+        factoryBean.afterPropertiesSet();
+        entityManager = factoryBean.getObject().createEntityManager();
+    }
+
+    public EntityManager getEntityManager() {
+        return entityManager;
+    }
+
+    public <T> T getRepository(Class<T> repositoryInterface) {
+        return new JpaRepositoryFactory(entityManager).getRepository(repositoryInterface);
+    }
+
+    /**
+     * @return the statements prepared so far, in order
+     */
+    public List<Statement> getStatements() {
+        return statements;
+    }
+
+    @Override
+    public void close() {
+        entityManager.close();
+        factoryBean.destroy();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T jdbc(Class<T> type, BiFunction<Method, Object[], Object> handler) {
+        return (T) Proxy.newProxyInstance(RecordingJpa.class.getClassLoader(), new Class[]{type},
+                (proxy, method, args) -> {
+                    Object result = handler.apply(method, args == null ? new Object[0] : args);
+                    if (result != null || !method.getReturnType().isPrimitive()
+                            || method.getReturnType() == void.class) return result;
+                    return MethodHandles.zero(method.getReturnType()).invoke();
+                });
+    }
+
+    public static class Statement {
+        private final String sql;
+        private final List<Object> parameters = new ArrayList<>();
+
+        private Statement(String sql) {
+            this.sql = sql;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public List<Object> getParameters() {
+            return parameters;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.grash.utils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SignedUrlCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SignedUrlCache signedUrls = new SignedUrlCache("maximumSize=100,recordStats", meterRegistry, "test");
+    private final List<Long> signedMinutes = new ArrayList<>();
+
+    @Test
+    void testReusesTheUrlsSignedForTheSameLifetime() {
+        List<String> batches = new ArrayList<>();
+        Map<String, String> urls = signedUrls.getAll(List.of("a", "b"), 180, (paths, minutes) -> {
+            batches.add(String.join(",", paths));
+            Map<String, String> signed = new LinkedHashMap<>();
+            paths.forEach(path -> signed.put(path, sign(path, minutes)));
+            return signed;
+        });
+
+        assertEquals("a-360", urls.get("a"));
+        assertEquals("a-360", signedUrls.get("a", 180, this::sign));
+        assertEquals("c-360", signedUrls.get("c", 180, this::sign));
+        assertEquals("a-20", signedUrls.get("a", 10, this::sign));
+        assertEquals(List.of("a,b"), batches);
+        assertEquals(List.of(360L, 360L, 360L, 20L), signedMinutes);
+        assertEquals(4, meterRegistry.counter("storage.signatures", "storage", "test").count());
+    }
+
+    @Test
+    void testSignsTheLongestLifetimesEachTime() {
+        long week = SignedUrlCache.MAX_SIGNED_MINUTES;
+
+        signedUrls.get("a", week, this::sign);
+        signedUrls.get("a", week, this::sign);
+
+        assertEquals(List.of(week, week), signedMinutes);
+    }
+
+    private String sign(String path, long minutes) {
+        signedMinutes.add(minutes);
+        return path + "-" + minutes;
+    }
+}